@@ -41,4 +41,9 @@ public final class PlatformDetector {
     public static boolean isLowLevel() {
         return false;
     }
+
+    @PlatformMarker(Platforms.COMPACT_STRINGS)
+    public static boolean isCompactStrings() {
+        return false;
+    }
 }
@@ -18,6 +18,7 @@ package org.teavm.classlib.java.lang;
 import java.util.Iterator;
 import java.util.Locale;
 import org.teavm.backend.javascript.spi.GeneratedBy;
+import org.teavm.classlib.PlatformDetector;
 import org.teavm.classlib.java.io.TSerializable;
 import org.teavm.classlib.java.io.TUnsupportedEncodingException;
 import org.teavm.classlib.java.nio.TByteBuffer;
@@ -35,6 +36,8 @@ import org.teavm.interop.NoSideEffects;
 public class TString extends TObject implements TSerializable, TComparable<TString>, TCharSequence {
     public static final TComparator<TString> CASE_INSENSITIVE_ORDER = (o1, o2) -> o1.compareToIgnoreCase(o2);
     private char[] characters;
+    // In compact strings mode holds characters of a string that fits into Latin-1, characters is null then
+    private byte[] latin1;
     private transient int hashCode;
 
     public TString() {
@@ -43,9 +46,18 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
 
     public TString(TString other) {
         characters = other.characters;
+        if (PlatformDetector.isCompactStrings()) {
+            latin1 = other.latin1;
+        }
     }
 
     public TString(char[] characters) {
+        if (PlatformDetector.isCompactStrings()) {
+            latin1 = compress(characters, 0, characters.length);
+            if (latin1 != null) {
+                return;
+            }
+        }
         this.characters = new char[characters.length];
         for (int i = 0; i < characters.length; ++i) {
             this.characters[i] = characters[i];
@@ -53,6 +65,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public TString(char[] value, int offset, int count) {
+        if (PlatformDetector.isCompactStrings()) {
+            latin1 = compress(value, offset, count);
+            if (latin1 != null) {
+                return;
+            }
+        }
         this.characters = new char[count];
         for (int i = 0; i < count; ++i) {
             this.characters[i] = value[i + offset];
@@ -98,6 +116,7 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (charCount < characters.length) {
             characters = TArrays.copyOf(characters, charCount);
         }
+        compact();
     }
 
     private void initWithBytes(byte[] bytes, int offset, int length, TCharset charset) {
@@ -108,6 +127,7 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
             characters = new char[buffer.remaining()];
             buffer.get(characters);
         }
+        compact();
     }
 
     public TString(TStringBuilder sb) {
@@ -122,8 +142,48 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         return new TString(size);
     }
 
+    private TString(int offset, int count, byte[] latin1) {
+        this.latin1 = new byte[count];
+        for (int i = 0; i < count; ++i) {
+            this.latin1[i] = latin1[i + offset];
+        }
+    }
+
+    private static byte[] compress(char[] value, int offset, int count) {
+        for (int i = 0; i < count; ++i) {
+            if (value[offset + i] > 0xFF) {
+                return null;
+            }
+        }
+        byte[] result = new byte[count];
+        for (int i = 0; i < count; ++i) {
+            result[i] = (byte) value[offset + i];
+        }
+        return result;
+    }
+
+    private void compact() {
+        if (PlatformDetector.isCompactStrings()) {
+            byte[] bytes = compress(characters, 0, characters.length);
+            if (bytes != null) {
+                latin1 = bytes;
+                characters = null;
+            }
+        }
+    }
+
+    private char[] utf16() {
+        return PlatformDetector.isCompactStrings() && latin1 != null ? toCharArray() : characters;
+    }
+
     @Override
     public char charAt(int index) {
+        if (PlatformDetector.isCompactStrings() && latin1 != null) {
+            if (index < 0 || index >= latin1.length) {
+                throw new TStringIndexOutOfBoundsException();
+            }
+            return (char) (latin1[index] & 0xFF);
+        }
         if (index < 0 || index >= characters.length) {
             throw new TStringIndexOutOfBoundsException();
         }
@@ -148,17 +208,17 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
 
     @Override
     public int length() {
-        return characters.length;
+        return PlatformDetector.isCompactStrings() && latin1 != null ? latin1.length : characters.length;
     }
 
     public boolean isEmpty() {
-        return characters.length == 0;
+        return length() == 0;
     }
     
     public boolean isBlank() {
         
-        for (int i = 0; i < characters.length; i++) {
-            if (characters[i] != ' ') {
+        for (int i = 0; i < length(); i++) {
+            if (charAt(i) != ' ') {
                 return false;
             }
         }
@@ -176,11 +236,11 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public boolean contentEquals(TStringBuffer buffer) {
-        if (characters.length != buffer.length()) {
+        if (length() != buffer.length()) {
             return false;
         }
-        for (int i = 0; i < characters.length; ++i) {
-            if (characters[i] != buffer.charAt(i)) {
+        for (int i = 0; i < length(); ++i) {
+            if (charAt(i) != buffer.charAt(i)) {
                 return false;
             }
         }
@@ -191,11 +251,11 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (this == charSeq) {
             return true;
         }
-        if (characters.length != charSeq.length()) {
+        if (length() != charSeq.length()) {
             return false;
         }
-        for (int i = 0; i < characters.length; ++i) {
-            if (characters[i] != charSeq.charAt(i)) {
+        for (int i = 0; i < length(); ++i) {
+            if (charAt(i) != charSeq.charAt(i)) {
                 return false;
             }
         }
@@ -300,6 +360,18 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
 
     public int indexOf(int ch, int fromIndex) {
         fromIndex = Math.max(0, fromIndex);
+        if (PlatformDetector.isCompactStrings() && latin1 != null) {
+            int code = latin1Code(ch);
+            if (code >= 0) {
+                byte b = (byte) code;
+                for (int i = fromIndex; i < latin1.length; ++i) {
+                    if (latin1[i] == b) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
         if (ch < TCharacter.MIN_SUPPLEMENTARY_CODE_POINT) {
             char bmpChar = (char) ch;
             for (int i = fromIndex; i < characters.length; ++i) {
@@ -326,6 +398,18 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
 
     public int lastIndexOf(int ch, int fromIndex) {
         fromIndex = Math.min(fromIndex, length() - 1);
+        if (PlatformDetector.isCompactStrings() && latin1 != null) {
+            int code = latin1Code(ch);
+            if (code >= 0) {
+                byte b = (byte) code;
+                for (int i = fromIndex; i >= 0; --i) {
+                    if (latin1[i] == b) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
         if (ch < TCharacter.MIN_SUPPLEMENTARY_CODE_POINT) {
             char bmpChar = (char) ch;
             for (int i = fromIndex; i >= 0; --i) {
@@ -350,6 +434,14 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         return lastIndexOf(ch, length() - 1);
     }
 
+    private static int latin1Code(int ch) {
+        if (ch >= TCharacter.MIN_SUPPLEMENTARY_CODE_POINT) {
+            return -1;
+        }
+        char bmpChar = (char) ch;
+        return bmpChar <= 0xFF ? bmpChar : -1;
+    }
+
     public int indexOf(TString str, int fromIndex) {
         fromIndex = Math.max(0, fromIndex);
         int toIndex = length() - str.length();
@@ -391,6 +483,9 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (beginIndex > endIndex) {
             throw new TIndexOutOfBoundsException();
         }
+        if (PlatformDetector.isCompactStrings() && latin1 != null) {
+            return new TString(beginIndex, endIndex - beginIndex, latin1);
+        }
         return new TString(characters, beginIndex, endIndex - beginIndex);
     }
 
@@ -480,6 +575,13 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public char[] toCharArray() {
+        if (PlatformDetector.isCompactStrings() && latin1 != null) {
+            char[] array = new char[latin1.length];
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = (char) (latin1[i] & 0xFF);
+            }
+            return array;
+        }
         char[] array = new char[characters.length];
         for (int i = 0; i < array.length; ++i) {
             array[i] = characters[i];
@@ -578,7 +680,7 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     }
 
     public byte[] getBytes(TCharset charset) {
-        TByteBuffer buffer = charset.encode(TCharBuffer.wrap(characters));
+        TByteBuffer buffer = charset.encode(TCharBuffer.wrap(utf16()));
         if (buffer.hasArray() && buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
             return buffer.array();
         } else {
@@ -591,6 +693,12 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
     @Override
     public int hashCode() {
         if (hashCode == 0) {
+            if (PlatformDetector.isCompactStrings() && latin1 != null) {
+                for (byte b : latin1) {
+                    hashCode = 31 * hashCode + (b & 0xFF);
+                }
+                return hashCode;
+            }
             for (char c : characters) {
                 hashCode = 31 * hashCode + c;
             }
@@ -602,6 +710,7 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (isEmpty()) {
             return this;
         }
+        char[] characters = utf16();
         int[] codePoints = new int[characters.length];
         int codePointCount = 0;
         for (int i = 0; i < characters.length; ++i) {
@@ -625,6 +734,7 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
         if (isEmpty()) {
             return this;
         }
+        char[] characters = utf16();
         int[] codePoints = new int[characters.length];
         int codePointCount = 0;
         for (int i = 0; i < characters.length; ++i) {
@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import org.teavm.interop.DelegateTo;
+import org.teavm.runtime.GC;
+
+class TGarbageCollectorMXBeanImpl implements TGarbageCollectorMXBean {
+    private boolean full;
+
+    TGarbageCollectorMXBeanImpl(boolean full) {
+        this.full = full;
+    }
+
+    @Override
+    public String getName() {
+        return full ? TManagementFactory.FULL_GC : TManagementFactory.YOUNG_GC;
+    }
+
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+
+    @Override
+    public String[] getMemoryPoolNames() {
+        return new String[] { TManagementFactory.HEAP_POOL };
+    }
+
+    @Override
+    @DelegateTo("getCollectionCountLowLevel")
+    public long getCollectionCount() {
+        return -1;
+    }
+
+    private long getCollectionCountLowLevel() {
+        return GC.getCollectionCount(full);
+    }
+
+    @Override
+    @DelegateTo("getCollectionTimeLowLevel")
+    public long getCollectionTime() {
+        return -1;
+    }
+
+    private long getCollectionTimeLowLevel() {
+        return GC.getCollectionTime(full) / 1000000;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.teavm.classlib.PlatformDetector;
+
+/**
+ * Provides memory and GC statistics of low-level targets (C and WebAssembly). JavaScript target relies
+ * on the garbage collector of the host environment, so it reports no collectors and no pools.
+ */
+public final class TManagementFactory {
+    static final String YOUNG_GC = "Young GC";
+    static final String FULL_GC = "Full GC";
+    static final String HEAP_POOL = "Heap";
+    private static TMemoryMXBean memoryMXBean;
+    private static List<TGarbageCollectorMXBean> garbageCollectorMXBeans;
+    private static List<TMemoryPoolMXBean> memoryPoolMXBeans;
+
+    private TManagementFactory() {
+    }
+
+    public static TMemoryMXBean getMemoryMXBean() {
+        if (memoryMXBean == null) {
+            memoryMXBean = new TMemoryMXBeanImpl();
+        }
+        return memoryMXBean;
+    }
+
+    public static List<TGarbageCollectorMXBean> getGarbageCollectorMXBeans() {
+        if (garbageCollectorMXBeans == null) {
+            garbageCollectorMXBeans = PlatformDetector.isLowLevel()
+                    ? Collections.unmodifiableList(Arrays.asList(new TGarbageCollectorMXBeanImpl(false),
+                            new TGarbageCollectorMXBeanImpl(true)))
+                    : Collections.emptyList();
+        }
+        return garbageCollectorMXBeans;
+    }
+
+    public static List<TMemoryPoolMXBean> getMemoryPoolMXBeans() {
+        if (memoryPoolMXBeans == null) {
+            memoryPoolMXBeans = PlatformDetector.isLowLevel()
+                    ? Collections.singletonList(new TMemoryPoolMXBeanImpl())
+                    : Collections.emptyList();
+        }
+        return memoryPoolMXBeans;
+    }
+}
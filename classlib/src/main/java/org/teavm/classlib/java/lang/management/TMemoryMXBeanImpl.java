@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import org.teavm.interop.DelegateTo;
+import org.teavm.runtime.GC;
+
+class TMemoryMXBeanImpl implements TMemoryMXBean {
+    @Override
+    public int getObjectPendingFinalizationCount() {
+        return 0;
+    }
+
+    @Override
+    @DelegateTo("getHeapMemoryUsageLowLevel")
+    public TMemoryUsage getHeapMemoryUsage() {
+        return new TMemoryUsage(-1, 0, 0, -1);
+    }
+
+    private TMemoryUsage getHeapMemoryUsageLowLevel() {
+        long committed = GC.availableBytes();
+        return new TMemoryUsage(GC.minAvailableBytes(), committed - GC.getFreeMemory(), committed,
+                GC.maxAvailableBytes());
+    }
+
+    @Override
+    public TMemoryUsage getNonHeapMemoryUsage() {
+        return new TMemoryUsage(-1, 0, 0, -1);
+    }
+
+    @Override
+    public void gc() {
+        System.gc();
+    }
+}
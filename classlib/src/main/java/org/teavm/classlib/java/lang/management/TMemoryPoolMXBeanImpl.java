@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import org.teavm.interop.DelegateTo;
+import org.teavm.runtime.GC;
+
+/**
+ * The only memory pool of low-level targets. Usage after collection reports old generation, since every object
+ * that survives a collection gets promoted.
+ */
+class TMemoryPoolMXBeanImpl implements TMemoryPoolMXBean {
+    @Override
+    public String getName() {
+        return TManagementFactory.HEAP_POOL;
+    }
+
+    @Override
+    public boolean isValid() {
+        return true;
+    }
+
+    @Override
+    public TMemoryUsage getUsage() {
+        return TManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    }
+
+    @Override
+    @DelegateTo("getCollectionUsageLowLevel")
+    public TMemoryUsage getCollectionUsage() {
+        return null;
+    }
+
+    private TMemoryUsage getCollectionUsageLowLevel() {
+        return new TMemoryUsage(GC.minAvailableBytes(), GC.getOldGenerationBytes(), GC.getHeapSizeAfterLastCollection(),
+                GC.maxAvailableBytes());
+    }
+
+    @Override
+    public String[] getMemoryManagerNames() {
+        return new String[] { TManagementFactory.YOUNG_GC, TManagementFactory.FULL_GC };
+    }
+}
@@ -26,14 +26,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
+import org.teavm.ast.ControlFlowEntry;
 import org.teavm.ast.InvocationExpr;
+import org.teavm.ast.RegularMethodNode;
 import org.teavm.ast.decompilation.Decompiler;
 import org.teavm.backend.c.analyze.CDependencyListener;
+import org.teavm.backend.c.analyze.InlineCacheAnalysis;
 import org.teavm.backend.c.analyze.InteropDependencyListener;
 import org.teavm.backend.c.generate.BufferedCodeWriter;
 import org.teavm.backend.c.generate.CallSiteGenerator;
@@ -73,6 +80,8 @@ import org.teavm.backend.c.intrinsic.RuntimeClassIntrinsic;
 import org.teavm.backend.c.intrinsic.ShadowStackIntrinsic;
 import org.teavm.backend.c.intrinsic.StringsIntrinsic;
 import org.teavm.backend.c.intrinsic.StructureIntrinsic;
+import org.teavm.backend.lowlevel.GCHeapPolicy;
+import org.teavm.backend.lowlevel.GCOptions;
 import org.teavm.backend.lowlevel.analyze.LowLevelInliningFilterFactory;
 import org.teavm.backend.lowlevel.dependency.ExceptionHandlingDependencyListener;
 import org.teavm.backend.lowlevel.dependency.StringsDependencyListener;
@@ -81,6 +90,9 @@ import org.teavm.backend.lowlevel.generate.NameProvider;
 import org.teavm.backend.lowlevel.generate.NameProviderWithSpecialNames;
 import org.teavm.backend.lowlevel.transform.CoroutineTransformation;
 import org.teavm.backend.lowlevel.transform.WeakReferenceTransformation;
+import org.teavm.cache.AstCacheEntry;
+import org.teavm.cache.AstDependencyExtractor;
+import org.teavm.cache.CacheStatus;
 import org.teavm.cache.EmptyMethodNodeCache;
 import org.teavm.cache.MethodNodeCache;
 import org.teavm.common.JsonUtil;
@@ -94,6 +106,7 @@ import org.teavm.model.ClassHierarchy;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassReader;
+import org.teavm.model.ElementModifier;
 import org.teavm.model.FieldReader;
 import org.teavm.model.FieldReference;
 import org.teavm.model.Instruction;
@@ -121,6 +134,7 @@ import org.teavm.model.lowlevel.LowLevelNullCheckFilter;
 import org.teavm.model.lowlevel.ShadowStackTransformer;
 import org.teavm.model.lowlevel.WriteBarrierInsertion;
 import org.teavm.model.optimization.InliningFilterFactory;
+import org.teavm.model.profile.ExecutionProfile;
 import org.teavm.model.transformation.BoundCheckInsertion;
 import org.teavm.model.transformation.ClassPatch;
 import org.teavm.model.transformation.NullCheckInsertion;
@@ -139,6 +153,8 @@ import org.teavm.vm.BuildTarget;
 import org.teavm.vm.TeaVMEntryPoint;
 import org.teavm.vm.TeaVMTarget;
 import org.teavm.vm.TeaVMTargetController;
+import org.teavm.vm.metrics.CacheMetrics;
+import org.teavm.vm.metrics.CompilerMetrics;
 import org.teavm.vm.spi.TeaVMHostExtension;
 
 public class CTarget implements TeaVMTarget, TeaVMCHost {
@@ -149,7 +165,8 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
             "exceptions.h", "fiber.c", "fiber.h", "file.c", "file.h", "heapdump.c", "heapdump.h", "heaptrace.c",
             "heaptrace.h", "log.c", "log.h", "memory.c", "memory.h", "references.c", "references.h",
             "resource.c", "resource.h", "runtime.h", "stack.c", "stack.h", "string.c", "string.h",
-            "stringhash.c", "stringhash.h", "time.c", "time.h", "virtcall.c", "virtcall.h"
+            "stringhash.c", "stringhash.h", "time.c", "time.h", "virtcall.c", "virtcall.h", "profile.c",
+            "profile.h"
     };
 
     private TeaVMTargetController controller;
@@ -164,6 +181,14 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private ExportDependencyListener exportDependencyListener = new ExportDependencyListener();
     private int minHeapSize = 4 * 1024 * 1024;
     private int maxHeapSize = 128 * 1024 * 1024;
+    private int gcPauseBudget;
+    private GCHeapPolicy gcHeapPolicy = GCHeapPolicy.DEFAULT;
+    private int gcTimeRatio = 19;
+    private int gcMaxPauseTarget = 10000;
+    private int gcFullCollectionInterval = 8;
+    private int gcThreadCount = 1;
+    private int inlineCacheSize = 2;
+    private boolean profileInstrumentation;
     private List<IntrinsicFactory> intrinsicFactories = new ArrayList<>();
     private List<GeneratorFactory> generatorFactories = new ArrayList<>();
     private Characteristics characteristics;
@@ -176,7 +201,10 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
     private boolean longjmpUsed = true;
     private boolean heapDump;
     private boolean obfuscated;
+    private boolean compactStrings;
     private List<CallSiteDescriptor> callSites = new ArrayList<>();
+    private int decompilationThreadCount = 1;
+    private AstDependencyExtractor dependencyExtractor = new AstDependencyExtractor();
 
     public CTarget(NameProvider nameProvider) {
         rawNameProvider = nameProvider;
@@ -190,6 +218,86 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         this.maxHeapSize = maxHeapSize;
     }
 
+    /**
+     * <p>Specifies how long, in microseconds, a single slice of incremental marking may take. When set,
+     * full GC marks heap in slices interleaved with allocations instead of stopping the program for the whole
+     * marking phase. Sweep and defragmentation still run in a single final pause.</p>
+     *
+     * <p>Default value is 0, which means that full GC is stop-the-world.</p>
+     */
+    public void setGcPauseBudget(int gcPauseBudget) {
+        this.gcPauseBudget = GCOptions.checkPauseBudget(gcPauseBudget);
+    }
+
+    /**
+     * Specifies how GC resizes heap after collections. Default is {@link GCHeapPolicy#DEFAULT}.
+     * C programs can override it with {@code TEAVM_GC_POLICY} environment variable, set to {@code default},
+     * {@code throughput} or {@code pause}.
+     */
+    public void setGcHeapPolicy(GCHeapPolicy gcHeapPolicy) {
+        this.gcHeapPolicy = gcHeapPolicy;
+    }
+
+    /**
+     * Specifies GC time ratio used by {@link GCHeapPolicy#THROUGHPUT}: GC may take {@code 1/(1 + ratio)}
+     * of total running time. Default value is 19, i.e. 5%. C programs can override it with
+     * {@code TEAVM_GC_TIME_RATIO} environment variable.
+     */
+    public void setGcTimeRatio(int gcTimeRatio) {
+        this.gcTimeRatio = GCOptions.checkTimeRatio(gcTimeRatio);
+    }
+
+    /**
+     * Specifies pause time goal in microseconds used by {@link GCHeapPolicy#PAUSE}. Default value is 10000.
+     * C programs can override it with {@code TEAVM_GC_MAX_PAUSE} environment variable.
+     */
+    public void setGcMaxPauseTarget(int gcMaxPauseTarget) {
+        this.gcMaxPauseTarget = GCOptions.checkMaxPauseTarget(gcMaxPauseTarget);
+    }
+
+    /**
+     * Specifies how many young collections happen before GC considers full collection. Default value is 8.
+     * C programs can override it with {@code TEAVM_GC_FULL_INTERVAL} environment variable.
+     */
+    public void setGcFullCollectionInterval(int gcFullCollectionInterval) {
+        this.gcFullCollectionInterval = GCOptions.checkFullCollectionInterval(gcFullCollectionInterval);
+    }
+
+    /**
+     * <p>Specifies how many threads sweep heap during full GC. Values greater than 1 require POSIX threads,
+     * so generated code should be linked against pthread library. Mutator code is not affected.</p>
+     *
+     * <p>Default value is 1, which means that GC runs entirely on the program's thread.</p>
+     */
+    public void setGcThreadCount(int gcThreadCount) {
+        this.gcThreadCount = gcThreadCount;
+    }
+
+    /**
+     * <p>Specifies how many receiver classes a virtual call site may have to be compiled with an inline cache,
+     * i.e. a sequence of class checks followed by direct calls, with a virtual table call as a fallback.
+     * Default value is 2, 0 disables inline caches.</p>
+     *
+     * <p>In incremental mode class hierarchy is unknown, so every virtual call site gets a small cache
+     * which is filled at run time, regardless of this value.</p>
+     */
+    public void setInlineCacheSize(int inlineCacheSize) {
+        this.inlineCacheSize = inlineCacheSize;
+    }
+
+    /**
+     * <p>Produces instrumented program that counts invocations of every method and writes them on exit to
+     * a file specified by {@code TEAVM_PROFILE} environment variable, {@code teavm.profile} by default.
+     * Resulting file can be read by {@link ExecutionProfile#read(java.io.Reader)} and passed to
+     * {@link org.teavm.vm.TeaVM#setExecutionProfile(ExecutionProfile)} to build optimized program.</p>
+     *
+     * <p>Inlining is disabled in instrumented program, so that every call is counted.
+     * Instrumentation is not supported in incremental mode.</p>
+     */
+    public void setProfileInstrumentation(boolean profileInstrumentation) {
+        this.profileInstrumentation = profileInstrumentation;
+    }
+
     public void setIncremental(boolean incremental) {
         this.incremental = incremental;
     }
@@ -214,6 +322,35 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         this.obfuscated = obfuscated;
     }
 
+    /**
+     * <p>Specifies whether strings that only contain characters up to U+00FF are stored as Latin-1
+     * byte arrays, like compact strings in JDK 9+. Other strings keep UTF-16 representation.
+     * String literals are emitted in compact form as well.</p>
+     *
+     * <p>This halves memory taken by ASCII-heavy strings at the cost of a check on every character access,
+     * so it is disabled by default.</p>
+     */
+    public void setCompactStrings(boolean compactStrings) {
+        this.compactStrings = compactStrings;
+    }
+
+    /**
+     * <p>Specifies how many threads are used to decompile methods before C code generation.
+     * Default value is 1, which means that methods are decompiled on the calling thread while generating
+     * corresponding classes.</p>
+     *
+     * <p>Code generation itself always runs on the calling thread, since names and string pool
+     * indexes are assigned in generation order.</p>
+     *
+     * @param decompilationThreadCount number of threads, must be positive.
+     */
+    public void setDecompilationThreadCount(int decompilationThreadCount) {
+        if (decompilationThreadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + decompilationThreadCount);
+        }
+        this.decompilationThreadCount = decompilationThreadCount;
+    }
+
     @Override
     public List<ClassHolderTransformer> getTransformers() {
         List<ClassHolderTransformer> transformers = new ArrayList<>();
@@ -277,6 +414,8 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         dependencyAnalyzer.linkMethod(new MethodReference(GC.class, "tryShrink", void.class)).use();
         dependencyAnalyzer.linkMethod(new MethodReference(GC.class, "collectGarbage", void.class)).use();
         dependencyAnalyzer.linkMethod(new MethodReference(GC.class, "collectGarbageFull", void.class)).use();
+        dependencyAnalyzer.linkMethod(new MethodReference(GC.class, "parallelTask", int.class, int.class,
+                void.class)).use();
 
         dependencyAnalyzer.linkMethod(new MethodReference(ExceptionHandling.class, "throwException",
                 Throwable.class, void.class)).use();
@@ -296,6 +435,9 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         dependencyAnalyzer.linkClass("java.lang.String");
         dependencyAnalyzer.linkClass("java.lang.Class");
         dependencyAnalyzer.linkField(new FieldReference("java.lang.String", "hashCode"));
+        if (compactStrings) {
+            dependencyAnalyzer.linkField(new FieldReference("java.lang.String", "latin1"));
+        }
 
         ClassDependency runtimeClassDep = dependencyAnalyzer.linkClass(RuntimeClass.class.getName());
         ClassDependency runtimeObjectDep = dependencyAnalyzer.linkClass(RuntimeObject.class.getName());
@@ -405,7 +547,15 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
                 controller.getDependencyInfo(), stringPool, nameProvider, controller.getDiagnostics(), classes,
                 intrinsics, generators, asyncMethods::contains, buildTarget,
                 controller.getClassInitializerInfo(), incremental, longjmpUsed,
-                vmAssertions, vmAssertions || heapDump, obfuscated);
+                vmAssertions, vmAssertions || heapDump, obfuscated, compactStrings);
+        if (!incremental && inlineCacheSize > 0) {
+            context.setInlineCacheAnalysis(new InlineCacheAnalysis(classes, vtableProvider, inlineCacheSize,
+                    controller.getExecutionProfile()));
+        }
+        boolean profiled = profileInstrumentation && !incremental;
+        if (profiled) {
+            context.setProfiledMethods(getProfiledMethods(classes));
+        }
 
         BufferedCodeWriter specialWriter = new BufferedCodeWriter(false);
         BufferedCodeWriter configHeaderWriter = new BufferedCodeWriter(false);
@@ -429,10 +579,26 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         if (gcStats) {
             configHeaderWriter.println("#define TEAVM_GC_STATS 1");
         }
+        if (gcThreadCount > 1) {
+            configHeaderWriter.println("#define TEAVM_GC_THREADS " + gcThreadCount);
+        }
+        if (profiled) {
+            configHeaderWriter.println("#define TEAVM_PROFILE 1");
+        }
+        if (compactStrings) {
+            configHeaderWriter.println("#define TEAVM_COMPACT_STRINGS 1");
+        }
 
         ClassGenerator classGenerator = new ClassGenerator(context, tagRegistry, decompiler,
                 controller.getCacheStatus());
         classGenerator.setAstCache(astCache);
+        classGenerator.setAstCacheMetrics(controller.getMetrics().getCache(CompilerMetrics.AST_CACHE));
+        if (decompilationThreadCount > 1) {
+            classGenerator.setDecompiledMethods(decompileInParallel(classes));
+            if (controller.wasCancelled()) {
+                return;
+            }
+        }
         if (context.isLongjmp() && !context.isIncremental()) {
             classGenerator.setCallSites(callSites);
         }
@@ -464,6 +630,56 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         generateAllFile(classes, types, buildTarget);
     }
 
+    private Map<MethodReference, RegularMethodNode> decompileInParallel(ListableClassHolderSource classes) {
+        Map<MethodReference, RegularMethodNode> decompiledMethods = new HashMap<>();
+        List<MethodHolder> cacheMisses = new ArrayList<>();
+        CacheStatus cacheStatus = controller.getCacheStatus();
+        CacheMetrics astCacheMetrics = controller.getMetrics().getCache(CompilerMetrics.AST_CACHE);
+        for (String className : classes.getClassNames()) {
+            ClassHolder cls = classes.get(className);
+            if (cls == null) {
+                continue;
+            }
+            for (MethodHolder method : cls.getMethods()) {
+                if (method.hasModifier(ElementModifier.ABSTRACT) || method.hasModifier(ElementModifier.NATIVE)
+                        || method.getProgram() == null) {
+                    continue;
+                }
+                AstCacheEntry entry = !cacheStatus.isStaleMethod(method.getReference())
+                        ? astCache.get(method.getReference(), cacheStatus)
+                        : null;
+                astCacheMetrics.record(entry != null);
+                if (entry != null) {
+                    decompiledMethods.put(method.getReference(), entry.method);
+                } else {
+                    cacheMisses.add(method);
+                }
+            }
+        }
+
+        RegularMethodNode[] methodNodes = new RegularMethodNode[cacheMisses.size()];
+        ThreadLocal<Decompiler> decompilers = ThreadLocal.withInitial(() -> new Decompiler(classes,
+                new HashSet<>(), controller.isFriendlyToDebugger()));
+        ForkJoinPool pool = new ForkJoinPool(decompilationThreadCount);
+        try {
+            pool.invoke(new DecompilationTask(cacheMisses, methodNodes, decompilers, 0, cacheMisses.size()));
+        } finally {
+            pool.shutdown();
+        }
+        if (controller.wasCancelled()) {
+            return decompiledMethods;
+        }
+
+        for (int i = 0; i < methodNodes.length; ++i) {
+            RegularMethodNode methodNode = methodNodes[i];
+            MethodReference method = cacheMisses.get(i).getReference();
+            astCache.store(method, new AstCacheEntry(methodNode, new ControlFlowEntry[0]),
+                    () -> dependencyExtractor.extract(methodNode));
+            decompiledMethods.put(method, methodNode);
+        }
+        return decompiledMethods;
+    }
+
     private void copyResource(String name, BuildTarget buildTarget) throws IOException {
         BufferedCodeWriter writer = new BufferedCodeWriter(false);
         emitResource(writer, name);
@@ -674,6 +890,10 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         generateAllocateStringArray(classContext, writer, includes);
         generateAllocateCharArray(classContext, writer, includes);
         generateCreateString(classContext, writer, includes);
+        if (compactStrings) {
+            generateAllocateByteArray(classContext, writer, includes);
+            generateCreateLatin1String(classContext, writer, includes);
+        }
     }
 
     private void generateThrowCCE(ClassGenerationContext classContext, CodeWriter writer) {
@@ -716,6 +936,33 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         writer.outdent().println("}");
     }
 
+    private void generateAllocateByteArray(ClassGenerationContext context, CodeWriter writer,
+            IncludeManager includes) {
+        NameProvider names = context.getContext().getNames();
+        MethodReference allocMethod = new MethodReference(Allocator.class,
+                "allocateArray", RuntimeClass.class, int.class, Address.class);
+        context.importMethod(allocMethod, true);
+        includes.includeType(ValueType.parse(byte[].class));
+        writer.println("TeaVM_Array* teavm_allocateByteArray(int32_t size) {").indent();
+        String allocateArrayName = names.forMethod(allocMethod);
+        String byteClassName = names.forClassInstance(ValueType.arrayOf(ValueType.BYTE));
+        writer.println("return (TeaVM_Array*) " + allocateArrayName + "(&" + byteClassName + ", size);");
+        writer.outdent().println("}");
+    }
+
+    private void generateCreateLatin1String(ClassGenerationContext context, CodeWriter writer,
+            IncludeManager includes) {
+        NameProvider names = context.getContext().getNames();
+        context.importMethod(CodeGenerationVisitor.ALLOC_METHOD, true);
+        includes.includeClass(String.class.getName());
+        writer.println("TeaVM_String* teavm_createLatin1String(TeaVM_Array* array) {").indent();
+        writer.print("TeaVM_String* str = (TeaVM_String*) ").print(names.forMethod(CodeGenerationVisitor.ALLOC_METHOD))
+                .print("(&").print(names.forClassInstance(ValueType.object("java.lang.String"))).println(");");
+        writer.println("str->latin1 = array;");
+        writer.println("return str;");
+        writer.outdent().println("}");
+    }
+
     private void generateCreateString(ClassGenerationContext context, CodeWriter writer, IncludeManager includes) {
         NameProvider names = context.getContext().getNames();
         context.importMethod(CodeGenerationVisitor.ALLOC_METHOD, true);
@@ -737,6 +984,9 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         includes.includePath("strings.h");
 
         generateArrayOfClassReferences(context, writer, includes, types);
+        if (context.getProfiledMethods() != null) {
+            generateProfiledMethods(context, writer);
+        }
         generateMain(context, writer, includes, classes, types);
         OutputFileUtil.write(writer, "main.c", buildTarget);
     }
@@ -776,6 +1026,7 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         files.add("heaptrace.c");
         files.add("log.c");
         files.add("memory.c");
+        files.add("profile.c");
         files.add("references.c");
         files.add("resource.c");
         files.add("special.c");
@@ -821,6 +1072,53 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         writer.println("int32_t teavm_classReferencesCount = " + types.size() + ";");
     }
 
+    private List<MethodReference> getProfiledMethods(ListableClassHolderSource classes) {
+        List<MethodReference> methods = new ArrayList<>();
+        for (String className : classes.getClassNames()) {
+            ClassHolder cls = classes.get(className);
+            for (MethodHolder method : cls.getMethods()) {
+                if (method.getProgram() != null && method.getProgram().basicBlockCount() > 0) {
+                    methods.add(method.getReference());
+                }
+            }
+        }
+        return methods;
+    }
+
+    private void generateProfiledMethods(GenerationContext context, CodeWriter writer) {
+        List<? extends MethodReference> methods = context.getProfiledMethods();
+        writer.println("int64_t teavm_profile_counters[" + Math.max(1, methods.size()) + "];");
+        writer.print("const char* teavm_profile_methods[" + Math.max(1, methods.size()) + "] = {").indent();
+        boolean first = true;
+        for (MethodReference method : methods) {
+            if (!first) {
+                writer.print(",");
+            }
+            writer.println();
+            first = false;
+            writer.print(toCStringLiteral(method.toString()));
+        }
+        if (!first) {
+            writer.println();
+        }
+        writer.outdent().println("};");
+        writer.println("int32_t teavm_profile_methodCount = " + methods.size() + ";");
+    }
+
+    private static String toCStringLiteral(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if (c >= 32 && c < 127 && c != '"' && c != '\\' && c != '?') {
+                sb.append((char) c);
+            } else {
+                sb.append('\\').append((char) ('0' + (c >> 6))).append((char) ('0' + ((c >> 3) & 7)))
+                        .append((char) ('0' + (c & 7)));
+            }
+        }
+        return sb.append('"').toString();
+    }
+
     private void generateMain(GenerationContext context, CodeWriter writer, IncludeManager includes,
             ListableClassHolderSource classes, List<? extends ValueType> types) {
         Iterator<? extends TeaVMEntryPoint> entryPointIter = controller.getEntryPoints().values().iterator();
@@ -835,6 +1133,14 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
         writer.println("int " + mainFunctionName + "(int argc, char** argv) {").indent();
 
         writer.println("teavm_beforeInit();");
+        if (context.getProfiledMethods() != null) {
+            writer.println("teavm_profile_init();");
+        }
+        writer.println("teavm_gc_pauseBudget = " + gcPauseBudget + ";");
+        writer.println("teavm_gc_heapPolicy = " + gcHeapPolicy.ordinal() + ";");
+        writer.println("teavm_gc_gcTimeRatio = " + gcTimeRatio + ";");
+        writer.println("teavm_gc_maxPauseTarget = " + gcMaxPauseTarget + ";");
+        writer.println("teavm_gc_fullGCInterval = " + gcFullCollectionInterval + ";");
         writer.println("teavm_initHeap(" + minHeapSize + ", " + maxHeapSize + ");");
         generateVirtualTableHeaders(context, writer);
         writer.println("teavm_initStringPool();");
@@ -894,6 +1200,10 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
                 ValueType.object("java.lang.String")) + ";");
         writer.println("teavm_charArrayClass = (TeaVM_Class*) &" + context.getNames().forClassInstance(
                 ValueType.arrayOf(ValueType.CHARACTER)) + ";");
+        if (compactStrings) {
+            writer.println("teavm_byteArrayClass = (TeaVM_Class*) &" + context.getNames().forClassInstance(
+                    ValueType.arrayOf(ValueType.BYTE)) + ";");
+        }
         writer.println("teavm_initClasses();");
     }
 
@@ -955,7 +1265,9 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
 
     @Override
     public String[] getPlatformTags() {
-        return new String[] { Platforms.C, Platforms.LOW_LEVEL };
+        return compactStrings
+                ? new String[] { Platforms.C, Platforms.LOW_LEVEL, Platforms.COMPACT_STRINGS }
+                : new String[] { Platforms.C, Platforms.LOW_LEVEL };
     }
 
     @Override
@@ -965,6 +1277,44 @@ public class CTarget implements TeaVMTarget, TeaVMCHost {
 
     @Override
     public InliningFilterFactory getInliningFilter() {
+        if (profileInstrumentation && !incremental) {
+            return method -> callee -> false;
+        }
         return new LowLevelInliningFilterFactory(characteristics);
     }
+
+    class DecompilationTask extends RecursiveAction {
+        private static final int THRESHOLD = 16;
+        private List<MethodHolder> methods;
+        private RegularMethodNode[] methodNodes;
+        private ThreadLocal<Decompiler> decompilers;
+        private int start;
+        private int end;
+
+        DecompilationTask(List<MethodHolder> methods, RegularMethodNode[] methodNodes,
+                ThreadLocal<Decompiler> decompilers, int start, int end) {
+            this.methods = methods;
+            this.methodNodes = methodNodes;
+            this.decompilers = decompilers;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new DecompilationTask(methods, methodNodes, decompilers, start, middle),
+                        new DecompilationTask(methods, methodNodes, decompilers, middle, end));
+                return;
+            }
+            Decompiler decompiler = decompilers.get();
+            for (int i = start; i < end; ++i) {
+                if (controller.wasCancelled()) {
+                    return;
+                }
+                methodNodes[i] = decompiler.decompileRegular(methods.get(i));
+            }
+        }
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.c.analyze;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ElementModifier;
+import org.teavm.model.ListableClassReaderSource;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.classes.VirtualTable;
+import org.teavm.model.classes.VirtualTableEntry;
+import org.teavm.model.classes.VirtualTableProvider;
+import org.teavm.model.profile.ExecutionProfile;
+
+/**
+ * <p>Chooses receiver classes for inline caches of virtual call sites that devirtualization could not
+ * turn into direct calls. A call site gets a cache if only few classes are assignable to the type
+ * of the receiver.</p>
+ *
+ * <p>When execution profile is available, receivers are checked in order of invocation count of their
+ * implementations. Call sites with more receiver classes get a cache as well, if a single implementation
+ * takes most of the invocations.</p>
+ */
+public class InlineCacheAnalysis {
+    private static final double DOMINANT_FRACTION = 0.9;
+    private static final int MAX_PROFILED_RECEIVERS = 64;
+    private ListableClassReaderSource classes;
+    private VirtualTableProvider vtableProvider;
+    private int limit;
+    private ExecutionProfile profile;
+    private Map<String, List<String>> receiverClasses;
+    private Map<MethodReference, Map<String, MethodReference>> targetCache = new HashMap<>();
+
+    public InlineCacheAnalysis(ListableClassReaderSource classes, VirtualTableProvider vtableProvider, int limit,
+            ExecutionProfile profile) {
+        this.classes = classes;
+        this.vtableProvider = vtableProvider;
+        this.limit = limit;
+        this.profile = profile;
+    }
+
+    /**
+     * Returns receiver classes to check at call site, mapped to implementations to call directly.
+     *
+     * @return map, empty if the call site should not get inline cache.
+     */
+    public Map<String, MethodReference> getTargets(MethodReference method) {
+        return targetCache.computeIfAbsent(method, this::findTargets);
+    }
+
+    private Map<String, MethodReference> findTargets(MethodReference method) {
+        if (receiverClasses == null) {
+            build();
+        }
+        List<String> candidates = receiverClasses.get(method.getClassName());
+        if (candidates == null || candidates.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (candidates.size() > (profile != null ? MAX_PROFILED_RECEIVERS : limit)) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, MethodReference> targets = new LinkedHashMap<>();
+        for (String receiverClass : candidates) {
+            VirtualTable vtable = vtableProvider.lookup(receiverClass);
+            VirtualTableEntry entry = vtable != null ? vtable.getEntry(method.getDescriptor()) : null;
+            if (entry == null || entry.getImplementor() == null) {
+                return Collections.emptyMap();
+            }
+            targets.put(receiverClass, entry.getImplementor());
+        }
+
+        if (profile != null) {
+            targets = sortByProfile(targets);
+        }
+        if (targets.size() > limit) {
+            return Collections.emptyMap();
+        }
+        for (MethodReference implementor : targets.values()) {
+            MethodReader implementorMethod = classes.resolveImplementation(implementor);
+            if (implementorMethod == null || implementorMethod.hasModifier(ElementModifier.ABSTRACT)
+                    || implementorMethod.hasModifier(ElementModifier.NATIVE)) {
+                return Collections.emptyMap();
+            }
+        }
+        return targets;
+    }
+
+    private Map<String, MethodReference> sortByProfile(Map<String, MethodReference> targets) {
+        List<Map.Entry<String, MethodReference>> entries = new ArrayList<>(targets.entrySet());
+        entries.sort((a, b) -> Long.compare(invocationCount(b.getValue()), invocationCount(a.getValue())));
+        Map<String, MethodReference> result = new LinkedHashMap<>();
+        for (Map.Entry<String, MethodReference> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        if (result.size() <= limit) {
+            return result;
+        }
+
+        // Too many receivers, so check only those that share the dominant implementation
+        Set<MethodReference> implementors = new HashSet<>(targets.values());
+        long total = 0;
+        for (MethodReference implementor : implementors) {
+            total += invocationCount(implementor);
+        }
+        MethodReference dominant = entries.get(0).getValue();
+        if (total == 0 || invocationCount(dominant) < total * DOMINANT_FRACTION) {
+            return Collections.emptyMap();
+        }
+        result.values().removeIf(implementor -> !implementor.equals(dominant));
+        return result;
+    }
+
+    private long invocationCount(MethodReference method) {
+        return Math.max(0, profile.getInvocationCount(method));
+    }
+
+    private void build() {
+        receiverClasses = new HashMap<>();
+        for (String className : classes.getClassNames()) {
+            ClassReader cls = classes.get(className);
+            if (cls == null || cls.hasModifier(ElementModifier.ABSTRACT)
+                    || cls.hasModifier(ElementModifier.INTERFACE)) {
+                continue;
+            }
+            addToSupertypes(className, className, new HashSet<>());
+        }
+    }
+
+    private void addToSupertypes(String className, String supertype, Set<String> visited) {
+        if (!visited.add(supertype)) {
+            return;
+        }
+        receiverClasses.computeIfAbsent(supertype, k -> new ArrayList<>()).add(className);
+
+        ClassReader cls = classes.get(supertype);
+        if (cls == null) {
+            return;
+        }
+        if (cls.getParent() != null) {
+            addToSupertypes(className, cls.getParent(), visited);
+        }
+        for (String itf : cls.getInterfaces()) {
+            addToSupertypes(className, itf, visited);
+        }
+    }
+}
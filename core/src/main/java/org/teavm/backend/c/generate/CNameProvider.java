@@ -60,6 +60,7 @@ public class CNameProvider extends LowLevelNameProvider {
         memberFieldNames.put(new FieldReference(RuntimeObject.class.getName(), "hashCode"), "hash");
         memberFieldNames.put(new FieldReference(RuntimeArray.class.getName(), "size"), "size");
         memberFieldNames.put(new FieldReference(String.class.getName(), "characters"), "characters");
+        memberFieldNames.put(new FieldReference(String.class.getName(), "latin1"), "latin1");
         memberFieldNames.put(new FieldReference(String.class.getName(), "hashCode"), "hashCode");
 
         preserveFieldNames(RuntimeClass.class.getName(), "size", "flags", "tag", "canary", "name", "itemType",
@@ -31,6 +31,7 @@ public class ClassGenerationContext {
     private CodeWriter initWriter;
     private Set<MethodReference> importedMethods = new HashSet<>();
     private Map<MethodDescriptor, String> virtualMethodIds = new HashMap<>();
+    private int inlineCacheCount;
 
     public ClassGenerationContext(GenerationContext context, IncludeManager includes, CodeWriter prologueWriter,
             CodeWriter initWriter, String currentClassName) {
@@ -69,4 +70,10 @@ public class ClassGenerationContext {
             return name;
         });
     }
+
+    public String createInlineCache() {
+        String name = "inlineCache_" + context.getNames().forClass(currentClassName) + "_" + inlineCacheCount++;
+        methodIdWriter.println("static TeaVM_VcInlineCache " + name + ";");
+        return name;
+    }
 }
@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.teavm.ast.ControlFlowEntry;
@@ -79,6 +80,7 @@ import org.teavm.runtime.RuntimeClass;
 import org.teavm.runtime.RuntimeObject;
 import org.teavm.runtime.RuntimeReference;
 import org.teavm.runtime.RuntimeReferenceQueue;
+import org.teavm.vm.metrics.CacheMetrics;
 
 public class ClassGenerator {
     private static final Set<String> classesWithDeclaredStructures = new HashSet<>(Arrays.asList(
@@ -104,6 +106,8 @@ public class ClassGenerator {
     private IncludeManager includes;
     private IncludeManager headerIncludes;
     private MethodNodeCache astCache = EmptyMethodNodeCache.INSTANCE;
+    private CacheMetrics astCacheMetrics;
+    private Map<MethodReference, RegularMethodNode> decompiledMethods = Collections.emptyMap();
     private AstDependencyExtractor dependencyExtractor = new AstDependencyExtractor();
     private List<CallSiteDescriptor> callSites;
     private ClassMetadataRequirements metadataRequirements;
@@ -122,6 +126,18 @@ public class ClassGenerator {
         this.astCache = astCache;
     }
 
+    public void setAstCacheMetrics(CacheMetrics astCacheMetrics) {
+        this.astCacheMetrics = astCacheMetrics;
+    }
+
+    /**
+     * Supplies method bodies that were decompiled in advance. Methods found in this map are neither
+     * decompiled nor looked up in AST cache during class generation.
+     */
+    public void setDecompiledMethods(Map<MethodReference, RegularMethodNode> decompiledMethods) {
+        this.decompiledMethods = decompiledMethods;
+    }
+
     public void setCallSites(List<CallSiteDescriptor> callSites) {
         this.callSites = callSites;
     }
@@ -325,16 +341,9 @@ public class ClassGenerator {
             }
 
             generateMethodForwardDeclaration(method);
-            RegularMethodNode methodNode;
-            AstCacheEntry entry = !cacheStatus.isStaleMethod(method.getReference())
-                    ? astCache.get(method.getReference(), cacheStatus)
-                    : null;
-            if (entry == null) {
-                methodNode = decompiler.decompileRegular(method);
-                astCache.store(method.getReference(), new AstCacheEntry(methodNode, new ControlFlowEntry[0]),
-                        () -> dependencyExtractor.extract(methodNode));
-            } else {
-                methodNode = entry.method;
+            RegularMethodNode methodNode = decompiledMethods.get(method.getReference());
+            if (methodNode == null) {
+                methodNode = decompile(method);
             }
 
             List<CallSiteDescriptor> callSites = null;
@@ -355,6 +364,22 @@ public class ClassGenerator {
         }
     }
 
+    private RegularMethodNode decompile(MethodHolder method) {
+        AstCacheEntry entry = !cacheStatus.isStaleMethod(method.getReference())
+                ? astCache.get(method.getReference(), cacheStatus)
+                : null;
+        if (astCacheMetrics != null) {
+            astCacheMetrics.record(entry != null);
+        }
+        if (entry != null) {
+            return entry.method;
+        }
+        RegularMethodNode methodNode = decompiler.decompileRegular(method);
+        astCache.store(method.getReference(), new AstCacheEntry(methodNode, new ControlFlowEntry[0]),
+                () -> dependencyExtractor.extract(methodNode));
+        return methodNode;
+    }
+
     private void addToVirtualTable(MethodReader method) {
         if (!context.isIncremental()) {
             return;
@@ -77,6 +77,7 @@ import org.teavm.ast.UnaryExpr;
 import org.teavm.ast.UnwrapArrayExpr;
 import org.teavm.ast.VariableExpr;
 import org.teavm.ast.WhileStatement;
+import org.teavm.backend.c.analyze.InlineCacheAnalysis;
 import org.teavm.backend.c.analyze.VolatileDefinitionFinder;
 import org.teavm.backend.c.intrinsic.Intrinsic;
 import org.teavm.backend.c.intrinsic.IntrinsicContext;
@@ -632,6 +633,14 @@ public class CodeGenerationVisitor implements ExprVisitor, StatementVisitor {
             closingParenthesis = true;
         }
 
+        Map<String, MethodReference> inlineCache = getInlineCache(reference, arguments);
+        if (!inlineCache.isEmpty()) {
+            writer.print("(");
+            for (Map.Entry<String, MethodReference> entry : inlineCache.entrySet()) {
+                generateInlineCacheCheck(entry.getKey(), entry.getValue(), receiver, arguments);
+            }
+        }
+
         includes.includeClass(vtableClass);
         writer.print("TEAVM_METHOD(")
                 .print(receiver).print(", ")
@@ -643,12 +652,47 @@ public class CodeGenerationVisitor implements ExprVisitor, StatementVisitor {
             arguments.get(i).acceptVisitor(this);
         }
         writer.print(")");
+        if (!inlineCache.isEmpty()) {
+            writer.print(")");
+        }
         if (closingParenthesis) {
             writer.print(")");
             freeTemporaryVariable(CVariableType.PTR);
         }
     }
 
+    private Map<String, MethodReference> getInlineCache(MethodReference reference,
+            List<? extends Expr> arguments) {
+        InlineCacheAnalysis analysis = context.getInlineCacheAnalysis();
+        if (analysis == null) {
+            return Collections.emptyMap();
+        }
+
+        // Arguments are printed once per cache entry, so only allow ones that can be safely duplicated
+        for (int i = 1; i < arguments.size(); ++i) {
+            Expr arg = arguments.get(i);
+            if (!(arg instanceof VariableExpr) && !(arg instanceof ConstantExpr)) {
+                return Collections.emptyMap();
+            }
+        }
+
+        return analysis.getTargets(reference);
+    }
+
+    private void generateInlineCacheCheck(String className, MethodReference method, String receiver,
+            List<? extends Expr> arguments) {
+        includes.includeClass(className);
+        classContext.importMethod(method, false);
+        writer.print("TEAVM_CLASS_OF(").print(receiver).print(") == (TeaVM_Class*) &")
+                .print(names.forClassInstance(ValueType.object(className)))
+                .print(" ? ").print(names.forMethod(method)).print("(").print(receiver);
+        for (int i = 1; i < arguments.size(); ++i) {
+            writer.print(", ");
+            arguments.get(i).acceptVisitor(this);
+        }
+        writer.print(") : ");
+    }
+
     private void generateIncrementalVirtualCall(MethodDescriptor descriptor, List<? extends Expr> arguments) {
         Expr receiverArg = arguments.get(0);
         boolean closingParenthesis = false;
@@ -663,7 +707,8 @@ public class CodeGenerationVisitor implements ExprVisitor, StatementVisitor {
             closingParenthesis = true;
         }
 
-        writer.print("TEAVM_VC_METHOD(").print(receiver)
+        writer.print("TEAVM_VC_CACHED_METHOD(").print(receiver)
+                .print(", &").print(classContext.createInlineCache())
                 .print(", ").print(classContext.getVirtualMethodId(descriptor))
                 .print(", ").printType(descriptor.getResultType())
                 .print(", (");
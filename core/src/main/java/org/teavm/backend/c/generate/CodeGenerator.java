@@ -59,6 +59,10 @@ public class CodeGenerator {
         writer.print(" {").indent().println();
 
         localsWriter = writer.fragment();
+        int profileIndex = context.getProfiledMethodIndex(methodNode.getReference());
+        if (profileIndex >= 0) {
+            writer.println("TEAVM_PROFILE_METHOD(" + profileIndex + ");");
+        }
         CodeGenerationVisitor visitor = generateMethodBody(methodNode);
         generateLocals(methodNode, visitor.getTemporaries(), visitor.getSpilledVariables());
 
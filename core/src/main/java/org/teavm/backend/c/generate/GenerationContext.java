@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
+import org.teavm.backend.c.analyze.InlineCacheAnalysis;
 import org.teavm.backend.c.generators.Generator;
 import org.teavm.backend.c.intrinsic.Intrinsic;
 import org.teavm.backend.lowlevel.generate.NameProvider;
@@ -51,13 +52,17 @@ public class GenerationContext {
     private boolean vmAssertions;
     private boolean heapDump;
     private boolean obfuscated;
+    private boolean compactStrings;
+    private InlineCacheAnalysis inlineCacheAnalysis;
+    private List<? extends MethodReference> profiledMethods;
+    private Map<MethodReference, Integer> profiledMethodIndexes;
 
     public GenerationContext(VirtualTableProvider virtualTableProvider, Characteristics characteristics,
             DependencyInfo dependencies, StringPool stringPool, NameProvider names, Diagnostics diagnostics,
             ClassReaderSource classSource, List<Intrinsic> intrinsics, List<Generator> generators,
             Predicate<MethodReference> asyncMethods, BuildTarget buildTarget,
             ClassInitializerInfo classInitializerInfo, boolean incremental, boolean longjmp, boolean vmAssertions,
-            boolean heapDump, boolean obfuscated) {
+            boolean heapDump, boolean obfuscated, boolean compactStrings) {
         this.virtualTableProvider = virtualTableProvider;
         this.characteristics = characteristics;
         this.dependencies = dependencies;
@@ -75,6 +80,7 @@ public class GenerationContext {
         this.vmAssertions = vmAssertions;
         this.heapDump = heapDump;
         this.obfuscated = obfuscated;
+        this.compactStrings = compactStrings;
     }
 
     public void addIntrinsic(Intrinsic intrinsic) {
@@ -158,4 +164,36 @@ public class GenerationContext {
     public boolean isObfuscated() {
         return obfuscated;
     }
+
+    public boolean isCompactStrings() {
+        return compactStrings;
+    }
+
+    public InlineCacheAnalysis getInlineCacheAnalysis() {
+        return inlineCacheAnalysis;
+    }
+
+    public void setInlineCacheAnalysis(InlineCacheAnalysis inlineCacheAnalysis) {
+        this.inlineCacheAnalysis = inlineCacheAnalysis;
+    }
+
+    public List<? extends MethodReference> getProfiledMethods() {
+        return profiledMethods;
+    }
+
+    public void setProfiledMethods(List<? extends MethodReference> profiledMethods) {
+        this.profiledMethods = profiledMethods;
+        profiledMethodIndexes = new HashMap<>();
+        for (int i = 0; i < profiledMethods.size(); ++i) {
+            profiledMethodIndexes.put(profiledMethods.get(i), i);
+        }
+    }
+
+    public int getProfiledMethodIndex(MethodReference method) {
+        if (profiledMethodIndexes == null) {
+            return -1;
+        }
+        Integer index = profiledMethodIndexes.get(method);
+        return index != null ? index : -1;
+    }
 }
@@ -35,6 +35,10 @@ public class StringPoolGenerator {
             String s = strings.get(i);
             if (s == null) {
                 writer.println("TEAVM_NULL_STRING");
+            } else if (context.isCompactStrings() && isLatin1(s)) {
+                writer.print("TEAVM_STRING_LATIN1(" + s.length() + ", " + s.hashCode() + ",");
+                generateLatin1StringLiteral(writer, s);
+                writer.print(")");
             } else {
                 boolean codes = hasBadCharacters(s);
                 String macroName = codes ? "TEAVM_STRING_FROM_CODES" : "TEAVM_STRING";
@@ -83,6 +87,46 @@ public class StringPoolGenerator {
         return false;
     }
 
+    private boolean isLatin1(String string) {
+        for (int i = 0; i < string.length(); ++i) {
+            if (string.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generateLatin1StringLiteral(CodeWriter writer, String string) {
+        if (string.isEmpty()) {
+            writer.print("\"\"");
+            return;
+        }
+
+        int chunkSize = 256;
+        for (int i = 0; i < string.length(); i += chunkSize) {
+            if (i > 0) {
+                writer.println();
+            }
+            int last = Math.min(i + chunkSize, string.length());
+            writer.print("\"");
+
+            for (int j = i; j < last; ++j) {
+                char c = string.charAt(j);
+                if (c == '\\' || c == '"') {
+                    writer.print("\\" + c);
+                } else if (c < 32 || c > 126 || c == '?') {
+                    // Octal escapes have at most three digits, so they can't swallow the following character
+                    writer.print("\\" + Character.forDigit(c >> 6, 8) + Character.forDigit((c >> 3) & 7, 8)
+                            + Character.forDigit(c & 7, 8));
+                } else {
+                    writer.print(String.valueOf(c));
+                }
+            }
+
+            writer.print("\"");
+        }
+    }
+
     public static void generateSimpleStringLiteral(CodeWriter writer, String string) {
         if (string.isEmpty()) {
             writer.print("\"\"");
@@ -39,6 +39,17 @@ public class GCIntrinsic implements Intrinsic {
             case "resizeHeap":
             case "cardTable":
             case "writeBarrier":
+            case "pauseBudget":
+            case "pauseHistogram":
+            case "currentTimeNanos":
+            case "logCollection":
+            case "gcThreadCount":
+            case "gcThreadData":
+            case "runInParallel":
+            case "heapPolicy":
+            case "gcTimeRatio":
+            case "maxPauseTarget":
+            case "fullGCInterval":
                 return true;
             default:
                 return false;
@@ -60,6 +71,28 @@ public class GCIntrinsic implements Intrinsic {
                 context.writer().print(")");
                 break;
 
+            case "runInParallel":
+                context.writer().print("teavm_gc_runInParallel(");
+                context.emit(invocation.getArguments().get(0));
+                context.writer().print(")");
+                break;
+
+            case "currentTimeNanos":
+                context.includes().includePath("time.h");
+                context.writer().print("teavm_currentTimeNano()");
+                break;
+
+            case "logCollection":
+                context.writer().print("teavm_gc_logCollection(");
+                for (int i = 0; i < invocation.getArguments().size(); ++i) {
+                    if (i > 0) {
+                        context.writer().print(", ");
+                    }
+                    context.emit(invocation.getArguments().get(i));
+                }
+                context.writer().print(")");
+                break;
+
             default:
                 context.includes().includePath("heaptrace.h");
                 context.writer().print("teavm_gc_").print(invocation.getMethod().getName());
@@ -30,9 +30,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Function;
 import org.teavm.ast.AsyncMethodNode;
 import org.teavm.ast.ControlFlowEntry;
@@ -50,6 +53,7 @@ import org.teavm.backend.javascript.decompile.PreparedClass;
 import org.teavm.backend.javascript.decompile.PreparedMethod;
 import org.teavm.backend.javascript.rendering.Renderer;
 import org.teavm.backend.javascript.rendering.RenderingContext;
+import org.teavm.backend.javascript.rendering.RenderingUtil;
 import org.teavm.backend.javascript.rendering.RuntimeRenderer;
 import org.teavm.backend.javascript.spi.GeneratedBy;
 import org.teavm.backend.javascript.spi.Generator;
@@ -57,6 +61,8 @@ import org.teavm.backend.javascript.spi.InjectedBy;
 import org.teavm.backend.javascript.spi.Injector;
 import org.teavm.backend.javascript.spi.VirtualMethodContributor;
 import org.teavm.backend.javascript.spi.VirtualMethodContributorContext;
+import org.teavm.backend.javascript.splitting.CodeChunk;
+import org.teavm.backend.javascript.splitting.CodeSplitter;
 import org.teavm.cache.AstCacheEntry;
 import org.teavm.cache.AstDependencyExtractor;
 import org.teavm.cache.CacheStatus;
@@ -73,6 +79,7 @@ import org.teavm.dependency.DependencyType;
 import org.teavm.dependency.MethodDependency;
 import org.teavm.interop.PlatformMarker;
 import org.teavm.interop.Platforms;
+import org.teavm.interop.SplitPoint;
 import org.teavm.model.AnnotationHolder;
 import org.teavm.model.BasicBlock;
 import org.teavm.model.CallLocation;
@@ -105,6 +112,7 @@ import org.teavm.vm.RenderingException;
 import org.teavm.vm.TeaVMEntryPoint;
 import org.teavm.vm.TeaVMTarget;
 import org.teavm.vm.TeaVMTargetController;
+import org.teavm.vm.metrics.CompilerMetrics;
 import org.teavm.vm.spi.RendererListener;
 import org.teavm.vm.spi.TeaVMHostExtension;
 
@@ -132,6 +140,10 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     private boolean strict;
     private BoundCheckInsertion boundCheckInsertion = new BoundCheckInsertion();
     private NullCheckInsertion nullCheckInsertion = new NullCheckInsertion(NullCheckFilter.EMPTY);
+    private int decompilationThreadCount = 1;
+    private boolean codeSplitting;
+    private final Set<MethodReference> splitPoints = new LinkedHashSet<>();
+    private boolean longAsBigInt;
 
     @Override
     public List<ClassHolderTransformer> getTransformers() {
@@ -215,6 +227,63 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         this.stackTraceIncluded = stackTraceIncluded;
     }
 
+    public boolean isCodeSplitting() {
+        return codeSplitting;
+    }
+
+    /**
+     * <p>Specifies whether methods reachable only through split points are moved out of the main file.
+     * Split points are methods marked with {@link SplitPoint} annotation and methods added by
+     * {@link #addSplitPoint(MethodReference)}.</p>
+     *
+     * <p>Code of each chunk is written to a separate file next to the main one and is loaded synchronously on
+     * first call of any of its methods. Debug information is not generated for chunks.</p>
+     */
+    public void setCodeSplitting(boolean codeSplitting) {
+        this.codeSplitting = codeSplitting;
+    }
+
+    public void addSplitPoint(MethodReference method) {
+        splitPoints.add(method);
+    }
+
+    public boolean isLongAsBigInt() {
+        return longAsBigInt;
+    }
+
+    /**
+     * <p>Specifies whether long values are represented by <code>BigInt</code> and long arithmetic is generated as
+     * inline expressions like <code>BigInt.asIntN(64, a + b)</code> instead of calls to the long emulation
+     * library.</p>
+     *
+     * <p>Generated code requires <code>BigInt</code> support from JavaScript engine and fails to load
+     * otherwise.</p>
+     */
+    public void setLongAsBigInt(boolean longAsBigInt) {
+        this.longAsBigInt = longAsBigInt;
+    }
+
+    public int getDecompilationThreadCount() {
+        return decompilationThreadCount;
+    }
+
+    /**
+     * <p>Specifies how many threads are used to decompile methods into AST before rendering.
+     * Default value is 1, which means that methods are decompiled on the calling thread.</p>
+     *
+     * <p>Decompilation of each method is independent, so the produced JavaScript does not depend on this value.
+     * Rendering itself always runs on the calling thread, since names, string pool and source locations
+     * are assigned in rendering order.</p>
+     *
+     * @param decompilationThreadCount number of threads, must be positive.
+     */
+    public void setDecompilationThreadCount(int decompilationThreadCount) {
+        if (decompilationThreadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + decompilationThreadCount);
+        }
+        this.decompilationThreadCount = decompilationThreadCount;
+    }
+
     @Override
     public List<TeaVMHostExtension> getHostExtensions() {
         return Collections.singletonList(this);
@@ -333,7 +402,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     public void emit(ListableClassHolderSource classes, BuildTarget target, String outputName) {
         try (OutputStream output = target.createResource(outputName);
                 Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
-            emit(classes, writer, target);
+            emit(classes, writer, target, outputName);
         } catch (IOException e) {
             throw new RenderingException(e);
         }
@@ -351,7 +420,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     public void afterOptimizations(Program program, MethodReader method) {
     }
 
-    private void emit(ListableClassHolderSource classes, Writer writer, BuildTarget target) {
+    private void emit(ListableClassHolderSource classes, Writer writer, BuildTarget target, String outputName) {
         List<PreparedClass> clsNodes = modelToAst(classes);
         if (controller.wasCancelled()) {
             return;
@@ -377,6 +446,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
                 controller.getDependencyInfo(), m -> isVirtual(virtualMethodContributorContext, m),
                 controller.getClassInitializerInfo(), strict);
         renderingContext.setMinifying(obfuscated);
+        renderingContext.setLongAsBigInt(longAsBigInt);
         Renderer renderer = new Renderer(sourceWriter, asyncMethods, asyncFamilyMethods,
                 controller.getDiagnostics(), renderingContext);
         RuntimeRenderer runtimeRenderer = new RuntimeRenderer(classes, sourceWriter);
@@ -400,6 +470,14 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         for (Map.Entry<MethodReference, Injector> entry : methodInjectors.entrySet()) {
             renderingContext.addInjector(entry.getKey(), entry.getValue());
         }
+        List<CodeChunk> chunks = codeSplitting ? splitCode(clsNodes) : Collections.emptyList();
+        Map<MethodReference, Integer> methodChunks = new HashMap<>();
+        for (CodeChunk chunk : chunks) {
+            for (MethodReference method : chunk.getMethods()) {
+                methodChunks.put(method, chunk.getIndex());
+            }
+        }
+        renderer.setMethodChunks(methodChunks);
         try {
             printWrapperStart(sourceWriter);
 
@@ -410,11 +488,16 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
 
             renderer.prepare(clsNodes);
             runtimeRenderer.renderRuntime();
+            if (!chunks.isEmpty()) {
+                runtimeRenderer.renderHandWrittenRuntime("chunks.js");
+                renderChunkFiles(sourceWriter, chunks, outputName);
+            }
             sourceWriter.append("var ").append(renderer.getNaming().getScopeName()).ws().append("=").ws()
                     .append("Object.create(null);").newLine();
             if (!renderer.render(clsNodes)) {
                 return;
             }
+            int[] chunkSizes = renderChunks(renderer, builder, chunks, target, outputName);
             runtimeRenderer.renderHandWrittenRuntime("array.js");
             renderer.renderStringPool();
             renderer.renderStringConstants();
@@ -448,11 +531,83 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
 
             int totalSize = sourceWriter.getOffset() - start;
             printStats(renderer, totalSize);
+            if (!chunks.isEmpty()) {
+                writeChunkReport(chunks, chunkSizes, sourceWriter.getOffset(), target, outputName);
+            }
         } catch (IOException e) {
             throw new RenderingException("IO Error occurred", e);
         }
     }
 
+    private List<CodeChunk> splitCode(List<PreparedClass> classes) {
+        List<MethodReference> methods = new ArrayList<>();
+        Set<MethodReference> allSplitPoints = new LinkedHashSet<>(splitPoints);
+        for (PreparedClass cls : classes) {
+            for (PreparedMethod method : cls.getMethods()) {
+                methods.add(method.reference);
+                if (method.methodHolder.getAnnotations().get(SplitPoint.class.getName()) != null) {
+                    allSplitPoints.add(method.reference);
+                }
+            }
+        }
+        for (TeaVMEntryPoint entryPoint : controller.getEntryPoints().values()) {
+            allSplitPoints.remove(entryPoint.getMethod());
+        }
+        return new CodeSplitter(controller.getDependencyInfo().getCallGraph()).split(methods, allSplitPoints);
+    }
+
+    private void renderChunkFiles(SourceWriter writer, List<CodeChunk> chunks, String outputName)
+            throws IOException {
+        writer.append("$rt_chunkFiles").ws().append("=").ws().append("[");
+        for (CodeChunk chunk : chunks) {
+            if (chunk.getIndex() > 0) {
+                writer.append(",").ws();
+            }
+            String fileName = getChunkFileName(outputName, chunk);
+            RenderingUtil.writeString(writer, fileName.substring(fileName.lastIndexOf('/') + 1));
+        }
+        writer.append("];").newLine();
+    }
+
+    private int[] renderChunks(Renderer renderer, SourceWriterBuilder builder, List<CodeChunk> chunks,
+            BuildTarget target, String outputName) throws IOException {
+        int[] sizes = new int[chunks.size()];
+        for (CodeChunk chunk : chunks) {
+            try (OutputStream output = target.createResource(getChunkFileName(outputName, chunk));
+                    Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+                SourceWriter chunkWriter = builder.build(writer);
+                renderer.renderChunk(chunk.getIndex(), chunkWriter);
+                sizes[chunk.getIndex()] = chunkWriter.getOffset();
+            }
+        }
+        return sizes;
+    }
+
+    private void writeChunkReport(List<CodeChunk> chunks, int[] chunkSizes, int mainSize, BuildTarget target,
+            String outputName) throws IOException {
+        try (OutputStream output = target.createResource(getBaseName(outputName) + "-chunks.txt");
+                Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+            writer.write(outputName + ": " + STATS_NUM_FORMAT.format(mainSize) + "\n");
+            for (CodeChunk chunk : chunks) {
+                writer.write(getChunkFileName(outputName, chunk) + ": "
+                        + STATS_NUM_FORMAT.format(chunkSizes[chunk.getIndex()]) + ", "
+                        + chunk.getMethods().size() + " methods\n");
+                for (MethodReference splitPoint : chunk.getSplitPoints()) {
+                    writer.write("    split point " + splitPoint + "\n");
+                }
+            }
+        }
+    }
+
+    private static String getChunkFileName(String outputName, CodeChunk chunk) {
+        return getBaseName(outputName) + "-" + (chunk.getIndex() + 1) + ".js";
+    }
+
+    private static String getBaseName(String outputName) {
+        int index = outputName.lastIndexOf('.');
+        return index > outputName.lastIndexOf('/') ? outputName.substring(0, index) : outputName;
+    }
+
     private void printWrapperStart(SourceWriter writer) throws IOException {
         writer.append("\"use strict\";").newLine();
         for (String key : controller.getEntryPoints().keySet()) {
@@ -505,6 +660,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         Decompiler decompiler = new Decompiler(classes, splitMethods, controller.isFriendlyToDebugger());
 
         List<PreparedClass> classNodes = new ArrayList<>();
+        List<ClassHolder> classHolders = new ArrayList<>();
         for (String className : getClassOrdering(classes)) {
             ClassHolder cls = classes.get(className);
             for (MethodHolder method : cls.getMethods()) {
@@ -513,7 +669,64 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
                     break;
                 }
             }
-            classNodes.add(decompile(decompiler, cls));
+            if (decompilationThreadCount > 1) {
+                classHolders.add(cls);
+            } else {
+                classNodes.add(decompile(decompiler, cls));
+            }
+        }
+        if (decompilationThreadCount > 1) {
+            classNodes = decompileInParallel(classes, classHolders, splitMethods);
+        }
+        return classNodes;
+    }
+
+    private List<PreparedClass> decompileInParallel(ListableClassHolderSource classes,
+            List<ClassHolder> classHolders, Set<MethodReference> splitMethods) {
+        List<PreparedClass> classNodes = new ArrayList<>();
+        List<MethodHolder> cacheMisses = new ArrayList<>();
+        for (ClassHolder cls : classHolders) {
+            PreparedClass clsNode = new PreparedClass(cls);
+            for (MethodHolder method : cls.getMethods()) {
+                if (!isDecompiled(method)) {
+                    continue;
+                }
+                PreparedMethod preparedMethod = method.hasModifier(ElementModifier.NATIVE)
+                        ? decompileNative(method)
+                        : getCachedMethod(method);
+                if (preparedMethod == null) {
+                    cacheMisses.add(method);
+                }
+                clsNode.getMethods().add(preparedMethod);
+            }
+            classNodes.add(clsNode);
+        }
+
+        PreparedMethod[] decompiledMethods = new PreparedMethod[cacheMisses.size()];
+        ThreadLocal<Decompiler> decompilers = ThreadLocal.withInitial(() -> new Decompiler(classes, splitMethods,
+                controller.isFriendlyToDebugger()));
+        ForkJoinPool pool = new ForkJoinPool(decompilationThreadCount);
+        try {
+            pool.invoke(new DecompilationTask(cacheMisses, decompiledMethods, decompilers, 0, cacheMisses.size()));
+        } finally {
+            pool.shutdown();
+        }
+        if (controller.wasCancelled()) {
+            return classNodes;
+        }
+
+        // Fill placeholders left for cache misses in the same order they were collected,
+        // so that cache contents and rendering order are the same as in sequential mode
+        int index = 0;
+        for (PreparedClass clsNode : classNodes) {
+            List<PreparedMethod> methods = clsNode.getMethods();
+            for (int i = 0; i < methods.size(); ++i) {
+                if (methods.get(i) == null) {
+                    PreparedMethod preparedMethod = decompiledMethods[index++];
+                    storeDecompiledMethod(preparedMethod);
+                    methods.set(i, preparedMethod);
+                }
+            }
         }
         return classNodes;
     }
@@ -547,14 +760,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     private PreparedClass decompile(Decompiler decompiler, ClassHolder cls) {
         PreparedClass clsNode = new PreparedClass(cls);
         for (MethodHolder method : cls.getMethods()) {
-            if (method.getModifiers().contains(ElementModifier.ABSTRACT)) {
-                continue;
-            }
-            if ((!isBootstrap() && method.getAnnotations().get(InjectedBy.class.getName()) != null)
-                    || methodInjectors.containsKey(method.getReference())) {
-                continue;
-            }
-            if (!method.hasModifier(ElementModifier.NATIVE) && !method.hasProgram()) {
+            if (!isDecompiled(method)) {
                 continue;
             }
 
@@ -566,6 +772,17 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         return clsNode;
     }
 
+    private boolean isDecompiled(MethodHolder method) {
+        if (method.getModifiers().contains(ElementModifier.ABSTRACT)) {
+            return false;
+        }
+        if ((!isBootstrap() && method.getAnnotations().get(InjectedBy.class.getName()) != null)
+                || methodInjectors.containsKey(method.getReference())) {
+            return false;
+        }
+        return method.hasModifier(ElementModifier.NATIVE) || method.hasProgram();
+    }
+
     private PreparedMethod decompileNative(MethodHolder method) {
         MethodReference reference = method.getReference();
         Generator generator = methodGenerators.get(reference);
@@ -601,6 +818,61 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         }
     }
 
+    private PreparedMethod getCachedMethod(MethodHolder method) {
+        if (astCache == null) {
+            return null;
+        }
+
+        MethodReference reference = method.getReference();
+        CacheStatus cacheStatus = controller.getCacheStatus();
+        if (cacheStatus.isStaleMethod(reference)) {
+            recordAstCacheAccess(false);
+            return null;
+        }
+        if (asyncMethods.contains(reference)) {
+            AsyncMethodNode node = astCache.getAsync(reference, cacheStatus);
+            recordAstCacheAccess(node != null);
+            if (node == null) {
+                return null;
+            }
+            ControlFlowEntry[] cfg = ProgramUtils.getLocationCFG(method.getProgram());
+            return new PreparedMethod(method, node, null, false, cfg);
+        } else {
+            AstCacheEntry entry = astCache.get(reference, cacheStatus);
+            recordAstCacheAccess(entry != null);
+            return entry != null ? new PreparedMethod(method, entry.method, null, false, entry.cfg) : null;
+        }
+    }
+
+    private void recordAstCacheAccess(boolean hit) {
+        controller.getMetrics().getCache(CompilerMetrics.AST_CACHE).record(hit);
+    }
+
+    private PreparedMethod decompileCacheMiss(Decompiler decompiler, MethodHolder method) {
+        if (asyncMethods.contains(method.getReference())) {
+            AsyncMethodNode node = decompiler.decompileAsync(method);
+            ControlFlowEntry[] cfg = ProgramUtils.getLocationCFG(method.getProgram());
+            return new PreparedMethod(method, node, null, false, cfg);
+        } else {
+            AstCacheEntry entry = decompileRegularCacheMiss(decompiler, method);
+            return new PreparedMethod(method, entry.method, null, false, entry.cfg);
+        }
+    }
+
+    private void storeDecompiledMethod(PreparedMethod method) {
+        if (astCache == null) {
+            return;
+        }
+        if (method.node instanceof AsyncMethodNode) {
+            AsyncMethodNode node = (AsyncMethodNode) method.node;
+            astCache.storeAsync(method.reference, node, () -> dependencyExtractor.extract(node));
+        } else {
+            RegularMethodNode node = (RegularMethodNode) method.node;
+            astCache.store(method.reference, new AstCacheEntry(node, method.cfg),
+                    () -> dependencyExtractor.extract(node));
+        }
+    }
+
     private AstCacheEntry decompileRegular(Decompiler decompiler, MethodHolder method) {
         if (astCache == null) {
             return decompileRegularCacheMiss(decompiler, method);
@@ -610,6 +882,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         AstCacheEntry entry = !cacheStatus.isStaleMethod(method.getReference())
                 ? astCache.get(method.getReference(), cacheStatus)
                 : null;
+        recordAstCacheAccess(entry != null);
         if (entry == null) {
             entry = decompileRegularCacheMiss(decompiler, method);
             RegularMethodNode finalNode = entry.method;
@@ -633,6 +906,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         AsyncMethodNode node = !cacheStatus.isStaleMethod(method.getReference())
                 ? astCache.getAsync(method.getReference(), cacheStatus)
                 : null;
+        recordAstCacheAccess(node != null);
         if (node == null) {
             node = decompiler.decompileAsync(method);
             AsyncMethodNode finalNode = node;
@@ -732,6 +1006,41 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         }
     }
 
+    class DecompilationTask extends RecursiveAction {
+        private static final int THRESHOLD = 16;
+        private List<MethodHolder> methods;
+        private PreparedMethod[] decompiledMethods;
+        private ThreadLocal<Decompiler> decompilers;
+        private int start;
+        private int end;
+
+        DecompilationTask(List<MethodHolder> methods, PreparedMethod[] decompiledMethods,
+                ThreadLocal<Decompiler> decompilers, int start, int end) {
+            this.methods = methods;
+            this.decompiledMethods = decompiledMethods;
+            this.decompilers = decompilers;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new DecompilationTask(methods, decompiledMethods, decompilers, start, middle),
+                        new DecompilationTask(methods, decompiledMethods, decompilers, middle, end));
+                return;
+            }
+            Decompiler decompiler = decompilers.get();
+            for (int i = start; i < end; ++i) {
+                if (controller.wasCancelled()) {
+                    return;
+                }
+                decompiledMethods[i] = decompileCacheMiss(decompiler, methods.get(i));
+            }
+        }
+    }
+
     @PlatformMarker
     private static boolean isBootstrap() {
         return false;
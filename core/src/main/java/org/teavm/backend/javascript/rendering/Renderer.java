@@ -65,7 +65,7 @@ import org.teavm.vm.TeaVMProgressFeedback;
 
 public class Renderer implements RenderingManager {
     private final NamingStrategy naming;
-    private final SourceWriter writer;
+    private SourceWriter writer;
     private final ListableClassReaderSource classSource;
     private final ClassLoader classLoader;
     private boolean minifying;
@@ -86,6 +86,8 @@ public class Renderer implements RenderingManager {
 
     private boolean longLibraryUsed;
     private boolean threadLibraryUsed;
+    private Map<MethodReference, Integer> methodChunks = new HashMap<>();
+    private Map<Integer, List<PreparedMethod>> postponedMethods = new HashMap<>();
 
     public Renderer(SourceWriter writer, Set<MethodReference> asyncMethods, Set<MethodReference> asyncFamilyMethods,
             Diagnostics diagnostics, RenderingContext context) {
@@ -172,6 +174,14 @@ public class Renderer implements RenderingManager {
         this.progressConsumer = progressConsumer;
     }
 
+    /**
+     * Sets chunks which bodies of methods are moved to. Instead of moving body, a stub is rendered, which loads
+     * the chunk and then calls the actual method. Bodies are rendered later by {@link #renderChunk(int, SourceWriter)}.
+     */
+    public void setMethodChunks(Map<MethodReference, Integer> methodChunks) {
+        this.methodChunks = new HashMap<>(methodChunks);
+    }
+
     public void setProperties(Properties properties) {
         this.properties.clear();
         this.properties.putAll(properties);
@@ -440,7 +450,13 @@ public class Renderer implements RenderingManager {
             }
 
             for (PreparedMethod method : cls.getMethods()) {
-                renderBody(method);
+                Integer chunk = methodChunks.get(method.reference);
+                if (chunk != null) {
+                    renderChunkStub(method, chunk);
+                    postponedMethods.computeIfAbsent(chunk, k -> new ArrayList<>()).add(method);
+                } else {
+                    renderBody(method);
+                }
             }
         } catch (IOException e) {
             throw new RenderingException("IO error occurred", e);
@@ -875,7 +891,54 @@ public class Renderer implements RenderingManager {
         writer.append(");").ws().append("}");
     }
 
+    private void renderChunkStub(PreparedMethod method, int chunk) throws IOException {
+        ScopedName name = naming.getFullNameFor(method.reference);
+        String qualifiedName = name.scoped ? naming.getScopeName() + "." + name.value : name.value;
+        renderFunctionDeclaration(name);
+        writer.append("()").ws().append("{").indent().softNewLine();
+        writer.append("$rt_loadChunk(").append(chunk).append(");").softNewLine();
+        writer.append("return ").append(qualifiedName).append(".apply(this,").ws().append("arguments);")
+                .softNewLine();
+        writer.outdent().append("}");
+        if (name.scoped) {
+            writer.append(";");
+        }
+        writer.newLine();
+    }
+
+    /**
+     * Renders bodies of methods that were moved to the given chunk. Each body is rendered as an assignment
+     * of a function to the name of the stub.
+     */
+    public void renderChunk(int chunk, SourceWriter chunkWriter) throws RenderingException {
+        SourceWriter mainWriter = writer;
+        DebugInformationEmitter mainDebugEmitter = debugEmitter;
+        writer = chunkWriter;
+        debugEmitter = new DummyDebugInformationEmitter();
+        try {
+            for (PreparedMethod method : postponedMethods.getOrDefault(chunk, new ArrayList<>())) {
+                ScopedName name = naming.getFullNameFor(method.reference);
+                if (name.scoped) {
+                    renderBody(method);
+                } else {
+                    writer.append(name.value).ws().append("=").ws();
+                    renderBody(method, false);
+                    writer.append(";").newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new RenderingException("IO error occurred", e);
+        } finally {
+            writer = mainWriter;
+            debugEmitter = mainDebugEmitter;
+        }
+    }
+
     private void renderBody(PreparedMethod method) throws IOException {
+        renderBody(method, true);
+    }
+
+    private void renderBody(PreparedMethod method, boolean declaration) throws IOException {
         StatementRenderer statementRenderer = new StatementRenderer(context, writer);
         statementRenderer.setCurrentMethod(method.node);
 
@@ -883,7 +946,11 @@ public class Renderer implements RenderingManager {
         debugEmitter.emitMethod(ref.getDescriptor());
         ScopedName name = naming.getFullNameFor(ref);
 
-        renderFunctionDeclaration(name);
+        if (declaration) {
+            renderFunctionDeclaration(name);
+        } else {
+            writer.append("function");
+        }
         writer.append("(");
         int startParam = 0;
         if (method.methodHolder.getModifiers().contains(ElementModifier.STATIC)) {
@@ -909,11 +976,12 @@ public class Renderer implements RenderingManager {
         }
 
         writer.outdent().append("}");
-        if (name.scoped) {
-            writer.append(";");
+        if (declaration) {
+            if (name.scoped) {
+                writer.append(";");
+            }
+            writer.newLine();
         }
-
-        writer.newLine();
         debugEmitter.emitMethod(null);
 
         longLibraryUsed |= statementRenderer.isLongLibraryUsed();
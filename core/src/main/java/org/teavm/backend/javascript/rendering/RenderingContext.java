@@ -63,6 +63,7 @@ public class RenderingContext {
     private final List<String> readonlyStringPool = Collections.unmodifiableList(stringPool);
     private final Map<MethodReference, InjectorHolder> injectorMap = new HashMap<>();
     private boolean minifying;
+    private boolean longAsBigInt;
     private ClassInitializerInfo classInitializerInfo;
     private TextLocation lastEmittedLocation = TextLocation.EMPTY;
     private boolean strict;
@@ -211,6 +212,14 @@ public class RenderingContext {
         return minifying;
     }
 
+    public boolean isLongAsBigInt() {
+        return longAsBigInt;
+    }
+
+    public void setLongAsBigInt(boolean longAsBigInt) {
+        this.longAsBigInt = longAsBigInt;
+    }
+
     public int lookupString(String string) {
         return stringPoolMap.computeIfAbsent(string, key -> {
             stringPool.add(key);
@@ -237,7 +246,13 @@ public class RenderingContext {
             writer.appendFunction("$rt_s").append("(" + index + ")");
         } else if (cst instanceof Long) {
             long value = (Long) cst;
-            if (value == 0) {
+            if (longAsBigInt) {
+                if (value < 0) {
+                    writer.append("(").append(Long.toString(value)).append("n)");
+                } else {
+                    writer.append(Long.toString(value)).append("n");
+                }
+            } else if (value == 0) {
                 writer.appendFunction("Long_ZERO");
             } else if ((int) value == value) {
                 writer.appendFunction("Long_fromInt").append("(").append(String.valueOf(value)).append(")");
@@ -105,6 +105,7 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
     private List<String> blockIds = new ArrayList<>();
     private IntIndexedContainer blockIndexMap = new IntArrayList();
     private boolean longLibraryUsed;
+    private boolean longAsBigInt;
     private static final MethodDescriptor CLINIT_METHOD = new MethodDescriptor("<clinit>", ValueType.VOID);
 
     public StatementRenderer(RenderingContext context, SourceWriter writer) {
@@ -112,6 +113,7 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
         this.writer = writer;
         this.classSource = context.getClassSource();
         this.minifying = context.isMinifying();
+        this.longAsBigInt = context.isLongAsBigInt();
         this.naming = context.getNaming();
         this.debugEmitter = context.getDebugEmitter();
         if (!minifying) {
@@ -660,9 +662,129 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
         }
     }
 
+    private void visitBigIntBinary(BinaryExpr expr) {
+        switch (expr.getOperation()) {
+            case ADD:
+                visitWrappedBigIntBinary(expr, "+");
+                break;
+            case SUBTRACT:
+                visitWrappedBigIntBinary(expr, "-");
+                break;
+            case MULTIPLY:
+                visitWrappedBigIntBinary(expr, "*");
+                break;
+            case DIVIDE:
+                visitWrappedBigIntBinary(expr, "/");
+                break;
+            case MODULO:
+                visitWrappedBigIntBinary(expr, "%");
+                break;
+            case BITWISE_OR:
+                visitBinary(expr, "|", false);
+                break;
+            case BITWISE_AND:
+                visitBinary(expr, "&", false);
+                break;
+            case BITWISE_XOR:
+                visitBinary(expr, "^", false);
+                break;
+            case LEFT_SHIFT:
+                visitBigIntShift(expr, true, false);
+                break;
+            case RIGHT_SHIFT:
+                visitBigIntShift(expr, false, false);
+                break;
+            case UNSIGNED_RIGHT_SHIFT:
+                visitBigIntShift(expr, true, true);
+                break;
+            case COMPARE:
+                visitBinaryFunction(expr, "$rt_compare");
+                break;
+            case EQUALS:
+                visitBinary(expr, "===", false);
+                break;
+            case NOT_EQUALS:
+                visitBinary(expr, "!==", false);
+                break;
+            case LESS:
+                visitBinary(expr, "<", false);
+                break;
+            case LESS_OR_EQUALS:
+                visitBinary(expr, "<=", false);
+                break;
+            case GREATER:
+                visitBinary(expr, ">", false);
+                break;
+            case GREATER_OR_EQUALS:
+                visitBinary(expr, ">=", false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void visitWrappedBigIntBinary(BinaryExpr expr, String op) {
+        try {
+            writer.append("BigInt.asIntN(64,").ws();
+            precedence = Precedence.min();
+            visitBinary(expr, op, false);
+            writer.append(')');
+        } catch (IOException e) {
+            throw new RenderingException("IO error occurred", e);
+        }
+    }
+
+    private void visitBigIntShift(BinaryExpr expr, boolean wrapped, boolean unsigned) {
+        try {
+            if (expr.getLocation() != null) {
+                pushLocation(expr.getLocation());
+            }
+            Precedence outerPrecedence = precedence;
+            boolean parenthesized = !wrapped && outerPrecedence.ordinal() > Precedence.BITWISE_SHIFT.ordinal();
+            if (wrapped) {
+                writer.append("BigInt.asIntN(64,").ws();
+            } else if (parenthesized) {
+                writer.append('(');
+            }
+
+            if (unsigned) {
+                writer.append("BigInt.asUintN(64,").ws();
+                precedence = Precedence.min();
+                expr.getFirstOperand().acceptVisitor(this);
+                writer.append(')');
+            } else {
+                precedence = Precedence.BITWISE_SHIFT;
+                expr.getFirstOperand().acceptVisitor(this);
+            }
+            writer.ws().append(unsigned ? ">>" : expr.getOperation() == BinaryOperation.LEFT_SHIFT ? "<<" : ">>")
+                    .ws();
+
+            Expr shift = expr.getSecondOperand();
+            if (shift instanceof ConstantExpr && ((ConstantExpr) shift).getValue() instanceof Integer) {
+                writer.append(String.valueOf((Integer) ((ConstantExpr) shift).getValue() & 63)).append('n');
+            } else {
+                writer.append("BigInt(");
+                precedence = Precedence.BITWISE_AND;
+                shift.acceptVisitor(this);
+                writer.ws().append('&').ws().append("63)");
+            }
+
+            if (wrapped || parenthesized) {
+                writer.append(')');
+            }
+            if (expr.getLocation() != null) {
+                popLocation();
+            }
+        } catch (IOException e) {
+            throw new RenderingException("IO error occurred", e);
+        }
+    }
+
     @Override
     public void visit(BinaryExpr expr) {
-        if (expr.getType() == OperationType.LONG) {
+        if (expr.getType() == OperationType.LONG && longAsBigInt) {
+            visitBigIntBinary(expr);
+        } else if (expr.getType() == OperationType.LONG) {
             longLibraryUsed = true;
             switch (expr.getOperation()) {
                 case ADD:
@@ -810,7 +932,7 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
             Precedence outerPrecedence = precedence;
             switch (expr.getOperation()) {
                 case NOT: {
-                    if (expr.getType() == OperationType.LONG) {
+                    if (expr.getType() == OperationType.LONG && !longAsBigInt) {
                         longLibraryUsed = true;
                         writer.appendFunction("Long_not").append("(");
                         precedence = Precedence.min();
@@ -830,7 +952,12 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
                     break;
                 }
                 case NEGATE:
-                    if (expr.getType() == OperationType.LONG) {
+                    if (expr.getType() == OperationType.LONG && longAsBigInt) {
+                        writer.append("BigInt.asIntN(64,").ws().append("-");
+                        precedence = Precedence.UNARY;
+                        expr.getOperand().acceptVisitor(this);
+                        writer.append(')');
+                    } else if (expr.getType() == OperationType.LONG) {
                         longLibraryUsed = true;
                         writer.appendFunction("Long_neg").append("(");
                         precedence = Precedence.min();
@@ -961,7 +1088,11 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
             switch (expr.getSource()) {
                 case INT:
                     if (expr.getTarget() == OperationType.LONG) {
-                        writer.appendFunction("Long_fromInt").append("(");
+                        if (longAsBigInt) {
+                            writer.append("BigInt(");
+                        } else {
+                            writer.appendFunction("Long_fromInt").append("(");
+                        }
                         precedence = Precedence.min();
                         expr.getValue().acceptVisitor(this);
                         writer.append(')');
@@ -974,7 +1105,20 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
                         case INT:
                             precedence = Precedence.MEMBER_ACCESS;
                             Expr longShifted = extractLongRightShiftedBy32(expr.getValue());
-                            if (longShifted != null) {
+                            if (longAsBigInt) {
+                                writer.append("Number(");
+                                if (longShifted != null) {
+                                    precedence = Precedence.BITWISE_SHIFT;
+                                    longShifted.acceptVisitor(this);
+                                    writer.ws().append(">>").ws().append("32n");
+                                } else {
+                                    writer.append("BigInt.asIntN(32,").ws();
+                                    precedence = Precedence.min();
+                                    expr.getValue().acceptVisitor(this);
+                                    writer.append(")");
+                                }
+                                writer.append(")");
+                            } else if (longShifted != null) {
                                 writer.appendFunction("Long_hi").append("(");
                                 longShifted.acceptVisitor(this);
                                 writer.append(")");
@@ -986,7 +1130,11 @@ public class StatementRenderer implements ExprVisitor, StatementVisitor {
                             break;
                         case FLOAT:
                         case DOUBLE:
-                            writer.appendFunction("Long_toNumber").append("(");
+                            if (longAsBigInt) {
+                                writer.append("Number(");
+                            } else {
+                                writer.appendFunction("Long_toNumber").append("(");
+                            }
                             precedence = Precedence.min();
                             expr.getValue().acceptVisitor(this);
                             writer.append(')');
@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.teavm.model.MethodReference;
+
+public class CodeChunk {
+    private int index;
+    private List<MethodReference> splitPoints = new ArrayList<>();
+    private List<MethodReference> readonlySplitPoints = Collections.unmodifiableList(splitPoints);
+    private List<MethodReference> methods = new ArrayList<>();
+    private List<MethodReference> readonlyMethods = Collections.unmodifiableList(methods);
+
+    CodeChunk(int index) {
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets split points this chunk was produced for. A chunk with several split points contains
+     * methods that are shared between these split points.
+     */
+    public List<MethodReference> getSplitPoints() {
+        return readonlySplitPoints;
+    }
+
+    public List<MethodReference> getMethods() {
+        return readonlyMethods;
+    }
+
+    void addSplitPoint(MethodReference method) {
+        splitPoints.add(method);
+    }
+
+    void addMethod(MethodReference method) {
+        methods.add(method);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.callgraph.CallGraphNode;
+import org.teavm.callgraph.CallSite;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Partitions methods into the initial part of the program and lazily loaded chunks.</p>
+ *
+ * <p>A method goes to a chunk if it is reachable from split points only, i.e. every path to it
+ * from a method that is not reachable from any split point goes through some split point. Methods reachable
+ * from a single split point form a chunk of that split point, methods reachable from several split points are
+ * put into a chunk shared by exactly this set of split points.</p>
+ *
+ * <p>The call graph does not contain calls from native code and reflection, so partition is not exact.
+ * This is not a problem for correctness, since the code of a chunk is loaded on first call of any of its methods,
+ * but a method that is called early from the native code is better to be kept in the initial part.</p>
+ */
+public class CodeSplitter {
+    private CallGraph callGraph;
+
+    public CodeSplitter(CallGraph callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    public List<CodeChunk> split(Collection<? extends MethodReference> methods,
+            Collection<? extends MethodReference> splitPoints) {
+        Set<MethodReference> methodSet = new HashSet<>(methods);
+        List<MethodReference> sortedSplitPoints = new ArrayList<>(new LinkedHashSet<>(splitPoints));
+        sortedSplitPoints.removeIf(method -> !methodSet.contains(method));
+        sortedSplitPoints.sort(Comparator.comparing(MethodReference::toString));
+        Set<MethodReference> splitPointSet = new HashSet<>(sortedSplitPoints);
+
+        Map<MethodReference, Set<MethodReference>> owners = new LinkedHashMap<>();
+        for (MethodReference splitPoint : sortedSplitPoints) {
+            for (MethodReference method : reach(Collections.singletonList(splitPoint), methodSet, splitPointSet)) {
+                owners.computeIfAbsent(method, k -> new LinkedHashSet<>()).add(splitPoint);
+            }
+        }
+
+        List<MethodReference> initialMethods = new ArrayList<>();
+        for (MethodReference method : methods) {
+            if (!owners.containsKey(method)) {
+                initialMethods.add(method);
+            }
+        }
+        for (MethodReference method : reach(initialMethods, methodSet, splitPointSet)) {
+            owners.remove(method);
+        }
+
+        Map<Set<MethodReference>, CodeChunk> chunksByOwners = new LinkedHashMap<>();
+        List<CodeChunk> chunks = new ArrayList<>();
+        for (MethodReference splitPoint : sortedSplitPoints) {
+            if (owners.containsKey(splitPoint)) {
+                getChunk(chunksByOwners, chunks, Collections.singleton(splitPoint));
+            }
+        }
+        for (MethodReference method : methods) {
+            Set<MethodReference> methodOwners = owners.get(method);
+            if (methodOwners != null) {
+                getChunk(chunksByOwners, chunks, methodOwners).addMethod(method);
+            }
+        }
+        return chunks;
+    }
+
+    private static CodeChunk getChunk(Map<Set<MethodReference>, CodeChunk> chunksByOwners, List<CodeChunk> chunks,
+            Set<MethodReference> owners) {
+        return chunksByOwners.computeIfAbsent(owners, k -> {
+            CodeChunk chunk = new CodeChunk(chunks.size());
+            for (MethodReference owner : owners) {
+                chunk.addSplitPoint(owner);
+            }
+            chunks.add(chunk);
+            return chunk;
+        });
+    }
+
+    private Set<MethodReference> reach(Collection<MethodReference> roots, Set<MethodReference> methods,
+            Set<MethodReference> splitPoints) {
+        Set<MethodReference> visited = new HashSet<>(roots);
+        Queue<MethodReference> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            MethodReference method = queue.remove();
+            CallGraphNode node = callGraph.getNode(method);
+            if (node == null) {
+                continue;
+            }
+            for (CallSite callSite : node.getCallSites()) {
+                for (CallGraphNode callee : callSite.getCalledMethods()) {
+                    MethodReference calledMethod = callee.getMethod();
+                    if (methods.contains(calledMethod) && !splitPoints.contains(calledMethod)
+                            && visited.add(calledMethod)) {
+                        queue.add(calledMethod);
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+}
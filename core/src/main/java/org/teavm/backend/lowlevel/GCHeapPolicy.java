@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.lowlevel;
+
+/**
+ * Decides how GC of C and WebAssembly targets resizes heap after collections. Order of constants matters,
+ * since their ordinals are passed to runtime.
+ */
+public enum GCHeapPolicy {
+    /**
+     * Grows heap when more than a half of it is occupied and shrinks it when less than a quarter is occupied.
+     */
+    DEFAULT,
+
+    /**
+     * Grows heap when GC takes more time than allowed by GC time ratio and avoids shrinking heap when
+     * GC time is close to the limit.
+     */
+    THROUGHPUT,
+
+    /**
+     * Keeps heap small while collections take longer than max pause target.
+     */
+    PAUSE
+}
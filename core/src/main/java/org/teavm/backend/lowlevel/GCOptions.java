@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.lowlevel;
+
+/**
+ * Checks GC settings shared by C and WebAssembly targets. Runtime relies on these bounds, for example
+ * {@link GCHeapPolicy#THROUGHPUT} divides by {@code timeRatio + 1}.
+ */
+public final class GCOptions {
+    private GCOptions() {
+    }
+
+    public static int checkPauseBudget(int pauseBudget) {
+        if (pauseBudget < 0) {
+            throw new IllegalArgumentException("GC pause budget must not be negative: " + pauseBudget);
+        }
+        return pauseBudget;
+    }
+
+    public static int checkTimeRatio(int timeRatio) {
+        if (timeRatio < 0) {
+            throw new IllegalArgumentException("GC time ratio must not be negative: " + timeRatio);
+        }
+        return timeRatio;
+    }
+
+    public static int checkMaxPauseTarget(int maxPauseTarget) {
+        if (maxPauseTarget < 1) {
+            throw new IllegalArgumentException("GC pause target must be positive: " + maxPauseTarget);
+        }
+        return maxPauseTarget;
+    }
+
+    public static int checkFullCollectionInterval(int fullCollectionInterval) {
+        if (fullCollectionInterval < 1) {
+            throw new IllegalArgumentException("Full collection interval must be positive: "
+                    + fullCollectionInterval);
+        }
+        return fullCollectionInterval;
+    }
+}
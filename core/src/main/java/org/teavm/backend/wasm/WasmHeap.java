@@ -26,6 +26,7 @@ public final class WasmHeap {
     public static final int PAGE_SIZE = 65536;
     public static final int DEFAULT_STACK_SIZE = PAGE_SIZE * 4;
     public static final int DEFAULT_REGION_SIZE = 1024;
+    public static final int PAUSE_HISTOGRAM_SIZE = 32 * 4;
 
     public static int minHeapSize;
     public static int maxHeapSize;
@@ -42,6 +43,12 @@ public final class WasmHeap {
     public static Address stackAddress;
     public static Address stack;
     public static int stackSize;
+    public static int pauseBudget;
+    public static int heapPolicy;
+    public static int gcTimeRatio;
+    public static int maxPauseTarget;
+    public static int fullGCInterval;
+    public static Address pauseHistogram;
 
     private WasmHeap() {
     }
@@ -63,15 +70,30 @@ public final class WasmHeap {
     @Import(name = "init", module = "teavmHeapTrace")
     private static native void initHeapTrace(int maxHeap);
 
-    public static void initHeap(Address start, int minHeap, int maxHeap, int stackSize) {
+    // Wasm functions are named after their imports, so reusing nanoTime import of System would clash
+    @Import(name = "gcNanoTime", module = "teavm")
+    private static native double nanoTime();
+
+    public static long currentTimeNanos() {
+        return (long) (nanoTime() * 1000000);
+    }
+
+    public static void initHeap(Address start, int minHeap, int maxHeap, int stackSize, int pauseBudget,
+            int heapPolicy, int gcTimeRatio, int maxPauseTarget, int fullGCInterval) {
         initHeapTrace(maxHeap);
-        stackAddress = start;
-        stack = start;
+        pauseHistogram = start;
+        stackAddress = start.add(PAUSE_HISTOGRAM_SIZE);
+        stack = stackAddress;
         heapAddress = WasmRuntime.align(stackAddress.add(stackSize), 16);
         memoryLimit = WasmRuntime.align(start, PAGE_SIZE);
         minHeapSize = minHeap;
         maxHeapSize = maxHeap;
         WasmHeap.stackSize = stackSize;
+        WasmHeap.pauseBudget = pauseBudget;
+        WasmHeap.heapPolicy = heapPolicy;
+        WasmHeap.gcTimeRatio = gcTimeRatio;
+        WasmHeap.maxPauseTarget = maxPauseTarget;
+        WasmHeap.fullGCInterval = fullGCInterval;
         resizeHeap(minHeap);
     }
 
@@ -17,6 +17,8 @@ package org.teavm.backend.wasm;
 
 import org.teavm.interop.Address;
 import org.teavm.interop.Import;
+import org.teavm.interop.PlatformMarker;
+import org.teavm.interop.Platforms;
 import org.teavm.interop.StaticInit;
 import org.teavm.interop.Unmanaged;
 import org.teavm.runtime.RuntimeObject;
@@ -308,8 +310,22 @@ public final class WasmRuntime {
         getExceptionHandlerPtr(stackFrame).putInt(id);
     }
 
+    @PlatformMarker(Platforms.COMPACT_STRINGS)
+    private static boolean isCompactStrings() {
+        return false;
+    }
+
     private static int hashCode(RuntimeString string) {
         int hashCode = 0;
+        if (isCompactStrings() && string.latin1 != null) {
+            int length = string.latin1.length;
+            Address bytes = Address.ofData(string.latin1);
+            for (int i = 0; i < length; ++i) {
+                hashCode = 31 * hashCode + (bytes.getByte() & 0xFF);
+                bytes = bytes.add(1);
+            }
+            return hashCode;
+        }
         int length = string.characters.length;
         Address chars = Address.ofData(string.characters);
         for (int i = 0; i < length; ++i) {
@@ -320,6 +336,19 @@ public final class WasmRuntime {
     }
 
     private static boolean equals(RuntimeString first, RuntimeString second) {
+        if (isCompactStrings() && (first.latin1 != null || second.latin1 != null)) {
+            int length = compactStringLength(first);
+            if (length != compactStringLength(second)) {
+                return false;
+            }
+            for (int i = 0; i < length; ++i) {
+                if (compactStringCharAt(first, i) != compactStringCharAt(second, i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         if (first.characters.length != second.characters.length) {
             return false;
         }
@@ -337,6 +366,16 @@ public final class WasmRuntime {
         return true;
     }
 
+    private static int compactStringLength(RuntimeString string) {
+        return string.latin1 != null ? string.latin1.length : string.characters.length;
+    }
+
+    private static char compactStringCharAt(RuntimeString string, int index) {
+        return string.latin1 != null
+                ? (char) (Address.ofData(string.latin1).add(index).getByte() & 0xFF)
+                : Address.ofData(string.characters).add(index * 2).getChar();
+    }
+
     public static String[] resourceMapKeys(Address map) {
         String[] result = new String[resourceMapSize(map)];
         fillResourceMapKeys(map, result);
@@ -399,5 +438,6 @@ public final class WasmRuntime {
 
     static class RuntimeString extends RuntimeObject {
         char[] characters;
+        byte[] latin1;
     }
 }
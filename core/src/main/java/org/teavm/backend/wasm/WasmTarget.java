@@ -15,6 +15,7 @@
  */
 package org.teavm.backend.wasm;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -33,6 +34,8 @@ import java.util.Properties;
 import java.util.Set;
 import org.teavm.ast.InvocationExpr;
 import org.teavm.ast.decompilation.Decompiler;
+import org.teavm.backend.lowlevel.GCHeapPolicy;
+import org.teavm.backend.lowlevel.GCOptions;
 import org.teavm.backend.lowlevel.analyze.LowLevelInliningFilterFactory;
 import org.teavm.backend.lowlevel.dependency.StringsDependencyListener;
 import org.teavm.backend.lowlevel.generate.NameProvider;
@@ -81,6 +84,7 @@ import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmBranch;
@@ -99,9 +103,10 @@ import org.teavm.backend.wasm.model.expression.WasmSetLocal;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 import org.teavm.backend.wasm.optimization.UnusedFunctionElimination;
+import org.teavm.backend.wasm.optimization.WasmOptimizer;
 import org.teavm.backend.wasm.render.WasmBinaryRenderer;
+import org.teavm.backend.wasm.render.WasmBinarySectionStats;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
-import org.teavm.backend.wasm.render.WasmBinaryWriter;
 import org.teavm.backend.wasm.render.WasmCRenderer;
 import org.teavm.backend.wasm.render.WasmRenderer;
 import org.teavm.backend.wasm.transformation.IndirectCallTraceTransformation;
@@ -167,13 +172,15 @@ import org.teavm.runtime.RuntimeObject;
 import org.teavm.runtime.ShadowStack;
 import org.teavm.vm.BuildTarget;
 import org.teavm.vm.TeaVMEntryPoint;
+import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMTarget;
 import org.teavm.vm.TeaVMTargetController;
 import org.teavm.vm.spi.TeaVMHostExtension;
 
 public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
     private static final MethodReference INIT_HEAP_REF = new MethodReference(WasmHeap.class, "initHeap",
-            Address.class, int.class, int.class, int.class, void.class);
+            Address.class, int.class, int.class, int.class, int.class, int.class, int.class, int.class, int.class,
+            void.class);
     private static final MethodReference RESIZE_HEAP_REF = new MethodReference(WasmHeap.class, "resizeHeap",
             int.class, void.class);
     private static final Set<MethodReference> VIRTUAL_METHODS = new HashSet<>(Arrays.asList(
@@ -196,9 +203,18 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
     private CheckInstructionTransformation checkTransformation = new CheckInstructionTransformation();
     private int minHeapSize = 2 * 1024 * 1024;
     private int maxHeapSize = 128 * 1024 * 1024;
+    private int gcPauseBudget;
+    private GCHeapPolicy gcHeapPolicy = GCHeapPolicy.DEFAULT;
+    private int gcTimeRatio = 19;
+    private int gcMaxPauseTarget = 10000;
+    private int gcFullCollectionInterval = 8;
     private boolean obfuscated;
+    private int encodingThreadCount = 1;
     private Set<MethodReference> asyncMethods;
     private boolean hasThreads;
+    private boolean bulkMemoryUsed;
+    private boolean nativeExceptionsUsed;
+    private boolean compactStrings;
 
     @Override
     public void setController(TeaVMTargetController controller) {
@@ -206,7 +222,6 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         characteristics = new Characteristics(controller.getUnprocessedClassSource());
         classInitializerEliminator = new ClassInitializerEliminator(controller.getUnprocessedClassSource());
         classInitializerTransformer = new ClassInitializerTransformer();
-        shadowStackTransformer = new ShadowStackTransformer(characteristics, true);
         nullCheckInsertion = new NullCheckInsertion(new LowLevelNullCheckFilter(characteristics));
         writeBarrierInsertion = new WriteBarrierInsertion(characteristics);
 
@@ -279,6 +294,55 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         this.version = version;
     }
 
+    public boolean isBulkMemoryUsed() {
+        return bulkMemoryUsed;
+    }
+
+    /**
+     * <p>Specifies whether generated module may use bulk memory instructions ({@code memory.fill} and
+     * {@code memory.copy}). When enabled, memory fills and block moves, including {@code System.arraycopy}
+     * on arrays of primitives, are compiled into single instructions instead of calls to loops
+     * written in Java.</p>
+     *
+     * <p>Bulk memory is a post-MVP feature, so it is disabled by default.</p>
+     */
+    public void setBulkMemoryUsed(boolean bulkMemoryUsed) {
+        this.bulkMemoryUsed = bulkMemoryUsed;
+    }
+
+    public boolean isNativeExceptionsUsed() {
+        return nativeExceptionsUsed;
+    }
+
+    /**
+     * <p>Specifies whether exceptions are thrown with WebAssembly exception handling instructions
+     * ({@code try}, {@code catch} and {@code throw}). Otherwise, each call that may throw is followed by a check of
+     * exception handler id stored in shadow stack and a branch to the handler or to the function exit.</p>
+     *
+     * <p>With native exceptions calls only store call site id, which is still necessary to build stack traces,
+     * and the runtime unwinds stack to the handler in a single step. This requires a VM that supports
+     * exception handling proposal, so it is disabled by default. Exceptions are fatal in C code emitted
+     * for debugging purposes.</p>
+     */
+    public void setNativeExceptionsUsed(boolean nativeExceptionsUsed) {
+        this.nativeExceptionsUsed = nativeExceptionsUsed;
+    }
+
+    public boolean isCompactStrings() {
+        return compactStrings;
+    }
+
+    /**
+     * <p>Specifies whether strings that only contain characters up to U+00FF are stored as Latin-1 byte arrays.
+     * String literals that fit into Latin-1 are placed into data segment in this form as well.</p>
+     *
+     * <p>Host code that reads strings through {@code teavm_stringData} should fall back to
+     * {@code teavm_stringLatin1Data} when the former returns null. Disabled by default.</p>
+     */
+    public void setCompactStrings(boolean compactStrings) {
+        this.compactStrings = compactStrings;
+    }
+
     public void setMinHeapSize(int minHeapSize) {
         this.minHeapSize = minHeapSize;
     }
@@ -287,10 +351,64 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         this.maxHeapSize = maxHeapSize;
     }
 
+    /**
+     * <p>Specifies how long, in microseconds, a single slice of incremental marking may take. When set,
+     * full GC marks heap in slices interleaved with allocations instead of stopping the program for the whole
+     * marking phase. Sweep and defragmentation still run in a single final pause.</p>
+     *
+     * <p>Default value is 0, which means that full GC is stop-the-world.</p>
+     */
+    public void setGcPauseBudget(int gcPauseBudget) {
+        this.gcPauseBudget = GCOptions.checkPauseBudget(gcPauseBudget);
+    }
+
+    /**
+     * Specifies how GC resizes heap after collections. Default is {@link GCHeapPolicy#DEFAULT}.
+     */
+    public void setGcHeapPolicy(GCHeapPolicy gcHeapPolicy) {
+        this.gcHeapPolicy = gcHeapPolicy;
+    }
+
+    /**
+     * Specifies GC time ratio used by {@link GCHeapPolicy#THROUGHPUT}: GC may take {@code 1/(1 + ratio)}
+     * of total running time. Default value is 19, i.e. 5%.
+     */
+    public void setGcTimeRatio(int gcTimeRatio) {
+        this.gcTimeRatio = GCOptions.checkTimeRatio(gcTimeRatio);
+    }
+
+    /**
+     * Specifies pause time goal in microseconds used by {@link GCHeapPolicy#PAUSE}. Default value is 10000.
+     */
+    public void setGcMaxPauseTarget(int gcMaxPauseTarget) {
+        this.gcMaxPauseTarget = GCOptions.checkMaxPauseTarget(gcMaxPauseTarget);
+    }
+
+    /**
+     * Specifies how many young collections happen before GC considers full collection. Default value is 8.
+     */
+    public void setGcFullCollectionInterval(int gcFullCollectionInterval) {
+        this.gcFullCollectionInterval = GCOptions.checkFullCollectionInterval(gcFullCollectionInterval);
+    }
+
     public void setObfuscated(boolean obfuscated) {
         this.obfuscated = obfuscated;
     }
 
+    /**
+     * Specifies how many threads are used to encode function bodies into binary format.
+     * Default value is 1, which means that functions are encoded on the calling thread.
+     * Produced binary does not depend on this value.
+     *
+     * @param encodingThreadCount number of threads, must be positive.
+     */
+    public void setEncodingThreadCount(int encodingThreadCount) {
+        if (encodingThreadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + encodingThreadCount);
+        }
+        this.encodingThreadCount = encodingThreadCount;
+    }
+
     @Override
     public void contributeDependencies(DependencyAnalyzer dependencyAnalyzer) {
         for (Class<?> type : Arrays.asList(int.class, long.class, float.class, double.class)) {
@@ -336,6 +454,7 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
         dependencyAnalyzer.linkMethod(INIT_HEAP_REF).use();
         dependencyAnalyzer.linkMethod(RESIZE_HEAP_REF).use();
+        dependencyAnalyzer.linkMethod(new MethodReference(WasmHeap.class, "currentTimeNanos", long.class)).use();
 
         dependencyAnalyzer.linkMethod(new MethodReference(Allocator.class, "allocate",
                 RuntimeClass.class, Address.class)).use();
@@ -356,6 +475,9 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
         dependencyAnalyzer.linkMethod(new MethodReference(String.class, "allocate", int.class, String.class))
                 .use();
+        if (compactStrings) {
+            dependencyAnalyzer.linkField(new FieldReference("java.lang.String", "latin1"));
+        }
 
         ClassDependency runtimeClassDep = dependencyAnalyzer.linkClass(RuntimeClass.class.getName());
         ClassDependency runtimeObjectDep = dependencyAnalyzer.linkClass(RuntimeObject.class.getName());
@@ -393,6 +515,7 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         asyncMethods = new HashSet<>(asyncFinder.getAsyncMethods());
         asyncMethods.addAll(asyncFinder.getAsyncFamilyMethods());
         hasThreads = asyncFinder.hasAsyncMethods();
+        shadowStackTransformer = new ShadowStackTransformer(characteristics, true, nativeExceptionsUsed);
     }
 
     @Override
@@ -431,6 +554,7 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
         Decompiler decompiler = new Decompiler(classes, new HashSet<>(), false);
         WasmStringPool stringPool = classGenerator.getStringPool();
+        stringPool.setCompactStrings(compactStrings);
         WasmGenerationContext context = new WasmGenerationContext(classes, module, controller.getDiagnostics(),
                 vtableProvider, tagRegistry, stringPool, names);
 
@@ -439,7 +563,7 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         context.addIntrinsic(new FunctionIntrinsic(classGenerator));
         WasmRuntimeIntrinsic wasmRuntimeIntrinsic = new WasmRuntimeIntrinsic();
         context.addIntrinsic(wasmRuntimeIntrinsic);
-        context.addIntrinsic(new AllocatorIntrinsic(classGenerator));
+        context.addIntrinsic(new AllocatorIntrinsic(classGenerator, bulkMemoryUsed));
         context.addIntrinsic(new PlatformIntrinsic());
         context.addIntrinsic(new PlatformClassIntrinsic());
         context.addIntrinsic(new PlatformObjectIntrinsic(classGenerator));
@@ -469,15 +593,23 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         MutatorIntrinsic mutatorIntrinsic = new MutatorIntrinsic();
         context.addIntrinsic(mutatorIntrinsic);
         context.addIntrinsic(new ShadowStackIntrinsic());
+        WasmTag exceptionTag = null;
+        if (nativeExceptionsUsed) {
+            exceptionTag = new WasmTag("teavm_exception");
+            module.add(exceptionTag);
+            context.setExceptionTag(exceptionTag);
+        }
         ExceptionHandlingIntrinsic exceptionHandlingIntrinsic = new ExceptionHandlingIntrinsic(binaryWriter,
-                classGenerator, stringPool, obfuscated);
+                classGenerator, stringPool, obfuscated, exceptionTag);
         context.addIntrinsic(exceptionHandlingIntrinsic);
 
         WasmGenerator generator = new WasmGenerator(decompiler, classes, context, classGenerator, binaryWriter,
                 asyncMethods::contains);
 
         generateMethods(classes, context, generator, classGenerator, binaryWriter, module);
-        new WasmInteropFunctionGenerator(classGenerator).generateFunctions(module);
+        WasmInteropFunctionGenerator interopFunctionGenerator = new WasmInteropFunctionGenerator(classGenerator);
+        interopFunctionGenerator.setCompactStrings(compactStrings);
+        interopFunctionGenerator.generateFunctions(module);
         exceptionHandlingIntrinsic.postProcess(CallSiteDescriptor.extract(classes, classes.getClassNames()));
         generateIsSupertypeFunctions(tagRegistry, module, classGenerator);
         classGenerator.postProcess();
@@ -510,6 +642,11 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         }
 
         new UnusedFunctionElimination(module).apply();
+        if (controller.getOptimizationLevel() != TeaVMOptimizationLevel.SIMPLE) {
+            WasmOptimizer optimizer = new WasmOptimizer(module);
+            optimizer.setLocalCoalescing(!debugging);
+            optimizer.apply();
+        }
 
         if (Boolean.parseBoolean(System.getProperty("wasm.memoryTrace", "false"))) {
             new MemoryAccessTraceTransformation(module).apply();
@@ -518,13 +655,12 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
             new IndirectCallTraceTransformation(module).apply();
         }
 
-        WasmBinaryWriter writer = new WasmBinaryWriter();
-        WasmBinaryRenderer renderer = new WasmBinaryRenderer(writer, version, obfuscated);
-        renderer.render(module);
-
-        try (OutputStream output = buildTarget.createResource(outputName)) {
-            output.write(writer.getData());
+        try (OutputStream output = new BufferedOutputStream(buildTarget.createResource(outputName))) {
+            WasmBinaryRenderer renderer = new WasmBinaryRenderer(output, version, obfuscated);
+            renderer.setThreadCount(encodingThreadCount);
+            renderer.render(module);
             output.flush();
+            printStats(renderer);
         }
 
         if (wastEmitted) {
@@ -589,7 +725,10 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
         initFunction.getBody().add(new WasmCall(names.forMethod(INIT_HEAP_REF),
                 new WasmInt32Constant(heapAddress), new WasmInt32Constant(minHeapSize),
-                new WasmInt32Constant(maxHeapSize), new WasmInt32Constant(WasmHeap.DEFAULT_STACK_SIZE)));
+                new WasmInt32Constant(maxHeapSize), new WasmInt32Constant(WasmHeap.DEFAULT_STACK_SIZE),
+                new WasmInt32Constant(gcPauseBudget), new WasmInt32Constant(gcHeapPolicy.ordinal()),
+                new WasmInt32Constant(gcTimeRatio), new WasmInt32Constant(gcMaxPauseTarget),
+                new WasmInt32Constant(gcFullCollectionInterval)));
 
         for (Class<?> javaCls : new Class<?>[] { GC.class }) {
             ClassReader cls = classes.get(javaCls.getName());
@@ -623,6 +762,17 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         return index < 0 ? name : name.substring(0, index);
     }
 
+    private void printStats(WasmBinaryRenderer renderer) {
+        if (!Boolean.parseBoolean(System.getProperty("teavm.wasm.stats", "false"))) {
+            return;
+        }
+
+        for (WasmBinarySectionStats stats : renderer.getSectionStats()) {
+            System.out.println("Section '" + stats.getName() + "': " + stats.getSize() + " bytes, encoded in "
+                    + stats.getEncodeTime() / 1000000 + " ms");
+        }
+    }
+
     private void emitWast(WasmModule module, BuildTarget buildTarget, String outputName) throws IOException {
         WasmRenderer renderer = new WasmRenderer();
         renderer.setLineNumbersEmitted(debugging);
@@ -917,7 +1067,7 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         int newRegionsCount = WasmHeap.calculateRegionsCount(maxHeapSize, WasmHeap.DEFAULT_REGION_SIZE);
         int newRegionsSize = WasmHeap.calculateRegionsSize(newRegionsCount);
 
-        address = WasmRuntime.align(address + WasmHeap.DEFAULT_STACK_SIZE, 16);
+        address = WasmRuntime.align(address + WasmHeap.PAUSE_HISTOGRAM_SIZE + WasmHeap.DEFAULT_STACK_SIZE, 16);
         address = WasmRuntime.align(address + maxHeapSize, 16);
         address = WasmRuntime.align(address + newRegionsSize, 16);
         address = WasmRuntime.align(address + newRegionsCount, 16);
@@ -965,7 +1115,9 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
     @Override
     public String[] getPlatformTags() {
-        return new String[] { Platforms.WEBASSEMBLY, Platforms.LOW_LEVEL };
+        return compactStrings
+                ? new String[] { Platforms.WEBASSEMBLY, Platforms.LOW_LEVEL, Platforms.COMPACT_STRINGS }
+                : new String[] { Platforms.WEBASSEMBLY, Platforms.LOW_LEVEL };
     }
 
     @Override
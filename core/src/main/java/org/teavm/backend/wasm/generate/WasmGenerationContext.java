@@ -24,6 +24,7 @@ import org.teavm.backend.wasm.generators.WasmMethodGenerator;
 import org.teavm.backend.wasm.intrinsics.WasmIntrinsic;
 import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.diagnostics.Diagnostics;
 import org.teavm.interop.Import;
 import org.teavm.model.AnnotationReader;
@@ -51,6 +52,7 @@ public class WasmGenerationContext {
     private List<WasmMethodGenerator> generators = new ArrayList<>();
     private Map<MethodReference, IntrinsicHolder> intrinsicCache = new HashMap<>();
     private Map<MethodReference, GeneratorHolder> generatorCache = new HashMap<>();
+    private WasmTag exceptionTag;
 
     public WasmGenerationContext(ClassReaderSource classSource, WasmModule module, Diagnostics diagnostics,
             VirtualTableProvider vtableProvider, TagRegistry tagRegistry, WasmStringPool stringPool,
@@ -157,6 +159,18 @@ public class WasmGenerationContext {
         return diagnostics;
     }
 
+    /**
+     * Returns tag of exceptions thrown by {@code throw} instruction, or {@code null} when
+     * exceptions are propagated via shadow stack.
+     */
+    public WasmTag getExceptionTag() {
+        return exceptionTag;
+    }
+
+    public void setExceptionTag(WasmTag exceptionTag) {
+        this.exceptionTag = exceptionTag;
+    }
+
     public static class ImportedMethod {
         public final String name;
         public final String module;
@@ -75,6 +75,7 @@ import org.teavm.backend.wasm.intrinsics.WasmIntrinsic;
 import org.teavm.backend.wasm.intrinsics.WasmIntrinsicManager;
 import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmBranch;
@@ -110,6 +111,8 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 import org.teavm.backend.wasm.render.WasmTypeInference;
 import org.teavm.diagnostics.Diagnostics;
@@ -121,6 +124,7 @@ import org.teavm.model.TextLocation;
 import org.teavm.model.ValueType;
 import org.teavm.model.classes.VirtualTable;
 import org.teavm.runtime.Allocator;
+import org.teavm.runtime.ExceptionHandling;
 import org.teavm.runtime.RuntimeArray;
 import org.teavm.runtime.RuntimeClass;
 import org.teavm.runtime.ShadowStack;
@@ -1414,13 +1418,66 @@ class WasmGenerationVisitor implements StatementVisitor, ExprVisitor {
 
     @Override
     public void visit(TryCatchStatement statement) {
+        WasmTag exceptionTag = context.getExceptionTag();
+        if (exceptionTag == null) {
+            WasmBlock block = new WasmBlock(false);
+            for (Statement bodyPart : statement.getProtectedBody()) {
+                accept(bodyPart);
+                if (result != null) {
+                    block.getBody().add(result);
+                }
+            }
+            result = block;
+            return;
+        }
+
         WasmBlock block = new WasmBlock(false);
+        int stackOffset = classGenerator.getFieldOffset(new FieldReference(WasmHeap.class.getName(), "stack"));
+        WasmLocal stackTop = getTemporary(WasmType.INT32);
+        block.getBody().add(new WasmSetLocal(stackTop, new WasmLoadInt32(4, new WasmInt32Constant(stackOffset),
+                WasmInt32Subtype.INT32)));
+
+        WasmTry tryCatch = new WasmTry(exceptionTag);
         for (Statement bodyPart : statement.getProtectedBody()) {
             accept(bodyPart);
             if (result != null) {
-                block.getBody().add(result);
+                tryCatch.getBody().getBody().add(result);
             }
         }
+
+        WasmBlock handler = tryCatch.getCatchBlock();
+        String exceptionType = statement.getExceptionType();
+        if (exceptionType != null && !exceptionType.equals(Throwable.class.getName())) {
+            // Exceptions of other types go to the next handler, either in this function or in a caller
+            ValueType type = ValueType.object(exceptionType);
+            classGenerator.getClassPointer(type);
+            int exceptionOffset = classGenerator.getFieldOffset(new FieldReference(
+                    ExceptionHandling.class.getName(), "thrownException"));
+            WasmExpression exception = new WasmLoadInt32(4, new WasmInt32Constant(exceptionOffset),
+                    WasmInt32Subtype.INT32);
+            WasmExpression classRef = new WasmLoadInt32(4, exception, WasmInt32Subtype.INT32);
+            classRef = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SHL, classRef,
+                    new WasmInt32Constant(3));
+            WasmCall supertypeCall = new WasmCall(context.names.forSupertypeFunction(type));
+            supertypeCall.getArguments().add(classRef);
+            WasmConditional mismatch = new WasmConditional(new WasmIntBinary(WasmIntType.INT32,
+                    WasmIntBinaryOperation.EQ, supertypeCall, new WasmInt32Constant(0)));
+            mismatch.getThenBlock().getBody().add(new WasmThrow(exceptionTag));
+            handler.getBody().add(mismatch);
+        }
+
+        // Frames of callees are not released during unwinding, so shadow stack is restored here
+        handler.getBody().add(new WasmStoreInt32(4, new WasmInt32Constant(stackOffset), new WasmGetLocal(stackTop),
+                WasmInt32Subtype.INT32));
+        for (Statement handlerPart : statement.getHandler()) {
+            accept(handlerPart);
+            if (result != null) {
+                handler.getBody().add(result);
+            }
+        }
+        releaseTemporary(stackTop);
+
+        block.getBody().add(tryCatch);
         result = block;
     }
 
@@ -38,12 +38,23 @@ public class WasmStringPool {
             DataPrimitives.ADDRESS, /* monitor */
             DataPrimitives.ADDRESS, /* characters */
             DataPrimitives.INT /* hash code */);
+    private DataStructure compactStringType = new DataStructure((byte) 0,
+            DataPrimitives.INT, /* class pointer */
+            DataPrimitives.ADDRESS, /* monitor */
+            DataPrimitives.ADDRESS, /* characters */
+            DataPrimitives.ADDRESS, /* latin1 */
+            DataPrimitives.INT /* hash code */);
+    private boolean compactStrings;
 
     public WasmStringPool(WasmClassGenerator classGenerator, BinaryWriter binaryWriter) {
         this.classGenerator = classGenerator;
         this.binaryWriter = binaryWriter;
     }
 
+    public void setCompactStrings(boolean compactStrings) {
+        this.compactStrings = compactStrings;
+    }
+
     public int getStringPointer(String value) {
         Integer pointer = stringMap.get(value);
         if (pointer == null) {
@@ -54,6 +65,10 @@ public class WasmStringPool {
     }
 
     private int generateStringPointer(String value) {
+        if (compactStrings && isLatin1(value)) {
+            return generateLatin1StringPointer(value);
+        }
+
         DataArray charactersType = new DataArray(DataPrimitives.SHORT, value.length());
         DataStructure wrapperType = new DataStructure((byte) 0, arrayHeaderType, charactersType);
         DataValue wrapper = wrapperType.createValue();
@@ -67,7 +82,8 @@ public class WasmStringPool {
             characters.setShort(i, (short) value.charAt(i));
         }
 
-        DataValue stringObject = stringType.createValue();
+        // In compact strings mode String has latin1 field, so that layout of UTF-16 strings changes as well
+        DataValue stringObject = (compactStrings ? compactStringType : stringType).createValue();
         int stringPointer = binaryWriter.append(stringObject);
         classPointer = classGenerator.getClassPointer(ValueType.object(String.class.getName()));
         stringObject.setInt(0, (classPointer >>> 3) | RuntimeObject.GC_MARKED);
@@ -75,4 +91,36 @@ public class WasmStringPool {
 
         return stringPointer;
     }
+
+    private int generateLatin1StringPointer(String value) {
+        DataArray bytesType = new DataArray(DataPrimitives.BYTE, value.length());
+        DataStructure wrapperType = new DataStructure((byte) 0, arrayHeaderType, bytesType);
+        DataValue wrapper = wrapperType.createValue();
+        DataValue header = wrapper.getValue(0);
+        DataValue bytes = wrapper.getValue(1);
+
+        int classPointer = classGenerator.getClassPointer(ValueType.arrayOf(ValueType.BYTE));
+        header.setInt(0, (classPointer >>> 3) | RuntimeObject.GC_MARKED);
+        header.setInt(2, value.length());
+        for (int i = 0; i < value.length(); ++i) {
+            bytes.setByte(i, (byte) value.charAt(i));
+        }
+
+        DataValue stringObject = compactStringType.createValue();
+        int stringPointer = binaryWriter.append(stringObject);
+        classPointer = classGenerator.getClassPointer(ValueType.object(String.class.getName()));
+        stringObject.setInt(0, (classPointer >>> 3) | RuntimeObject.GC_MARKED);
+        stringObject.setAddress(3, binaryWriter.append(wrapper));
+
+        return stringPointer;
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
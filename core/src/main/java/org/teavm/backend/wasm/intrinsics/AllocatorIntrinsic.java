@@ -19,14 +19,21 @@ import java.util.stream.Collectors;
 import org.teavm.ast.InvocationExpr;
 import org.teavm.backend.wasm.WasmRuntime;
 import org.teavm.backend.wasm.generate.WasmClassGenerator;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFill;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
 import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
 import org.teavm.backend.wasm.model.expression.WasmInt32Subtype;
 import org.teavm.backend.wasm.model.expression.WasmIntBinary;
 import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
 import org.teavm.backend.wasm.model.expression.WasmIntType;
 import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
 import org.teavm.model.FieldReference;
 import org.teavm.model.MethodReference;
 import org.teavm.runtime.Allocator;
@@ -35,9 +42,11 @@ import org.teavm.runtime.RuntimeClass;
 public class AllocatorIntrinsic implements WasmIntrinsic {
     private static final FieldReference flagsField = new FieldReference(RuntimeClass.class.getName(), "flags");
     private int flagsFieldOffset;
+    private boolean bulkMemoryUsed;
 
-    public AllocatorIntrinsic(WasmClassGenerator classGenerator) {
+    public AllocatorIntrinsic(WasmClassGenerator classGenerator, boolean bulkMemoryUsed) {
         flagsFieldOffset = classGenerator.getFieldOffset(flagsField);
+        this.bulkMemoryUsed = bulkMemoryUsed;
     }
 
     @Override
@@ -58,6 +67,19 @@ public class AllocatorIntrinsic implements WasmIntrinsic {
 
     @Override
     public WasmExpression apply(InvocationExpr invocation, WasmIntrinsicManager manager) {
+        if (bulkMemoryUsed) {
+            switch (invocation.getMethod().getName()) {
+                case "fill":
+                    return new WasmFill(manager.generate(invocation.getArguments().get(0)),
+                            manager.generate(invocation.getArguments().get(1)),
+                            manager.generate(invocation.getArguments().get(2)));
+                case "fillZero":
+                    return new WasmFill(manager.generate(invocation.getArguments().get(0)),
+                            new WasmInt32Constant(0), manager.generate(invocation.getArguments().get(1)));
+                case "moveMemoryBlock":
+                    return generateCopy(invocation, manager);
+            }
+        }
         switch (invocation.getMethod().getName()) {
             case "fill":
             case "fillZero":
@@ -87,4 +109,26 @@ public class AllocatorIntrinsic implements WasmIntrinsic {
                 throw new IllegalArgumentException(invocation.getMethod().toString());
         }
     }
+
+    private WasmExpression generateCopy(InvocationExpr invocation, WasmIntrinsicManager manager) {
+        WasmExpression source = manager.generate(invocation.getArguments().get(0));
+        WasmExpression target = manager.generate(invocation.getArguments().get(1));
+        WasmExpression count = manager.generate(invocation.getArguments().get(2));
+        // memory.copy takes target before source, so source must be evaluated first to preserve Java semantics.
+        // Order does not matter only if source is a constant or neither expression has side effects
+        if (source instanceof WasmInt32Constant || (isSimple(source) && isSimple(target))) {
+            return new WasmCopy(target, source, count);
+        }
+
+        WasmLocal sourceVar = manager.getTemporary(WasmType.INT32);
+        WasmBlock block = new WasmBlock(false);
+        block.getBody().add(new WasmSetLocal(sourceVar, source));
+        block.getBody().add(new WasmCopy(target, new WasmGetLocal(sourceVar), count));
+        manager.releaseTemporary(sourceVar);
+        return block;
+    }
+
+    private static boolean isSimple(WasmExpression expression) {
+        return expression instanceof WasmGetLocal || expression instanceof WasmInt32Constant;
+    }
 }
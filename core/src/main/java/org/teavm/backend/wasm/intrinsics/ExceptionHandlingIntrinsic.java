@@ -22,11 +22,13 @@ import org.teavm.backend.wasm.binary.BinaryWriter;
 import org.teavm.backend.wasm.generate.CallSiteBinaryGenerator;
 import org.teavm.backend.wasm.generate.WasmClassGenerator;
 import org.teavm.backend.wasm.generate.WasmStringPool;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
 import org.teavm.backend.wasm.model.expression.WasmIntBinary;
 import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
 import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 import org.teavm.model.MethodReference;
 import org.teavm.model.lowlevel.CallSiteDescriptor;
@@ -37,11 +39,13 @@ public class ExceptionHandlingIntrinsic implements WasmIntrinsic {
     private CallSiteBinaryGenerator callSiteBinaryGenerator;
     private WasmClassGenerator classGenerator;
     private List<WasmInt32Constant> constants = new ArrayList<>();
+    private WasmTag exceptionTag;
 
     public ExceptionHandlingIntrinsic(BinaryWriter binaryWriter, WasmClassGenerator classGenerator,
-            WasmStringPool stringPool, boolean obfuscated) {
+            WasmStringPool stringPool, boolean obfuscated, WasmTag exceptionTag) {
         callSiteBinaryGenerator = new CallSiteBinaryGenerator(binaryWriter, classGenerator, stringPool, obfuscated);
         this.classGenerator = classGenerator;
+        this.exceptionTag = exceptionTag;
     }
 
     @Override
@@ -84,10 +88,15 @@ public class ExceptionHandlingIntrinsic implements WasmIntrinsic {
             }
 
             case "isJumpSupported":
+                return new WasmInt32Constant(exceptionTag != null ? 1 : 0);
+
             case "isObfuscated":
                 return new WasmInt32Constant(0);
 
             case "jumpToFrame":
+                // Handler restores shadow stack by itself and finds exception in ExceptionHandling.thrownException
+                return exceptionTag != null ? new WasmThrow(exceptionTag) : new WasmUnreachable();
+
             case "abort":
                 return new WasmUnreachable();
 
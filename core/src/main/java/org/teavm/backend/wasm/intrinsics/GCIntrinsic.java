@@ -17,6 +17,7 @@ package org.teavm.backend.wasm.intrinsics;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.teavm.ast.Expr;
 import org.teavm.ast.InvocationExpr;
 import org.teavm.backend.wasm.WasmHeap;
 import org.teavm.backend.wasm.WasmRuntime;
@@ -24,6 +25,7 @@ import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmBlock;
 import org.teavm.backend.wasm.model.expression.WasmCall;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
 import org.teavm.backend.wasm.model.expression.WasmInt32Subtype;
@@ -42,6 +44,8 @@ public class GCIntrinsic implements WasmIntrinsic {
             WasmRuntime.class, "printOutOfMemory", void.class);
     private static final MethodReference RESIZE_HEAP = new MethodReference(
             WasmHeap.class, "resizeHeap", int.class, void.class);
+    private static final MethodReference CURRENT_TIME = new MethodReference(
+            WasmHeap.class, "currentTimeNanos", long.class);
     private static final FieldReference CARD_TABLE = new FieldReference(WasmHeap.class.getName(), "cardTable");
     private static final FieldReference HEAP_ADDRESS = new FieldReference(WasmHeap.class.getName(), "heapAddress");
     public final List<WasmInt32Constant> regionSizeExpressions = new ArrayList<>();
@@ -72,6 +76,17 @@ public class GCIntrinsic implements WasmIntrinsic {
             case "maxAvailableBytes":
             case "resizeHeap":
             case "writeBarrier":
+            case "pauseBudget":
+            case "pauseHistogram":
+            case "currentTimeNanos":
+            case "logCollection":
+            case "gcThreadCount":
+            case "gcThreadData":
+            case "runInParallel":
+            case "heapPolicy":
+            case "gcTimeRatio":
+            case "maxPauseTarget":
+            case "fullGCInterval":
                 return true;
             default:
                 return false;
@@ -109,6 +124,39 @@ public class GCIntrinsic implements WasmIntrinsic {
             }
             case "availableBytes":
                 return intToLong(getStaticField(manager, "heapSize"));
+            case "pauseBudget":
+                return getStaticField(manager, "pauseBudget");
+            case "pauseHistogram":
+                return getStaticField(manager, "pauseHistogram");
+            case "heapPolicy":
+                return getStaticField(manager, "heapPolicy");
+            case "gcTimeRatio":
+                return getStaticField(manager, "gcTimeRatio");
+            case "maxPauseTarget":
+                return getStaticField(manager, "maxPauseTarget");
+            case "fullGCInterval":
+                return getStaticField(manager, "fullGCInterval");
+            case "currentTimeNanos":
+                return new WasmCall(manager.getNames().forMethod(CURRENT_TIME));
+            case "logCollection": {
+                // GC log is only supported by C backend
+                WasmBlock block = new WasmBlock(false);
+                for (Expr argument : invocation.getArguments()) {
+                    block.getBody().add(new WasmDrop(manager.generate(argument)));
+                }
+                return block;
+            }
+            // GC threads are only supported by C backend, so parallel tasks are never started
+            case "gcThreadCount":
+                return new WasmInt32Constant(1);
+            case "gcThreadData":
+                return new WasmInt32Constant(0);
+            case "runInParallel": {
+                WasmBlock block = new WasmBlock(false);
+                block.getBody().add(new WasmDrop(manager.generate(invocation.getArguments().get(0))));
+                block.getBody().add(new WasmUnreachable());
+                return block;
+            }
             case "outOfMemory": {
                 WasmBlock block = new WasmBlock(false);
                 WasmCall call = new WasmCall(manager.getNames().forMethod(PRINT_OUT_OF_MEMORY), true);
@@ -28,6 +28,8 @@ public class WasmModule {
     private Map<String, WasmFunction> functions = new LinkedHashMap<>();
     private Map<String, WasmFunction> readonlyFunctions = Collections.unmodifiableMap(functions);
     private List<WasmFunction> functionTable = new ArrayList<>();
+    private List<WasmTag> tags = new ArrayList<>();
+    private List<WasmTag> readonlyTags = Collections.unmodifiableList(tags);
     private WasmFunction startFunction;
 
     public void add(WasmFunction function) {
@@ -49,10 +51,23 @@ public class WasmModule {
         functions.remove(function.getName());
     }
 
+    public void add(WasmTag tag) {
+        if (tag.module != null) {
+            throw new IllegalArgumentException("Given tag is already registered in another module");
+        }
+        tag.index = tags.size();
+        tags.add(tag);
+        tag.module = this;
+    }
+
     public Map<String, WasmFunction> getFunctions() {
         return readonlyFunctions;
     }
 
+    public List<WasmTag> getTags() {
+        return readonlyTags;
+    }
+
     public List<WasmFunction> getFunctionTable() {
         return functionTable;
     }
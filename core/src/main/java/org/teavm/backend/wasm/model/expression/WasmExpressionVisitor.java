@@ -75,4 +75,12 @@ public interface WasmExpressionVisitor {
     void visit(WasmStoreFloat64 expression);
 
     void visit(WasmMemoryGrow expression);
+
+    void visit(WasmFill expression);
+
+    void visit(WasmCopy expression);
+
+    void visit(WasmTry expression);
+
+    void visit(WasmThrow expression);
 }
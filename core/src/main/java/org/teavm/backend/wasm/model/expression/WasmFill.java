@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.model.expression;
+
+import java.util.Objects;
+
+public class WasmFill extends WasmExpression {
+    private WasmExpression index;
+    private WasmExpression value;
+    private WasmExpression count;
+
+    public WasmFill(WasmExpression index, WasmExpression value, WasmExpression count) {
+        this.index = Objects.requireNonNull(index);
+        this.value = Objects.requireNonNull(value);
+        this.count = Objects.requireNonNull(count);
+    }
+
+    public WasmExpression getIndex() {
+        return index;
+    }
+
+    public void setIndex(WasmExpression index) {
+        this.index = Objects.requireNonNull(index);
+    }
+
+    public WasmExpression getValue() {
+        return value;
+    }
+
+    public void setValue(WasmExpression value) {
+        this.value = Objects.requireNonNull(value);
+    }
+
+    public WasmExpression getCount() {
+        return count;
+    }
+
+    public void setCount(WasmExpression count) {
+        this.count = Objects.requireNonNull(count);
+    }
+
+    @Override
+    public void acceptVisitor(WasmExpressionVisitor visitor) {
+        visitor.visit(this);
+    }
+}
@@ -112,6 +112,7 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
     @Override
     public void visit(WasmSetLocal expression) {
         expression.getValue().acceptVisitor(this);
+        expression.setValue(mapper.apply(expression.getValue()));
     }
 
     @Override
@@ -227,4 +228,34 @@ public class WasmReplacingExpressionVisitor implements WasmExpressionVisitor {
         expression.getAmount().acceptVisitor(this);
         expression.setAmount(mapper.apply(expression.getAmount()));
     }
+
+    @Override
+    public void visit(WasmFill expression) {
+        expression.getIndex().acceptVisitor(this);
+        expression.setIndex(mapper.apply(expression.getIndex()));
+        expression.getValue().acceptVisitor(this);
+        expression.setValue(mapper.apply(expression.getValue()));
+        expression.getCount().acceptVisitor(this);
+        expression.setCount(mapper.apply(expression.getCount()));
+    }
+
+    @Override
+    public void visit(WasmCopy expression) {
+        expression.getDestinationIndex().acceptVisitor(this);
+        expression.setDestinationIndex(mapper.apply(expression.getDestinationIndex()));
+        expression.getSourceIndex().acceptVisitor(this);
+        expression.setSourceIndex(mapper.apply(expression.getSourceIndex()));
+        expression.getCount().acceptVisitor(this);
+        expression.setCount(mapper.apply(expression.getCount()));
+    }
+
+    @Override
+    public void visit(WasmTry expression) {
+        replaceExpressions(expression.getBody().getBody());
+        replaceExpressions(expression.getCatchBlock().getBody());
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+    }
 }
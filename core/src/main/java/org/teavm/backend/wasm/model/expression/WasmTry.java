@@ -0,0 +1,62 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.model.expression;
+
+import java.util.Objects;
+import org.teavm.backend.wasm.model.WasmTag;
+import org.teavm.backend.wasm.model.WasmType;
+
+public class WasmTry extends WasmExpression {
+    private WasmBlock body = new WasmBlock(false);
+    private WasmTag catchTag;
+    private WasmBlock catchBlock = new WasmBlock(false);
+    private WasmType type;
+
+    public WasmTry(WasmTag catchTag) {
+        Objects.requireNonNull(catchTag);
+        this.catchTag = catchTag;
+    }
+
+    public WasmBlock getBody() {
+        return body;
+    }
+
+    public WasmTag getCatchTag() {
+        return catchTag;
+    }
+
+    public void setCatchTag(WasmTag catchTag) {
+        Objects.requireNonNull(catchTag);
+        this.catchTag = catchTag;
+    }
+
+    public WasmBlock getCatchBlock() {
+        return catchBlock;
+    }
+
+    public WasmType getType() {
+        return type;
+    }
+
+    public void setType(WasmType type) {
+        this.type = type;
+    }
+
+    @Override
+    public void acceptVisitor(WasmExpressionVisitor visitor) {
+        visitor.visit(this);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+
+/**
+ * <p>Simplifies structure of function bodies:</p>
+ *
+ * <ul>
+ *   <li>removes code that follows unconditional jumps;</li>
+ *   <li>removes breaks that jump to the end of the block they terminate;</li>
+ *   <li>inlines blocks and loops that are not targets of any jump into enclosing lists of expressions.</li>
+ * </ul>
+ */
+public class BlockFlattening {
+    private Map<WasmBlock, Integer> jumpCounts = new HashMap<>();
+
+    public void apply(WasmFunction function) {
+        jumpCounts.clear();
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(jumpCounter);
+        }
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(simplifier);
+        }
+        simplify(function.getBody(), null);
+    }
+
+    private void simplify(List<WasmExpression> expressions, WasmBlock owner) {
+        for (int i = 0; i < expressions.size(); ++i) {
+            WasmExpression part = expressions.get(i);
+            if (part instanceof WasmBlock && jumpCounts.getOrDefault(part, 0) == 0) {
+                List<WasmExpression> nested = ((WasmBlock) part).getBody();
+                expressions.remove(i);
+                expressions.addAll(i, nested);
+                --i;
+            } else if (isJump(part)) {
+                expressions.subList(i + 1, expressions.size()).clear();
+                break;
+            }
+        }
+
+        if (owner != null && !owner.isLoop() && !expressions.isEmpty()) {
+            WasmExpression last = expressions.get(expressions.size() - 1);
+            if (last instanceof WasmBreak && ((WasmBreak) last).getTarget() == owner) {
+                WasmExpression result = ((WasmBreak) last).getResult();
+                if (result != null) {
+                    expressions.set(expressions.size() - 1, result);
+                } else {
+                    expressions.remove(expressions.size() - 1);
+                }
+                jumpCounts.put(owner, jumpCounts.get(owner) - 1);
+            }
+        }
+    }
+
+    private static boolean isJump(WasmExpression expression) {
+        return expression instanceof WasmBreak || expression instanceof WasmSwitch
+                || expression instanceof WasmReturn || expression instanceof WasmUnreachable
+                || expression instanceof WasmThrow;
+    }
+
+    private void addJump(WasmBlock target) {
+        jumpCounts.merge(target, 1, Integer::sum);
+    }
+
+    private WasmDefaultExpressionVisitor jumpCounter = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBranch expression) {
+            super.visit(expression);
+            addJump(expression.getTarget());
+        }
+
+        @Override
+        public void visit(WasmBreak expression) {
+            super.visit(expression);
+            addJump(expression.getTarget());
+        }
+
+        @Override
+        public void visit(WasmSwitch expression) {
+            super.visit(expression);
+            for (WasmBlock target : expression.getTargets()) {
+                addJump(target);
+            }
+            addJump(expression.getDefaultTarget());
+        }
+    };
+
+    private WasmDefaultExpressionVisitor simplifier = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            super.visit(expression);
+            simplify(expression.getBody(), expression);
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            super.visit(expression);
+            simplify(expression.getThenBlock().getBody(), expression.getThenBlock());
+            simplify(expression.getElseBlock().getBody(), expression.getElseBlock());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            super.visit(expression);
+            simplify(expression.getBody().getBody(), expression.getBody());
+            simplify(expression.getCatchBlock().getBody(), expression.getCatchBlock());
+        }
+    };
+}
@@ -0,0 +1,267 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmReplacingExpressionVisitor;
+
+/**
+ * Folds integer operations with constant operands, removes identity operations like {@code x + 0} and
+ * resolves conditionals and conditional branches with constant conditions.
+ */
+public class ConstantFolding {
+    private WasmReplacingExpressionVisitor visitor = new WasmReplacingExpressionVisitor(this::fold);
+
+    public void apply(WasmFunction function) {
+        visitor.replace(function);
+    }
+
+    private WasmExpression fold(WasmExpression expression) {
+        WasmExpression result = expression;
+        if (expression instanceof WasmIntBinary) {
+            result = foldBinary((WasmIntBinary) expression);
+        } else if (expression instanceof WasmConditional) {
+            result = foldConditional((WasmConditional) expression);
+        } else if (expression instanceof WasmBranch) {
+            result = foldBranch((WasmBranch) expression);
+        }
+        if (result != expression && result.getLocation() == null) {
+            result.setLocation(expression.getLocation());
+        }
+        return result;
+    }
+
+    private WasmExpression foldBinary(WasmIntBinary expression) {
+        WasmExpression first = expression.getFirst();
+        WasmExpression second = expression.getSecond();
+        if (expression.getType() == WasmIntType.INT32) {
+            if (first instanceof WasmInt32Constant && second instanceof WasmInt32Constant) {
+                Integer value = foldInt32(expression, ((WasmInt32Constant) first).getValue(),
+                        ((WasmInt32Constant) second).getValue());
+                if (value != null) {
+                    return new WasmInt32Constant(value);
+                }
+            }
+        } else {
+            if (first instanceof WasmInt64Constant && second instanceof WasmInt64Constant) {
+                long a = ((WasmInt64Constant) first).getValue();
+                long b = ((WasmInt64Constant) second).getValue();
+                Integer comparison = compareInt64(expression, a, b);
+                if (comparison != null) {
+                    return new WasmInt32Constant(comparison);
+                }
+                Long value = foldInt64(expression, a, b);
+                if (value != null) {
+                    return new WasmInt64Constant(value);
+                }
+            }
+        }
+
+        switch (expression.getOperation()) {
+            case ADD:
+            case OR:
+            case XOR:
+                if (isConstant(first, expression.getType(), 0)) {
+                    return second;
+                }
+                if (isConstant(second, expression.getType(), 0)) {
+                    return first;
+                }
+                break;
+            case SUB:
+            case SHL:
+            case SHR_SIGNED:
+            case SHR_UNSIGNED:
+            case ROTL:
+            case ROTR:
+                if (isConstant(second, expression.getType(), 0)) {
+                    return first;
+                }
+                break;
+            case MUL:
+                if (isConstant(first, expression.getType(), 1)) {
+                    return second;
+                }
+                if (isConstant(second, expression.getType(), 1)) {
+                    return first;
+                }
+                break;
+            default:
+                break;
+        }
+        return expression;
+    }
+
+    private static Integer foldInt32(WasmIntBinary expression, int a, int b) {
+        switch (expression.getOperation()) {
+            case ADD:
+                return a + b;
+            case SUB:
+                return a - b;
+            case MUL:
+                return a * b;
+            case DIV_SIGNED:
+                return b != 0 && (a != Integer.MIN_VALUE || b != -1) ? a / b : null;
+            case DIV_UNSIGNED:
+                return b != 0 ? Integer.divideUnsigned(a, b) : null;
+            case REM_SIGNED:
+                return b != 0 ? a % b : null;
+            case REM_UNSIGNED:
+                return b != 0 ? Integer.remainderUnsigned(a, b) : null;
+            case OR:
+                return a | b;
+            case AND:
+                return a & b;
+            case XOR:
+                return a ^ b;
+            case SHL:
+                return a << b;
+            case SHR_SIGNED:
+                return a >> b;
+            case SHR_UNSIGNED:
+                return a >>> b;
+            case ROTL:
+                return Integer.rotateLeft(a, b);
+            case ROTR:
+                return Integer.rotateRight(a, b);
+            case EQ:
+                return a == b ? 1 : 0;
+            case NE:
+                return a != b ? 1 : 0;
+            case LT_SIGNED:
+                return a < b ? 1 : 0;
+            case LT_UNSIGNED:
+                return Integer.compareUnsigned(a, b) < 0 ? 1 : 0;
+            case LE_SIGNED:
+                return a <= b ? 1 : 0;
+            case LE_UNSIGNED:
+                return Integer.compareUnsigned(a, b) <= 0 ? 1 : 0;
+            case GT_SIGNED:
+                return a > b ? 1 : 0;
+            case GT_UNSIGNED:
+                return Integer.compareUnsigned(a, b) > 0 ? 1 : 0;
+            case GE_SIGNED:
+                return a >= b ? 1 : 0;
+            case GE_UNSIGNED:
+                return Integer.compareUnsigned(a, b) >= 0 ? 1 : 0;
+            default:
+                return null;
+        }
+    }
+
+    private static Integer compareInt64(WasmIntBinary expression, long a, long b) {
+        switch (expression.getOperation()) {
+            case EQ:
+                return a == b ? 1 : 0;
+            case NE:
+                return a != b ? 1 : 0;
+            case LT_SIGNED:
+                return a < b ? 1 : 0;
+            case LT_UNSIGNED:
+                return Long.compareUnsigned(a, b) < 0 ? 1 : 0;
+            case LE_SIGNED:
+                return a <= b ? 1 : 0;
+            case LE_UNSIGNED:
+                return Long.compareUnsigned(a, b) <= 0 ? 1 : 0;
+            case GT_SIGNED:
+                return a > b ? 1 : 0;
+            case GT_UNSIGNED:
+                return Long.compareUnsigned(a, b) > 0 ? 1 : 0;
+            case GE_SIGNED:
+                return a >= b ? 1 : 0;
+            case GE_UNSIGNED:
+                return Long.compareUnsigned(a, b) >= 0 ? 1 : 0;
+            default:
+                return null;
+        }
+    }
+
+    private static Long foldInt64(WasmIntBinary expression, long a, long b) {
+        switch (expression.getOperation()) {
+            case ADD:
+                return a + b;
+            case SUB:
+                return a - b;
+            case MUL:
+                return a * b;
+            case DIV_SIGNED:
+                return b != 0 && (a != Long.MIN_VALUE || b != -1) ? a / b : null;
+            case DIV_UNSIGNED:
+                return b != 0 ? Long.divideUnsigned(a, b) : null;
+            case REM_SIGNED:
+                return b != 0 ? a % b : null;
+            case REM_UNSIGNED:
+                return b != 0 ? Long.remainderUnsigned(a, b) : null;
+            case OR:
+                return a | b;
+            case AND:
+                return a & b;
+            case XOR:
+                return a ^ b;
+            case SHL:
+                return a << b;
+            case SHR_SIGNED:
+                return a >> b;
+            case SHR_UNSIGNED:
+                return a >>> b;
+            case ROTL:
+                return Long.rotateLeft(a, (int) b);
+            case ROTR:
+                return Long.rotateRight(a, (int) b);
+            default:
+                return null;
+        }
+    }
+
+    private WasmExpression foldConditional(WasmConditional expression) {
+        if (!(expression.getCondition() instanceof WasmInt32Constant)) {
+            return expression;
+        }
+        // Branches may refer to then/else blocks, so we reuse them instead of copying their contents
+        WasmBlock block = ((WasmInt32Constant) expression.getCondition()).getValue() != 0
+                ? expression.getThenBlock()
+                : expression.getElseBlock();
+        block.setType(expression.getType());
+        return block;
+    }
+
+    private WasmExpression foldBranch(WasmBranch expression) {
+        if (expression.getResult() != null || !(expression.getCondition() instanceof WasmInt32Constant)) {
+            return expression;
+        }
+        if (((WasmInt32Constant) expression.getCondition()).getValue() != 0) {
+            return new WasmBreak(expression.getTarget());
+        }
+        return new WasmBlock(false);
+    }
+
+    private static boolean isConstant(WasmExpression expression, WasmIntType type, int value) {
+        if (type == WasmIntType.INT32) {
+            return expression instanceof WasmInt32Constant && ((WasmInt32Constant) expression).getValue() == value;
+        } else {
+            return expression instanceof WasmInt64Constant && ((WasmInt64Constant) expression).getValue() == value;
+        }
+    }
+}
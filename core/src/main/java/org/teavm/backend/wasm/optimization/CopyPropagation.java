@@ -0,0 +1,422 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFill;
+import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
+import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
+import org.teavm.backend.wasm.model.expression.WasmFloatUnary;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmIndirectCall;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt64Constant;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntUnary;
+import org.teavm.backend.wasm.model.expression.WasmLoadFloat32;
+import org.teavm.backend.wasm.model.expression.WasmLoadFloat64;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt64;
+import org.teavm.backend.wasm.model.expression.WasmMemoryGrow;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmStoreFloat32;
+import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
+import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+
+/**
+ * <p>Eliminates locals that only carry a value from one statement to the next one. When a local is written once,
+ * read once, and the read is the first thing evaluated by the statement that immediately follows the write,
+ * the written value is moved to the place of the read. Writes to locals that are never read are replaced by
+ * evaluation of the written value.</p>
+ *
+ * <p>WebAssembly defines evaluation order of operands, but C, which the module can be rendered to, does not,
+ * since a statement becomes a single C expression. So a value that calls functions or writes memory is not moved
+ * into a statement that calls functions or accesses memory, and a value that reads memory is not moved into
+ * a statement that calls functions or writes memory. Call or store performed by the statement itself does not
+ * count, as it happens after all of its operands are evaluated.</p>
+ *
+ * <p>Parameters are never touched, since their initial values come from the caller.</p>
+ */
+public class CopyPropagation {
+    private Map<WasmLocal, UsageCount> usages = new HashMap<>();
+    private int parameterCount;
+
+    public void apply(WasmFunction function) {
+        usages.clear();
+        parameterCount = function.getParameters().size();
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(usageCounter);
+        }
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(optimizer);
+        }
+        optimize(function.getBody());
+    }
+
+    private void optimize(List<WasmExpression> expressions) {
+        for (int i = expressions.size() - 1; i >= 0; --i) {
+            if (!(expressions.get(i) instanceof WasmSetLocal)) {
+                continue;
+            }
+            WasmSetLocal set = (WasmSetLocal) expressions.get(i);
+            WasmLocal local = set.getLocal();
+            if (local.getIndex() < parameterCount) {
+                continue;
+            }
+            UsageCount usage = usages.get(local);
+            if (usage.reads == 0) {
+                if (isPure(set.getValue())) {
+                    expressions.remove(i);
+                } else {
+                    expressions.set(i, new WasmDrop(set.getValue()));
+                }
+                --usage.writes;
+            } else if (usage.reads == 1 && usage.writes == 1 && i + 1 < expressions.size()
+                    && canReorder(set.getValue(), expressions.get(i + 1))
+                    && substitute(expressions.get(i + 1), local, set.getValue())) {
+                expressions.remove(i);
+                usage.reads = 0;
+                usage.writes = 0;
+            }
+        }
+    }
+
+    private boolean substitute(WasmExpression expression, WasmLocal local, WasmExpression value) {
+        WasmExpression first = getFirstEvaluated(expression);
+        if (first == null) {
+            return false;
+        }
+        if (first instanceof WasmGetLocal) {
+            if (((WasmGetLocal) first).getLocal() != local) {
+                return false;
+            }
+            return replaceFirstEvaluated(expression, value);
+        }
+        return substitute(first, local, value);
+    }
+
+    private static WasmExpression getFirstEvaluated(WasmExpression expression) {
+        if (expression instanceof WasmBlock) {
+            WasmBlock block = (WasmBlock) expression;
+            return !block.isLoop() && !block.getBody().isEmpty() ? block.getBody().get(0) : null;
+        } else if (expression instanceof WasmBranch) {
+            WasmBranch branch = (WasmBranch) expression;
+            return branch.getResult() != null ? branch.getResult() : branch.getCondition();
+        } else if (expression instanceof WasmBreak) {
+            return ((WasmBreak) expression).getResult();
+        } else if (expression instanceof WasmSwitch) {
+            return ((WasmSwitch) expression).getSelector();
+        } else if (expression instanceof WasmConditional) {
+            return ((WasmConditional) expression).getCondition();
+        } else if (expression instanceof WasmReturn) {
+            return ((WasmReturn) expression).getValue();
+        } else if (expression instanceof WasmSetLocal) {
+            return ((WasmSetLocal) expression).getValue();
+        } else if (expression instanceof WasmIntBinary) {
+            return ((WasmIntBinary) expression).getFirst();
+        } else if (expression instanceof WasmFloatBinary) {
+            return ((WasmFloatBinary) expression).getFirst();
+        } else if (expression instanceof WasmIntUnary) {
+            return ((WasmIntUnary) expression).getOperand();
+        } else if (expression instanceof WasmFloatUnary) {
+            return ((WasmFloatUnary) expression).getOperand();
+        } else if (expression instanceof WasmConversion) {
+            return ((WasmConversion) expression).getOperand();
+        } else if (expression instanceof WasmCall) {
+            List<WasmExpression> arguments = ((WasmCall) expression).getArguments();
+            return !arguments.isEmpty() ? arguments.get(0) : null;
+        } else if (expression instanceof WasmIndirectCall) {
+            WasmIndirectCall call = (WasmIndirectCall) expression;
+            return !call.getArguments().isEmpty() ? call.getArguments().get(0) : call.getSelector();
+        } else if (expression instanceof WasmDrop) {
+            return ((WasmDrop) expression).getOperand();
+        } else if (expression instanceof WasmLoadInt32) {
+            return ((WasmLoadInt32) expression).getIndex();
+        } else if (expression instanceof WasmLoadInt64) {
+            return ((WasmLoadInt64) expression).getIndex();
+        } else if (expression instanceof WasmLoadFloat32) {
+            return ((WasmLoadFloat32) expression).getIndex();
+        } else if (expression instanceof WasmLoadFloat64) {
+            return ((WasmLoadFloat64) expression).getIndex();
+        } else if (expression instanceof WasmStoreInt32) {
+            return ((WasmStoreInt32) expression).getIndex();
+        } else if (expression instanceof WasmStoreInt64) {
+            return ((WasmStoreInt64) expression).getIndex();
+        } else if (expression instanceof WasmStoreFloat32) {
+            return ((WasmStoreFloat32) expression).getIndex();
+        } else if (expression instanceof WasmStoreFloat64) {
+            return ((WasmStoreFloat64) expression).getIndex();
+        } else if (expression instanceof WasmMemoryGrow) {
+            return ((WasmMemoryGrow) expression).getAmount();
+        } else if (expression instanceof WasmFill) {
+            return ((WasmFill) expression).getIndex();
+        } else if (expression instanceof WasmCopy) {
+            return ((WasmCopy) expression).getDestinationIndex();
+        }
+        return null;
+    }
+
+    private static boolean replaceFirstEvaluated(WasmExpression expression, WasmExpression value) {
+        if (expression instanceof WasmBlock) {
+            ((WasmBlock) expression).getBody().set(0, value);
+        } else if (expression instanceof WasmBranch) {
+            WasmBranch branch = (WasmBranch) expression;
+            if (branch.getResult() != null) {
+                branch.setResult(value);
+            } else {
+                branch.setCondition(value);
+            }
+        } else if (expression instanceof WasmBreak) {
+            ((WasmBreak) expression).setResult(value);
+        } else if (expression instanceof WasmSwitch) {
+            ((WasmSwitch) expression).setSelector(value);
+        } else if (expression instanceof WasmConditional) {
+            ((WasmConditional) expression).setCondition(value);
+        } else if (expression instanceof WasmReturn) {
+            ((WasmReturn) expression).setValue(value);
+        } else if (expression instanceof WasmSetLocal) {
+            ((WasmSetLocal) expression).setValue(value);
+        } else if (expression instanceof WasmIntBinary) {
+            ((WasmIntBinary) expression).setFirst(value);
+        } else if (expression instanceof WasmFloatBinary) {
+            ((WasmFloatBinary) expression).setFirst(value);
+        } else if (expression instanceof WasmIntUnary) {
+            ((WasmIntUnary) expression).setOperand(value);
+        } else if (expression instanceof WasmFloatUnary) {
+            ((WasmFloatUnary) expression).setOperand(value);
+        } else if (expression instanceof WasmConversion) {
+            ((WasmConversion) expression).setOperand(value);
+        } else if (expression instanceof WasmCall) {
+            ((WasmCall) expression).getArguments().set(0, value);
+        } else if (expression instanceof WasmIndirectCall) {
+            WasmIndirectCall call = (WasmIndirectCall) expression;
+            if (!call.getArguments().isEmpty()) {
+                call.getArguments().set(0, value);
+            } else {
+                call.setSelector(value);
+            }
+        } else if (expression instanceof WasmDrop) {
+            ((WasmDrop) expression).setOperand(value);
+        } else if (expression instanceof WasmLoadInt32) {
+            ((WasmLoadInt32) expression).setIndex(value);
+        } else if (expression instanceof WasmLoadInt64) {
+            ((WasmLoadInt64) expression).setIndex(value);
+        } else if (expression instanceof WasmLoadFloat32) {
+            ((WasmLoadFloat32) expression).setIndex(value);
+        } else if (expression instanceof WasmLoadFloat64) {
+            ((WasmLoadFloat64) expression).setIndex(value);
+        } else if (expression instanceof WasmStoreInt32) {
+            ((WasmStoreInt32) expression).setIndex(value);
+        } else if (expression instanceof WasmStoreInt64) {
+            ((WasmStoreInt64) expression).setIndex(value);
+        } else if (expression instanceof WasmStoreFloat32) {
+            ((WasmStoreFloat32) expression).setIndex(value);
+        } else if (expression instanceof WasmStoreFloat64) {
+            ((WasmStoreFloat64) expression).setIndex(value);
+        } else if (expression instanceof WasmMemoryGrow) {
+            ((WasmMemoryGrow) expression).setAmount(value);
+        } else if (expression instanceof WasmFill) {
+            ((WasmFill) expression).setIndex(value);
+        } else if (expression instanceof WasmCopy) {
+            ((WasmCopy) expression).setDestinationIndex(value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isPure(WasmExpression expression) {
+        return expression instanceof WasmGetLocal || expression instanceof WasmInt32Constant
+                || expression instanceof WasmInt64Constant || expression instanceof WasmFloat32Constant
+                || expression instanceof WasmFloat64Constant;
+    }
+
+    private static boolean canReorder(WasmExpression value, WasmExpression statement) {
+        EffectDetector valueEffects = new EffectDetector(null);
+        value.acceptVisitor(valueEffects);
+        EffectDetector statementEffects = new EffectDetector(statement);
+        statement.acceptVisitor(statementEffects);
+
+        if (valueEffects.calls || valueEffects.writes) {
+            return !statementEffects.calls && !statementEffects.reads && !statementEffects.writes;
+        } else if (valueEffects.reads) {
+            return !statementEffects.calls && !statementEffects.writes;
+        }
+        return true;
+    }
+
+    private UsageCount getUsage(WasmLocal local) {
+        return usages.computeIfAbsent(local, k -> new UsageCount());
+    }
+
+    private WasmDefaultExpressionVisitor usageCounter = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmGetLocal expression) {
+            getUsage(expression.getLocal()).reads++;
+        }
+
+        @Override
+        public void visit(WasmSetLocal expression) {
+            super.visit(expression);
+            getUsage(expression.getLocal()).writes++;
+        }
+    };
+
+    private WasmDefaultExpressionVisitor optimizer = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            super.visit(expression);
+            optimize(expression.getBody());
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            super.visit(expression);
+            optimize(expression.getThenBlock().getBody());
+            optimize(expression.getElseBlock().getBody());
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            super.visit(expression);
+            optimize(expression.getBody().getBody());
+            optimize(expression.getCatchBlock().getBody());
+        }
+    };
+
+    static class EffectDetector extends WasmDefaultExpressionVisitor {
+        private WasmExpression root;
+        boolean calls;
+        boolean reads;
+        boolean writes;
+
+        EffectDetector(WasmExpression root) {
+            this.root = root;
+        }
+
+        @Override
+        public void visit(WasmCall expression) {
+            calls |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmIndirectCall expression) {
+            calls |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmMemoryGrow expression) {
+            calls |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmThrow expression) {
+            calls = true;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadInt32 expression) {
+            reads = true;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadInt64 expression) {
+            reads = true;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadFloat32 expression) {
+            reads = true;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmLoadFloat64 expression) {
+            reads = true;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreInt32 expression) {
+            writes |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreInt64 expression) {
+            writes |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreFloat32 expression) {
+            writes |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmStoreFloat64 expression) {
+            writes |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmFill expression) {
+            writes |= expression != root;
+            super.visit(expression);
+        }
+
+        @Override
+        public void visit(WasmCopy expression) {
+            if (expression != root) {
+                reads = true;
+                writes = true;
+            }
+            super.visit(expression);
+        }
+    }
+
+    static class UsageCount {
+        int reads;
+        int writes;
+    }
+}
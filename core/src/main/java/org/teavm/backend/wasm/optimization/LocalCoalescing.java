@@ -0,0 +1,329 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmIndirectCall;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
+import org.teavm.backend.wasm.model.expression.WasmUnreachable;
+
+/**
+ * <p>Makes locals with non-overlapping live ranges share the same slot and removes unused locals.</p>
+ *
+ * <p>Every access to a local gets a number in evaluation order, and the live range of a local is the interval
+ * between its first and last access. If a local is accessed both inside and outside of a loop, its range is
+ * extended to the whole loop, since the value may travel along the back edge. Locals of the same type
+ * with disjoint ranges are assigned to the same slot by linear scan.</p>
+ *
+ * <p>Locals that may be read before they are written rely on zero initialization. Such locals, as well as
+ * parameters, keep their own slots. This is found by a definite assignment analysis over the structured
+ * control flow.</p>
+ */
+public class LocalCoalescing {
+    private WasmFunction function;
+    private int parameterCount;
+    private int position;
+    private int[] start;
+    private int[] end;
+    private boolean[] pinned;
+    private List<int[]> loops = new ArrayList<>();
+    private BitSet assigned;
+    private Map<WasmBlock, BitSet> blockExitStates = new HashMap<>();
+
+    public void apply(WasmFunction function) {
+        this.function = function;
+        int localCount = function.getLocalVariables().size();
+        parameterCount = Math.min(function.getParameters().size(), localCount);
+        position = 0;
+        start = new int[localCount];
+        end = new int[localCount];
+        Arrays.fill(start, -1);
+        pinned = new boolean[localCount];
+        loops.clear();
+        blockExitStates.clear();
+        assigned = new BitSet();
+        assigned.set(0, parameterCount);
+
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(analyzer);
+        }
+        extendOverLoops();
+        WasmLocal[] mapping = allocate();
+        rewrite(mapping);
+
+        this.function = null;
+        start = null;
+        end = null;
+        pinned = null;
+        assigned = null;
+    }
+
+    private void extendOverLoops() {
+        for (int[] loop : loops) {
+            for (int i = 0; i < start.length; ++i) {
+                if (start[i] < 0 || end[i] < loop[0] || start[i] >= loop[1]) {
+                    continue;
+                }
+                if (start[i] < loop[0] || end[i] >= loop[1]) {
+                    start[i] = Math.min(start[i], loop[0]);
+                    end[i] = Math.max(end[i], loop[1]);
+                }
+            }
+        }
+    }
+
+    private WasmLocal[] allocate() {
+        List<WasmLocal> locals = function.getLocalVariables();
+        WasmLocal[] mapping = new WasmLocal[locals.size()];
+        List<WasmLocal> candidates = new ArrayList<>();
+        for (int i = 0; i < locals.size(); ++i) {
+            if (i < parameterCount || pinned[i]) {
+                mapping[i] = locals.get(i);
+            } else if (start[i] >= 0) {
+                candidates.add(locals.get(i));
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(start[a.getIndex()], start[b.getIndex()]));
+
+        List<Slot> slots = new ArrayList<>();
+        for (WasmLocal local : candidates) {
+            int index = local.getIndex();
+            Slot slot = null;
+            for (Slot candidate : slots) {
+                if (candidate.local.getType() == local.getType() && candidate.end < start[index]) {
+                    slot = candidate;
+                    break;
+                }
+            }
+            if (slot == null) {
+                slot = new Slot(local);
+                slots.add(slot);
+            }
+            slot.end = end[index];
+            mapping[index] = slot.local;
+        }
+        return mapping;
+    }
+
+    private void rewrite(WasmLocal[] mapping) {
+        WasmDefaultExpressionVisitor rewriter = new WasmDefaultExpressionVisitor() {
+            @Override
+            public void visit(WasmGetLocal expression) {
+                expression.setLocal(mapping[expression.getLocal().getIndex()]);
+            }
+
+            @Override
+            public void visit(WasmSetLocal expression) {
+                super.visit(expression);
+                expression.setLocal(mapping[expression.getLocal().getIndex()]);
+            }
+        };
+        for (WasmExpression part : function.getBody()) {
+            part.acceptVisitor(rewriter);
+        }
+
+        List<WasmLocal> locals = new ArrayList<>(function.getLocalVariables());
+        for (int i = locals.size() - 1; i >= parameterCount; --i) {
+            if (mapping[i] != locals.get(i)) {
+                function.remove(locals.get(i));
+            }
+        }
+    }
+
+    private void access(WasmLocal local) {
+        int index = local.getIndex();
+        int current = position++;
+        if (start[index] < 0) {
+            start[index] = current;
+        }
+        end[index] = current;
+    }
+
+    private void enterUnreachable() {
+        assigned = null;
+    }
+
+    private void jump(WasmBlock target) {
+        if (assigned == null || target.isLoop()) {
+            return;
+        }
+        BitSet state = blockExitStates.get(target);
+        if (state == null) {
+            blockExitStates.put(target, (BitSet) assigned.clone());
+        } else {
+            state.and(assigned);
+        }
+    }
+
+    private void visitBlock(WasmBlock block) {
+        if (block.isLoop()) {
+            int loopStart = position;
+            for (WasmExpression part : block.getBody()) {
+                part.acceptVisitor(analyzer);
+            }
+            loops.add(new int[] { loopStart, position });
+        } else {
+            for (WasmExpression part : block.getBody()) {
+                part.acceptVisitor(analyzer);
+            }
+            BitSet exitState = blockExitStates.remove(block);
+            if (exitState != null) {
+                if (assigned != null) {
+                    exitState.and(assigned);
+                }
+                assigned = exitState;
+            }
+        }
+    }
+
+    private BitSet merge(BitSet a, BitSet b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        a.and(b);
+        return a;
+    }
+
+    private BitSet copyState() {
+        return assigned != null ? (BitSet) assigned.clone() : null;
+    }
+
+    private WasmDefaultExpressionVisitor analyzer = new WasmDefaultExpressionVisitor() {
+        @Override
+        public void visit(WasmBlock expression) {
+            visitBlock(expression);
+        }
+
+        @Override
+        public void visit(WasmBranch expression) {
+            if (expression.getResult() != null) {
+                expression.getResult().acceptVisitor(this);
+            }
+            expression.getCondition().acceptVisitor(this);
+            jump(expression.getTarget());
+        }
+
+        @Override
+        public void visit(WasmBreak expression) {
+            super.visit(expression);
+            jump(expression.getTarget());
+            enterUnreachable();
+        }
+
+        @Override
+        public void visit(WasmSwitch expression) {
+            super.visit(expression);
+            for (WasmBlock target : expression.getTargets()) {
+                jump(target);
+            }
+            jump(expression.getDefaultTarget());
+            enterUnreachable();
+        }
+
+        @Override
+        public void visit(WasmConditional expression) {
+            expression.getCondition().acceptVisitor(this);
+            BitSet entryState = copyState();
+            visitBlock(expression.getThenBlock());
+            BitSet thenState = assigned;
+            assigned = entryState;
+            visitBlock(expression.getElseBlock());
+            assigned = merge(thenState, assigned);
+        }
+
+        @Override
+        public void visit(WasmTry expression) {
+            BitSet entryState = copyState();
+            visitBlock(expression.getBody());
+            BitSet bodyState = assigned;
+            assigned = entryState;
+            visitBlock(expression.getCatchBlock());
+            assigned = merge(bodyState, assigned);
+        }
+
+        @Override
+        public void visit(WasmReturn expression) {
+            super.visit(expression);
+            enterUnreachable();
+        }
+
+        @Override
+        public void visit(WasmUnreachable expression) {
+            enterUnreachable();
+        }
+
+        @Override
+        public void visit(WasmThrow expression) {
+            enterUnreachable();
+        }
+
+        @Override
+        public void visit(WasmGetLocal expression) {
+            WasmLocal local = expression.getLocal();
+            if (assigned != null && !assigned.get(local.getIndex())) {
+                pinned[local.getIndex()] = true;
+            }
+            access(local);
+        }
+
+        @Override
+        public void visit(WasmSetLocal expression) {
+            super.visit(expression);
+            access(expression.getLocal());
+            if (assigned != null) {
+                assigned.set(expression.getLocal().getIndex());
+            }
+        }
+
+        @Override
+        public void visit(WasmIndirectCall expression) {
+            for (WasmExpression argument : expression.getArguments()) {
+                argument.acceptVisitor(this);
+            }
+            expression.getSelector().acceptVisitor(this);
+        }
+    };
+
+    static class Slot {
+        final WasmLocal local;
+        int end;
+
+        Slot(WasmLocal local) {
+            this.local = local;
+        }
+    }
+}
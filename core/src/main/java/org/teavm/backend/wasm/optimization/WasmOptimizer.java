@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmModule;
+
+/**
+ * <p>Runs function-level optimizations over the generated module: constant folding, block flattening with
+ * removal of redundant branches, copy propagation and local coalescing.</p>
+ *
+ * <p>Local coalescing makes several variables share one local, so it can be switched off when local names
+ * are expected to be meaningful, e.g. in debug builds.</p>
+ */
+public class WasmOptimizer {
+    private WasmModule module;
+    private boolean localCoalescing = true;
+
+    public WasmOptimizer(WasmModule module) {
+        this.module = module;
+    }
+
+    public boolean isLocalCoalescing() {
+        return localCoalescing;
+    }
+
+    public void setLocalCoalescing(boolean localCoalescing) {
+        this.localCoalescing = localCoalescing;
+    }
+
+    public void apply() {
+        ConstantFolding constantFolding = new ConstantFolding();
+        BlockFlattening blockFlattening = new BlockFlattening();
+        CopyPropagation copyPropagation = new CopyPropagation();
+        LocalCoalescing localCoalescing = this.localCoalescing ? new LocalCoalescing() : null;
+        for (WasmFunction function : module.getFunctions().values()) {
+            if (function.getImportName() != null) {
+                continue;
+            }
+            constantFolding.apply(function);
+            blockFlattening.apply(function);
+            copyPropagation.apply(function);
+            constantFolding.apply(function);
+            blockFlattening.apply(function);
+            if (localCoalescing != null) {
+                localCoalescing.apply(function);
+            }
+        }
+    }
+}
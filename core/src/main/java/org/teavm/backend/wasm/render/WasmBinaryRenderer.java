@@ -15,19 +15,32 @@
  */
 package org.teavm.backend.wasm.render;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
 import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.WasmType;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 
+/**
+ * <p>Writes WebAssembly module in binary format directly to an output stream. Each section is written as soon
+ * as it's encoded, so the whole module is never kept in memory. Memory segments are copied to the output
+ * without intermediate buffers.</p>
+ *
+ * <p>When thread count is greater than 1, function bodies are encoded on a thread pool into
+ * independent buffers and then written in module order.</p>
+ */
 public class WasmBinaryRenderer {
     private static final int SECTION_UNKNOWN = 0;
     private static final int SECTION_TYPE = 1;
@@ -40,36 +53,53 @@ public class WasmBinaryRenderer {
     private static final int SECTION_ELEMENT = 9;
     private static final int SECTION_CODE = 10;
     private static final int SECTION_DATA = 11;
+    private static final int SECTION_TAG = 13;
 
     private static final int EXTERNAL_KIND_FUNCTION = 0;
     private static final int EXTERNAL_KIND_MEMORY = 2;
 
-    private WasmBinaryWriter output;
+    private static final WasmSignature TAG_SIGNATURE = new WasmSignature(new WasmType[] { null });
+
+    private OutputStream output;
     private WasmBinaryVersion version;
     private List<WasmSignature> signatures = new ArrayList<>();
     private Map<WasmSignature, Integer> signatureIndexes = new HashMap<>();
     private Map<String, Integer> functionIndexes = new HashMap<>();
     private boolean obfuscated;
+    private int threadCount = 1;
+    private List<WasmBinarySectionStats> sectionStats = new ArrayList<>();
+    private long sectionStartTime;
 
-    public WasmBinaryRenderer(WasmBinaryWriter output, WasmBinaryVersion version, boolean obfuscated) {
+    public WasmBinaryRenderer(OutputStream output, WasmBinaryVersion version, boolean obfuscated) {
         this.output = output;
         this.version = version;
         this.obfuscated = obfuscated;
     }
 
-    public void render(WasmModule module) {
-        output.writeInt32(0x6d736100);
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public List<? extends WasmBinarySectionStats> getSectionStats() {
+        return sectionStats;
+    }
+
+    public void render(WasmModule module) throws IOException {
+        WasmBinaryWriter header = new WasmBinaryWriter();
+        header.writeInt32(0x6d736100);
         switch (version) {
             case V_0x1:
-                output.writeInt32(0x01);
+                header.writeInt32(0x01);
                 break;
         }
+        header.writeTo(output);
 
         renderSignatures(module);
         renderImports(module);
         renderFunctions(module);
         renderTable(module);
         renderMemory(module);
+        renderTags(module);
         renderExport(module);
         renderStart(module);
         renderElement(module);
@@ -80,7 +110,8 @@ public class WasmBinaryRenderer {
         }
     }
 
-    private void renderSignatures(WasmModule module) {
+    private void renderSignatures(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         WasmBinaryWriter section = new WasmBinaryWriter();
         WasmSignatureCollector signatureCollector = new WasmSignatureCollector(this::registerSignature);
 
@@ -90,6 +121,9 @@ public class WasmBinaryRenderer {
                 part.acceptVisitor(signatureCollector);
             }
         }
+        if (!module.getTags().isEmpty()) {
+            registerSignature(TAG_SIGNATURE);
+        }
 
         section.writeLEB(signatures.size());
         for (WasmSignature signature : signatures) {
@@ -109,7 +143,8 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_TYPE, "type", section.getData());
     }
 
-    private void renderImports(WasmModule module) {
+    private void renderImports(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         List<WasmFunction> functions = new ArrayList<>();
         for (WasmFunction function : module.getFunctions().values()) {
             if (function.getImportName() == null) {
@@ -144,7 +179,8 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_IMPORT, "import", section.getData());
     }
 
-    private void renderFunctions(WasmModule module) {
+    private void renderFunctions(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         WasmBinaryWriter section = new WasmBinaryWriter();
 
         List<WasmFunction> functions = module.getFunctions().values().stream()
@@ -163,7 +199,8 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_FUNCTION, "function", section.getData());
     }
 
-    private void renderTable(WasmModule module) {
+    private void renderTable(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         if (module.getFunctionTable().isEmpty()) {
             return;
         }
@@ -178,7 +215,8 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_TABLE, "table", section.getData());
     }
 
-    private void renderMemory(WasmModule module) {
+    private void renderMemory(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         WasmBinaryWriter section = new WasmBinaryWriter();
 
         section.writeByte(1);
@@ -189,7 +227,25 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_MEMORY, "memory", section.getData());
     }
 
-    private void renderExport(WasmModule module) {
+    private void renderTags(WasmModule module) throws IOException {
+        if (module.getTags().isEmpty()) {
+            return;
+        }
+        sectionStartTime = System.nanoTime();
+        WasmBinaryWriter section = new WasmBinaryWriter();
+
+        int signatureIndex = signatureIndexes.get(TAG_SIGNATURE);
+        section.writeLEB(module.getTags().size());
+        for (WasmTag tag : module.getTags()) {
+            section.writeByte(0);
+            section.writeLEB(signatureIndex);
+        }
+
+        writeSection(SECTION_TAG, "tag", section.getData());
+    }
+
+    private void renderExport(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
 
         // https://github.com/WebAssembly/design/blob/master/BinaryEncoding.md#export-section
 
@@ -217,7 +273,8 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_EXPORT, "export", section.getData());
     }
 
-    private void renderStart(WasmModule module) {
+    private void renderStart(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         if (module.getStartFunction() == null) {
             return;
         }
@@ -228,7 +285,8 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_START, "start", section.getData());
     }
 
-    private void renderElement(WasmModule module) {
+    private void renderElement(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         if (module.getFunctionTable().isEmpty()) {
             return;
         }
@@ -247,21 +305,42 @@ public class WasmBinaryRenderer {
         writeSection(SECTION_ELEMENT, "element", section.getData());
     }
 
-    private void renderCode(WasmModule module) {
-        WasmBinaryWriter section = new WasmBinaryWriter();
-
+    private void renderCode(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         List<WasmFunction> functions = module.getFunctions().values().stream()
                 .filter(function -> function.getImportName() == null)
                 .collect(Collectors.toList());
 
-        section.writeLEB(functions.size());
-        for (WasmFunction function : functions) {
-            byte[] body = renderFunction(function);
-            section.writeLEB(body.length);
-            section.writeBytes(body);
+        byte[][] bodies = new byte[functions.size()][];
+        if (threadCount > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threadCount);
+            try {
+                pool.invoke(new FunctionEncodingTask(functions, bodies, 0, functions.size()));
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (int i = 0; i < bodies.length; ++i) {
+                bodies[i] = renderFunction(functions.get(i));
+            }
         }
 
-        writeSection(SECTION_CODE, "code", section.getData());
+        int length = WasmBinaryWriter.sizeOfLEB(bodies.length);
+        for (byte[] body : bodies) {
+            length += WasmBinaryWriter.sizeOfLEB(body.length) + body.length;
+        }
+
+        writeSectionHeader(SECTION_CODE, "code", length);
+        WasmBinaryWriter prefix = new WasmBinaryWriter();
+        prefix.writeLEB(bodies.length);
+        for (int i = 0; i < bodies.length; ++i) {
+            prefix.writeLEB(bodies[i].length);
+            prefix.writeTo(output);
+            prefix.clear();
+            output.write(bodies[i]);
+            bodies[i] = null;
+        }
+        completeSection("code", length);
     }
 
     private byte[] renderFunction(WasmFunction function) {
@@ -310,30 +389,43 @@ public class WasmBinaryRenderer {
         output.writeByte(0x0B);
     }
 
-    private void renderData(WasmModule module) {
+    private void renderData(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         if (module.getSegments().isEmpty()) {
             return;
         }
 
-        WasmBinaryWriter section = new WasmBinaryWriter();
-
-        section.writeLEB(module.getSegments().size());
-        for (WasmMemorySegment segment : module.getSegments()) {
-            section.writeByte(0);
-            renderInitializer(section, segment.getOffset());
+        List<WasmMemorySegment> segments = module.getSegments();
+        byte[][] segmentHeaders = new byte[segments.size()][];
+        int length = WasmBinaryWriter.sizeOfLEB(segments.size());
+        for (int i = 0; i < segments.size(); ++i) {
+            WasmMemorySegment segment = segments.get(i);
+            WasmBinaryWriter segmentHeader = new WasmBinaryWriter();
+            segmentHeader.writeByte(0);
+            renderInitializer(segmentHeader, segment.getOffset());
+            segmentHeader.writeLEB(segment.getLength());
+            segmentHeaders[i] = segmentHeader.getData();
+            length += segmentHeaders[i].length + segment.getLength();
+        }
 
-            section.writeLEB(segment.getLength());
+        writeSectionHeader(SECTION_DATA, "data", length);
+        WasmBinaryWriter count = new WasmBinaryWriter();
+        count.writeLEB(segments.size());
+        count.writeTo(output);
+        for (int i = 0; i < segments.size(); ++i) {
+            WasmMemorySegment segment = segments.get(i);
+            output.write(segmentHeaders[i]);
             int chunkSize = 65536;
-            for (int i = 0; i < segment.getLength(); i += chunkSize) {
-                int next = Math.min(i + chunkSize, segment.getLength());
-                section.writeBytes(segment.getData(i, next - i));
+            for (int j = 0; j < segment.getLength(); j += chunkSize) {
+                int next = Math.min(j + chunkSize, segment.getLength());
+                output.write(segment.getData(j, next - j));
             }
         }
-
-        writeSection(SECTION_DATA, "data", section.getData());
+        completeSection("data", length);
     }
 
-    private void renderNames(WasmModule module) {
+    private void renderNames(WasmModule module) throws IOException {
+        sectionStartTime = System.nanoTime();
         WasmBinaryWriter section = new WasmBinaryWriter();
 
         WasmBinaryWriter functionsSubsection = new WasmBinaryWriter();
@@ -371,17 +463,54 @@ public class WasmBinaryRenderer {
         });
     }
 
-    private void writeSection(int id, String name, byte[] data) {
-        output.writeByte(id);
-        int length = data.length;
+    private void writeSection(int id, String name, byte[] data) throws IOException {
+        writeSectionHeader(id, name, data.length);
+        output.write(data);
+        completeSection(name, data.length);
+    }
+
+    private void writeSectionHeader(int id, String name, int length) throws IOException {
+        WasmBinaryWriter header = new WasmBinaryWriter();
+        header.writeByte(id);
         if (id == 0) {
             length += name.length() + 1;
         }
-        output.writeLEB(length);
+        header.writeLEB(length);
         if (id == 0) {
-            output.writeAsciiString(name);
+            header.writeAsciiString(name);
+        }
+        header.writeTo(output);
+    }
+
+    private void completeSection(String name, int length) {
+        sectionStats.add(new WasmBinarySectionStats(name, length, System.nanoTime() - sectionStartTime));
+    }
+
+    class FunctionEncodingTask extends RecursiveAction {
+        private static final int THRESHOLD = 16;
+        private List<WasmFunction> functions;
+        private byte[][] bodies;
+        private int start;
+        private int end;
+
+        FunctionEncodingTask(List<WasmFunction> functions, byte[][] bodies, int start, int end) {
+            this.functions = functions;
+            this.bodies = bodies;
+            this.start = start;
+            this.end = end;
         }
 
-        output.writeBytes(data);
+        @Override
+        protected void compute() {
+            if (end - start > THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new FunctionEncodingTask(functions, bodies, start, middle),
+                        new FunctionEncodingTask(functions, bodies, middle, end));
+                return;
+            }
+            for (int i = start; i < end; ++i) {
+                bodies[i] = renderFunction(functions.get(i));
+            }
+        }
     }
 }
@@ -24,9 +24,11 @@ import org.teavm.backend.wasm.model.expression.WasmBreak;
 import org.teavm.backend.wasm.model.expression.WasmCall;
 import org.teavm.backend.wasm.model.expression.WasmConditional;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
 import org.teavm.backend.wasm.model.expression.WasmDrop;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.backend.wasm.model.expression.WasmExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmFill;
 import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
 import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
 import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
@@ -49,6 +51,8 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 
 class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
@@ -832,6 +836,57 @@ class WasmBinaryRenderingVisitor implements WasmExpressionVisitor {
         writer.writeByte(0);
     }
 
+    @Override
+    public void visit(WasmFill expression) {
+        expression.getIndex().acceptVisitor(this);
+        expression.getValue().acceptVisitor(this);
+        expression.getCount().acceptVisitor(this);
+        writer.writeByte(0xFC);
+        writer.writeLEB(11);
+        writer.writeByte(0);
+    }
+
+    @Override
+    public void visit(WasmCopy expression) {
+        expression.getDestinationIndex().acceptVisitor(this);
+        expression.getSourceIndex().acceptVisitor(this);
+        expression.getCount().acceptVisitor(this);
+        writer.writeByte(0xFC);
+        writer.writeLEB(10);
+        writer.writeByte(0);
+        writer.writeByte(0);
+    }
+
+    @Override
+    public void visit(WasmTry expression) {
+        writer.writeByte(0x06);
+        writeBlockType(expression.getType());
+
+        ++depth;
+        blockDepths.put(expression.getBody(), depth);
+        for (WasmExpression part : expression.getBody().getBody()) {
+            part.acceptVisitor(this);
+        }
+        blockDepths.remove(expression.getBody());
+
+        writer.writeByte(0x07);
+        writer.writeLEB(expression.getCatchTag().getIndex());
+        blockDepths.put(expression.getCatchBlock(), depth);
+        for (WasmExpression part : expression.getCatchBlock().getBody()) {
+            part.acceptVisitor(this);
+        }
+        blockDepths.remove(expression.getCatchBlock());
+        --depth;
+
+        writer.writeByte(0x0B);
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        writer.writeByte(0x08);
+        writer.writeLEB(expression.getTag().getIndex());
+    }
+
     private int alignment(int value) {
         return 31 - Integer.numberOfLeadingZeros(Math.max(1, value));
     }
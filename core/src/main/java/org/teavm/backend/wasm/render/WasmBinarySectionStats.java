@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.render;
+
+public class WasmBinarySectionStats {
+    private final String name;
+    private final int size;
+    private final long encodeTime;
+
+    WasmBinarySectionStats(String name, int size, long encodeTime) {
+        this.name = name;
+        this.size = size;
+        this.encodeTime = encodeTime;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Size of section payload in bytes, not including section id and size prefix.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Time spent to encode and write the section, in nanoseconds.
+     */
+    public long getEncodeTime() {
+        return encodeTime;
+    }
+}
@@ -32,9 +32,11 @@ import org.teavm.backend.wasm.model.expression.WasmBreak;
 import org.teavm.backend.wasm.model.expression.WasmCall;
 import org.teavm.backend.wasm.model.expression.WasmConditional;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
 import org.teavm.backend.wasm.model.expression.WasmDrop;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.backend.wasm.model.expression.WasmExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmFill;
 import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
 import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
 import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
@@ -59,6 +61,8 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 import org.teavm.model.TextLocation;
 
@@ -1058,6 +1062,72 @@ class WasmCRenderingVisitor implements WasmExpressionVisitor {
         value = result;
     }
 
+    @Override
+    public void visit(WasmFill expression) {
+        CExpression result = new CExpression();
+
+        requiredType = WasmType.INT32;
+        expression.getIndex().acceptVisitor(this);
+        CExpression index = checkAddress(value);
+
+        requiredType = WasmType.INT32;
+        expression.getValue().acceptVisitor(this);
+        CExpression fillValue = value;
+
+        requiredType = WasmType.INT32;
+        expression.getCount().acceptVisitor(this);
+        CExpression count = value;
+
+        result.getLines().addAll(index.getLines());
+        result.getLines().addAll(fillValue.getLines());
+        result.getLines().addAll(count.getLines());
+
+        result.addLine("memset(&wasm_heap[" + index.getText() + "], " + fillValue.getText() + ", "
+                + count.getText() + ");", expression.getLocation());
+
+        value = result;
+    }
+
+    @Override
+    public void visit(WasmCopy expression) {
+        CExpression result = new CExpression();
+
+        requiredType = WasmType.INT32;
+        expression.getDestinationIndex().acceptVisitor(this);
+        CExpression destinationIndex = checkAddress(value);
+
+        requiredType = WasmType.INT32;
+        expression.getSourceIndex().acceptVisitor(this);
+        CExpression sourceIndex = checkAddress(value);
+
+        requiredType = WasmType.INT32;
+        expression.getCount().acceptVisitor(this);
+        CExpression count = value;
+
+        result.getLines().addAll(destinationIndex.getLines());
+        result.getLines().addAll(sourceIndex.getLines());
+        result.getLines().addAll(count.getLines());
+
+        result.addLine("memmove(&wasm_heap[" + destinationIndex.getText() + "], &wasm_heap["
+                + sourceIndex.getText() + "], " + count.getText() + ");", expression.getLocation());
+
+        value = result;
+    }
+
+    @Override
+    public void visit(WasmTry expression) {
+        // C has no way to unwind to a handler, so exceptions are fatal (see WasmThrow) and handlers are dropped
+        requiredType = expression.getType();
+        expression.getBody().acceptVisitor(this);
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        CExpression result = new CExpression();
+        result.addLine("abort();", expression.getLocation());
+        value = result;
+    }
+
     private CExpression checkAddress(CExpression index) {
         if (!memoryAccessChecked) {
             return index;
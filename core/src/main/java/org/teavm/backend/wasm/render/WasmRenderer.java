@@ -20,6 +20,7 @@ import org.teavm.backend.wasm.model.WasmFunction;
 import org.teavm.backend.wasm.model.WasmLocal;
 import org.teavm.backend.wasm.model.WasmMemorySegment;
 import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmTag;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 
 public class WasmRenderer {
@@ -71,6 +72,7 @@ public class WasmRenderer {
 
         renderTable(module);
         renderMemory(module);
+        renderTags(module);
         renderElement(module);
         renderData(module);
 
@@ -85,6 +87,15 @@ public class WasmRenderer {
         visitor.open().append("memory (export \"memory\") " + module.getMinMemorySize()).close().lf();
     }
 
+    public void renderTags(WasmModule module) {
+        for (WasmTag tag : module.getTags()) {
+            visitor.lf().open().append("tag $" + tag.getName()).close();
+        }
+        if (!module.getTags().isEmpty()) {
+            visitor.lf();
+        }
+    }
+
     public void renderData(WasmModule module) {
         for (WasmMemorySegment segment : module.getSegments()) {
             visitor.lf().open().append("data (i32.const " + segment.getOffset() + ")");
@@ -27,10 +27,12 @@ import org.teavm.backend.wasm.model.expression.WasmBreak;
 import org.teavm.backend.wasm.model.expression.WasmCall;
 import org.teavm.backend.wasm.model.expression.WasmConditional;
 import org.teavm.backend.wasm.model.expression.WasmConversion;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
 import org.teavm.backend.wasm.model.expression.WasmDefaultExpressionVisitor;
 import org.teavm.backend.wasm.model.expression.WasmDrop;
 import org.teavm.backend.wasm.model.expression.WasmExpression;
 import org.teavm.backend.wasm.model.expression.WasmExpressionVisitor;
+import org.teavm.backend.wasm.model.expression.WasmFill;
 import org.teavm.backend.wasm.model.expression.WasmFloat32Constant;
 import org.teavm.backend.wasm.model.expression.WasmFloat64Constant;
 import org.teavm.backend.wasm.model.expression.WasmFloatBinary;
@@ -59,6 +61,8 @@ import org.teavm.backend.wasm.model.expression.WasmStoreFloat64;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
 import org.teavm.backend.wasm.model.expression.WasmStoreInt64;
 import org.teavm.backend.wasm.model.expression.WasmSwitch;
+import org.teavm.backend.wasm.model.expression.WasmThrow;
+import org.teavm.backend.wasm.model.expression.WasmTry;
 import org.teavm.backend.wasm.model.expression.WasmUnreachable;
 
 class WasmRenderingVisitor implements WasmExpressionVisitor {
@@ -602,6 +606,45 @@ class WasmRenderingVisitor implements WasmExpressionVisitor {
         close();
     }
 
+    @Override
+    public void visit(WasmFill expression) {
+        open().append("memory.fill");
+        line(expression.getIndex());
+        line(expression.getValue());
+        line(expression.getCount());
+        close();
+    }
+
+    @Override
+    public void visit(WasmCopy expression) {
+        open().append("memory.copy");
+        line(expression.getDestinationIndex());
+        line(expression.getSourceIndex());
+        line(expression.getCount());
+        close();
+    }
+
+    @Override
+    public void visit(WasmTry expression) {
+        open().append("try");
+
+        if (expression.getType() != null) {
+            append(" " + type(expression.getType()));
+        }
+
+        lf();
+        renderBlock(expression.getBody(), "do", false);
+        lf();
+        renderBlock(expression.getCatchBlock(), "catch $" + expression.getCatchTag().getName(), false);
+
+        close();
+    }
+
+    @Override
+    public void visit(WasmThrow expression) {
+        open().append("throw $" + expression.getTag().getName()).close();
+    }
+
     private String type(WasmType type) {
         switch (type) {
             case INT32:
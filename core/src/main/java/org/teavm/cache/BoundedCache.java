@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Map that keeps total size of its values under a limit, evicting least recently used entries.
+ * Size of a value is supplied by caller when the value is put into the cache. The limit applies to
+ * this cache only, caches that share {@link CacheStatistics} are not limited together.
+ */
+class BoundedCache<K, V> {
+    private final Map<K, Node<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxSize;
+    private final CacheStatistics statistics;
+    private Consumer<K> evictionListener;
+    private long size;
+
+    BoundedCache(long maxSize, CacheStatistics statistics) {
+        this.maxSize = maxSize;
+        this.statistics = statistics;
+    }
+
+    void setEvictionListener(Consumer<K> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    V get(K key) {
+        Node<V> node = entries.get(key);
+        return node != null ? node.value : null;
+    }
+
+    void put(K key, V value, long valueSize) {
+        Node<V> previous = entries.put(key, new Node<>(value, valueSize));
+        if (previous != null) {
+            removed(previous);
+        }
+        size += valueSize;
+        statistics.entryAdded(valueSize);
+        evictIfNecessary(key);
+    }
+
+    void resize(K key, long valueSize) {
+        Node<V> node = entries.get(key);
+        if (node != null) {
+            put(key, node.value, valueSize);
+        }
+    }
+
+    void remove(K key) {
+        Node<V> node = entries.remove(key);
+        if (node != null) {
+            removed(node);
+        }
+    }
+
+    Set<K> keySet() {
+        return entries.keySet();
+    }
+
+    void clear() {
+        for (Node<V> node : entries.values()) {
+            statistics.entryRemoved(node.size);
+        }
+        entries.clear();
+        size = 0;
+    }
+
+    private void evictIfNecessary(K retainedKey) {
+        Iterator<Map.Entry<K, Node<V>>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<K, Node<V>> eldest = iterator.next();
+            if (eldest.getKey().equals(retainedKey)) {
+                break;
+            }
+            iterator.remove();
+            removed(eldest.getValue());
+            statistics.recordEviction();
+            if (evictionListener != null) {
+                evictionListener.accept(eldest.getKey());
+            }
+        }
+    }
+
+    private void removed(Node<V> node) {
+        size -= node.size;
+        statistics.entryRemoved(node.size);
+    }
+
+    static class Node<V> {
+        final V value;
+        final long size;
+
+        Node(V value, long size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
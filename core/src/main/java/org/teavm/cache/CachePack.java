@@ -0,0 +1,375 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Stores cache entries in a set of immutable data files (segments) accompanied by an index file.
+ * Segments are memory-mapped, so reading an entry does not require opening any files.</p>
+ *
+ * <p>New entries are kept in memory until {@link #flush()} is called. Flush writes them to a new segment
+ * and rewrites the index. A segment is never modified once written, so a file is never truncated or replaced
+ * while it is mapped. Replaced entries leave garbage in old segments; when garbage takes more than
+ * a half of the data, or there are too many segments, flush writes all live entries to a single new segment.
+ * Segments that are not referenced by the index are deleted when the pack is loaded.</p>
+ */
+public class CachePack {
+    private static final int VERSION = 2;
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+    private static final int MAX_SEGMENTS = 16;
+    private static final String SEGMENT_SUFFIX = ".teavm-pack";
+    private File directory;
+    private String name;
+    private File indexFile;
+    private Map<String, Entry> index;
+    private Map<Integer, Segment> segments;
+    private int nextSegmentId;
+    private Map<String, byte[]> pendingEntries = new LinkedHashMap<>();
+    private long dataSize;
+    private long liveSize;
+
+    public CachePack(File directory, String name) {
+        this.directory = directory;
+        this.name = name;
+        indexFile = new File(directory, name + ".teavm-index");
+    }
+
+    public InputStream open(String key) {
+        byte[] pending = pendingEntries.get(key);
+        if (pending != null) {
+            return new ByteBufferInputStream(ByteBuffer.wrap(pending));
+        }
+        ensureLoaded();
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer buffer = entry.segment.data.duplicate();
+        buffer.limit((int) (entry.offset + entry.length));
+        buffer.position((int) entry.offset);
+        return new ByteBufferInputStream(buffer.slice());
+    }
+
+    public long getTimestamp(String key) {
+        if (pendingEntries.containsKey(key)) {
+            return System.currentTimeMillis();
+        }
+        ensureLoaded();
+        Entry entry = index.get(key);
+        return entry != null ? entry.timestamp : -1;
+    }
+
+    public void put(String key, byte[] content) {
+        pendingEntries.put(key, content);
+    }
+
+    public void flush() throws IOException {
+        if (pendingEntries.isEmpty()) {
+            return;
+        }
+        ensureLoaded();
+
+        long garbageSize = dataSize - liveSize;
+        for (String key : pendingEntries.keySet()) {
+            Entry existing = index.get(key);
+            if (existing != null) {
+                garbageSize += existing.length;
+            }
+        }
+
+        Map<Integer, Segment> obsoleteSegments;
+        if ((dataSize > MIN_COMPACTION_SIZE && garbageSize * 2 > dataSize) || segments.size() >= MAX_SEGMENTS) {
+            obsoleteSegments = segments;
+            compact();
+        } else {
+            obsoleteSegments = new HashMap<>();
+            append();
+        }
+        pendingEntries.clear();
+        writeIndex();
+
+        for (Segment segment : obsoleteSegments.values()) {
+            // May fail while a mapping is still alive, in this case the file is deleted on a later load
+            segment.data = null;
+            segment.file.delete();
+        }
+    }
+
+    private void append() throws IOException {
+        Segment segment = createSegment();
+        long timestamp = System.currentTimeMillis();
+        long offset = 0;
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(segment.file))) {
+            for (Map.Entry<String, byte[]> pending : pendingEntries.entrySet()) {
+                byte[] content = pending.getValue();
+                output.write(content);
+                Entry previous = index.put(pending.getKey(), new Entry(segment, offset, content.length, timestamp));
+                if (previous != null) {
+                    liveSize -= previous.length;
+                }
+                offset += content.length;
+            }
+        }
+        dataSize += offset;
+        liveSize += offset;
+        segment.size = offset;
+        segments.put(segment.id, segment);
+        map(segment);
+    }
+
+    private void compact() throws IOException {
+        Segment segment = createSegment();
+        Map<String, Entry> newIndex = new HashMap<>();
+        long offset = 0;
+        long timestamp = System.currentTimeMillis();
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(segment.file))) {
+            byte[] buffer = new byte[4096];
+            for (Map.Entry<String, Entry> existing : index.entrySet()) {
+                if (pendingEntries.containsKey(existing.getKey())) {
+                    continue;
+                }
+                Entry entry = existing.getValue();
+                ByteBuffer source = entry.segment.data.duplicate();
+                source.limit((int) (entry.offset + entry.length));
+                source.position((int) entry.offset);
+                while (source.hasRemaining()) {
+                    int chunkSize = Math.min(buffer.length, source.remaining());
+                    source.get(buffer, 0, chunkSize);
+                    output.write(buffer, 0, chunkSize);
+                }
+                newIndex.put(existing.getKey(), new Entry(segment, offset, entry.length, entry.timestamp));
+                offset += entry.length;
+            }
+            for (Map.Entry<String, byte[]> pending : pendingEntries.entrySet()) {
+                byte[] content = pending.getValue();
+                output.write(content);
+                newIndex.put(pending.getKey(), new Entry(segment, offset, content.length, timestamp));
+                offset += content.length;
+            }
+        }
+
+        segment.size = offset;
+        index = newIndex;
+        segments = new HashMap<>();
+        segments.put(segment.id, segment);
+        dataSize = offset;
+        liveSize = offset;
+        map(segment);
+    }
+
+    private Segment createSegment() {
+        directory.mkdirs();
+        return createSegment(nextSegmentId);
+    }
+
+    private void writeIndex() throws IOException {
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(tempFile)))) {
+            output.writeInt(VERSION);
+            output.writeInt(segments.size());
+            for (Segment segment : segments.values()) {
+                output.writeInt(segment.id);
+                output.writeLong(segment.size);
+            }
+            output.writeInt(index.size());
+            for (Map.Entry<String, Entry> mapEntry : index.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                output.writeUTF(mapEntry.getKey());
+                output.writeInt(entry.segment.id);
+                output.writeLong(entry.offset);
+                output.writeInt(entry.length);
+                output.writeLong(entry.timestamp);
+            }
+        }
+        Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void ensureLoaded() {
+        if (index != null) {
+            return;
+        }
+        index = new HashMap<>();
+        segments = new HashMap<>();
+        try {
+            readIndex();
+            for (Segment segment : segments.values()) {
+                map(segment);
+            }
+        } catch (IOException e) {
+            // Cache is missing or corrupted, start from scratch
+            index.clear();
+            segments.clear();
+            dataSize = 0;
+            liveSize = 0;
+            indexFile.delete();
+        }
+        deleteUnusedSegments();
+    }
+
+    private void readIndex() throws IOException {
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(indexFile)))) {
+            if (input.readInt() != VERSION) {
+                throw new IOException("Unsupported cache pack version");
+            }
+            int segmentCount = input.readInt();
+            for (int i = 0; i < segmentCount; ++i) {
+                Segment segment = createSegment(input.readInt());
+                segment.size = input.readLong();
+                if (segment.size > Integer.MAX_VALUE || segment.file.length() < segment.size) {
+                    throw new IOException("Cache pack segment is truncated: " + segment.file);
+                }
+                segments.put(segment.id, segment);
+                dataSize += segment.size;
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; ++i) {
+                String key = input.readUTF();
+                Segment segment = segments.get(input.readInt());
+                if (segment == null) {
+                    throw new IOException("Cache pack entry refers to unknown segment: " + key);
+                }
+                Entry entry = new Entry(segment, input.readLong(), input.readInt(), input.readLong());
+                if (entry.offset + entry.length > segment.size) {
+                    throw new IOException("Cache pack entry is out of bounds: " + key);
+                }
+                index.put(key, entry);
+                liveSize += entry.length;
+            }
+        }
+    }
+
+    private Segment createSegment(int id) {
+        nextSegmentId = Math.max(nextSegmentId, id + 1);
+        return new Segment(id, new File(directory, name + "." + id + SEGMENT_SUFFIX));
+    }
+
+    private void deleteUnusedSegments() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Set<File> usedFiles = new HashSet<>();
+        for (Segment segment : segments.values()) {
+            usedFiles.add(segment.file);
+        }
+        String prefix = name + ".";
+        for (File file : files) {
+            String fileName = file.getName();
+            if (fileName.startsWith(prefix) && fileName.endsWith(SEGMENT_SUFFIX) && !usedFiles.contains(file)) {
+                file.delete();
+            }
+        }
+    }
+
+    private void map(Segment segment) throws IOException {
+        if (segment.size == 0) {
+            segment.data = ByteBuffer.allocate(0);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.READ)) {
+            segment.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, segment.size);
+        }
+    }
+
+    static class Segment {
+        final int id;
+        final File file;
+        long size;
+        ByteBuffer data;
+
+        Segment(int id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+    }
+
+    static class Entry {
+        final Segment segment;
+        final long offset;
+        final int length;
+        final long timestamp;
+
+        Entry(Segment segment, long offset, int length, long timestamp) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.timestamp = timestamp;
+        }
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+        private ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+    }
+}
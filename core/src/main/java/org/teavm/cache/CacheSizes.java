@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+final class CacheSizes {
+    static final int OBJECT_OVERHEAD = 16;
+    static final int ENTRY_OVERHEAD = 64;
+    // Rough ratio of heap taken by a deserialized class model to its serialized form
+    static final int DESERIALIZED_CLASS_FACTOR = 8;
+
+    private CacheSizes() {
+    }
+
+    static long estimate(String[] strings) {
+        long result = OBJECT_OVERHEAD + 4L * strings.length;
+        for (String s : strings) {
+            result += OBJECT_OVERHEAD + 2L * s.length();
+        }
+        return result;
+    }
+
+    static long estimate(byte[] data) {
+        return data != null ? OBJECT_OVERHEAD + data.length : 0;
+    }
+
+    static long estimateDeserializedClass(byte[] data) {
+        return (long) DESERIALIZED_CLASS_FACTOR * data.length;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+public class CacheStatistics {
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long entryCount;
+    private long sizeInBytes;
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    void recordHit() {
+        hitCount++;
+    }
+
+    void recordMiss() {
+        missCount++;
+    }
+
+    void recordEviction() {
+        evictionCount++;
+    }
+
+    void entryAdded(long size) {
+        entryCount++;
+        sizeInBytes += size;
+    }
+
+    void entryRemoved(long size) {
+        entryCount--;
+        sizeInBytes -= size;
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + hitCount + ", misses: " + missCount + ", evictions: " + evictionCount
+                + ", entries: " + entryCount + ", size: " + sizeInBytes + " bytes";
+    }
+}
@@ -15,14 +15,10 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -36,7 +32,7 @@ import org.teavm.model.ReferenceCache;
 import org.teavm.parsing.ClassDateProvider;
 
 public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStatus {
-    private File directory;
+    private CachePack pack;
     private ClassHolderSource innerSource;
     private ClassDateProvider classDateProvider;
     private Map<String, Item> cache = new LinkedHashMap<>();
@@ -46,7 +42,7 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
     public DiskCachedClassReaderSource(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable, ClassHolderSource innerSource,
             ClassDateProvider classDateProvider) {
-        this.directory = directory;
+        pack = new CachePack(directory, "classes");
         this.innerSource = innerSource;
         this.classDateProvider = classDateProvider;
         classIO = new ClassIO(referenceCache, symbolTable, fileTable, variableTable);
@@ -72,11 +68,11 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         if (item == null) {
             item = new Item();
             cache.put(name, item);
-            File classFile = new File(directory, name.replace('.', '/') + ".teavm-cls");
-            if (classFile.exists()) {
+            long cacheTimestamp = pack.getTimestamp(name);
+            if (cacheTimestamp >= 0) {
                 Date classDate = classDateProvider.getModificationDate(name);
-                if (classDate != null && classDate.before(new Date(classFile.lastModified()))) {
-                    try (InputStream input = new BufferedInputStream(new FileInputStream(classFile))) {
+                if (classDate != null && classDate.before(new Date(cacheTimestamp))) {
+                    try (InputStream input = pack.open(name)) {
                         item.cls = classIO.readClass(input, name);
                     } catch (IOException e) {
                         // We could not access cache file, so let's parse class file
@@ -102,12 +98,12 @@ public class DiskCachedClassReaderSource implements ClassReaderSource, CacheStat
         for (String className : newClasses) {
             Item item = cache.get(className);
             if (item.cls != null) {
-                File classFile = new File(directory, className.replace('.', '/') + ".teavm-cls");
-                classFile.getParentFile().mkdirs();
-                try (OutputStream output = new BufferedOutputStream(new FileOutputStream(classFile))) {
-                    classIO.writeClass(output, item.cls);
-                }
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                classIO.writeClass(output, item.cls);
+                pack.put(className, output.toByteArray());
             }
         }
+        newClasses.clear();
+        pack.flush();
     }
 }
@@ -15,11 +15,8 @@
  */
 package org.teavm.cache;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -34,7 +31,7 @@ import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
 
 public class DiskMethodNodeCache implements MethodNodeCache {
-    private final File directory;
+    private final CachePack pack;
     private final AstIO astIO;
     private final Map<MethodReference, Item> cache = new HashMap<>();
     private final Map<MethodReference, AsyncItem> asyncCache = new HashMap<>();
@@ -43,7 +40,7 @@ public class DiskMethodNodeCache implements MethodNodeCache {
 
     public DiskMethodNodeCache(File directory, ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable variableTable) {
-        this.directory = directory;
+        pack = new CachePack(directory, "ast");
         astIO = new AstIO(referenceCache, symbolTable, fileTable, variableTable);
     }
 
@@ -53,9 +50,9 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         if (item == null) {
             item = new Item();
             cache.put(methodReference, item);
-            File file = getMethodFile(methodReference, false);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            InputStream stream = pack.open(getMethodKey(methodReference, false));
+            if (stream != null) {
+                try {
                     VarDataInput input = new VarDataInput(stream);
                     if (!checkIfDependenciesChanged(input, cacheStatus)) {
                         RegularMethodNode node = astIO.read(input, methodReference);
@@ -85,9 +82,9 @@ public class DiskMethodNodeCache implements MethodNodeCache {
         if (item == null) {
             item = new AsyncItem();
             asyncCache.put(methodReference, item);
-            File file = getMethodFile(methodReference, true);
-            if (file.exists()) {
-                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            InputStream stream = pack.open(getMethodKey(methodReference, true));
+            if (stream != null) {
+                try {
                     VarDataInput input = new VarDataInput(stream);
                     if (!checkIfDependenciesChanged(input, cacheStatus)) {
                         item.node = astIO.readAsync(input, methodReference);
@@ -122,9 +119,9 @@ public class DiskMethodNodeCache implements MethodNodeCache {
 
     public void flush() throws IOException {
         for (MethodReference method : newMethods) {
-            File file = getMethodFile(method, true);
             Item item = cache.get(method);
-            try (VarDataOutput output = new VarDataOutput(new BufferedOutputStream(new FileOutputStream(file)))) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (VarDataOutput output = new VarDataOutput(bytes)) {
                 output.writeUnsigned(item.dependencies.length);
                 for (String dependency : item.dependencies) {
                     output.write(dependency);
@@ -132,24 +129,27 @@ public class DiskMethodNodeCache implements MethodNodeCache {
                 astIO.write(output, item.entry.method);
                 astIO.write(output, item.entry.cfg);
             }
+            pack.put(getMethodKey(method, false), bytes.toByteArray());
         }
         for (MethodReference method : newAsyncMethods) {
-            File file = getMethodFile(method, true);
             AsyncItem item = asyncCache.get(method);
-            try (VarDataOutput output = new VarDataOutput(new BufferedOutputStream(new FileOutputStream(file)))) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (VarDataOutput output = new VarDataOutput(bytes)) {
                 output.writeUnsigned(item.dependencies.length);
                 for (String dependency : item.dependencies) {
                     output.write(dependency);
                 }
                 astIO.writeAsync(output, item.node);
             }
+            pack.put(getMethodKey(method, true), bytes.toByteArray());
         }
+        newMethods.clear();
+        newAsyncMethods.clear();
+        pack.flush();
     }
 
-    private File getMethodFile(MethodReference method, boolean async) {
-        File dir = new File(directory, method.getClassName().replace('.', '/'));
-        return new File(dir, FileNameEncoder.encodeFileName(method.getDescriptor().toString()) + ".teavm-ast"
-                + (async ? "-async" : ""));
+    private static String getMethodKey(MethodReference method, boolean async) {
+        return async ? method + ":async" : method.toString();
     }
 
     private static class Item {
@@ -29,27 +29,43 @@ import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
 
 public class InMemoryMethodNodeCache implements MethodNodeCache {
-    private Map<MethodReference, RegularItem> cache = new HashMap<>();
+    private CacheStatistics statistics = new CacheStatistics();
+    private BoundedCache<MethodReference, RegularItem> cache;
     private Map<MethodReference, RegularItem> newItems = new HashMap<>();
-    private Map<MethodReference, AsyncItem> asyncCache = new HashMap<>();
+    private BoundedCache<MethodReference, AsyncItem> asyncCache;
     private Map<MethodReference, AsyncItem> newAsyncItems = new HashMap<>();
     private AstIO io;
 
     public InMemoryMethodNodeCache(ReferenceCache referenceCache, InMemorySymbolTable symbolTable,
             InMemorySymbolTable fileSymbolTable, InMemorySymbolTable variableSymbolTable) {
+        this(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates cache that keeps serialized method nodes of total size under {@code maxSizeInBytes},
+     * evicting least recently used nodes when the limit is exceeded. Regular and async nodes are
+     * limited separately, so together they may take up to twice {@code maxSizeInBytes}.
+     */
+    public InMemoryMethodNodeCache(ReferenceCache referenceCache, InMemorySymbolTable symbolTable,
+            InMemorySymbolTable fileSymbolTable, InMemorySymbolTable variableSymbolTable, long maxSizeInBytes) {
         io = new AstIO(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
+        cache = new BoundedCache<>(maxSizeInBytes, statistics);
+        asyncCache = new BoundedCache<>(maxSizeInBytes, statistics);
     }
 
     @Override
     public AstCacheEntry get(MethodReference methodReference, CacheStatus cacheStatus) {
         RegularItem item = cache.get(methodReference);
         if (item == null) {
+            statistics.recordMiss();
             return null;
         }
 
         if (Arrays.stream(item.dependencies).anyMatch(cacheStatus::isStaleClass)) {
+            statistics.recordMiss();
             return null;
         }
+        statistics.recordHit();
 
         VarDataInput input = new VarDataInput(new ByteArrayInputStream(item.entry));
         try {
@@ -70,12 +86,15 @@ public class InMemoryMethodNodeCache implements MethodNodeCache {
     public AsyncMethodNode getAsync(MethodReference methodReference, CacheStatus cacheStatus) {
         AsyncItem item = asyncCache.get(methodReference);
         if (item == null) {
+            statistics.recordMiss();
             return null;
         }
 
         if (Arrays.stream(item.dependencies).anyMatch(cacheStatus::isStaleClass)) {
+            statistics.recordMiss();
             return null;
         }
+        statistics.recordHit();
 
         VarDataInput input = new VarDataInput(new ByteArrayInputStream(item.node));
         try {
@@ -91,12 +110,20 @@ public class InMemoryMethodNodeCache implements MethodNodeCache {
     }
 
     public void commit() {
-        cache.putAll(newItems);
-        asyncCache.putAll(newAsyncItems);
+        for (Map.Entry<MethodReference, RegularItem> entry : newItems.entrySet()) {
+            cache.put(entry.getKey(), entry.getValue(), entry.getValue().size());
+        }
+        for (Map.Entry<MethodReference, AsyncItem> entry : newAsyncItems.entrySet()) {
+            asyncCache.put(entry.getKey(), entry.getValue(), entry.getValue().size());
+        }
         newItems.clear();
         newAsyncItems.clear();
     }
 
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     public void discard() {
         newItems.clear();
         newAsyncItems.clear();
@@ -125,6 +152,10 @@ public class InMemoryMethodNodeCache implements MethodNodeCache {
             }
             this.dependencies = dependencies;
         }
+
+        long size() {
+            return CacheSizes.ENTRY_OVERHEAD + CacheSizes.estimate(entry) + CacheSizes.estimate(dependencies);
+        }
     }
 
     final class AsyncItem {
@@ -142,5 +173,9 @@ public class InMemoryMethodNodeCache implements MethodNodeCache {
             }
             this.dependencies = dependencies;
         }
+
+        long size() {
+            return CacheSizes.ENTRY_OVERHEAD + CacheSizes.estimate(node) + CacheSizes.estimate(dependencies);
+        }
     }
 }
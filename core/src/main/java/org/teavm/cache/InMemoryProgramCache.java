@@ -28,25 +28,39 @@ import org.teavm.model.ProgramCache;
 import org.teavm.model.ReferenceCache;
 
 public class InMemoryProgramCache implements ProgramCache {
-    private Map<MethodReference, Item> cache = new HashMap<>();
+    private CacheStatistics statistics = new CacheStatistics();
+    private BoundedCache<MethodReference, Item> cache;
     private Map<MethodReference, Item> newItems = new HashMap<>();
     private ProgramIO io;
 
     public InMemoryProgramCache(ReferenceCache referenceCache, InMemorySymbolTable symbolTable,
             InMemorySymbolTable fileSymbolTable, InMemorySymbolTable variableSymbolTable) {
+        this(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates cache that keeps serialized programs of total size under {@code maxSizeInBytes},
+     * evicting least recently used programs when the limit is exceeded.
+     */
+    public InMemoryProgramCache(ReferenceCache referenceCache, InMemorySymbolTable symbolTable,
+            InMemorySymbolTable fileSymbolTable, InMemorySymbolTable variableSymbolTable, long maxSizeInBytes) {
         io = new ProgramIO(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
+        cache = new BoundedCache<>(maxSizeInBytes, statistics);
     }
 
     @Override
     public Program get(MethodReference method, CacheStatus cacheStatus) {
         Item item = cache.get(method);
         if (item == null) {
+            statistics.recordMiss();
             return null;
         }
 
         if (Arrays.stream(item.dependencies).anyMatch(cacheStatus::isStaleClass)) {
+            statistics.recordMiss();
             return null;
         }
+        statistics.recordHit();
         try {
             ByteArrayInputStream input = new ByteArrayInputStream(item.program);
             return io.read(input);
@@ -67,10 +81,16 @@ public class InMemoryProgramCache implements ProgramCache {
     }
 
     public void commit() {
-        cache.putAll(newItems);
+        for (Map.Entry<MethodReference, Item> entry : newItems.entrySet()) {
+            cache.put(entry.getKey(), entry.getValue(), entry.getValue().size());
+        }
         newItems.clear();
     }
 
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     public int getPendingItemsCount() {
         return newItems.size();
     }
@@ -92,5 +112,9 @@ public class InMemoryProgramCache implements ProgramCache {
             this.program = program;
             this.dependencies = dependencies;
         }
+
+        long size() {
+            return CacheSizes.ENTRY_OVERHEAD + CacheSizes.estimate(program) + CacheSizes.estimate(dependencies);
+        }
     }
 }
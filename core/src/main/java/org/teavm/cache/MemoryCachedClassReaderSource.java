@@ -19,9 +19,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import org.teavm.model.ClassReader;
@@ -30,14 +28,27 @@ import org.teavm.model.MethodReference;
 import org.teavm.model.ReferenceCache;
 
 public class MemoryCachedClassReaderSource implements ClassReaderSource, CacheStatus {
-    private Map<String, Entry> cache = new HashMap<>();
+    private CacheStatistics statistics = new CacheStatistics();
+    private BoundedCache<String, Entry> cache;
     private Function<String, ClassReader> provider;
     private ClassIO classIO;
     private final Set<String> freshClasses = new HashSet<>();
 
     public MemoryCachedClassReaderSource(ReferenceCache referenceCache, SymbolTable symbolTable,
             SymbolTable fileTable, SymbolTable varTable) {
+        this(referenceCache, symbolTable, fileTable, varTable, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates class source that keeps classes of total size under {@code maxSizeInBytes}. Size of a class
+     * includes its serialized form and, once the class has been requested, an estimate of its deserialized
+     * model. When a class is evicted, it is considered stale, so that programs that depend on it get rebuilt.
+     */
+    public MemoryCachedClassReaderSource(ReferenceCache referenceCache, SymbolTable symbolTable,
+            SymbolTable fileTable, SymbolTable varTable, long maxSizeInBytes) {
         classIO = new ClassIO(referenceCache, symbolTable, fileTable, varTable);
+        cache = new BoundedCache<>(maxSizeInBytes, statistics);
+        cache.setEvictionListener(freshClasses::remove);
     }
 
     public void setProvider(Function<String, ClassReader> provider) {
@@ -74,25 +85,32 @@ public class MemoryCachedClassReaderSource implements ClassReaderSource, CacheSt
                 throw new RuntimeException(e);
             }
             entry.reader = cls;
+            cache.resize(name, entry.size());
         }
         return cls;
     }
 
     private Entry getEntry(String name) {
-        return cache.computeIfAbsent(name, className -> {
-            ClassReader cls = provider != null ? provider.apply(className) : null;
-            Entry en = new Entry();
-            if (cls != null) {
-                ByteArrayOutputStream output = new ByteArrayOutputStream();
-                try {
-                    classIO.writeClass(output, cls);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-                en.data = output.toByteArray();
-            }
+        Entry en = cache.get(name);
+        if (en != null) {
+            statistics.recordHit();
             return en;
-        });
+        }
+        statistics.recordMiss();
+
+        ClassReader cls = provider != null ? provider.apply(name) : null;
+        en = new Entry();
+        if (cls != null) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try {
+                classIO.writeClass(output, cls);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            en.data = output.toByteArray();
+        }
+        cache.put(name, en, en.size());
+        return en;
     }
 
     public void commit() {
@@ -100,10 +118,16 @@ public class MemoryCachedClassReaderSource implements ClassReaderSource, CacheSt
     }
 
     public void evict(Collection<? extends String> classes) {
-        cache.keySet().removeAll(classes);
+        for (String className : classes) {
+            cache.remove(className);
+        }
         freshClasses.removeAll(classes);
     }
 
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     public void invalidate() {
         cache.clear();
         freshClasses.clear();
@@ -112,5 +136,13 @@ public class MemoryCachedClassReaderSource implements ClassReaderSource, CacheSt
     static class Entry {
         byte[] data;
         ClassReader reader;
+
+        long size() {
+            long result = CacheSizes.ENTRY_OVERHEAD + CacheSizes.estimate(data);
+            if (reader != null) {
+                result += CacheSizes.estimateDeserializedClass(data);
+            }
+            return result;
+        }
     }
 }
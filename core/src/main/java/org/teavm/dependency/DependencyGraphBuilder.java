@@ -31,9 +31,11 @@ import org.teavm.model.ElementModifier;
 import org.teavm.model.IncomingReader;
 import org.teavm.model.MethodDescriptor;
 import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReader;
 import org.teavm.model.MethodReference;
 import org.teavm.model.PhiReader;
 import org.teavm.model.Program;
+import org.teavm.model.ProgramReader;
 import org.teavm.model.TryCatchBlockReader;
 import org.teavm.model.ValueType;
 import org.teavm.model.VariableReader;
@@ -42,17 +44,31 @@ import org.teavm.model.text.ListingBuilder;
 
 class DependencyGraphBuilder {
     private static final MethodDescriptor GET_CLASS = new MethodDescriptor("getClass", Class.class);
-    private DependencyAnalyzer dependencyAnalyzer;
+    private PreciseDependencyAnalyzer dependencyAnalyzer;
     private DependencyNode[] nodes;
     private DependencyNode resultNode;
     private Program program;
     private DefaultCallGraphNode caller;
     private ExceptionConsumer currentExceptionConsumer;
 
-    DependencyGraphBuilder(DependencyAnalyzer dependencyAnalyzer) {
+    DependencyGraphBuilder(PreciseDependencyAnalyzer dependencyAnalyzer) {
         this.dependencyAnalyzer = dependencyAnalyzer;
     }
 
+    static int[] buildNodeMapping(MethodReader method, ProgramReader program) {
+        DataFlowGraphBuilder dfgBuilder = new DataFlowGraphBuilder();
+        boolean[] significantParams = new boolean[method.parameterCount() + 1];
+        significantParams[0] = true;
+        for (int i = 1; i < significantParams.length; ++i) {
+            ValueType arg = method.parameterType(i - 1);
+            if (!(arg instanceof ValueType.Primitive)) {
+                significantParams[i] = true;
+            }
+        }
+        return dfgBuilder.buildMapping(program, significantParams,
+                !(method.getResultType() instanceof ValueType.Primitive) && method.getResultType() != ValueType.VOID);
+    }
+
     public void buildGraph(MethodDependency dep) {
         caller = dependencyAnalyzer.callGraph.getNode(dep.getReference());
         MethodHolder method = dep.method;
@@ -62,17 +78,7 @@ class DependencyGraphBuilder {
         program = method.getProgram();
         resultNode = dep.getResult();
 
-        DataFlowGraphBuilder dfgBuilder = new DataFlowGraphBuilder();
-        boolean[] significantParams = new boolean[dep.getParameterCount()];
-        significantParams[0] = true;
-        for (int i = 1; i < dep.getParameterCount(); ++i) {
-            ValueType arg = method.parameterType(i - 1);
-            if (!(arg instanceof ValueType.Primitive)) {
-                significantParams[i] = true;
-            }
-        }
-        int[] nodeMapping = dfgBuilder.buildMapping(program, significantParams,
-                !(method.getResultType() instanceof ValueType.Primitive) && method.getResultType() != ValueType.VOID);
+        int[] nodeMapping = dependencyAnalyzer.getNodeMapping(method, program);
 
         if (DependencyAnalyzer.shouldLog) {
             System.out.println("Method reached: " + method.getReference());
@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.teavm.common.ServiceRepository;
+import org.teavm.diagnostics.Diagnostics;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.Instruction;
+import org.teavm.model.InvokeDynamicInstruction;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.ProgramReader;
+import org.teavm.model.ReferenceCache;
+import org.teavm.model.util.ProgramUtils;
+
+/**
+ * <p>Precise dependency analyzer that builds data flow graphs of reached methods on worker threads.</p>
+ *
+ * <p>What runs in parallel is computation of variable-to-node mapping, which only depends on the method's
+ * program. It is started as soon as a method becomes used and is usually ready by the time the analyzer
+ * takes the method from its queue. Workers read a copy of the program taken when the method becomes used,
+ * so they never see the program while the analyzer's thread modifies it. When the method's program
+ * is replaced before the method is processed, the mapping is computed again. Methods containing
+ * invokedynamic instructions are excluded, since these instructions are substituted in place before
+ * the method is processed.</p>
+ *
+ * <p>Type propagation is not parallelized. Types flow through dependency nodes shared by all methods,
+ * and plugins and listeners that react to propagated types are not thread-safe. Propagation, plugins and
+ * listeners run on the analyzer's thread, so this analyzer produces exactly the same result as
+ * {@link PreciseDependencyAnalyzer}.</p>
+ */
+public class ParallelDependencyAnalyzer extends PreciseDependencyAnalyzer {
+    private ForkJoinPool pool;
+    private Map<MethodReference, PendingNodeMapping> pendingNodeMappings = new HashMap<>();
+
+    public ParallelDependencyAnalyzer(ClassReaderSource classSource, ClassLoader classLoader,
+            ServiceRepository services, Diagnostics diagnostics, ReferenceCache referenceCache) {
+        this(classSource, classLoader, services, diagnostics, referenceCache,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelDependencyAnalyzer(ClassReaderSource classSource, ClassLoader classLoader,
+            ServiceRepository services, Diagnostics diagnostics, ReferenceCache referenceCache, int threadCount) {
+        super(classSource, classLoader, services, diagnostics, referenceCache);
+        pool = new ForkJoinPool(threadCount);
+    }
+
+    public static DependencyAnalyzerFactory factory(int threadCount) {
+        return (classSource, classLoader, services, diagnostics, referenceCache) -> new ParallelDependencyAnalyzer(
+                classSource, classLoader, services, diagnostics, referenceCache, threadCount);
+    }
+
+    @Override
+    void scheduleMethodAnalysis(MethodDependency dep) {
+        MethodHolder method = dep.method;
+        if (pool != null && method != null) {
+            Program program = method.getProgram();
+            if (program != null && program.basicBlockCount() > 0 && !hasInvokeDynamic(program)) {
+                Program snapshot = ProgramUtils.copy(program);
+                ForkJoinTask<int[]> task = pool.submit(() -> DependencyGraphBuilder.buildNodeMapping(
+                        method, snapshot));
+                pendingNodeMappings.put(method.getReference(), new PendingNodeMapping(program, task));
+            }
+        }
+        super.scheduleMethodAnalysis(dep);
+    }
+
+    // Invokedynamic instructions are substituted in place right before the method is processed,
+    // so mapping computed from a snapshot would be stale. Such methods get their mapping on the analyzer's thread.
+    private static boolean hasInvokeDynamic(Program program) {
+        for (int i = 0; i < program.basicBlockCount(); ++i) {
+            for (Instruction insn : program.basicBlockAt(i)) {
+                if (insn instanceof InvokeDynamicInstruction) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    int[] getNodeMapping(MethodReader method, ProgramReader program) {
+        PendingNodeMapping pending = pendingNodeMappings.remove(method.getReference());
+        if (pending != null && pending.program == program) {
+            int[] mapping = pending.task.join();
+            if (mapping.length == program.variableCount()) {
+                return mapping;
+            }
+        }
+        return super.getNodeMapping(method, program);
+    }
+
+    @Override
+    public void cleanup(ClassSourcePacker classSourcePacker) {
+        pendingNodeMappings.clear();
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+        super.cleanup(classSourcePacker);
+    }
+
+    static class PendingNodeMapping {
+        final ProgramReader program;
+        final ForkJoinTask<int[]> task;
+
+        PendingNodeMapping(ProgramReader program, ForkJoinTask<int[]> task) {
+            this.program = program;
+            this.task = task;
+        }
+    }
+}
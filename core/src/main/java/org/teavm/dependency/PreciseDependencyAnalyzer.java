@@ -19,7 +19,9 @@ import org.teavm.common.ServiceRepository;
 import org.teavm.diagnostics.Diagnostics;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReader;
 import org.teavm.model.MethodReference;
+import org.teavm.model.ProgramReader;
 import org.teavm.model.ReferenceCache;
 import org.teavm.model.ValueType;
 
@@ -35,6 +37,10 @@ public class PreciseDependencyAnalyzer extends DependencyAnalyzer {
         graphBuilder.buildGraph(methodDep);
     }
 
+    int[] getNodeMapping(MethodReader method, ProgramReader program) {
+        return DependencyGraphBuilder.buildNodeMapping(method, program);
+    }
+
     @Override
     DependencyNode createParameterNode(MethodReference method, ValueType type, int index) {
         DependencyNode node = createNode(type);
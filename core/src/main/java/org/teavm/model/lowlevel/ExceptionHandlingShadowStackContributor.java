@@ -79,15 +79,26 @@ public class ExceptionHandlingShadowStackContributor {
     private BasicBlock[] variableDefinitionPlaces;
     private boolean hasExceptionHandlers;
     private int parameterCount;
+    private boolean nativeExceptions;
 
     public int callSiteIdGen;
 
     public ExceptionHandlingShadowStackContributor(Characteristics characteristics,
             List<CallSiteDescriptor> callSites, MethodReference method, Program program) {
+        this(characteristics, callSites, method, program, false);
+    }
+
+    /**
+     * @param nativeExceptions when true, target unwinds stack to exception handler by itself, so try/catch blocks
+     * are left in place and call sites only get registered, without checks after calls.
+     */
+    public ExceptionHandlingShadowStackContributor(Characteristics characteristics,
+            List<CallSiteDescriptor> callSites, MethodReference method, Program program, boolean nativeExceptions) {
         this.characteristics = characteristics;
         this.callSites = callSites;
         this.method = method;
         this.program = program;
+        this.nativeExceptions = nativeExceptions;
 
         Graph cfg = ProgramUtils.buildControlFlowGraph(program);
         dom = GraphUtils.buildDominatorTree(cfg);
@@ -124,6 +135,11 @@ public class ExceptionHandlingShadowStackContributor {
                 block.setExceptionVariable(null);
             }
 
+            if (nativeExceptions) {
+                registerCallSites(block);
+                continue;
+            }
+
             int newIndex = contributeToBasicBlock(block);
             if (newIndex != i) {
                 blockMapping[i] = newIndex;
@@ -272,6 +288,41 @@ public class ExceptionHandlingShadowStackContributor {
         return block.getIndex();
     }
 
+    private void registerCallSites(BasicBlock block) {
+        for (Instruction insn : block) {
+            if (!isCallInstruction(insn)) {
+                continue;
+            }
+
+            if (insn instanceof RaiseInstruction) {
+                InvokeInstruction raise = new InvokeInstruction();
+                raise.setMethod(new MethodReference(ExceptionHandling.class, "throwException", Throwable.class,
+                        void.class));
+                raise.setType(InvocationType.SPECIAL);
+                raise.setArguments(((RaiseInstruction) insn).getException());
+                raise.setLocation(insn.getLocation());
+                insn.replace(raise);
+                insn = raise;
+
+                JumpInstruction jump = new JumpInstruction();
+                jump.setTarget(getDefaultExceptionHandler());
+                jump.setLocation(insn.getLocation());
+                block.add(jump);
+            }
+
+            CallSiteLocation[] locations = CallSiteLocation.fromTextLocation(insn.getLocation(), method);
+            CallSiteDescriptor callSite = new CallSiteDescriptor(callSiteIdGen++, locations);
+            int nextHandlerId = callSite.getId();
+            for (TryCatchBlock tryCatch : block.getTryCatchBlocks()) {
+                callSite.getHandlers().add(new ExceptionHandlerDescriptor(++nextHandlerId,
+                        tryCatch.getExceptionType()));
+            }
+            callSites.add(callSite);
+            insn.insertPreviousAll(setLocation(getInstructionsBeforeCallSite(callSite), insn.getLocation()));
+            hasExceptionHandlers = true;
+        }
+    }
+
     private boolean isCallInstruction(Instruction insn) {
         return isCallInstruction(characteristics, insn);
     }
@@ -38,12 +38,19 @@ public class ShadowStackTransformer {
     private Characteristics characteristics;
     private GCShadowStackContributor gcContributor;
     private boolean exceptionHandling;
+    private boolean nativeExceptions;
     private int callSiteIdGen;
 
     public ShadowStackTransformer(Characteristics characteristics, boolean exceptionHandling) {
+        this(characteristics, exceptionHandling, false);
+    }
+
+    public ShadowStackTransformer(Characteristics characteristics, boolean exceptionHandling,
+            boolean nativeExceptions) {
         gcContributor = new GCShadowStackContributor(characteristics);
         this.characteristics = characteristics;
         this.exceptionHandling = exceptionHandling;
+        this.nativeExceptions = nativeExceptions;
     }
 
     public void apply(Program program, MethodReader method) {
@@ -57,7 +64,7 @@ public class ShadowStackTransformer {
             List<CallSiteDescriptor> callSites = new ArrayList<>();
             ExceptionHandlingShadowStackContributor exceptionContributor =
                     new ExceptionHandlingShadowStackContributor(characteristics, callSites,
-                            method.getReference(), program);
+                            method.getReference(), program, nativeExceptions);
             exceptionContributor.callSiteIdGen = callSiteIdGen;
             exceptions = exceptionContributor.contribute();
             callSiteIdGen = exceptionContributor.callSiteIdGen;
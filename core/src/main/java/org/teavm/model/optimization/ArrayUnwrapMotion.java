@@ -15,6 +15,7 @@
  */
 package org.teavm.model.optimization;
 
+import java.util.Objects;
 import org.teavm.model.BasicBlock;
 import org.teavm.model.Instruction;
 import org.teavm.model.Program;
@@ -25,17 +26,23 @@ import org.teavm.model.util.DefinitionExtractor;
 public class ArrayUnwrapMotion implements MethodOptimization {
     @Override
     public boolean optimize(MethodOptimizationContext context, Program program) {
+        boolean changed = false;
         for (int i = 0; i < program.basicBlockCount(); ++i) {
-            optimize(program.basicBlockAt(i));
+            changed |= optimize(program.basicBlockAt(i));
         }
-        return false;
+        return changed;
     }
 
-    private void optimize(BasicBlock block) {
+    private boolean optimize(BasicBlock block) {
+        boolean changed = false;
         for (Instruction insn : block) {
             if (insn instanceof UnwrapArrayInstruction) {
                 UnwrapArrayInstruction unwrap = (UnwrapArrayInstruction) insn;
                 Instruction def = whereDefined(insn, unwrap.getArray());
+                if (isInPlace(unwrap, def)) {
+                    continue;
+                }
+                changed = true;
                 insn.delete();
                 if (def == null) {
                     block.addFirst(unwrap);
@@ -45,6 +52,18 @@ public class ArrayUnwrapMotion implements MethodOptimization {
                 }
             }
         }
+        return changed;
+    }
+
+    private boolean isInPlace(UnwrapArrayInstruction unwrap, Instruction def) {
+        Instruction previous = unwrap.getPrevious();
+        while (previous instanceof UnwrapArrayInstruction) {
+            previous = previous.getPrevious();
+        }
+        if (previous != def) {
+            return false;
+        }
+        return def == null || Objects.equals(unwrap.getLocation(), def.getLocation());
     }
 
     private Instruction whereDefined(Instruction instruction, Variable var) {
@@ -39,6 +39,7 @@ public class ClassInitElimination implements MethodOptimization {
         Step start = new Step(0);
         Deque<Step> stack = new ArrayDeque<>();
         stack.push(start);
+        boolean changed = false;
 
         while (!stack.isEmpty()) {
             Step step = stack.pop();
@@ -52,6 +53,7 @@ public class ClassInitElimination implements MethodOptimization {
                     InitClassInstruction initClass = (InitClassInstruction) insn;
                     if (!step.initializedClasses.add(initClass.getClassName())) {
                         insn.delete();
+                        changed = true;
                     }
                     continue;
                 }
@@ -68,7 +70,7 @@ public class ClassInitElimination implements MethodOptimization {
             }
         }
 
-        return false;
+        return changed;
     }
 
     static class Step {
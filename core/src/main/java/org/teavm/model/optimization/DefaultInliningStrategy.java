@@ -25,12 +25,17 @@ import org.teavm.model.instructions.BinaryBranchingCondition;
 import org.teavm.model.instructions.BranchingCondition;
 import org.teavm.model.instructions.InvocationType;
 import org.teavm.model.instructions.SwitchTableEntryReader;
+import org.teavm.model.profile.ExecutionProfile;
 
 public class DefaultInliningStrategy implements InliningStrategy {
+    private static final int HOT_COMPLEXITY_FACTOR = 4;
+    private static final int HOT_TOTAL_COMPLEXITY_FACTOR = 2;
+    private static final int HOT_SHARED_COMPLEXITY = 10;
     private final int complexityThreshold;
     private final int depthThreshold;
     private final int totalComplexityThreshold;
     private final boolean onceUsedOnly;
+    private ExecutionProfile profile;
 
     public DefaultInliningStrategy(int complexityThreshold, int depthThreshold, int totalComplexityThreshold,
             boolean onceUsedOnly) {
@@ -40,8 +45,20 @@ public class DefaultInliningStrategy implements InliningStrategy {
         this.onceUsedOnly = onceUsedOnly;
     }
 
+    /**
+     * Makes inlining profile-guided. Nothing is inlined into methods that were never called while profiling,
+     * only trivial methods are inlined if they were never called, and hot methods get larger thresholds.
+     * When only methods used once are inlined, small hot methods are inlined as well.
+     */
+    public void setProfile(ExecutionProfile profile) {
+        this.profile = profile;
+    }
+
     @Override
     public InliningStep start(MethodReference method, ProgramReader program) {
+        if (profile != null && profile.isCold(method)) {
+            return null;
+        }
         Complexity complexity = getComplexity(program, null);
         if (complexity.score > totalComplexityThreshold) {
             return null;
@@ -81,14 +98,27 @@ public class DefaultInliningStrategy implements InliningStrategy {
             }
 
             Complexity complexity = getComplexity(program, context);
+            int threshold = complexityThreshold;
+            int totalThreshold = totalComplexityThreshold;
+            int sharedThreshold = 1;
+            if (profile != null) {
+                if (profile.isCold(method)) {
+                    threshold = 1;
+                } else if (profile.isHot(method)) {
+                    threshold *= HOT_COMPLEXITY_FACTOR;
+                    totalThreshold *= HOT_TOTAL_COMPLEXITY_FACTOR;
+                    sharedThreshold = HOT_SHARED_COMPLEXITY;
+                }
+            }
+
             if (onceUsedOnly && !context.isUsedOnce(method)) {
-                if (complexity.callsToUsedOnceMethods || complexity.score > 1) {
+                if (complexity.callsToUsedOnceMethods || complexity.score > sharedThreshold) {
                     return null;
                 }
             }
 
-            if (complexity.score > complexityThreshold
-                    || complexityHolder.complexity + complexity.score > totalComplexityThreshold) {
+            if (complexity.score > threshold
+                    || complexityHolder.complexity + complexity.score > totalThreshold) {
                 return null;
             }
 
@@ -100,6 +100,7 @@ public class GlobalValueNumbering implements MethodOptimization {
         boolean affected = false;
         this.program = program;
         knownValues.clear();
+        constantIndexes.clear();
         Graph cfg = ProgramUtils.buildControlFlowGraph(program);
         domTree = GraphUtils.buildDominatorTree(cfg);
         Graph dom = GraphUtils.buildDominatorGraph(domTree, cfg.size());
@@ -139,6 +140,7 @@ public class GlobalValueNumbering implements MethodOptimization {
                     currentInsn.delete();
                     eliminate = false;
                 } else if (evaluatedConstant != null) {
+                    affected = true;
                     if (evaluatedConstant instanceof Integer) {
                         IntegerConstantInstruction newInsn = new IntegerConstantInstruction();
                         newInsn.setConstant((Integer) evaluatedConstant);
@@ -63,6 +63,7 @@ public class RepeatedFieldReadElimination implements MethodOptimization {
     @Override
     public boolean optimize(MethodOptimizationContext context, Program program) {
         classSource = context.getClassSource();
+        changed = false;
         Graph cfg = ProgramUtils.buildControlFlowGraph(program);
         DominatorTree dom = GraphUtils.buildDominatorTree(cfg);
         aliasAnalysis = new AliasAnalysis();
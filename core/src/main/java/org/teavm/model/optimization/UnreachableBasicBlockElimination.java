@@ -20,7 +20,6 @@ import org.teavm.model.Program;
 public class UnreachableBasicBlockElimination implements MethodOptimization {
     @Override
     public boolean optimize(MethodOptimizationContext context, Program program) {
-        new UnreachableBasicBlockEliminator().optimize(program);
-        return false;
+        return new UnreachableBasicBlockEliminator().optimize(program);
     }
 }
@@ -25,9 +25,9 @@ import org.teavm.model.TryCatchBlock;
 import org.teavm.model.util.TransitionExtractor;
 
 public class UnreachableBasicBlockEliminator {
-    public void optimize(Program program) {
+    public boolean optimize(Program program) {
         if (program.basicBlockCount() == 0) {
-            return;
+            return false;
         }
         TransitionExtractor transitionExtractor = new TransitionExtractor();
         boolean[] reachable = new boolean[program.basicBlockCount()];
@@ -51,8 +51,10 @@ public class UnreachableBasicBlockEliminator {
             }
         }
 
+        boolean changed = false;
         for (int i = 0; i < reachable.length; ++i) {
             if (!reachable[i]) {
+                changed = true;
                 BasicBlock block = program.basicBlockAt(i);
                 if (block.getLastInstruction() != null) {
                     block.getLastInstruction().acceptVisitor(transitionExtractor);
@@ -84,5 +86,6 @@ public class UnreachableBasicBlockEliminator {
         }
 
         program.pack();
+        return changed;
     }
 }
@@ -86,11 +86,13 @@ public class UnusedVariableElimination implements MethodOptimization {
             }
         }
 
+        boolean changed = false;
         InstructionOptimizer insnOptimizer = new InstructionOptimizer(used);
         for (int i = 0; i < program.basicBlockCount(); ++i) {
             BasicBlock block = program.basicBlockAt(i);
             if (block.getExceptionVariable() != null && !used[block.getExceptionVariable().getIndex()]) {
                 block.setExceptionVariable(null);
+                changed = true;
             }
 
             for (Instruction insn : block) {
@@ -98,6 +100,7 @@ public class UnusedVariableElimination implements MethodOptimization {
                 insn.acceptVisitor(insnOptimizer);
                 if (insnOptimizer.eliminate) {
                     insn.delete();
+                    changed = true;
                 }
             }
 
@@ -105,23 +108,26 @@ public class UnusedVariableElimination implements MethodOptimization {
                 Phi phi = block.getPhis().get(j);
                 if (!used[phi.getReceiver().getIndex()]) {
                     block.getPhis().remove(j--);
+                    changed = true;
                 }
             }
         }
 
         for (int i = 0; i < program.variableCount(); ++i) {
-            if (!used[i]) {
+            if (!used[i] && program.variableAt(i) != null) {
                 program.deleteVariable(i);
+                changed = true;
             }
         }
         program.pack();
 
-        return false;
+        return changed || insnOptimizer.receiversRemoved;
     }
 
     static class InstructionOptimizer extends AbstractInstructionVisitor {
         private boolean[] used;
         boolean eliminate;
+        boolean receiversRemoved;
 
         InstructionOptimizer(boolean[] used) {
             this.used = used;
@@ -242,6 +248,7 @@ public class UnusedVariableElimination implements MethodOptimization {
         public void visit(InvokeInstruction insn) {
             if (insn.getReceiver() != null && !used[insn.getReceiver().getIndex()]) {
                 insn.setReceiver(null);
+                receiversRemoved = true;
             }
         }
 
@@ -249,6 +256,7 @@ public class UnusedVariableElimination implements MethodOptimization {
         public void visit(InvokeDynamicInstruction insn) {
             if (insn.getReceiver() != null && !used[insn.getReceiver().getIndex()]) {
                 insn.setReceiver(null);
+                receiversRemoved = true;
             }
         }
 
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.profile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Method invocation counts collected by a run of an instrumented program. Optimizer uses them to
+ * spend inlining budget on hot methods and to choose targets of guarded calls.</p>
+ *
+ * <p>Profile is stored as a text file. Lines starting with <code>#</code> are comments, every other
+ * line contains invocation count and method reference separated by a space, for example:</p>
+ *
+ * <pre>
+ * # teavm-profile 1
+ * 1024 java.lang.String.length()I
+ * </pre>
+ *
+ * <p>Methods that were compiled into the instrumented program, but never called, are listed with zero count.
+ * Methods that are absent from the profile are considered unknown, not cold, so a profile collected with
+ * a previous version of a program can still be used.</p>
+ */
+public class ExecutionProfile {
+    public static final String HEADER = "# teavm-profile 1";
+    private static final double HOT_FRACTION = 0.9;
+    private Map<MethodReference, Long> invocationCounts = new LinkedHashMap<>();
+    private long hotThreshold = -1;
+
+    public Set<? extends MethodReference> getMethods() {
+        return Collections.unmodifiableSet(invocationCounts.keySet());
+    }
+
+    /**
+     * Returns how many times the method was invoked.
+     *
+     * @return invocation count or -1 if the method is absent from the profile.
+     */
+    public long getInvocationCount(MethodReference method) {
+        Long count = invocationCounts.get(method);
+        return count != null ? count : -1;
+    }
+
+    public void setInvocationCount(MethodReference method, long count) {
+        invocationCounts.put(method, count);
+        hotThreshold = -1;
+    }
+
+    public void addInvocationCount(MethodReference method, long count) {
+        invocationCounts.merge(method, count, Long::sum);
+        hotThreshold = -1;
+    }
+
+    /**
+     * Hot methods are most frequently invoked methods that together account for 90% of all invocations.
+     */
+    public boolean isHot(MethodReference method) {
+        long count = getInvocationCount(method);
+        return count > 0 && count >= getHotThreshold();
+    }
+
+    public boolean isCold(MethodReference method) {
+        return getInvocationCount(method) == 0;
+    }
+
+    private long getHotThreshold() {
+        if (hotThreshold < 0) {
+            List<Long> counts = new ArrayList<>(invocationCounts.values());
+            counts.sort(Collections.reverseOrder());
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            long limit = (long) (total * HOT_FRACTION);
+            long sum = 0;
+            hotThreshold = Long.MAX_VALUE;
+            for (long count : counts) {
+                if (count == 0 || sum >= limit) {
+                    break;
+                }
+                sum += count;
+                hotThreshold = count;
+            }
+        }
+        return hotThreshold;
+    }
+
+    public static ExecutionProfile read(Reader reader) throws IOException {
+        ExecutionProfile profile = new ExecutionProfile();
+        BufferedReader input = new BufferedReader(reader);
+        int lineNumber = 0;
+        while (true) {
+            String line = input.readLine();
+            if (line == null) {
+                break;
+            }
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.indexOf(' ');
+            if (separator < 0) {
+                throw new IOException("Invalid profile entry at line " + lineNumber + ": " + line);
+            }
+            long count;
+            MethodReference method;
+            try {
+                count = Long.parseLong(line.substring(0, separator));
+                method = MethodReference.parse(line.substring(separator + 1).trim());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid profile entry at line " + lineNumber + ": " + line, e);
+            }
+            profile.addInvocationCount(method, count);
+        }
+        return profile;
+    }
+
+    public void write(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Map.Entry<MethodReference, Long> entry : invocationCounts.entrySet()) {
+            writer.write(entry.getValue() + " " + entry.getKey() + "\n");
+        }
+        writer.flush();
+    }
+}
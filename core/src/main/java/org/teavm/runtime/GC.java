@@ -33,8 +33,15 @@ public final class GC {
     private static final byte CARD_GAP = 4;
     private static final byte CARD_RELOCATABLE = 8;
     private static final int MIN_CHUNK_SIZE = 8;
+    private static final int SIZE_CLASS_COUNT = 32;
+    private static final int MARK_SLICE_ALLOCATION = 256 * 1024;
+    private static final int MARK_SLICE_CHECK_INTERVAL = 128;
+    public static final int PAUSE_HISTOGRAM_SIZE = 32;
+    private static final int PARALLEL_SWEEP = 0;
+    private static final int PARALLEL_COLLECT_CHUNKS = 1;
 
     static Address currentChunkLimit;
+    static Address allocationLimit;
     static FreeChunk currentChunk;
     static FreeChunkHolder currentChunkPointer;
     static int freeChunks;
@@ -42,11 +49,36 @@ public final class GC {
     static int freeMemory = (int) availableBytes();
     static RuntimeReference firstWeakReference;
     static FreeChunk lastChunk;
+    static Address sizeClasses;
+    static int sizeClassMask;
 
     static RelocationBlock lastRelocationBlock;
     static boolean isFullGC = true;
     private static int youngGCCount;
 
+    static boolean isMarking;
+    private static Address allocationTrackStart;
+    private static RuntimeObject pendingAllocation;
+    private static int nextMarkSlice;
+    private static int weakReferencesMarked;
+
+    private static int youngCollectionCount;
+    private static int fullCollectionCount;
+    private static long youngCollectionTime;
+    private static long fullCollectionTime;
+    private static boolean lastCollectionFull;
+    private static long lastPauseTime;
+    private static long markedBytes;
+    private static long freedBytes;
+    private static long relocatedBytes;
+    private static long heapSizeBeforeCollection;
+    private static long heapSizeAfterCollection;
+    private static long oldGenerationBytes;
+
+    private static long lastCollectionEndTime = currentTimeNanos();
+    private static long gcTimeAverage;
+    private static long mutatorTimeAverage;
+
     static native Address gcStorageAddress();
 
     static native int gcStorageSize();
@@ -71,6 +103,29 @@ public final class GC {
 
     public static native void writeBarrier(RuntimeObject object);
 
+    private static native int pauseBudget();
+
+    private static native Address pauseHistogram();
+
+    private static native long currentTimeNanos();
+
+    private static native int heapPolicy();
+
+    private static native int gcTimeRatio();
+
+    private static native int maxPauseTarget();
+
+    private static native int fullGCInterval();
+
+    private static native int gcThreadCount();
+
+    private static native Address gcThreadData();
+
+    private static native void runInParallel(int task);
+
+    private static native void logCollection(boolean full, long pauseTime, long markedBytes, long freedBytes,
+            long relocatedBytes, long heapSizeBefore, long heapSizeAfter, long oldGenerationBytes);
+
     @Import(name = "teavm_outOfMemory")
     public static native void outOfMemory();
 
@@ -78,15 +133,85 @@ public final class GC {
         return freeMemory;
     }
 
+    /**
+     * Returns number of GC pauses that took from {@code 2^bucket} to {@code 2^(bucket + 1)} microseconds.
+     * Bucket 0 also counts pauses shorter than a microsecond, the last bucket counts all longer pauses.
+     * Both collections and slices of incremental marking are counted as pauses.
+     */
+    public static int getPauseCount(int bucket) {
+        if (bucket < 0 || bucket >= PAUSE_HISTOGRAM_SIZE) {
+            return 0;
+        }
+        return pauseHistogram().add(bucket * 4).getInt();
+    }
+
+    /**
+     * Returns number of young or full collections performed so far. A young collection that turns into a full one
+     * is counted in both.
+     */
+    public static int getCollectionCount(boolean full) {
+        return full ? fullCollectionCount : youngCollectionCount;
+    }
+
+    /**
+     * Returns total duration of young or full collections in nanoseconds. Slices of incremental marking are not
+     * included, they are only reported by {@link #getPauseCount(int)}.
+     */
+    public static long getCollectionTime(boolean full) {
+        return full ? fullCollectionTime : youngCollectionTime;
+    }
+
+    public static boolean isLastCollectionFull() {
+        return lastCollectionFull;
+    }
+
+    public static long getLastPauseTime() {
+        return lastPauseTime;
+    }
+
+    /**
+     * Returns size of objects found reachable by the last collection. Young collection does not mark
+     * objects of old generation, so they are not included.
+     */
+    public static long getLastMarkedBytes() {
+        return markedBytes;
+    }
+
+    public static long getLastFreedBytes() {
+        return freedBytes;
+    }
+
+    public static long getLastRelocatedBytes() {
+        return relocatedBytes;
+    }
+
+    public static long getHeapSizeBeforeLastCollection() {
+        return heapSizeBeforeCollection;
+    }
+
+    public static long getHeapSizeAfterLastCollection() {
+        return heapSizeAfterCollection;
+    }
+
+    /**
+     * Returns size of old generation right after the last collection. Every object that survives a collection
+     * gets promoted, so this is the amount of memory occupied by live objects at that moment.
+     */
+    public static long getOldGenerationBytes() {
+        return oldGenerationBytes;
+    }
+
     static {
         currentChunk = heapAddress().toStructure();
         currentChunk.classReference = 0;
         currentChunk.size = (int) availableBytes();
         currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
+        allocationLimit = currentChunkLimit;
         currentChunkPointer = gcStorageAddress().toStructure();
         currentChunkPointer.value = currentChunk;
         freeChunks = 1;
         totalChunks = 1;
+        initSizeClasses();
 
         int regionCount = getRegionCount();
         Allocator.fill(cardTable(), CARD_VALID, regionCount);
@@ -99,10 +224,8 @@ public final class GC {
     public static RuntimeObject alloc(int size) {
         FreeChunk current = currentChunk;
         Address next = current.toAddress().add(size);
-        if (!next.add(Structure.sizeOf(FreeChunk.class)).isLessThan(currentChunkLimit)) {
-            getNextChunk(size);
-            current = currentChunk;
-            next = current.toAddress().add(size);
+        if (!next.add(Structure.sizeOf(FreeChunk.class)).isLessThan(allocationLimit)) {
+            return allocSlow(size);
         }
         currentChunk = next.toStructure();
         freeMemory -= size;
@@ -110,14 +233,49 @@ public final class GC {
         return current.toAddress().toStructure();
     }
 
-    private static void getNextChunk(int size) {
-        if (getNextChunkIfPossible(size)) {
-            return;
+    private static RuntimeObject allocSlow(int size) {
+        if (isMarking) {
+            markIncrementally();
         }
-        collectGarbageImpl(size);
-        if (currentChunk.size != size && currentChunk.size <= size + MIN_CHUNK_SIZE && !getNextChunkIfPossible(size)) {
-            ExceptionHandling.printStack();
-            outOfMemory();
+
+        RuntimeObject result = null;
+        // While marking, allocationLimit may be lower than limit of current chunk to get here periodically
+        Address next = currentChunk.toAddress().add(size);
+        if (!next.add(Structure.sizeOf(FreeChunk.class)).isLessThan(currentChunkLimit)) {
+            result = allocFromSizeClass(size);
+            if (result == null && !getNextChunkIfPossible(size)) {
+                collectGarbageImpl(size);
+                result = allocFromSizeClass(size);
+                if (result == null && currentChunk.size != size && currentChunk.size <= size + MIN_CHUNK_SIZE
+                        && !getNextChunkIfPossible(size)) {
+                    ExceptionHandling.printStack();
+                    outOfMemory();
+                }
+            }
+        }
+
+        if (result == null) {
+            FreeChunk current = currentChunk;
+            currentChunk = current.toAddress().add(size).toStructure();
+            freeMemory -= size;
+            MemoryTrace.allocate(current.toAddress(), size);
+            result = current.toAddress().toStructure();
+            allocationTrackStart = result.toAddress();
+        } else if (isMarking) {
+            pendingAllocation = result;
+        }
+
+        updateAllocationLimit();
+        return result;
+    }
+
+    private static void updateAllocationLimit() {
+        allocationLimit = currentChunkLimit;
+        if (isMarking) {
+            Address sliceLimit = currentChunk.toAddress().add(MARK_SLICE_ALLOCATION);
+            if (sliceLimit.isLessThan(allocationLimit)) {
+                allocationLimit = sliceLimit;
+            }
         }
     }
 
@@ -126,21 +284,167 @@ public final class GC {
             if (currentChunk.toAddress().isLessThan(currentChunkLimit)) {
                 currentChunk.classReference = 0;
                 currentChunk.size = (int) (currentChunkLimit.toLong() - currentChunk.toAddress().toLong());
+                addToSizeClass(currentChunk);
             }
             if (--freeChunks == 0) {
                 return false;
             }
             currentChunkPointer = Structure.add(FreeChunkHolder.class, currentChunkPointer, 1);
             currentChunk = currentChunkPointer.value;
+            allocationTrackStart = currentChunk.toAddress();
             if (currentChunk.size >= size + MIN_CHUNK_SIZE || currentChunk.size == size) {
                 currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
                 break;
             }
-            freeMemory -= currentChunk.size;
+            if (!addToSizeClass(currentChunk)) {
+                freeMemory -= currentChunk.size;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Small free chunks are kept in segregated lists, one list per size, so that allocator does not have to
+     * skip them (and waste them until next GC) while looking for a chunk to bump-allocate from.
+     * Only sizes that are multiples of Address.sizeOf() are tracked, since all objects are aligned to it.
+     * A list head for size `n * Address.sizeOf()` is stored at `sizeClasses[n]`, `sizeClassMask` has bit `n` set
+     * when the list is not empty. Lists are rebuilt after each GC.
+     */
+    private static RuntimeObject allocFromSizeClass(int size) {
+        if (sizeClassMask == 0) {
+            return null;
+        }
+        int sizeClass = size / Address.sizeOf();
+        if (sizeClass >= SIZE_CLASS_COUNT) {
+            return null;
+        }
+
+        int candidates = sizeClassMask & (1 << sizeClass);
+        if (candidates == 0) {
+            // Remainder of a split chunk must be able to hold free chunk header
+            int minSplitClass = sizeClass + (MIN_CHUNK_SIZE + Address.sizeOf() - 1) / Address.sizeOf();
+            if (minSplitClass >= SIZE_CLASS_COUNT) {
+                return null;
+            }
+            candidates = sizeClassMask & (-1 << minSplitClass);
+            if (candidates == 0) {
+                return null;
+            }
+        }
+
+        int chunkClass = lowestBit(candidates);
+        Address head = sizeClasses.add(chunkClass * Address.sizeOf());
+        FreeListChunk chunk = head.getAddress().toStructure();
+        FreeListChunk nextChunk = chunk.next;
+        // Check for null before toAddress(), otherwise the check is eliminated, since null checks
+        // treat structure receiver as dereferenced
+        if (nextChunk == null) {
+            sizeClassMask &= ~(1 << chunkClass);
+        }
+        head.putAddress(nextChunk.toAddress());
+
+        int remainder = chunk.size - size;
+        if (remainder > 0) {
+            FreeChunk rest = chunk.toAddress().add(size).toStructure();
+            rest.classReference = 0;
+            rest.size = remainder;
+            if (!addToSizeClass(rest)) {
+                freeMemory -= remainder;
+            }
+        }
+
+        freeMemory -= size;
+        MemoryTrace.allocate(chunk.toAddress(), size);
+        return chunk.toAddress().toStructure();
+    }
+
+    private static boolean addToSizeClass(FreeChunk chunk) {
+        int size = chunk.size;
+        if (sizeClasses == null || size < Structure.sizeOf(FreeListChunk.class)) {
+            return false;
         }
+        int sizeClass = size / Address.sizeOf();
+        if (sizeClass >= SIZE_CLASS_COUNT || sizeClass * Address.sizeOf() != size) {
+            return false;
+        }
+
+        Address head = sizeClasses.add(sizeClass * Address.sizeOf());
+        FreeListChunk listChunk = chunk.toAddress().toStructure();
+        listChunk.next = head.getAddress().toStructure();
+        head.putAddress(listChunk.toAddress());
+        sizeClassMask |= 1 << sizeClass;
         return true;
     }
 
+    private static void initSizeClasses() {
+        sizeClassMask = 0;
+        int holderSize = Structure.sizeOf(FreeChunkHolder.class);
+        if ((totalChunks + SIZE_CLASS_COUNT) * (long) holderSize > gcStorageSize()) {
+            sizeClasses = null;
+            return;
+        }
+        sizeClasses = gcStorageAddress().add(totalChunks * holderSize);
+        Allocator.fill(sizeClasses, (byte) 0, SIZE_CLASS_COUNT * Address.sizeOf());
+    }
+
+    private static void buildSizeClasses() {
+        initSizeClasses();
+        if (sizeClasses == null) {
+            return;
+        }
+
+        // Chunks that go to size classes still stay in chunk table after chunks used for bump allocation,
+        // since storeGapsInCardTable relies on all free chunks being there.
+        FreeChunkHolder source = currentChunkPointer;
+        FreeChunkHolder target = currentChunkPointer;
+        int bumpChunks = 0;
+        for (int i = 0; i < freeChunks; ++i) {
+            FreeChunk chunk = source.value;
+            boolean keepForBump = bumpChunks == 0 && i == freeChunks - 1;
+            if (keepForBump || !addToSizeClass(chunk)) {
+                target.value = chunk;
+                target = Structure.add(FreeChunkHolder.class, target, 1);
+                bumpChunks++;
+            }
+            source = Structure.add(FreeChunkHolder.class, source, 1);
+        }
+
+        for (int i = 0; i < SIZE_CLASS_COUNT; ++i) {
+            FreeListChunk chunk = sizeClasses.add(i * Address.sizeOf()).getAddress().toStructure();
+            while (chunk != null) {
+                target.value = chunk;
+                target = Structure.add(FreeChunkHolder.class, target, 1);
+                chunk = chunk.next;
+            }
+        }
+
+        freeChunks = bumpChunks;
+    }
+
+    private static int lowestBit(int mask) {
+        int n = 0;
+        if ((mask & 0xFFFF) == 0) {
+            mask >>>= 16;
+            n += 16;
+        }
+        if ((mask & 0xFF) == 0) {
+            mask >>>= 8;
+            n += 8;
+        }
+        if ((mask & 0xF) == 0) {
+            mask >>>= 4;
+            n += 4;
+        }
+        if ((mask & 0x3) == 0) {
+            mask >>>= 2;
+            n += 2;
+        }
+        if ((mask & 0x1) == 0) {
+            n += 1;
+        }
+        return n;
+    }
+
     @Export(name = "teavm_gc_collect")
     public static void collectGarbage() {
         fixHeap();
@@ -154,7 +458,9 @@ public final class GC {
     }
 
     private static void collectGarbageFullImpl(int size) {
-        triggerFullGC();
+        if (!isMarking) {
+            triggerFullGC();
+        }
         collectGarbageImpl(size);
     }
 
@@ -166,6 +472,9 @@ public final class GC {
     }
 
     private static void collectGarbageImpl(int size) {
+        long startTime = currentTimeNanos();
+        long collectionStartTime = startTime;
+        long heapSizeBefore = availableBytes();
         doCollectGarbage();
 
         long minRequestedSize = 0;
@@ -173,10 +482,18 @@ public final class GC {
             minRequestedSize = computeMinRequestedSize(size);
         }
 
+        boolean startMarking = false;
         if (!isFullGC) {
-            if (++youngGCCount >= 8 && isAboutToExpand(minRequestedSize)) {
-                triggerFullGC();
-                doCollectGarbage();
+            if (++youngGCCount >= fullGCInterval() && isAboutToExpand(minRequestedSize)) {
+                if (minRequestedSize == 0 && canMarkIncrementally()) {
+                    // Requested memory is available, so full GC can be spread over subsequent allocations
+                    startMarking = true;
+                } else {
+                    reportCollection(collectionStartTime, heapSizeBefore);
+                    collectionStartTime = currentTimeNanos();
+                    triggerFullGC();
+                    doCollectGarbage();
+                }
                 youngGCCount = 0;
             }
         } else {
@@ -184,23 +501,69 @@ public final class GC {
         }
         isFullGC = false;
 
-        resizeHeapIfNecessary(minRequestedSize);
+        updateTimeAverages(startTime);
+        if (!startMarking) {
+            resizeHeapIfNecessary(minRequestedSize, currentTimeNanos() - startTime);
+        }
+        buildSizeClasses();
         currentChunk = currentChunkPointer.value;
         currentChunkLimit = currentChunk.toAddress().add(currentChunk.size);
+        updateAllocationLimit();
 
         Allocator.fill(cardTable(), CARD_VALID, getRegionCount());
+        if (startMarking) {
+            startIncrementalMark();
+        }
+        reportCollection(collectionStartTime, heapSizeBefore);
+        recordPause(startTime);
+        lastCollectionEndTime = currentTimeNanos();
+    }
+
+    private static void updateTimeAverages(long startTime) {
+        long gcTime = currentTimeNanos() - startTime;
+        long mutatorTime = startTime - lastCollectionEndTime;
+        gcTimeAverage = (gcTimeAverage * 3 + gcTime) / 4;
+        mutatorTimeAverage = (mutatorTimeAverage * 3 + mutatorTime) / 4;
+    }
+
+    private static void reportCollection(long startTime, long heapSizeBefore) {
+        lastPauseTime = currentTimeNanos() - startTime;
+        if (lastCollectionFull) {
+            fullCollectionCount++;
+            fullCollectionTime += lastPauseTime;
+        } else {
+            youngCollectionCount++;
+            youngCollectionTime += lastPauseTime;
+        }
+        heapSizeBeforeCollection = heapSizeBefore;
+        heapSizeAfterCollection = availableBytes();
+        oldGenerationBytes = heapSizeAfterCollection - freeMemory;
+        logCollection(lastCollectionFull, lastPauseTime, markedBytes, freedBytes, relocatedBytes,
+                heapSizeBeforeCollection, heapSizeAfterCollection, oldGenerationBytes);
     }
 
     private static void doCollectGarbage() {
         MemoryTrace.gcStarted(isFullGC);
+        lastCollectionFull = isFullGC;
+        int freeMemoryBefore = freeMemory;
+        relocatedBytes = 0;
         if (!isFullGC) {
             storeGapsInCardTable();
         }
-        mark();
+        if (isMarking) {
+            finishIncrementalMark();
+        } else {
+            mark();
+        }
         processReferences();
-        sweep();
+        if (isFullGC && gcThreadCount() > 1) {
+            sweepInParallel();
+        } else {
+            sweep();
+        }
         defragment();
         updateFreeMemory();
+        freedBytes = freeMemory - freeMemoryBefore;
         MemoryTrace.gcCompleted();
         totalChunks = freeChunks;
     }
@@ -228,7 +591,7 @@ public final class GC {
 
     @Export(name = "teavm_gc_fixHeap")
     public static void fixHeap() {
-        if (freeChunks > 0) {
+        if (freeChunks > 0 && currentChunk.toAddress().isLessThan(currentChunkLimit)) {
             currentChunk.classReference = 0;
             currentChunk.size = (int) (currentChunkLimit.toLong() - currentChunk.toAddress().toLong());
         }
@@ -366,10 +729,220 @@ public final class GC {
         }
     }
 
+    /*
+     * Incremental marking replaces stop-the-world marking of full GC when pause budget is set. Marking starts
+     * at the end of a young GC and proceeds in slices that run from allocSlow each MARK_SLICE_ALLOCATION bytes.
+     * A slice is limited by pause budget. Write barrier clears CARD_VALID, so marked objects in dirty regions
+     * are scanned again by subsequent slices and by the final pause (incremental update). Objects allocated
+     * during marking are marked as well. The final pause marks from roots once again, scans remaining dirty
+     * regions and then proceeds with sweep and defragmentation as usual.
+     */
+    private static boolean canMarkIncrementally() {
+        // Mark queue shares GC storage with chunk table and size class lists
+        return pauseBudget() > 0 && markQueueOffset() <= gcStorageSize() / 2;
+    }
+
+    private static int markQueueOffset() {
+        return (totalChunks + SIZE_CLASS_COUNT) * Structure.sizeOf(FreeChunkHolder.class);
+    }
+
+    private static void startIncrementalMark() {
+        isMarking = true;
+        isFullGC = true;
+        weakReferencesMarked = 0;
+        pendingAllocation = null;
+        allocationTrackStart = currentChunk.toAddress();
+        nextMarkSlice = freeMemory - MARK_SLICE_ALLOCATION;
+        Allocator.fill(regionsAddress().toAddress(), (byte) 0, getRegionCount() * Structure.sizeOf(Region.class));
+
+        MemoryTrace.markStarted();
+        MarkQueue.init(markQueueOffset());
+        markFromStaticFields();
+        markFromClasses();
+        markFromStack();
+        updateAllocationLimit();
+    }
+
+    private static void markIncrementally() {
+        trackAllocations();
+        if (freeMemory > nextMarkSlice) {
+            return;
+        }
+
+        long startTime = currentTimeNanos();
+        long deadline = startTime + pauseBudget() * 1000L;
+        fixHeap();
+        boolean completed = processMarkQueue(deadline) && rescanDirtyRegions(deadline)
+                && processMarkQueue(deadline);
+        nextMarkSlice = freeMemory - MARK_SLICE_ALLOCATION;
+        recordPause(startTime);
+
+        if (completed) {
+            collectGarbageImpl(0);
+        }
+    }
+
+    private static void trackAllocations() {
+        if (pendingAllocation != null) {
+            enqueueMark(pendingAllocation);
+            pendingAllocation = null;
+        }
+
+        Address limit = currentChunk.toAddress();
+        FreeChunk object = allocationTrackStart.toStructure();
+        while (object.toAddress().isLessThan(limit)) {
+            enqueueMark(object.toAddress().toStructure());
+            object = object.toAddress().add(objectSize(object)).toStructure();
+        }
+        allocationTrackStart = limit;
+    }
+
+    private static void finishIncrementalMark() {
+        trackAllocations();
+        markFromStaticFields();
+        markFromClasses();
+        markFromStack();
+        doProcessMarkQueue();
+        rescanDirtyRegions(Long.MAX_VALUE);
+        linkWeakReferences();
+        isMarking = false;
+
+        // Leave card table in the same state as stop-the-world marking does
+        Address card = cardTable();
+        Region region = regionsAddress();
+        int regionsCount = getRegionCount();
+        for (int i = 0; i < regionsCount; ++i) {
+            card.putByte((byte) (region.start != 0 ? CARD_YOUNG_GEN : 0));
+            card = card.add(1);
+            region = Structure.add(Region.class, region, 1);
+        }
+
+        MemoryTrace.markCompleted();
+    }
+
+    private static boolean rescanDirtyRegions(long deadline) {
+        int validMask = CARD_VALID | (CARD_VALID << 8) | (CARD_VALID << 16) | (CARD_VALID << 24);
+        int regionsCount = getRegionCount();
+
+        Address cardPtr = cardTable();
+        int regionIndex;
+        for (regionIndex = 0; regionIndex < regionsCount - 3; regionIndex += 4) {
+            int n = cardPtr.getInt();
+            if ((n & validMask) != validMask) {
+                for (int i = 0; i < 4; ++i) {
+                    n = cardPtr.add(i).getByte();
+                    if ((n & CARD_VALID) == 0 && !rescanRegion(regionIndex + i, deadline)) {
+                        return false;
+                    }
+                }
+            }
+            cardPtr = cardPtr.add(4);
+        }
+
+        for (; regionIndex < regionsCount; regionIndex++) {
+            if ((cardPtr.getByte() & CARD_VALID) == 0 && !rescanRegion(regionIndex, deadline)) {
+                return false;
+            }
+            cardPtr = cardPtr.add(1);
+        }
+        return true;
+    }
+
+    private static boolean rescanRegion(int regionIndex, long deadline) {
+        Address card = cardTable().add(regionIndex);
+        card.putByte((byte) (card.getByte() | CARD_VALID));
+        int regionOffset = Structure.add(Region.class, regionsAddress(), regionIndex).start;
+        if (regionOffset == 0) {
+            return true;
+        }
+
+        int regionSize = regionSize();
+        Address regionStart = heapAddress().add((long) regionSize * regionIndex);
+        MemoryTrace.reportDirtyRegion(regionStart);
+        Address regionEnd = regionStart.add(regionSize);
+        Address heapLimit = heapAddress().add(availableBytes());
+        if (heapLimit.isLessThan(regionEnd)) {
+            regionEnd = heapLimit;
+        }
+
+        FreeChunk object = regionStart.add(regionOffset - 1).toStructure();
+        while (object.toAddress().isLessThan(regionEnd)) {
+            if ((object.classReference & RuntimeObject.GC_MARKED) != 0) {
+                markObjectData(object.toAddress().toStructure());
+            }
+            object = object.toAddress().add(objectSize(object)).toStructure();
+        }
+
+        return processMarkQueue(deadline) && currentTimeNanos() < deadline;
+    }
+
+    private static void linkWeakReferences() {
+        firstWeakReference = null;
+        if (weakReferencesMarked == 0) {
+            return;
+        }
+
+        int regionsCount = getRegionCount();
+        int regionSize = regionSize();
+        Address heapLimit = heapAddress().add(availableBytes());
+        for (int i = 0; i < regionsCount; ++i) {
+            int regionOffset = Structure.add(Region.class, regionsAddress(), i).start;
+            if (regionOffset == 0) {
+                continue;
+            }
+            Address regionStart = heapAddress().add((long) regionSize * i);
+            Address regionEnd = regionStart.add(regionSize);
+            if (heapLimit.isLessThan(regionEnd)) {
+                regionEnd = heapLimit;
+            }
+
+            FreeChunk object = regionStart.add(regionOffset - 1).toStructure();
+            while (object.toAddress().isLessThan(regionEnd)) {
+                if ((object.classReference & RuntimeObject.GC_MARKED) != 0) {
+                    RuntimeObject realObject = object.toAddress().toStructure();
+                    if (isWeakReference(RuntimeClass.getClass(realObject))) {
+                        RuntimeReference reference = (RuntimeReference) realObject;
+                        if (reference.next == null && reference.object != null) {
+                            reference.next = firstWeakReference;
+                            firstWeakReference = reference;
+                        }
+                    }
+                }
+                object = object.toAddress().add(objectSize(object)).toStructure();
+            }
+        }
+    }
+
+    private static boolean isWeakReference(RuntimeClass cls) {
+        while (cls != null) {
+            int type = (cls.flags >> RuntimeClass.VM_TYPE_SHIFT) & RuntimeClass.VM_TYPE_MASK;
+            if (type == RuntimeClass.VM_TYPE_WEAKREFERENCE) {
+                return true;
+            }
+            cls = cls.parent;
+        }
+        return false;
+    }
+
+    private static void recordPause(long startTime) {
+        long duration = (currentTimeNanos() - startTime) / 1000;
+        int bucket = 0;
+        while (duration > 1 && bucket < PAUSE_HISTOGRAM_SIZE - 1) {
+            duration >>= 1;
+            bucket++;
+        }
+        Address counter = pauseHistogram().add(bucket * 4);
+        counter.putInt(counter.getInt() + 1);
+    }
+
     private static void mark(RuntimeObject object) {
         if (object == null || isMarked(object)) {
             return;
         }
+        if (isMarking) {
+            doEnqueueMark(object);
+            return;
+        }
         MarkQueue.init();
         enqueueMark(object);
         doProcessMarkQueue();
@@ -384,20 +957,37 @@ public final class GC {
 
     private static void doProcessMarkQueue() {
         while (!MarkQueue.isEmpty()) {
-            RuntimeObject object = MarkQueue.dequeue();
-            MemoryTrace.mark(object.toAddress());
+            markQueuedObject(MarkQueue.dequeue());
+        }
+    }
 
-            long offset = object.toAddress().toLong() - heapAddress().toLong();
-            Region region = Structure.add(Region.class, regionsAddress(), (int) (offset /  regionSize()));
-            short relativeOffset = (short) (offset % regionSize() + 1);
-            if (region.start == 0 || region.start > relativeOffset) {
-                region.start = relativeOffset;
+    private static boolean processMarkQueue(long deadline) {
+        int count = 0;
+        while (!MarkQueue.isEmpty()) {
+            markQueuedObject(MarkQueue.dequeue());
+            if (++count == MARK_SLICE_CHECK_INTERVAL) {
+                count = 0;
+                if (currentTimeNanos() >= deadline) {
+                    return false;
+                }
             }
-            Address cardTableItem = cardTable().add(offset / regionSize());
-            cardTableItem.putByte((byte) (cardTableItem.getByte() | CARD_YOUNG_GEN));
+        }
+        return true;
+    }
+
+    private static void markQueuedObject(RuntimeObject object) {
+        MemoryTrace.mark(object.toAddress());
 
-            markObjectData(object);
+        long offset = object.toAddress().toLong() - heapAddress().toLong();
+        Region region = Structure.add(Region.class, regionsAddress(), (int) (offset /  regionSize()));
+        short relativeOffset = (short) (offset % regionSize() + 1);
+        if (region.start == 0 || region.start > relativeOffset) {
+            region.start = relativeOffset;
         }
+        Address cardTableItem = cardTable().add(offset / regionSize());
+        cardTableItem.putByte((byte) (cardTableItem.getByte() | CARD_YOUNG_GEN));
+
+        markObjectData(object);
     }
 
     private static boolean markObjectData(RuntimeObject object) {
@@ -442,8 +1032,14 @@ public final class GC {
         if (object.next != null) {
             hasObjectsFromYoungGen |= enqueueMark(object.next);
         } else if (object.object != null) {
-            object.next = firstWeakReference;
-            firstWeakReference = object;
+            if (isMarking) {
+                // Mutator uses `next` field to maintain reference queues, so references are linked
+                // in the final pause of incremental marking, see linkWeakReferences
+                weakReferencesMarked++;
+            } else {
+                object.next = firstWeakReference;
+                firstWeakReference = object;
+            }
         }
         return hasObjectsFromYoungGen;
     }
@@ -550,14 +1146,17 @@ public final class GC {
         int regionsCount = getRegionCount();
         Address currentRegionEnd = null;
         Address limit = heapAddress().add(heapSize);
+        long markedBytes = 0;
 
         loop: while (object.toAddress().isLessThan(limit)) {
             int tag = object.classReference;
             boolean free;
+            boolean marked = false;
             if (tag == 0) {
                 free = true;
             } else {
-                free = (tag & RuntimeObject.GC_MARKED) == 0;
+                marked = (tag & RuntimeObject.GC_MARKED) != 0;
+                free = !marked;
                 if (free && !isFullGC && (tag & RuntimeObject.GC_OLD_GENERATION) != 0) {
                     free = false;
                 }
@@ -633,17 +1232,172 @@ public final class GC {
             }
 
             int size = objectSize(object);
+            if (marked) {
+                markedBytes += size;
+            }
             object = object.toAddress().add(size).toStructure();
         }
 
         if (lastFreeSpace != null) {
             freeMemory(lastFreeSpace, object);
         }
+        GC.markedBytes = markedBytes;
+
+        currentChunkPointer = gcStorageAddress().toStructure();
+        MemoryTrace.sweepCompleted();
+    }
 
+    /*
+     * Parallel sweep is only used by full GC, since every live object is marked then. Heap is split into ranges
+     * that start at marked objects, so free chunks never cross range boundaries. Each worker merges free space
+     * of its range into free chunks and counts them, then each worker stores its chunks into chunk table
+     * at position computed from counts of preceding ranges. This keeps chunk table ordered by address,
+     * exactly as serial sweep does.
+     *
+     * Marking and relocation remain serial. Marking shares a single mark queue and sets GC_MARKED with plain
+     * stores to object headers, and relocation moves objects in address order into space freed by preceding
+     * objects, so both would need atomic header updates and work stealing to run in parallel.
+     */
+    private static void sweepInParallel() {
+        MemoryTrace.sweepStarted();
+
+        int threadCount = gcThreadCount();
+        int regionsCount = getRegionCount();
+        Address limit = heapAddress().add(availableBytes());
+        Address start = heapAddress();
+        SweepTask task = gcThreadData().toStructure();
+        for (int i = 0; i < threadCount; ++i) {
+            Address end = limit;
+            for (int region = (i + 1) * regionsCount / threadCount; region < regionsCount; ++region) {
+                int offset = Structure.add(Region.class, regionsAddress(), region).start;
+                if (offset != 0) {
+                    end = heapAddress().add((long) regionSize() * region + offset - 1);
+                    break;
+                }
+            }
+            if (end.isLessThan(start)) {
+                end = start;
+            }
+            task.start = start;
+            task.end = end;
+            task.chunkCount = 0;
+            task.markedBytes = 0;
+            start = end;
+            task = Structure.add(SweepTask.class, task, 1);
+        }
+        runInParallel(PARALLEL_SWEEP);
+
+        FreeChunkHolder output = gcStorageAddress().toStructure();
+        int chunkCount = 0;
+        long markedBytes = 0;
+        task = gcThreadData().toStructure();
+        for (int i = 0; i < threadCount; ++i) {
+            task.output = output;
+            output = Structure.add(FreeChunkHolder.class, output, task.chunkCount);
+            chunkCount += task.chunkCount;
+            markedBytes += task.markedBytes;
+            task = Structure.add(SweepTask.class, task, 1);
+        }
+        runInParallel(PARALLEL_COLLECT_CHUNKS);
+
+        freeChunks = chunkCount;
+        totalChunks = chunkCount;
+        GC.markedBytes = markedBytes;
         currentChunkPointer = gcStorageAddress().toStructure();
         MemoryTrace.sweepCompleted();
     }
 
+    @Export(name = "teavm_gc_parallelTask")
+    public static void parallelTask(int task, int worker) {
+        SweepTask sweepTask = Structure.add(SweepTask.class, gcThreadData().toStructure(), worker);
+        switch (task) {
+            case PARALLEL_SWEEP:
+                sweepRange(sweepTask);
+                break;
+            case PARALLEL_COLLECT_CHUNKS:
+                collectChunks(sweepTask);
+                break;
+        }
+    }
+
+    private static void sweepRange(SweepTask task) {
+        FreeChunk object = task.start.toStructure();
+        FreeChunk lastFreeSpace = null;
+        int regionsCount = getRegionCount();
+        Address currentRegionEnd = null;
+        Address limit = task.end;
+        int chunkCount = 0;
+        long markedBytes = 0;
+
+        loop: while (object.toAddress().isLessThan(limit)) {
+            int tag = object.classReference;
+            boolean marked = tag != 0 && (tag & RuntimeObject.GC_MARKED) != 0;
+            if (marked) {
+                object.classReference = tag & ~RuntimeObject.GC_MARKED;
+                if (lastFreeSpace != null) {
+                    lastFreeSpace.classReference = 0;
+                    lastFreeSpace.size = (int) (object.toAddress().toLong() - lastFreeSpace.toAddress().toLong());
+                    chunkCount++;
+                    lastFreeSpace = null;
+                }
+            } else {
+                if (lastFreeSpace == null) {
+                    lastFreeSpace = object;
+                }
+
+                if (!object.toAddress().isLessThan(currentRegionEnd)) {
+                    int currentRegionIndex = (int) ((object.toAddress().toLong() - heapAddress().toLong())
+                            / regionSize());
+                    Region currentRegion = Structure.add(Region.class, regionsAddress(), currentRegionIndex);
+                    currentRegionEnd = heapAddress().add((currentRegionIndex + 1) * regionSize());
+                    if (currentRegion.start == 0) {
+                        // Region that contains end of the range always has marked objects, so we never skip it
+                        do {
+                            if (++currentRegionIndex == regionsCount) {
+                                object = limit.toStructure();
+                                break loop;
+                            }
+                            currentRegion = Structure.add(Region.class, regionsAddress(), currentRegionIndex);
+                        } while (currentRegion.start == 0);
+
+                        Address newRegionStart = heapAddress().add(currentRegionIndex * regionSize());
+                        object = newRegionStart.add(currentRegion.start - 1).toStructure();
+                        currentRegionEnd = newRegionStart.add(regionSize());
+                        continue;
+                    }
+                }
+            }
+
+            int size = objectSize(object);
+            if (marked) {
+                markedBytes += size;
+            }
+            object = object.toAddress().add(size).toStructure();
+        }
+
+        if (lastFreeSpace != null) {
+            lastFreeSpace.classReference = 0;
+            lastFreeSpace.size = (int) (object.toAddress().toLong() - lastFreeSpace.toAddress().toLong());
+            chunkCount++;
+        }
+
+        task.chunkCount = chunkCount;
+        task.markedBytes = markedBytes;
+    }
+
+    private static void collectChunks(SweepTask task) {
+        FreeChunkHolder output = task.output;
+        FreeChunk object = task.start.toStructure();
+        Address limit = task.end;
+        while (object.toAddress().isLessThan(limit)) {
+            if (object.classReference == 0) {
+                output.value = object;
+                output = Structure.add(FreeChunkHolder.class, output, 1);
+            }
+            object = object.toAddress().add(objectSize(object)).toStructure();
+        }
+    }
+
     private static void storeGapsInCardTable() {
         for (int i = 0; i < totalChunks; ++i) {
             FreeChunk freeChunkStart = FreeChunkHolder.add(FreeChunkHolder.class,
@@ -860,6 +1614,7 @@ public final class GC {
                     relocation.sizeBackup = object.size;
                     relocation.newAddress = relocationTarget;
                     countInCurrentRelocationBlock++;
+                    relocatedBytes += size;
                     relocations = relocations.add(Structure.sizeOf(Relocation.class));
 
                     long targetAddress = relocation.toAddress().toLong();
@@ -1389,23 +2144,27 @@ public final class GC {
                     return;
                 }
             }
+            resizeHeap(newSize);
+            // WebAssembly memory can't shrink, so Wasm heap ignores the request and last chunk must keep its size
+            newSize = availableBytes();
+            if (newSize == oldSize) {
+                return;
+            }
             if (newSize == minimumSize) {
                 freeChunks--;
                 totalChunks--;
             } else {
                 lastChunk.size -= (int) (oldSize - newSize);
             }
-            resizeHeap(newSize);
 
             currentChunkPointer = gcStorageAddress().toStructure();
         }
     }
 
-    private static void resizeHeapIfNecessary(long requestedSize) {
+    private static void resizeHeapIfNecessary(long requestedSize, long collectionTime) {
         long availableBytes = availableBytes();
-        long occupiedMemory = availableBytes - freeMemory;
-        if (isAboutToExpand(requestedSize)) {
-            long newSize = max(requestedSize, (availableBytes - freeMemory) * 2);
+        long newSize = computeHeapSize(requestedSize, collectionTime);
+        if (newSize > availableBytes) {
             newSize = min(newSize, maxAvailableBytes());
             if (newSize != availableBytes) {
                 if (newSize % 8 != 0) {
@@ -1413,8 +2172,7 @@ public final class GC {
                 }
                 resizeHeapConsistent(newSize);
             }
-        } else if (occupiedMemory < availableBytes / 4) {
-            long newSize = occupiedMemory * 3;
+        } else if (newSize < availableBytes) {
             newSize = max(newSize, minAvailableBytes());
             if (newSize % 8 != 0) {
                 newSize -= newSize % 8;
@@ -1423,10 +2181,15 @@ public final class GC {
         }
     }
 
+    private static long computeHeapSize(long requestedSize, long collectionTime) {
+        long availableBytes = availableBytes();
+        return GCHeapSizing.computeHeapSize(heapPolicy(), availableBytes, availableBytes - freeMemory,
+                requestedSize, collectionTime, gcTimeAverage, mutatorTimeAverage, gcTimeRatio(), maxPauseTarget());
+    }
+
     private static boolean isAboutToExpand(long requestedSize) {
         long availableBytes = availableBytes();
-        long occupiedMemory = availableBytes - freeMemory;
-        return requestedSize > availableBytes || occupiedMemory > availableBytes / 2;
+        return GCHeapSizing.isAboutToExpand(availableBytes, availableBytes - freeMemory, requestedSize);
     }
 
     private static long min(long a, long b) {
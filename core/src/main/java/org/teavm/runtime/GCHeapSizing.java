@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import org.teavm.interop.StaticInit;
+import org.teavm.interop.Unmanaged;
+
+/**
+ * Decides heap size after collection according to heap policy. Kept apart from {@link GC} so that
+ * the decision depends only on its arguments.
+ */
+@Unmanaged
+@StaticInit
+final class GCHeapSizing {
+    // Values match ordinals of org.teavm.backend.lowlevel.GCHeapPolicy
+    static final int POLICY_DEFAULT = 0;
+    static final int POLICY_THROUGHPUT = 1;
+    static final int POLICY_PAUSE = 2;
+
+    private GCHeapSizing() {
+    }
+
+    /**
+     * Computes desired heap size.
+     *
+     * @param policy one of {@code POLICY_*} constants.
+     * @param availableBytes current heap size.
+     * @param occupiedBytes bytes occupied by live objects after collection.
+     * @param requestedSize size that heap must have to satisfy pending allocation.
+     * @param collectionTime duration of the last collection, in nanoseconds.
+     * @param gcTimeAverage average time of collections, in nanoseconds.
+     * @param mutatorTimeAverage average time between collections, in nanoseconds.
+     * @param gcTimeRatio GC time ratio, not negative.
+     * @param maxPauseTarget pause time goal, in microseconds.
+     */
+    static long computeHeapSize(int policy, long availableBytes, long occupiedBytes, long requestedSize,
+            long collectionTime, long gcTimeAverage, long mutatorTimeAverage, int gcTimeRatio, int maxPauseTarget) {
+        long size = availableBytes;
+        if (isAboutToExpand(availableBytes, occupiedBytes, requestedSize)) {
+            size = max(requestedSize, occupiedBytes * 2);
+        } else if (occupiedBytes < availableBytes / 4) {
+            size = occupiedBytes * 3;
+        }
+
+        switch (policy) {
+            case POLICY_THROUGHPUT: {
+                // GC time ratio N means that GC may take 1/(N+1) of total running time
+                long allowedTime = (gcTimeAverage + mutatorTimeAverage) / (gcTimeRatio + 1);
+                if (gcTimeAverage > allowedTime) {
+                    size = max(size, availableBytes * 2);
+                } else if (size < availableBytes && gcTimeAverage > allowedTime / 2) {
+                    size = availableBytes;
+                }
+                break;
+            }
+            case POLICY_PAUSE:
+                if (collectionTime > maxPauseTarget * 1000L) {
+                    // Sweep and defragmentation walk the whole heap, so smaller heap gives shorter pauses
+                    size = max(requestedSize, min(size, occupiedBytes + occupiedBytes / 2));
+                }
+                break;
+        }
+        return size;
+    }
+
+    static boolean isAboutToExpand(long availableBytes, long occupiedBytes, long requestedSize) {
+        return requestedSize > availableBytes || occupiedBytes > availableBytes / 2;
+    }
+
+    private static long min(long a, long b) {
+        return a < b ? a : b;
+    }
+
+    private static long max(long a, long b) {
+        return a > b ? a : b;
+    }
+}
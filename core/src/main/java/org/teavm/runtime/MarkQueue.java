@@ -25,20 +25,26 @@ final class MarkQueue {
     private MarkQueue() {
     }
 
+    private static int start;
     private static int head;
     private static int tail;
     private static int limit;
 
     static void init() {
-        head = 0;
-        tail = 0;
+        init(0);
+    }
+
+    static void init(int offset) {
+        start = offset / 4;
+        head = start;
+        tail = start;
         limit = GC.gcStorageSize() / 4;
     }
 
     static void enqueue(RuntimeObject object) {
         GC.gcStorageAddress().add(4 * tail).putInt(pack(object.toAddress()));
         if (++tail >= limit) {
-            tail = 0;
+            tail = start;
         }
         if (tail == head) {
             ExceptionHandling.printStack();
@@ -49,7 +55,7 @@ final class MarkQueue {
     static RuntimeObject dequeue() {
         Address result = unpack(GC.gcStorageAddress().add(4 * head).getInt());
         if (++head >= limit) {
-            head = 0;
+            head = start;
         }
         return result.toStructure();
     }
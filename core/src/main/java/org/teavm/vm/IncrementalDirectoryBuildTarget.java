@@ -42,6 +42,10 @@ public class IncrementalDirectoryBuildTarget implements BuildTarget {
         this.directory = directory;
     }
 
+    public File getDirectory() {
+        return directory;
+    }
+
     public void reset() {
         for (String fileName : formerWrittenFiles) {
             if (!writtenFiles.contains(fileName)) {
@@ -119,26 +123,26 @@ public class IncrementalDirectoryBuildTarget implements BuildTarget {
                 descriptor.length = data.length;
             }
 
-            InputStream input = new BufferedInputStream(new FileInputStream(file));
-
-            byte[] buffer = new byte[4096];
-            int index = 0;
-            while (true) {
-                int bytesRead = input.read(buffer);
-                if (bytesRead < 0) {
-                    break;
-                }
-                if (bytesRead + index > data.length) {
-                    return true;
-                }
-                for (int i = 0; i < bytesRead; ++i) {
-                    if (buffer[i] != data[index++]) {
+            try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+                byte[] buffer = new byte[4096];
+                int index = 0;
+                while (true) {
+                    int bytesRead = input.read(buffer);
+                    if (bytesRead < 0) {
+                        break;
+                    }
+                    if (bytesRead + index > data.length) {
                         return true;
                     }
+                    for (int i = 0; i < bytesRead; ++i) {
+                        if (buffer[i] != data[index++]) {
+                            return true;
+                        }
+                    }
                 }
-            }
 
-            return index < data.length;
+                return index < data.length;
+            }
         }
 
         private void checkNotClosed() throws IOException {
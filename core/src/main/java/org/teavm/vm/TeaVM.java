@@ -30,6 +30,9 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -52,6 +55,7 @@ import org.teavm.diagnostics.AccumulationDiagnostics;
 import org.teavm.diagnostics.Diagnostics;
 import org.teavm.diagnostics.ProblemProvider;
 import org.teavm.model.BasicBlock;
+import org.teavm.model.CallLocation;
 import org.teavm.model.ClassHierarchy;
 import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderSource;
@@ -83,7 +87,6 @@ import org.teavm.model.optimization.DefaultInliningStrategy;
 import org.teavm.model.optimization.Devirtualization;
 import org.teavm.model.optimization.GlobalValueNumbering;
 import org.teavm.model.optimization.Inlining;
-import org.teavm.model.optimization.InliningStrategy;
 import org.teavm.model.optimization.LoopInvariantMotion;
 import org.teavm.model.optimization.MethodOptimization;
 import org.teavm.model.optimization.MethodOptimizationContext;
@@ -93,12 +96,15 @@ import org.teavm.model.optimization.RepeatedFieldReadElimination;
 import org.teavm.model.optimization.ScalarReplacement;
 import org.teavm.model.optimization.UnreachableBasicBlockElimination;
 import org.teavm.model.optimization.UnusedVariableElimination;
+import org.teavm.model.profile.ExecutionProfile;
 import org.teavm.model.text.ListingBuilder;
 import org.teavm.model.transformation.ClassInitializerInsertionTransformer;
 import org.teavm.model.util.MissingItemsProcessor;
 import org.teavm.model.util.ModelUtils;
 import org.teavm.model.util.ProgramUtils;
 import org.teavm.model.util.RegisterAllocator;
+import org.teavm.vm.metrics.CompilerMetrics;
+import org.teavm.vm.metrics.PhaseMetrics;
 import org.teavm.vm.spi.TeaVMHost;
 import org.teavm.vm.spi.TeaVMHostExtension;
 import org.teavm.vm.spi.TeaVMPlugin;
@@ -135,6 +141,7 @@ import org.teavm.vm.spi.TeaVMPlugin;
 public class TeaVM implements TeaVMHost, ServiceRepository {
     private static final MethodDescriptor MAIN_METHOD_DESC = new MethodDescriptor("main",
             ValueType.arrayOf(ValueType.object("java.lang.String")), ValueType.VOID);
+    private static final int MAX_OPTIMIZATION_ITERATIONS = 32;
 
     private final DependencyAnalyzer dependencyAnalyzer;
     private final AccumulationDiagnostics diagnostics = new AccumulationDiagnostics();
@@ -148,8 +155,9 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private ProgramCache programCache = EmptyProgramCache.INSTANCE;
     private CacheStatus rawCacheStatus = AlwaysStaleCacheStatus.INSTANCE;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
+    private ExecutionProfile executionProfile;
     private TeaVMProgressListener progressListener;
-    private boolean cancelled;
+    private volatile boolean cancelled;
     private ListableClassHolderSource writtenClasses;
     private TeaVMTarget target;
     private Map<Class<?>, TeaVMHostExtension> extensions = new HashMap<>();
@@ -164,11 +172,16 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     private int compileProgressValue;
     private ClassSourcePacker classSourcePacker;
     private ClassInitializerInfo classInitializerInfo;
+    private final int optimizationThreadCount;
+    private final Object optimizationLock = new Object();
+    private ClassReaderSource optimizationClassSource;
+    private final CompilerMetrics metrics = new CompilerMetrics();
 
     TeaVM(TeaVMBuilder builder) {
         target = builder.target;
         classLoader = builder.classLoader;
         classSourcePacker = builder.classSourcePacker;
+        optimizationThreadCount = builder.optimizationThreadCount;
         dependencyAnalyzer = builder.dependencyAnalyzerFactory.create(builder.classSource, classLoader,
                 this, diagnostics, builder.referenceCache);
         dependencyAnalyzer.setObfuscated(builder.obfuscated);
@@ -264,6 +277,18 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         this.optimizationLevel = optimizationLevel;
     }
 
+    public ExecutionProfile getExecutionProfile() {
+        return executionProfile;
+    }
+
+    /**
+     * Specifies profile collected by an instrumented build of the same program. When set, inlining and
+     * target-specific optimizations prefer frequently executed code.
+     */
+    public void setExecutionProfile(ExecutionProfile executionProfile) {
+        this.executionProfile = executionProfile;
+    }
+
     public TeaVMProgressListener getProgressListener() {
         return progressListener;
     }
@@ -347,6 +372,13 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         return writtenClasses;
     }
 
+    /**
+     * Gets timings and counters collected by {@link #build(BuildTarget, String)}.
+     */
+    public CompilerMetrics getMetrics() {
+        return metrics;
+    }
+
     public void setLastKnownClasses(int lastKnownClasses) {
         this.lastKnownClasses = lastKnownClasses;
     }
@@ -375,14 +407,18 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             cancelled |= progressListener.progressReached(progress) != TeaVMProgressFeedback.CONTINUE;
             return !cancelled;
         });
+        PhaseMetrics dependencyPhase = metrics.startPhase("dependencyAnalysis");
         target.contributeDependencies(dependencyAnalyzer);
         dependencyAnalyzer.processDependencies();
+        dependencyPhase.complete();
         if (wasCancelled() || !diagnostics.getSevereProblems().isEmpty()) {
             return;
         }
 
         dependencyAnalyzer.setInterruptor(null);
+        PhaseMetrics cleanupPhase = metrics.startPhase("dependencyCleanup");
         dependencyAnalyzer.cleanup(classSourcePacker);
+        cleanupPhase.complete();
         cacheStatus = new AnnotationAwareCacheStatus(rawCacheStatus, dependencyAnalyzer.getIncrementalDependencies(),
                 dependencyAnalyzer.getClassSource());
         cacheStatus.addSynthesizedClasses(dependencyAnalyzer::isSynthesizedClass);
@@ -419,7 +455,9 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 compileProgressReportStart = 500;
                 compileProgressReportLimit = 1000;
             }
+            PhaseMetrics emitPhase = metrics.startPhase("emit");
             target.emit(classSet, buildTarget, outputName);
+            emitPhase.complete();
         } catch (IOException e) {
             throw new RuntimeException("Error generating output files", e);
         }
@@ -440,18 +478,24 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             compileProgressLimit *= 2;
         }
 
+        PhaseMetrics linkPhase = metrics.startPhase("link");
         ListableClassHolderSource classSet = link(dependencyAnalyzer);
+        linkPhase.complete();
         writtenClasses = classSet;
         if (wasCancelled()) {
             return null;
         }
 
+        PhaseMetrics classInitPhase;
         if (optimizationLevel != TeaVMOptimizationLevel.SIMPLE) {
+            PhaseMetrics devirtualizationPhase = metrics.startPhase("devirtualize");
             devirtualize(classSet);
+            devirtualizationPhase.complete();
             if (wasCancelled()) {
                 return null;
             }
 
+            classInitPhase = metrics.startPhase("classInit");
             ClassInitializerAnalysis classInitializerAnalysis = new ClassInitializerAnalysis(classSet,
                     dependencyAnalyzer.getClassHierarchy());
             classInitializerAnalysis.analyze(dependencyAnalyzer);
@@ -459,15 +503,19 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             insertClassInit(classSet);
             eliminateClassInit(classSet);
         } else {
+            classInitPhase = metrics.startPhase("classInit");
             insertClassInit(classSet);
             classInitializerInfo = ClassInitializerInfo.EMPTY;
         }
+        classInitPhase.complete();
 
         dependencyAnalyzer.cleanupTypes();
 
         target.setController(targetController);
 
+        PhaseMetrics inliningPhase = metrics.startPhase("inline");
         inline(classSet);
+        inliningPhase.complete();
         if (wasCancelled()) {
             return null;
         }
@@ -477,7 +525,9 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 new LinkedHashSet<>(dependencyAnalyzer.getReachableClasses())));
 
         // Optimize and allocate registers
+        PhaseMetrics optimizationPhase = metrics.startPhase("optimize");
         optimize(classSet);
+        optimizationPhase.complete();
         if (wasCancelled()) {
             return null;
         }
@@ -637,12 +687,13 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
             return;
         }
 
-        InliningStrategy inliningStrategy;
+        DefaultInliningStrategy inliningStrategy;
         if (optimizationLevel == TeaVMOptimizationLevel.FULL) {
             inliningStrategy = new DefaultInliningStrategy(20, 7, 300, false);
         } else {
             inliningStrategy = new DefaultInliningStrategy(100, 7, 300, true);
         }
+        inliningStrategy.setProfile(executionProfile);
 
         Inlining inlining = new Inlining(new ClassHierarchy(classes), dependencyAnalyzer, inliningStrategy,
                 classes, this::isExternal, optimizationLevel == TeaVMOptimizationLevel.FULL,
@@ -685,6 +736,11 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
     }
 
     private void optimize(ListableClassHolderSource classSource) {
+        if (optimizationThreadCount > 1) {
+            optimizeInParallel(classSource);
+            return;
+        }
+
         for (String className : classSource.getClassNames()) {
             ClassHolder cls = classSource.get(className);
             for (MethodHolder method : cls.getMethods()) {
@@ -697,14 +753,128 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         }
     }
 
+    /**
+     * Runs the same per-method pipeline as {@link #optimizeMethod(MethodHolder)}, but distributes cache misses
+     * across a fork-join pool. Cache lookups and stores happen on the calling thread in class order, and
+     * every method is optimized independently of the others, so the result does not depend on scheduling.
+     */
+    private void optimizeInParallel(ListableClassHolderSource classSource) {
+        List<MethodHolder> methods = new ArrayList<>();
+        for (String className : classSource.getClassNames()) {
+            ClassHolder cls = classSource.get(className);
+            for (MethodHolder method : cls.getMethods()) {
+                if (method.getProgram() == null) {
+                    continue;
+                }
+                Program cachedProgram = getCachedProgram(method);
+                if (cachedProgram != null) {
+                    method.setProgram(cachedProgram);
+                } else {
+                    methods.add(method);
+                }
+            }
+        }
+
+        Program[] optimizedPrograms = new Program[methods.size()];
+        ClassReaderSource unsafeClassSource = dependencyAnalyzer.getClassSource();
+        optimizationClassSource = name -> {
+            synchronized (optimizationLock) {
+                return unsafeClassSource.get(name);
+            }
+        };
+        ParallelOptimizationProgress progress = new ParallelOptimizationProgress(methods.size(),
+                classSource.getClassNames().size());
+        ForkJoinPool pool = new ForkJoinPool(optimizationThreadCount);
+        try {
+            pool.invoke(new MethodOptimizationTask(methods, optimizedPrograms, progress, 0, methods.size()));
+        } finally {
+            pool.shutdown();
+            optimizationClassSource = null;
+        }
+        if (wasCancelled()) {
+            return;
+        }
+
+        for (int i = 0; i < methods.size(); ++i) {
+            MethodHolder method = methods.get(i);
+            Program finalProgram = optimizedPrograms[i];
+            programCache.store(method.getReference(), finalProgram,
+                    () -> programDependencyExtractor.extractDependencies(finalProgram));
+            method.setProgram(finalProgram);
+        }
+        progress.complete();
+    }
+
+    class MethodOptimizationTask extends RecursiveAction {
+        private static final int THRESHOLD = 16;
+        private List<MethodHolder> methods;
+        private Program[] optimizedPrograms;
+        private ParallelOptimizationProgress progress;
+        private int start;
+        private int end;
+
+        MethodOptimizationTask(List<MethodHolder> methods, Program[] optimizedPrograms,
+                ParallelOptimizationProgress progress, int start, int end) {
+            this.methods = methods;
+            this.optimizedPrograms = optimizedPrograms;
+            this.progress = progress;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > THRESHOLD) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new MethodOptimizationTask(methods, optimizedPrograms, progress, start, middle),
+                        new MethodOptimizationTask(methods, optimizedPrograms, progress, middle, end));
+                return;
+            }
+            for (int i = start; i < end; ++i) {
+                if (wasCancelled()) {
+                    return;
+                }
+                MethodHolder method = methods.get(i);
+                optimizedPrograms[i] = optimizeMethodCacheMiss(method, ProgramUtils.copy(method.getProgram()));
+                progress.methodCompleted();
+            }
+        }
+    }
+
+    class ParallelOptimizationProgress {
+        private final AtomicInteger completedMethods = new AtomicInteger();
+        private final int methodCount;
+        private final int classCount;
+        private final int initialValue;
+
+        ParallelOptimizationProgress(int methodCount, int classCount) {
+            this.methodCount = methodCount;
+            this.classCount = classCount;
+            initialValue = compileProgressValue;
+        }
+
+        void methodCompleted() {
+            int newProgress = initialValue + (int) ((long) classCount * completedMethods.incrementAndGet()
+                    / methodCount);
+            synchronized (this) {
+                if (newProgress > compileProgressValue) {
+                    compileProgressValue = newProgress;
+                    reportCompileProgress(compileProgressValue);
+                }
+            }
+        }
+
+        void complete() {
+            compileProgressValue = initialValue + classCount;
+        }
+    }
+
     private void optimizeMethod(MethodHolder method) {
         if (method.getProgram() == null) {
             return;
         }
 
-        Program optimizedProgram = !cacheStatus.isStaleMethod(method.getReference())
-                ? programCache.get(method.getReference(), cacheStatus)
-                : null;
+        Program optimizedProgram = getCachedProgram(method);
         if (optimizedProgram == null) {
             optimizedProgram = optimizeMethodCacheMiss(method, ProgramUtils.copy(method.getProgram()));
             Program finalProgram = optimizedProgram;
@@ -714,33 +884,73 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         method.setProgram(optimizedProgram);
     }
 
+    private Program getCachedProgram(MethodHolder method) {
+        Program program = !cacheStatus.isStaleMethod(method.getReference())
+                ? programCache.get(method.getReference(), cacheStatus)
+                : null;
+        metrics.getCache(CompilerMetrics.PROGRAM_CACHE).record(program != null);
+        return program;
+    }
+
     private Program optimizeMethodCacheMiss(MethodHolder method, Program optimizedProgram) {
-        target.beforeOptimizations(optimizedProgram, method);
+        synchronized (optimizationLock) {
+            target.beforeOptimizations(optimizedProgram, method);
+        }
 
         if (optimizedProgram.basicBlockCount() > 0) {
             MethodOptimizationContextImpl context = new MethodOptimizationContextImpl(method);
-            boolean changed;
-            do {
-                changed = false;
-                for (MethodOptimization optimization : getOptimizations()) {
+            List<MethodOptimization> optimizations = getOptimizations();
+            boolean everChanged = false;
+            int iterations = 1;
+            int unchangedCount = 0;
+            int index = 0;
+
+            // Optimizations are applied in a round-robin fashion, every iteration takes new instances, as some
+            // optimizations keep state between invocations. An optimization that reported no changes would
+            // produce the same program when run again, unless another optimization has changed it since.
+            // So we stop as soon as every optimization has reported no changes in a row, which gives the same
+            // program as repeating whole iterations until one of them changes nothing.
+            while (unchangedCount < optimizations.size()) {
+                if (index == optimizations.size()) {
+                    if (iterations == MAX_OPTIMIZATION_ITERATIONS) {
+                        reportOptimizationLimit(method);
+                        break;
+                    }
+                    ++iterations;
+                    index = 0;
+                    optimizations = getOptimizations();
+                }
+                MethodOptimization optimization = optimizations.get(index++);
+                boolean changed;
+                try {
+                    long start = System.nanoTime();
+                    changed = optimization.optimize(context, optimizedProgram);
+                    metrics.getOptimization(optimization.getClass().getName())
+                            .record(System.nanoTime() - start, changed);
+                } catch (Exception | AssertionError e) {
+                    ListingBuilder listingBuilder = new ListingBuilder();
                     try {
-                        changed |= optimization.optimize(context, optimizedProgram);
-                    } catch (Exception | AssertionError e) {
-                        ListingBuilder listingBuilder = new ListingBuilder();
-                        try {
-                            String listing = listingBuilder.buildListing(optimizedProgram, "");
-                            System.err.println("Error optimizing program for method " + method.getReference()
-                                    + ":\n" + listing);
-                        } catch (RuntimeException e2) {
-                            System.err.println("Error optimizing program for method " + method.getReference());
-                            // do nothing
-                        }
-                        throw new RuntimeException(e);
+                        String listing = listingBuilder.buildListing(optimizedProgram, "");
+                        System.err.println("Error optimizing program for method " + method.getReference()
+                                + ":\n" + listing);
+                    } catch (RuntimeException e2) {
+                        System.err.println("Error optimizing program for method " + method.getReference());
+                        // do nothing
                     }
+                    throw new RuntimeException(e);
+                }
+                if (changed) {
+                    everChanged = true;
+                    unchangedCount = 0;
+                } else {
+                    ++unchangedCount;
                 }
-            } while (changed);
+            }
+            metrics.methodOptimized(iterations, everChanged);
 
-            target.afterOptimizations(optimizedProgram, method);
+            synchronized (optimizationLock) {
+                target.afterOptimizations(optimizedProgram, method);
+            }
             if (target.requiresRegisterAllocation()) {
                 RegisterAllocator allocator = new RegisterAllocator();
                 allocator.allocateRegisters(method.getReference(), optimizedProgram,
@@ -751,6 +961,14 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         return optimizedProgram;
     }
 
+    private void reportOptimizationLimit(MethodReader method) {
+        metrics.optimizationLimitReached();
+        synchronized (optimizationLock) {
+            diagnostics.warning(new CallLocation(method.getReference()), "Optimizations did not reach fixpoint "
+                    + "after " + MAX_OPTIMIZATION_ITERATIONS + " iterations, method may be not fully optimized");
+        }
+    }
+
     class MethodOptimizationContextImpl implements MethodOptimizationContext {
         private MethodReader method;
 
@@ -770,11 +988,23 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
 
         @Override
         public ClassReaderSource getClassSource() {
-            return dependencyAnalyzer.getClassSource();
+            ClassReaderSource classSource = optimizationClassSource;
+            return classSource != null ? classSource : dependencyAnalyzer.getClassSource();
         }
     }
 
     private List<MethodOptimization> getOptimizations() {
+        return getOptimizations(optimizationLevel);
+    }
+
+    /**
+     * Creates the list of optimizations that are applied to each method in a loop until none of them
+     * changes the program.
+     *
+     * @param optimizationLevel optimization level to create optimizations for.
+     * @return new instances of optimizations, in the order they are applied.
+     */
+    public static List<MethodOptimization> getOptimizations(TeaVMOptimizationLevel optimizationLevel) {
         List<MethodOptimization> optimizations = new ArrayList<>();
         optimizations.add(new RedundantJumpElimination());
         optimizations.add(new ArrayUnwrapMotion());
@@ -940,6 +1170,16 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
         public TeaVMOptimizationLevel getOptimizationLevel() {
             return optimizationLevel;
         }
+
+        @Override
+        public CompilerMetrics getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public ExecutionProfile getExecutionProfile() {
+            return executionProfile;
+        }
     };
 
     class PostProcessingClassHolderSource implements ListableClassHolderSource {
@@ -971,9 +1211,7 @@ public class TeaVM implements TeaVMHost, ServiceRepository {
                 }
 
                 Function<MethodHolder, Program> programSupplier = method -> {
-                    Program program = !cacheStatus.isStaleMethod(method.getReference())
-                            ? programCache.get(method.getReference(), cacheStatus)
-                            : null;
+                    Program program = getCachedProgram(method);
                     if (program == null) {
                         program = ProgramUtils.copy(classReader.getMethod(method.getDescriptor()).getProgram());
                         missingItemsProcessor.processMethod(method.getReference(), program);
@@ -32,6 +32,7 @@ public class TeaVMBuilder {
     ClassSourcePacker classSourcePacker = (src, names) -> src;
     boolean obfuscated;
     boolean strict;
+    int optimizationThreadCount = 1;
 
     public TeaVMBuilder(TeaVMTarget target) {
         this.target = target;
@@ -86,6 +87,23 @@ public class TeaVMBuilder {
         return this;
     }
 
+    public int getOptimizationThreadCount() {
+        return optimizationThreadCount;
+    }
+
+    /**
+     * Sets number of threads used to optimize methods when optimization level is higher than
+     * {@link TeaVMOptimizationLevel#SIMPLE}. Values greater than 1 enable parallel optimization,
+     * which produces the same output as the single-threaded mode.
+     */
+    public TeaVMBuilder setOptimizationThreadCount(int optimizationThreadCount) {
+        if (optimizationThreadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + optimizationThreadCount);
+        }
+        this.optimizationThreadCount = optimizationThreadCount;
+        return this;
+    }
+
     public TeaVM build() {
         return new TeaVM(this);
     }
@@ -26,6 +26,8 @@ import org.teavm.diagnostics.Diagnostics;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.MethodReference;
 import org.teavm.model.analysis.ClassInitializerInfo;
+import org.teavm.model.profile.ExecutionProfile;
+import org.teavm.vm.metrics.CompilerMetrics;
 
 public interface TeaVMTargetController {
     boolean wasCancelled();
@@ -59,4 +61,8 @@ public interface TeaVMTargetController {
     void addVirtualMethods(Predicate<MethodReference> methods);
 
     ClassInitializerInfo getClassInitializerInfo();
+
+    CompilerMetrics getMetrics();
+
+    ExecutionProfile getExecutionProfile();
 }
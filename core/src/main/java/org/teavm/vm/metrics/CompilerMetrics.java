@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Timings and counters collected during a single build. TeaVM records duration of every phase of
+ * its pipeline, how many times each method optimization was invoked and how often it changed a program,
+ * how many fixpoint iterations optimization loop took, and hit rate of caches.</p>
+ *
+ * <p>Counters may be updated from several threads when methods are optimized or decompiled in parallel.</p>
+ */
+public class CompilerMetrics {
+    public static final String PROGRAM_CACHE = "program";
+    public static final String AST_CACHE = "ast";
+    private final long origin = System.nanoTime();
+    private final List<PhaseMetrics> phases = new ArrayList<>();
+    private final Map<String, OptimizationMetrics> optimizations = new ConcurrentHashMap<>();
+    private final Map<String, CacheMetrics> caches = new ConcurrentHashMap<>();
+    private final AtomicLong optimizedMethodCount = new AtomicLong();
+    private final AtomicLong changedMethodCount = new AtomicLong();
+    private final AtomicLong fixpointIterationCount = new AtomicLong();
+    private final AtomicLong maxFixpointIterations = new AtomicLong();
+    private final AtomicLong optimizationLimitCount = new AtomicLong();
+
+    public PhaseMetrics startPhase(String name) {
+        PhaseMetrics phase = new PhaseMetrics(name, origin);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+        return phase;
+    }
+
+    public List<PhaseMetrics> getPhases() {
+        synchronized (phases) {
+            return new ArrayList<>(phases);
+        }
+    }
+
+    /**
+     * Gets counters of an optimization.
+     *
+     * @param name fully qualified name of optimization class, so that optimizations with equal simple names
+     *             don't share counters.
+     */
+    public OptimizationMetrics getOptimization(String name) {
+        OptimizationMetrics existing = optimizations.get(name);
+        return existing != null ? existing : optimizations.computeIfAbsent(name, OptimizationMetrics::new);
+    }
+
+    /**
+     * Gets counters of all optimizations, sorted by name, so that reports don't depend on the order
+     * in which threads invoked optimizations.
+     */
+    public List<OptimizationMetrics> getOptimizations() {
+        List<OptimizationMetrics> result = new ArrayList<>(optimizations.values());
+        result.sort(Comparator.comparing(OptimizationMetrics::getName));
+        return result;
+    }
+
+    public CacheMetrics getCache(String name) {
+        CacheMetrics existing = caches.get(name);
+        return existing != null ? existing : caches.computeIfAbsent(name, CacheMetrics::new);
+    }
+
+    public List<CacheMetrics> getCaches() {
+        List<CacheMetrics> result = new ArrayList<>(caches.values());
+        result.sort(Comparator.comparing(CacheMetrics::getName));
+        return result;
+    }
+
+    /**
+     * Records that optimization loop completed for a method.
+     *
+     * @param iterations how many times optimization loop ran over the method until it reached fixpoint.
+     * @param changed whether any optimization changed the method.
+     */
+    public void methodOptimized(int iterations, boolean changed) {
+        optimizedMethodCount.incrementAndGet();
+        if (changed) {
+            changedMethodCount.incrementAndGet();
+        }
+        fixpointIterationCount.addAndGet(iterations);
+        maxFixpointIterations.accumulateAndGet(iterations, Math::max);
+    }
+
+    /**
+     * Records that optimization loop was stopped for a method after maximum number of iterations,
+     * before it reached fixpoint.
+     */
+    public void optimizationLimitReached() {
+        optimizationLimitCount.incrementAndGet();
+    }
+
+    public long getOptimizedMethodCount() {
+        return optimizedMethodCount.get();
+    }
+
+    public long getChangedMethodCount() {
+        return changedMethodCount.get();
+    }
+
+    public long getFixpointIterationCount() {
+        return fixpointIterationCount.get();
+    }
+
+    public long getMaxFixpointIterations() {
+        return maxFixpointIterations.get();
+    }
+
+    public long getOptimizationLimitCount() {
+        return optimizationLimitCount.get();
+    }
+
+    public void write(Writer writer, MetricsFormat format) throws IOException {
+        MetricsWriter metricsWriter = new MetricsWriter(this, writer);
+        switch (format) {
+            case JSON:
+                metricsWriter.writeJson();
+                break;
+            case CHROME_TRACE:
+                metricsWriter.writeChromeTrace();
+                break;
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import org.teavm.common.JsonUtil;
+
+class MetricsWriter {
+    private CompilerMetrics metrics;
+    private Writer writer;
+
+    MetricsWriter(CompilerMetrics metrics, Writer writer) {
+        this.metrics = metrics;
+        this.writer = writer;
+    }
+
+    void writeJson() throws IOException {
+        writer.append("{\n  \"phases\": [");
+        List<PhaseMetrics> phases = metrics.getPhases();
+        for (int i = 0; i < phases.size(); ++i) {
+            PhaseMetrics phase = phases.get(i);
+            writer.append(i > 0 ? ",\n    " : "\n    ");
+            writer.append("{ \"name\": ");
+            writeString(phase.getName());
+            writer.append(", \"startMicros\": ").append(String.valueOf(micros(phase.getStartTime())));
+            writer.append(", \"durationMicros\": ").append(String.valueOf(micros(phase.getDuration())));
+            writer.append(" }");
+        }
+        writer.append("\n  ],\n");
+        writeSummary("  ");
+        writer.append("\n}\n");
+    }
+
+    void writeChromeTrace() throws IOException {
+        writer.append("{\n  \"traceEvents\": [");
+        List<PhaseMetrics> phases = metrics.getPhases();
+        boolean first = true;
+        for (PhaseMetrics phase : phases) {
+            if (!phase.isComplete()) {
+                continue;
+            }
+            writer.append(first ? "\n    " : ",\n    ");
+            first = false;
+            writer.append("{ \"name\": ");
+            writeString(phase.getName());
+            writer.append(", \"cat\": \"phase\", \"ph\": \"X\", \"pid\": 1, \"tid\": 1");
+            writer.append(", \"ts\": ").append(String.valueOf(micros(phase.getStartTime())));
+            writer.append(", \"dur\": ").append(String.valueOf(micros(phase.getDuration())));
+            writer.append(" }");
+        }
+        writer.append("\n  ],\n  \"displayTimeUnit\": \"ms\",\n  \"otherData\": {\n");
+        writeSummary("    ");
+        writer.append("\n  }\n}\n");
+    }
+
+    private void writeSummary(String indent) throws IOException {
+        writer.append(indent).append("\"methods\": { ");
+        writer.append("\"optimized\": ").append(String.valueOf(metrics.getOptimizedMethodCount()));
+        writer.append(", \"changed\": ").append(String.valueOf(metrics.getChangedMethodCount()));
+        writer.append(", \"fixpointIterations\": ").append(String.valueOf(metrics.getFixpointIterationCount()));
+        writer.append(", \"maxFixpointIterations\": ").append(String.valueOf(metrics.getMaxFixpointIterations()));
+        writer.append(", \"iterationLimitReached\": ").append(String.valueOf(metrics.getOptimizationLimitCount()));
+        writer.append(" },\n");
+
+        writer.append(indent).append("\"optimizations\": [");
+        List<OptimizationMetrics> optimizations = metrics.getOptimizations();
+        for (int i = 0; i < optimizations.size(); ++i) {
+            OptimizationMetrics optimization = optimizations.get(i);
+            writer.append(i > 0 ? ",\n" : "\n").append(indent).append("  { \"name\": ");
+            writeString(optimization.getName());
+            writer.append(", \"invocations\": ").append(String.valueOf(optimization.getInvocationCount()));
+            writer.append(", \"changes\": ").append(String.valueOf(optimization.getChangeCount()));
+            writer.append(", \"timeMicros\": ").append(String.valueOf(micros(optimization.getTime())));
+            writer.append(" }");
+        }
+        writer.append("\n").append(indent).append("],\n");
+
+        writer.append(indent).append("\"caches\": [");
+        List<CacheMetrics> caches = metrics.getCaches();
+        for (int i = 0; i < caches.size(); ++i) {
+            CacheMetrics cache = caches.get(i);
+            writer.append(i > 0 ? ",\n" : "\n").append(indent).append("  { \"name\": ");
+            writeString(cache.getName());
+            writer.append(", \"hits\": ").append(String.valueOf(cache.getHitCount()));
+            writer.append(", \"misses\": ").append(String.valueOf(cache.getMissCount()));
+            writer.append(" }");
+        }
+        writer.append("\n").append(indent).append("]");
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.append('"');
+        JsonUtil.writeEscapedString(writer, value);
+        writer.append('"');
+    }
+
+    private static long micros(long nanos) {
+        return nanos >= 0 ? nanos / 1000 : -1;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OptimizationMetrics {
+    private final String name;
+    private final AtomicLong invocationCount = new AtomicLong();
+    private final AtomicLong changeCount = new AtomicLong();
+    private final AtomicLong time = new AtomicLong();
+
+    OptimizationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getInvocationCount() {
+        return invocationCount.get();
+    }
+
+    /**
+     * Gets how many invocations reported that they changed the program.
+     */
+    public long getChangeCount() {
+        return changeCount.get();
+    }
+
+    /**
+     * Gets total time spent in this optimization, in nanoseconds.
+     */
+    public long getTime() {
+        return time.get();
+    }
+
+    public void record(long time, boolean changed) {
+        invocationCount.incrementAndGet();
+        if (changed) {
+            changeCount.incrementAndGet();
+        }
+        this.time.addAndGet(time);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm.metrics;
+
+public class PhaseMetrics {
+    private final String name;
+    private final long startTime;
+    private final long origin;
+    private volatile long duration = -1;
+
+    PhaseMetrics(String name, long origin) {
+        this.name = name;
+        this.origin = origin;
+        startTime = System.nanoTime() - origin;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets time when phase started, in nanoseconds since creation of {@link CompilerMetrics}.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets duration of phase in nanoseconds, or -1 if phase is not complete yet.
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public boolean isComplete() {
+        return duration >= 0;
+    }
+
+    public void complete() {
+        if (duration < 0) {
+            duration = System.nanoTime() - origin - startTime;
+        }
+    }
+}
@@ -59,6 +59,9 @@ TeaVM_Class* teavm_classClass;
 TeaVM_Class* teavm_objectClass;
 TeaVM_Class* teavm_stringClass;
 TeaVM_Class* teavm_charArrayClass;
+#if TEAVM_COMPACT_STRINGS
+    TeaVM_Class* teavm_byteArrayClass;
+#endif
 
 void teavm_initClasses() {
     teavm_beforeClasses = (char*) teavm_classReferences[0];
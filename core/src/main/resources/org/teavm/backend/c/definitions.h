@@ -47,6 +47,10 @@
     #define TEAVM_HEAP_DUMP 0
 #endif
 
+#ifndef TEAVM_GC_THREADS
+    #define TEAVM_GC_THREADS 1
+#endif
+
 #ifndef TEAVM_INCREMENTAL
     #define TEAVM_INCREMENTAL 0
 #endif
@@ -69,4 +73,12 @@
 
 #ifndef TEAVM_OBFUSCATED
     #define TEAVM_OBFUSCATED 0
+#endif
+
+#ifndef TEAVM_PROFILE
+    #define TEAVM_PROFILE 0
+#endif
+
+#ifndef TEAVM_COMPACT_STRINGS
+    #define TEAVM_COMPACT_STRINGS 0
 #endif
\ No newline at end of file
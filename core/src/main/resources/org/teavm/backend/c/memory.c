@@ -3,6 +3,8 @@
 #include "definitions.h"
 #include <stdlib.h>
 #include <string.h>
+#include <stdio.h>
+#include <inttypes.h>
 
 #if TEAVM_UNIX
     #include <unistd.h>
@@ -17,6 +19,13 @@
     #include "heaptrace.h"
 #endif
 
+#if TEAVM_GC_THREADS > 1 && TEAVM_UNIX && !TEAVM_MEMORY_TRACE
+    #define TEAVM_GC_PARALLEL 1
+    #include <pthread.h>
+#else
+    #define TEAVM_GC_PARALLEL 0
+#endif
+
 void* teavm_gc_heapAddress = NULL;
 void* teavm_gc_gcStorageAddress = NULL;
 int32_t teavm_gc_gcStorageSize = INT32_C(0);
@@ -26,7 +35,19 @@ int32_t teavm_gc_regionMaxCount;
 int64_t teavm_gc_availableBytes;
 int64_t teavm_gc_minAvailableBytes;
 int64_t teavm_gc_maxAvailableBytes;
+int32_t teavm_gc_pauseBudget = INT32_C(0);
+int32_t teavm_gc_heapPolicy = INT32_C(0);
+int32_t teavm_gc_gcTimeRatio = INT32_C(19);
+int32_t teavm_gc_maxPauseTarget = INT32_C(10000);
+int32_t teavm_gc_fullGCInterval = INT32_C(8);
+static int32_t teavm_gc_pauseHistogramData[32];
+void* teavm_gc_pauseHistogram = teavm_gc_pauseHistogramData;
 static int64_t teavm_gc_pageSize;
+static FILE* teavm_gc_log = NULL;
+int32_t teavm_gc_gcThreadCount = INT32_C(1);
+static int64_t teavm_gc_threadDataStorage[TEAVM_GC_THREADS * 8];
+void* teavm_gc_gcThreadData = teavm_gc_threadDataStorage;
+static int32_t teavm_gc_logSequence = 0;
 
 #if TEAVM_UNIX
     static void* teavm_virtualAlloc(int64_t size) {
@@ -164,7 +185,105 @@ void teavm_gc_resizeHeap(int64_t newSize) {
     teavm_gc_availableBytes = newSize;
 }
 
+#if TEAVM_GC_PARALLEL
+    static pthread_mutex_t teavm_gc_taskMutex = PTHREAD_MUTEX_INITIALIZER;
+    static pthread_cond_t teavm_gc_taskStarted = PTHREAD_COND_INITIALIZER;
+    static pthread_cond_t teavm_gc_taskFinished = PTHREAD_COND_INITIALIZER;
+    static int32_t teavm_gc_currentTask;
+    static int32_t teavm_gc_taskGeneration = 0;
+    static int32_t teavm_gc_pendingWorkers = 0;
+
+    static void* teavm_gc_workerMain(void* arg) {
+        int32_t worker = (int32_t) (intptr_t) arg;
+        int32_t generation = 0;
+        pthread_mutex_lock(&teavm_gc_taskMutex);
+        while (1) {
+            while (teavm_gc_taskGeneration == generation) {
+                pthread_cond_wait(&teavm_gc_taskStarted, &teavm_gc_taskMutex);
+            }
+            generation = teavm_gc_taskGeneration;
+            int32_t task = teavm_gc_currentTask;
+            pthread_mutex_unlock(&teavm_gc_taskMutex);
+
+            teavm_gc_parallelTask(task, worker);
+
+            pthread_mutex_lock(&teavm_gc_taskMutex);
+            if (--teavm_gc_pendingWorkers == 0) {
+                pthread_cond_signal(&teavm_gc_taskFinished);
+            }
+        }
+        return NULL;
+    }
+
+    static void teavm_gc_startThreads() {
+        for (int32_t i = 1; i < TEAVM_GC_THREADS; ++i) {
+            pthread_t thread;
+            if (pthread_create(&thread, NULL, teavm_gc_workerMain, (void*) (intptr_t) i) != 0) {
+                break;
+            }
+            pthread_detach(thread);
+            teavm_gc_gcThreadCount++;
+        }
+    }
+
+    void teavm_gc_runInParallel(int32_t task) {
+        pthread_mutex_lock(&teavm_gc_taskMutex);
+        teavm_gc_currentTask = task;
+        teavm_gc_pendingWorkers = teavm_gc_gcThreadCount - 1;
+        teavm_gc_taskGeneration++;
+        pthread_cond_broadcast(&teavm_gc_taskStarted);
+        pthread_mutex_unlock(&teavm_gc_taskMutex);
+
+        teavm_gc_parallelTask(task, 0);
+
+        pthread_mutex_lock(&teavm_gc_taskMutex);
+        while (teavm_gc_pendingWorkers > 0) {
+            pthread_cond_wait(&teavm_gc_taskFinished, &teavm_gc_taskMutex);
+        }
+        pthread_mutex_unlock(&teavm_gc_taskMutex);
+    }
+#else
+    void teavm_gc_runInParallel(int32_t task) {
+        for (int32_t i = 0; i < teavm_gc_gcThreadCount; ++i) {
+            teavm_gc_parallelTask(task, i);
+        }
+    }
+#endif
+
+static void teavm_gc_readIntOption(char* name, int32_t* target, int32_t minValue) {
+    char* value = getenv(name);
+    if (value != NULL && *value != 0) {
+        char* end;
+        long parsed = strtol(value, &end, 10);
+        if (*end != 0 || parsed < minValue || parsed > INT32_MAX) {
+            fprintf(stderr, "Invalid value of %s: %s, using default %" PRId32 "\n", name, value, *target);
+            return;
+        }
+        *target = (int32_t) parsed;
+    }
+}
+
+static void teavm_gc_readOptions() {
+    char* policy = getenv("TEAVM_GC_POLICY");
+    if (policy != NULL) {
+        if (strcmp(policy, "default") == 0) {
+            teavm_gc_heapPolicy = 0;
+        } else if (strcmp(policy, "throughput") == 0) {
+            teavm_gc_heapPolicy = 1;
+        } else if (strcmp(policy, "pause") == 0) {
+            teavm_gc_heapPolicy = 2;
+        } else {
+            fprintf(stderr, "Invalid value of TEAVM_GC_POLICY: %s, using default\n", policy);
+        }
+    }
+    teavm_gc_readIntOption("TEAVM_GC_TIME_RATIO", &teavm_gc_gcTimeRatio, 0);
+    teavm_gc_readIntOption("TEAVM_GC_MAX_PAUSE", &teavm_gc_maxPauseTarget, 1);
+    teavm_gc_readIntOption("TEAVM_GC_FULL_INTERVAL", &teavm_gc_fullGCInterval, 1);
+    teavm_gc_readIntOption("TEAVM_GC_PAUSE_BUDGET", &teavm_gc_pauseBudget, 0);
+}
+
 void teavm_initHeap(int64_t minHeap, int64_t maxHeap) {
+    teavm_gc_readOptions();
     teavm_gc_pageSize = teavm_pageSize();
     int32_t workSize = teavm_gc_calculateWorkSize(maxHeap);
     int32_t regionsSize = teavm_gc_calculateRegionsSize(maxHeap);
@@ -189,6 +308,28 @@ void teavm_initHeap(int64_t minHeap, int64_t maxHeap) {
     teavm_gc_regionMaxCount = 0;
     teavm_gc_availableBytes = 0;
     teavm_gc_resizeHeap(minHeap);
+
+    #if TEAVM_GC_PARALLEL
+        teavm_gc_startThreads();
+    #endif
+
+    char* logPath = getenv("TEAVM_GC_LOG");
+    if (logPath != NULL && *logPath != 0) {
+        teavm_gc_log = logPath[0] == '-' && logPath[1] == 0 ? stderr : fopen(logPath, "w");
+    }
+}
+
+void teavm_gc_logCollection(int32_t full, int64_t pauseTime, int64_t markedBytes, int64_t freedBytes,
+        int64_t relocatedBytes, int64_t heapSizeBefore, int64_t heapSizeAfter, int64_t oldGenerationBytes) {
+    if (teavm_gc_log == NULL) {
+        return;
+    }
+    fprintf(teavm_gc_log, "{\"collection\":%" PRId32 ",\"type\":\"%s\",\"pauseNanos\":%" PRId64
+            ",\"markedBytes\":%" PRId64 ",\"freedBytes\":%" PRId64 ",\"relocatedBytes\":%" PRId64
+            ",\"heapSizeBefore\":%" PRId64 ",\"heapSizeAfter\":%" PRId64 ",\"oldGenerationBytes\":%" PRId64 "}\n",
+            ++teavm_gc_logSequence, full ? "full" : "young", pauseTime, markedBytes, freedBytes, relocatedBytes,
+            heapSizeBefore, heapSizeAfter, oldGenerationBytes);
+    fflush(teavm_gc_log);
 }
 
 typedef struct TeaVM_StaticGcRootDescriptor {
@@ -11,10 +11,22 @@ extern int32_t teavm_gc_regionMaxCount;
 extern int64_t teavm_gc_availableBytes;
 extern int64_t teavm_gc_minAvailableBytes;
 extern int64_t teavm_gc_maxAvailableBytes;
+extern int32_t teavm_gc_pauseBudget;
+extern int32_t teavm_gc_heapPolicy;
+extern int32_t teavm_gc_gcTimeRatio;
+extern int32_t teavm_gc_maxPauseTarget;
+extern int32_t teavm_gc_fullGCInterval;
+extern void* teavm_gc_pauseHistogram;
 extern void*** teavm_gc_staticRoots;
+extern int32_t teavm_gc_gcThreadCount;
+extern void* teavm_gc_gcThreadData;
 
 extern void teavm_initHeap(int64_t minHeap, int64_t maxHeap);
 extern void teavm_gc_resizeHeap(int64_t newSize);
+extern void teavm_gc_runInParallel(int32_t task);
+extern void teavm_gc_parallelTask(int32_t task, int32_t worker);
+extern void teavm_gc_logCollection(int32_t full, int64_t pauseTime, int64_t markedBytes, int64_t freedBytes,
+        int64_t relocatedBytes, int64_t heapSizeBefore, int64_t heapSizeAfter, int64_t oldGenerationBytes);
 
 extern void teavm_registerStaticGcRoots(void***, int);
 extern void teavm_initStaticGcRoots();
\ No newline at end of file
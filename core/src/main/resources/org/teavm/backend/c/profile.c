@@ -0,0 +1,29 @@
+#include "profile.h"
+#include "definitions.h"
+
+#if TEAVM_PROFILE
+    #include <stdio.h>
+    #include <stdlib.h>
+    #include <inttypes.h>
+
+    void teavm_profile_init() {
+        atexit(teavm_profile_write);
+    }
+
+    void teavm_profile_write() {
+        char* path = getenv("TEAVM_PROFILE");
+        if (path == NULL || *path == '\0') {
+            path = "teavm.profile";
+        }
+        FILE* file = fopen(path, "w");
+        if (file == NULL) {
+            fprintf(stderr, "Could not write execution profile to %s\n", path);
+            return;
+        }
+        fprintf(file, "# teavm-profile 1\n");
+        for (int32_t i = 0; i < teavm_profile_methodCount; ++i) {
+            fprintf(file, "%" PRId64 " %s\n", teavm_profile_counters[i], teavm_profile_methods[i]);
+        }
+        fclose(file);
+    }
+#endif
@@ -0,0 +1,16 @@
+#pragma once
+#include <stdint.h>
+#include "definitions.h"
+
+#if TEAVM_PROFILE
+    extern int64_t teavm_profile_counters[];
+    extern const char* teavm_profile_methods[];
+    extern int32_t teavm_profile_methodCount;
+
+    extern void teavm_profile_init();
+    extern void teavm_profile_write();
+
+    #define TEAVM_PROFILE_METHOD(index) (teavm_profile_counters[index]++)
+#else
+    #define TEAVM_PROFILE_METHOD(index)
+#endif
@@ -6,6 +6,7 @@
 #include "string.h"
 #include "exceptions.h"
 #include "references.h"
+#include "profile.h"
 #if TEAVM_INCREMENTAL
     #include "virtcall.h"
 #endif
\ No newline at end of file
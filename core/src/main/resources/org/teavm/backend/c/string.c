@@ -10,6 +10,16 @@
 
 int32_t teavm_hashCode(TeaVM_String* string) {
     int32_t hashCode = INT32_C(0);
+    #if TEAVM_COMPACT_STRINGS
+        if (string->latin1 != NULL) {
+            int32_t length = string->latin1->size;
+            uint8_t* bytes = TEAVM_ARRAY_DATA(string->latin1, uint8_t);
+            for (int32_t i = INT32_C(0); i < length; ++i) {
+                hashCode = 31 * hashCode + bytes[i];
+            }
+            return hashCode;
+        }
+    #endif
     int32_t length = string->characters->size;
     char16_t* chars = TEAVM_ARRAY_DATA(string->characters, char16_t);
     for (int32_t i = INT32_C(0); i < length; ++i) {
@@ -23,6 +33,25 @@ int32_t teavm_equals(TeaVM_String* first, TeaVM_String* second) {
         return 1;
     }
 
+    #if TEAVM_COMPACT_STRINGS
+        if (first->latin1 != NULL || second->latin1 != NULL) {
+            int32_t length = teavm_stringLength(first);
+            if (length != teavm_stringLength(second)) {
+                return 0;
+            }
+            if (first->latin1 != NULL && second->latin1 != NULL) {
+                return memcmp(TEAVM_ARRAY_DATA(first->latin1, uint8_t), TEAVM_ARRAY_DATA(second->latin1, uint8_t),
+                        length) == 0;
+            }
+            for (int32_t i = INT32_C(0); i < length; ++i) {
+                if (teavm_stringCharAt(first, i) != teavm_stringCharAt(second, i)) {
+                    return 0;
+                }
+            }
+            return 1;
+        }
+    #endif
+
     if (first->characters->size != second->characters->size) {
         return 0;
     }
@@ -75,6 +104,14 @@ char* teavm_stringToC(void* obj) {
     }
 
     TeaVM_String* javaString = (TeaVM_String*) obj;
+    #if TEAVM_COMPACT_STRINGS
+        if (javaString->latin1 != NULL) {
+            char16_t* chars = teavm_stringToC16(obj);
+            char* result = teavm_char16ToMb(chars, javaString->latin1->size);
+            free(chars);
+            return result;
+        }
+    #endif
     TeaVM_Array* charArray = javaString->characters;
     char16_t* javaChars = TEAVM_ARRAY_DATA(charArray, char16_t);
 
@@ -100,6 +137,18 @@ char16_t* teavm_stringToC16(void* obj) {
     }
 
     TeaVM_String* javaString = (TeaVM_String*) obj;
+    #if TEAVM_COMPACT_STRINGS
+        if (javaString->latin1 != NULL) {
+            int32_t length = javaString->latin1->size;
+            uint8_t* bytes = TEAVM_ARRAY_DATA(javaString->latin1, uint8_t);
+            char16_t* result = malloc((length + 1) * sizeof(char16_t));
+            for (int32_t i = 0; i < length; ++i) {
+                result[i] = bytes[i];
+            }
+            result[length] = 0;
+            return result;
+        }
+    #endif
     TeaVM_Array* charArray = javaString->characters;
     char16_t* javaChars = TEAVM_ARRAY_DATA(charArray, char16_t);
     size_t sz = charArray->size;
@@ -111,59 +160,63 @@ char16_t* teavm_stringToC16(void* obj) {
     return result;
 }
 
-TeaVM_String* teavm_cToString(char* cstring) {
-    if (cstring == NULL) {
-        return NULL;
-    }
-
+static TeaVM_String* teavm_charsToString(char16_t* chars, int32_t size) {
     TEAVM_ALLOC_STACK(1);
     TEAVM_CALL_SITE(-1);
     TEAVM_GC_ROOT_RELEASE(0);
 
-    size_t clen = strlen(cstring);
-    int32_t size = teavm_c16Size(cstring, clen);
+    TeaVM_String* result;
+    #if TEAVM_COMPACT_STRINGS
+        int32_t latin1Size = 0;
+        while (latin1Size < size && chars[latin1Size] <= 0xFF) {
+            ++latin1Size;
+        }
+        if (latin1Size == size) {
+            TeaVM_Array* byteArray = teavm_allocateByteArray(size);
+            TEAVM_GC_ROOT(0, byteArray);
+            uint8_t* bytes = TEAVM_ARRAY_DATA(byteArray, uint8_t);
+            for (int32_t i = 0; i < size; ++i) {
+                bytes[i] = (uint8_t) chars[i];
+            }
+            result = teavm_createLatin1String(byteArray);
+            TEAVM_RELEASE_STACK;
+            return result;
+        }
+    #endif
+
     TeaVM_Array* charArray = teavm_allocateCharArray(size);
     TEAVM_GC_ROOT(0, charArray);
-
-    char16_t* javaChars = TEAVM_ARRAY_DATA(charArray, char16_t);
-    mbstate_t state = {0};
-    for (int32_t i = 0; i < size; ++i) {
-        size_t result = mbrtoc16(javaChars++, cstring, clen, &state);
-        if (result == (size_t) -1) {
-            break;
-        } else if ((int) result >= 0) {
-            clen -= result;
-            cstring += result;
-        }
+    if (size > 0) {
+        memcpy(TEAVM_ARRAY_DATA(charArray, char16_t), chars, size * sizeof(char16_t));
     }
 
-    TeaVM_String* result = teavm_createString(charArray);
+    result = teavm_createString(charArray);
     TEAVM_RELEASE_STACK;
     return result;
 }
 
-TeaVM_String* teavm_c16ToString(char16_t* cstring) {
+TeaVM_String* teavm_cToString(char* cstring) {
     if (cstring == NULL) {
         return NULL;
     }
 
+    int32_t size;
+    char16_t* javaChars = teavm_mbToChar16(cstring, &size);
+    TeaVM_String* result = teavm_charsToString(javaChars, size);
+    free(javaChars);
+    return result;
+}
 
-    TEAVM_ALLOC_STACK(1);
-    TEAVM_CALL_SITE(-1);
-    TEAVM_GC_ROOT_RELEASE(0);
+TeaVM_String* teavm_c16ToString(char16_t* cstring) {
+    if (cstring == NULL) {
+        return NULL;
+    }
 
     int32_t size = 0;
     while (cstring[size] != 0) {
         ++size;
     }
-    TeaVM_Array* charArray = teavm_allocateCharArray(size);
-    TEAVM_GC_ROOT(0, charArray);
-    char16_t* javaChars = TEAVM_ARRAY_DATA(charArray, char16_t);
-    memcpy(javaChars, cstring, size * sizeof(char16_t));
-
-    TeaVM_String* result = teavm_createString(charArray);
-    TEAVM_RELEASE_STACK;
-    return result;
+    return teavm_charsToString(cstring, size);
 }
 
 char16_t* teavm_mbToChar16(char* cstring, int32_t* length) {
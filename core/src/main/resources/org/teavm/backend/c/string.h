@@ -18,11 +18,43 @@
     .hashCode = INT32_C(hash) \
 }
 
+#if TEAVM_COMPACT_STRINGS
+#define TEAVM_STRING_LATIN1(length, hash, s) &(TeaVM_String) { \
+    .latin1 = (TeaVM_Array*) & (struct { TeaVM_Array hdr; char data[(length) + 1]; }) { \
+        .hdr = { .size = length }, \
+        .data = s \
+    }, \
+    .hashCode = INT32_C(hash) \
+}
+#endif
+
+static inline int32_t teavm_stringLength(TeaVM_String* string) {
+    #if TEAVM_COMPACT_STRINGS
+        if (string->latin1 != NULL) {
+            return string->latin1->size;
+        }
+    #endif
+    return string->characters->size;
+}
+
+static inline char16_t teavm_stringCharAt(TeaVM_String* string, int32_t index) {
+    #if TEAVM_COMPACT_STRINGS
+        if (string->latin1 != NULL) {
+            return TEAVM_ARRAY_AT(string->latin1, uint8_t, index);
+        }
+    #endif
+    return TEAVM_ARRAY_AT(string->characters, char16_t, index);
+}
+
 extern int32_t teavm_hashCode(TeaVM_String*);
 extern int32_t teavm_equals(TeaVM_String*, TeaVM_String*);
 extern TeaVM_Array* teavm_allocateStringArray(int32_t size);
 extern TeaVM_Array* teavm_allocateCharArray(int32_t size);
 extern TeaVM_String* teavm_createString(TeaVM_Array* chars);
+#if TEAVM_COMPACT_STRINGS
+extern TeaVM_Array* teavm_allocateByteArray(int32_t size);
+extern TeaVM_String* teavm_createLatin1String(TeaVM_Array* bytes);
+#endif
 
 extern char* teavm_stringToC(void*);
 extern TeaVM_String* teavm_cToString(char*);
@@ -257,6 +257,17 @@ void* teavm_vc_lookupMethod(const TeaVM_DynamicClass* restrict cls, int32_t id)
     }
 }
 
+void* teavm_vc_updateInlineCache(TeaVM_VcInlineCache* cache, const TeaVM_Class* cls, int32_t id) {
+    void* method = teavm_vc_lookupMethod((const TeaVM_DynamicClass*) cls, id);
+    if (method != NULL) {
+        cache->classes[1] = cache->classes[0];
+        cache->methods[1] = cache->methods[0];
+        cache->classes[0] = cls;
+        cache->methods[0] = method;
+    }
+    return method;
+}
+
 static void teavm_vc_cleanupMethodHashtable() {
     if (teavm_vc_hashData == NULL) {
         return;
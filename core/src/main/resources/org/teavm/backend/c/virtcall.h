@@ -27,11 +27,30 @@ typedef struct TeaVM_DynamicClass {
     TeaVM_DynamicClassCopy* copy;
 } TeaVM_DynamicClass;
 
+typedef struct {
+    const TeaVM_Class* classes[2];
+    void* methods[2];
+} TeaVM_VcInlineCache;
+
 extern int32_t teavm_vc_getMethodId(const char16_t* restrict name);
 extern void teavm_vc_registerMethod(TeaVM_DynamicClass* restrict cls, int32_t id, void* method);
 extern void* teavm_vc_lookupMethod(const TeaVM_DynamicClass* restrict cls, int32_t id);
 extern void teavm_vc_copyMethods(TeaVM_DynamicClass* restrict from, TeaVM_DynamicClass* restrict to);
+extern void* teavm_vc_updateInlineCache(TeaVM_VcInlineCache* cache, const TeaVM_Class* cls, int32_t id);
 extern void teavm_vc_done();
 
+static inline void* teavm_vc_lookupCachedMethod(TeaVM_VcInlineCache* cache, const TeaVM_Class* cls, int32_t id) {
+    if (cache->classes[0] == cls) {
+        return cache->methods[0];
+    }
+    if (cache->classes[1] == cls) {
+        return cache->methods[1];
+    }
+    return teavm_vc_updateInlineCache(cache, cls, id);
+}
+
 #define TEAVM_VC_METHOD(obj, id, returnType, parameters) \
-    ((returnType (*)parameters) teavm_vc_lookupMethod((TeaVM_DynamicClass*) TEAVM_CLASS_OF(obj), id))
\ No newline at end of file
+    ((returnType (*)parameters) teavm_vc_lookupMethod((TeaVM_DynamicClass*) TEAVM_CLASS_OF(obj), id))
+
+#define TEAVM_VC_CACHED_METHOD(obj, cache, id, returnType, parameters) \
+    ((returnType (*)parameters) teavm_vc_lookupCachedMethod(cache, TEAVM_CLASS_OF(obj), id))
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+var $rt_chunkFiles = [];
+var $rt_chunksLoaded = [];
+var $rt_chunkBaseUrl = typeof document !== "undefined" && document.currentScript
+    ? document.currentScript.src
+    : typeof location !== "undefined" ? location.href : null;
+
+function $rt_loadChunk(index) {
+    if ($rt_chunksLoaded[index]) {
+        return;
+    }
+    $rt_evalChunk($rt_fetchChunk($rt_chunkFiles[index]));
+    $rt_chunksLoaded[index] = true;
+}
+function $rt_fetchChunk(name) {
+    if (typeof XMLHttpRequest !== "undefined") {
+        var url = $rt_chunkBaseUrl !== null ? new URL(name, $rt_chunkBaseUrl).href : name;
+        var xhr = new XMLHttpRequest();
+        xhr.open("GET", url, false);
+        xhr.send();
+        if (xhr.status !== 200 && xhr.status !== 0) {
+            throw new Error("Could not load code chunk " + url + ": HTTP status " + xhr.status);
+        }
+        return xhr.responseText;
+    }
+    if (typeof require === "function" && typeof __dirname === "string") {
+        return require("fs").readFileSync(require("path").join(__dirname, name), "utf8");
+    }
+    throw new Error("Could not load code chunk " + name + ": no way to fetch it in this environment");
+}
+function $rt_evalChunk() {
+    // Direct eval, so that chunk can assign functions declared in the enclosing scope.
+    // This function must not declare any variables, since they can shadow names used by the chunk.
+    eval(arguments[0]);
+}
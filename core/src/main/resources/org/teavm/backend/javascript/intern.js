@@ -16,51 +16,120 @@
 "use strict";
 
 var $rt_intern = function() {
-    var table = new Array(100);
+    var weak = typeof WeakRef !== "undefined" && typeof FinalizationRegistry !== "undefined";
+    var registry = weak ? new FinalizationRegistry(cleanup) : null;
+    var removed = {};
+    var minCapacity = 64;
+    var table = new Array(minCapacity);
+    var hashes = new Int32Array(minCapacity);
     var size = 0;
+    var occupied = 0;
+    var collected = 0;
 
     function get(str) {
         var hash = $rt_stringHash(str);
-        var bucket = getBucket(hash);
-        for (var i = 0; i < bucket.length; ++i) {
-            if ($rt_stringEquals(bucket[i], str)) {
-                return bucket[i];
+        var mask = table.length - 1;
+        var index = hash & mask;
+        var free = -1;
+        while (true) {
+            var entry = table[index];
+            if (typeof entry === "undefined") {
+                break;
+            }
+            if (entry === removed) {
+                if (free < 0) {
+                    free = index;
+                }
+            } else if (hashes[index] === hash) {
+                var existing = weak ? entry.deref() : entry;
+                if (typeof existing !== "undefined" && $rt_stringEquals(existing, str)) {
+                    return existing;
+                }
             }
+            index = (index + 1) & mask;
+        }
+
+        if (free < 0) {
+            free = index;
+            ++occupied;
+        }
+        table[free] = weak ? new WeakRef(str) : str;
+        hashes[free] = hash;
+        ++size;
+        if (weak) {
+            registry.register(str, hash);
+        }
+        if (occupied * 2 > table.length) {
+            rehash();
         }
-        bucket.push(str);
         return str;
     }
 
-    function getBucket(hash) {
+    function cleanup(hash) {
+        var mask = table.length - 1;
+        var index = hash & mask;
         while (true) {
-            var position = hash % table.length;
-            var bucket = table[position];
-            if (typeof bucket !== "undefined") {
-                return bucket;
+            var entry = table[index];
+            if (typeof entry === "undefined") {
+                break;
             }
-            if (++size / table.length > 0.5) {
-                rehash();
-            } else {
-                bucket = [];
-                table[position] = bucket;
-                return bucket;
+            if (entry !== removed && typeof entry.deref() === "undefined") {
+                table[index] = removed;
+                --size;
+                ++collected;
             }
+            index = (index + 1) & mask;
+        }
+        if (table.length > minCapacity && size * 8 < table.length) {
+            rehash();
         }
     }
 
     function rehash() {
-        var old = table;
-        table = new Array(table.length * 2);
+        var oldTable = table;
+        var oldHashes = hashes;
+        var capacity = minCapacity;
+        while (size * 4 > capacity) {
+            capacity *= 2;
+        }
+        table = new Array(capacity);
+        hashes = new Int32Array(capacity);
         size = 0;
-        for (var i = 0; i < old.length; ++i) {
-            var bucket = old[i];
-            if (typeof bucket !== "undefined") {
-                for (var j = 0; j < bucket.length; ++j) {
-                    get(bucket[j]);
-                }
+        occupied = 0;
+        for (var i = 0; i < oldTable.length; ++i) {
+            var entry = oldTable[i];
+            if (typeof entry === "undefined" || entry === removed) {
+                continue;
+            }
+            if (weak && typeof entry.deref() === "undefined") {
+                ++collected;
+                continue;
             }
+            insert(entry, oldHashes[i]);
         }
     }
 
+    function insert(entry, hash) {
+        var mask = table.length - 1;
+        var index = hash & mask;
+        while (typeof table[index] !== "undefined") {
+            index = (index + 1) & mask;
+        }
+        table[index] = entry;
+        hashes[index] = hash;
+        ++size;
+        ++occupied;
+    }
+
+    get.stats = function() {
+        return {
+            size: size,
+            capacity: table.length,
+            removed: occupied - size,
+            collected: collected,
+            weak: weak
+        };
+    };
+
     return get;
 }();
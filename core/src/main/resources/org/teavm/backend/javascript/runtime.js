@@ -83,6 +83,22 @@ function $rt_createArrayFromData(cls, init) {
 function $rt_wrapArray(cls, data) {
     return new $rt_array(cls, data);
 }
+function $rt_wrapTypedArray(cls, data, type) {
+    if (!(data instanceof type) && ArrayBuffer.isView(data)) {
+        var size = type.BYTES_PER_ELEMENT;
+        var isByteView = data instanceof Int8Array || data instanceof Uint8Array
+            || data instanceof Uint8ClampedArray || data instanceof DataView;
+        if (isByteView && data.byteOffset % size === 0 && data.byteLength % size === 0) {
+            data = new type(data.buffer, data.byteOffset, data.byteLength / size);
+        } else {
+            if (data instanceof DataView) {
+                data = new Uint8Array(data.buffer, data.byteOffset, data.byteLength);
+            }
+            data = type.from(data);
+        }
+    }
+    return new $rt_array(cls, data);
+}
 function $rt_createUnfilledArray(cls, sz) {
     return new $rt_array(cls, new Array(sz));
 }
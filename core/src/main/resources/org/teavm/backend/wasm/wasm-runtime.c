@@ -39,6 +39,10 @@ double teavm_nanoTime() {
     return time.tv_sec * 1000000000 + (int64_t) round(time.tv_nsec);
 }
 
+double teavm_gcNanoTime() {
+    return teavm_nanoTime();
+}
+
 static union { float f; int32_t i; } reinterpret_union_32;
 static union { double f; int64_t i; } reinterpret_union_64;
 
@@ -68,6 +72,15 @@ void teavm_logOutOfMemory() {
 
 void teavm_logString(int32_t string) {
     uint32_t arrayPtr = *(uint32_t*) (wasm_heap + string + 8);
+    if (arrayPtr == 0) {
+        // Compact string, Latin-1 bytes are referenced by the next field
+        uint32_t bytesPtr = *(uint32_t*) (wasm_heap + string + 12);
+        uint32_t length = *(uint32_t*) (wasm_heap + bytesPtr + 8);
+        for (int32_t i = 0; i < length; ++i) {
+            putwchar(*(uint8_t*) (wasm_heap + i + bytesPtr + 12));
+        }
+        return;
+    }
     uint32_t length = *(uint32_t*) (wasm_heap + arrayPtr + 8);
     for (int32_t i = 0; i < length; ++i) {
         char16_t c = *(char16_t*) (wasm_heap + i * 2 + arrayPtr + 12);
@@ -40,6 +40,9 @@ TeaVM.wasm = function() {
     function currentTimeMillis() {
         return new Date().getTime();
     }
+    function nanoTime() {
+        return performance.now();
+    }
     function getNativeOffset(instant) {
         return new Date(instant).getTimezoneOffset();
     }
@@ -47,6 +50,15 @@ TeaVM.wasm = function() {
         let instance = controller.instance;
         let memory = instance.exports.memory.buffer;
         let arrayPtr = instance.exports.teavm_stringData(string);
+        if (arrayPtr === 0) {
+            let bytesPtr = instance.exports.teavm_stringLatin1Data(string);
+            let length = instance.exports.teavm_arrayLength(bytesPtr);
+            let bytes = new Uint8Array(memory, instance.exports.teavm_byteArrayData(bytesPtr), length);
+            for (let i = 0; i < length; ++i) {
+                putwchar(bytes[i]);
+            }
+            return;
+        }
         let length = instance.exports.teavm_arrayLength(arrayPtr);
         let arrayData = new DataView(memory, instance.exports.teavm_charArrayData(arrayPtr), length * 2);
         for (let i = 0; i < length; ++i) {
@@ -85,7 +97,8 @@ TeaVM.wasm = function() {
         controller.complete = false;
         obj.teavm = {
             currentTimeMillis: currentTimeMillis,
-            nanoTime: function() { return performance.now(); },
+            nanoTime: nanoTime,
+            gcNanoTime: nanoTime,
             isnan: isNaN,
             teavm_getNaN: function() { return NaN; },
             isinf: function(n) { return !isFinite(n) },
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ScriptableObject;
+
+public class InternTableTest {
+    private Context context;
+    private ScriptableObject scope;
+
+    @Before
+    public void enterContext() {
+        context = Context.enter();
+        context.setOptimizationLevel(-1);
+        context.setLanguageVersion(Context.VERSION_ES6);
+        scope = context.initStandardObjects();
+    }
+
+    @After
+    public void exitContext() {
+        Context.exit();
+    }
+
+    @Test
+    public void returnsSameInstance() throws IOException {
+        load(false);
+        assertTrue(evalBoolean(""
+                + "var first = [];"
+                + "for (var i = 0; i < 1000; ++i) {"
+                    + "first.push($rt_intern(str('s' + i)));"
+                + "}"
+                + "var same = true;"
+                + "for (var i = 0; i < 1000; ++i) {"
+                    + "same = same && $rt_intern(str('s' + i)) === first[i];"
+                + "}"
+                + "same;"));
+        assertEquals(1000, evalInt("$rt_intern.stats().size"));
+        assertFalse(evalBoolean("$rt_intern.stats().weak"));
+    }
+
+    @Test
+    public void memoryStaysBounded() throws IOException {
+        load(true);
+        assertTrue(evalBoolean(""
+                + "var kept = $rt_intern(str('kept'));"
+                + "var same = true;"
+                + "var maxCapacity = 0;"
+                + "for (var round = 0; round < 50; ++round) {"
+                    + "for (var i = 0; i < 1000; ++i) {"
+                        + "var s = $rt_intern(str(round + ':' + i));"
+                        + "s.garbage = true;"
+                        + "same = same && $rt_intern(str(round + ':' + i)) === s;"
+                    + "}"
+                    + "maxCapacity = Math.max(maxCapacity, $rt_intern.stats().capacity);"
+                    + "collectGarbage();"
+                    + "same = same && $rt_intern(str('kept')) === kept;"
+                + "}"
+                + "same;"));
+        assertTrue(evalBoolean("$rt_intern.stats().weak"));
+        assertTrue(evalInt("maxCapacity") <= 4096);
+        assertEquals(1, evalInt("$rt_intern.stats().size"));
+        assertEquals(50000, evalInt("$rt_intern.stats().collected"));
+        assertTrue(evalInt("$rt_intern.stats().capacity") <= 64);
+    }
+
+    private void load(boolean weak) throws IOException {
+        evalResource("intern-env.js");
+        if (weak) {
+            eval("var WeakRef = TestWeakRef; var FinalizationRegistry = TestFinalizationRegistry;");
+        }
+        evalResource("intern.js");
+    }
+
+    private void evalResource(String name) throws IOException {
+        ClassLoader loader = InternTableTest.class.getClassLoader();
+        try (InputStream input = loader.getResourceAsStream("org/teavm/backend/javascript/" + name);
+                Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            context.evaluateReader(scope, reader, name, 1, null);
+        }
+    }
+
+    private Object eval(String script) {
+        return context.evaluateString(scope, script, "test.js", 1, null);
+    }
+
+    private boolean evalBoolean(String script) {
+        return Context.toBoolean(eval(script));
+    }
+
+    private int evalInt(String script) {
+        return (int) Context.toNumber(eval(script));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.splitting;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.teavm.callgraph.CallGraph;
+import org.teavm.callgraph.CallGraphNode;
+import org.teavm.callgraph.CallSite;
+import org.teavm.callgraph.FieldAccessSite;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+import org.teavm.model.TextLocation;
+import org.teavm.model.ValueType;
+
+public class CodeSplitterTest {
+    private GraphBuilder graph = new GraphBuilder();
+
+    @Test
+    public void movesMethodsReachableFromSplitPoint() {
+        graph.call("main", "a");
+        graph.call("main", "split");
+        graph.call("split", "b");
+        graph.call("b", "c");
+
+        List<CodeChunk> chunks = split("split");
+
+        assertEquals(1, chunks.size());
+        assertEquals(Arrays.asList(method("split"), method("b"), method("c")), chunks.get(0).getMethods());
+    }
+
+    @Test
+    public void keepsMethodsReachableFromInitialPart() {
+        graph.call("main", "split");
+        graph.call("main", "common");
+        graph.call("split", "b");
+        graph.call("split", "common");
+
+        List<CodeChunk> chunks = split("split");
+
+        assertEquals(1, chunks.size());
+        assertEquals(Arrays.asList(method("split"), method("b")), chunks.get(0).getMethods());
+    }
+
+    @Test
+    public void sharesMethodsBetweenSplitPoints() {
+        graph.call("main", "first");
+        graph.call("main", "second");
+        graph.call("first", "a");
+        graph.call("first", "common");
+        graph.call("second", "b");
+        graph.call("second", "common");
+
+        List<CodeChunk> chunks = split("first", "second");
+
+        assertEquals(3, chunks.size());
+        assertEquals(Arrays.asList(method("first"), method("a")), chunks.get(0).getMethods());
+        assertEquals(Arrays.asList(method("second"), method("b")), chunks.get(1).getMethods());
+        assertEquals(Collections.singletonList(method("common")), chunks.get(2).getMethods());
+        assertEquals(Arrays.asList(method("first"), method("second")), chunks.get(2).getSplitPoints());
+    }
+
+    @Test
+    public void nestedSplitPointStartsOwnChunk() {
+        graph.call("main", "outer");
+        graph.call("outer", "inner");
+        graph.call("inner", "a");
+
+        List<CodeChunk> chunks = split("outer", "inner");
+
+        assertEquals(2, chunks.size());
+        assertEquals(Arrays.asList(method("inner"), method("a")), chunks.get(0).getMethods());
+        assertEquals(Collections.singletonList(method("outer")), chunks.get(1).getMethods());
+    }
+
+    private List<CodeChunk> split(String... splitPoints) {
+        List<MethodReference> splitPointRefs = new ArrayList<>();
+        for (String splitPoint : splitPoints) {
+            splitPointRefs.add(method(splitPoint));
+        }
+        return new CodeSplitter(graph).split(graph.methods, splitPointRefs);
+    }
+
+    private static MethodReference method(String name) {
+        return new MethodReference("Test", name, ValueType.VOID);
+    }
+
+    static class GraphBuilder implements CallGraph {
+        List<MethodReference> methods = new ArrayList<>();
+        Map<MethodReference, Node> nodes = new HashMap<>();
+
+        void call(String caller, String callee) {
+            getNode(method(caller)).site.callees.add(getNode(method(callee)));
+        }
+
+        @Override
+        public Node getNode(MethodReference method) {
+            return nodes.computeIfAbsent(method, m -> {
+                methods.add(m);
+                return new Node(this, m);
+            });
+        }
+
+        @Override
+        public Collection<? extends FieldAccessSite> getFieldAccess(FieldReference reference) {
+            return Collections.emptyList();
+        }
+    }
+
+    static class Node implements CallGraphNode {
+        CallGraph graph;
+        MethodReference method;
+        Site site = new Site();
+
+        Node(CallGraph graph, MethodReference method) {
+            this.graph = graph;
+            this.method = method;
+        }
+
+        @Override
+        public CallGraph getGraph() {
+            return graph;
+        }
+
+        @Override
+        public MethodReference getMethod() {
+            return method;
+        }
+
+        @Override
+        public Collection<? extends CallSite> getCallSites() {
+            return Collections.singletonList(site);
+        }
+
+        @Override
+        public Collection<? extends CallSite> getCallerCallSites() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Collection<? extends FieldAccessSite> getFieldAccessSites() {
+            return Collections.emptyList();
+        }
+    }
+
+    static class Site implements CallSite {
+        List<Node> callees = new ArrayList<>();
+
+        @Override
+        public Collection<? extends TextLocation> getLocations(CallGraphNode caller) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Collection<? extends CallGraphNode> getCalledMethods() {
+            return callees;
+        }
+
+        @Override
+        public Collection<? extends CallGraphNode> getCallers() {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmBreak;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmConditional;
+import org.teavm.backend.wasm.model.expression.WasmDrop;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt32Subtype;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
+
+public class WasmOptimizerTest {
+    @Test
+    public void foldsConstants() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal x = new WasmLocal(WasmType.INT32);
+        function.getParameters().add(WasmType.INT32);
+        function.add(x);
+        function.getBody().add(new WasmDrop(add(new WasmInt32Constant(2), new WasmInt32Constant(3))));
+        function.getBody().add(new WasmDrop(add(new WasmGetLocal(x), new WasmInt32Constant(0))));
+
+        new ConstantFolding().apply(function);
+
+        WasmDrop first = (WasmDrop) function.getBody().get(0);
+        assertEquals(5, ((WasmInt32Constant) first.getOperand()).getValue());
+        WasmDrop second = (WasmDrop) function.getBody().get(1);
+        assertSame(x, ((WasmGetLocal) second.getOperand()).getLocal());
+    }
+
+    @Test
+    public void keepsDivisionByZero() {
+        WasmFunction function = new WasmFunction("test");
+        function.getBody().add(new WasmDrop(new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.DIV_SIGNED,
+                new WasmInt32Constant(1), new WasmInt32Constant(0))));
+
+        new ConstantFolding().apply(function);
+
+        assertTrue(((WasmDrop) function.getBody().get(0)).getOperand() instanceof WasmIntBinary);
+    }
+
+    @Test
+    public void resolvesConstantConditions() {
+        WasmFunction function = new WasmFunction("test");
+        WasmConditional conditional = new WasmConditional(new WasmInt32Constant(0));
+        conditional.getThenBlock().getBody().add(new WasmCall("foo"));
+        conditional.getElseBlock().getBody().add(new WasmCall("bar"));
+        function.getBody().add(conditional);
+
+        new ConstantFolding().apply(function);
+        new BlockFlattening().apply(function);
+
+        assertEquals(1, function.getBody().size());
+        assertEquals("bar", ((WasmCall) function.getBody().get(0)).getFunctionName());
+    }
+
+    @Test
+    public void flattensBlocks() {
+        WasmFunction function = new WasmFunction("test");
+        WasmBlock outer = new WasmBlock(false);
+        WasmBlock inner = new WasmBlock(false);
+        outer.getBody().add(inner);
+        inner.getBody().add(new WasmBranch(new WasmCall("foo"), outer));
+        inner.getBody().add(new WasmCall("bar"));
+        inner.getBody().add(new WasmBreak(inner));
+        inner.getBody().add(new WasmCall("unreachable"));
+        outer.getBody().add(new WasmCall("baz"));
+        function.getBody().add(outer);
+
+        new BlockFlattening().apply(function);
+
+        assertEquals(1, function.getBody().size());
+        assertSame(outer, function.getBody().get(0));
+        assertEquals(3, outer.getBody().size());
+        assertTrue(outer.getBody().get(0) instanceof WasmBranch);
+        assertEquals("bar", ((WasmCall) outer.getBody().get(1)).getFunctionName());
+        assertEquals("baz", ((WasmCall) outer.getBody().get(2)).getFunctionName());
+    }
+
+    @Test
+    public void propagatesCopies() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal x = new WasmLocal(WasmType.INT32);
+        WasmLocal unused = new WasmLocal(WasmType.INT32);
+        function.add(x);
+        function.add(unused);
+        function.getBody().add(new WasmSetLocal(unused, new WasmInt32Constant(1)));
+        function.getBody().add(new WasmSetLocal(x, load(new WasmInt32Constant(8))));
+        function.getBody().add(store(new WasmGetLocal(x), new WasmInt32Constant(2)));
+
+        new WasmOptimizer(module(function)).apply();
+
+        assertEquals(1, function.getBody().size());
+        WasmStoreInt32 store = (WasmStoreInt32) function.getBody().get(0);
+        assertTrue(store.getIndex() instanceof WasmLoadInt32);
+        assertEquals(0, function.getLocalVariables().size());
+    }
+
+    @Test
+    public void keepsCallsInOrder() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal x = new WasmLocal(WasmType.INT32);
+        function.add(x);
+        function.getBody().add(new WasmSetLocal(x, new WasmCall("foo")));
+        function.getBody().add(new WasmDrop(add(new WasmGetLocal(x), new WasmCall("bar"))));
+
+        new CopyPropagation().apply(function);
+
+        assertEquals(2, function.getBody().size());
+    }
+
+    @Test
+    public void keepsCallsBeforeLoads() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal x = new WasmLocal(WasmType.INT32);
+        function.add(x);
+        function.getBody().add(new WasmSetLocal(x, new WasmCall("foo")));
+        function.getBody().add(new WasmDrop(add(new WasmGetLocal(x), load(new WasmInt32Constant(8)))));
+
+        new CopyPropagation().apply(function);
+
+        assertEquals(2, function.getBody().size());
+    }
+
+    @Test
+    public void keepsLoadsBeforeCalls() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal x = new WasmLocal(WasmType.INT32);
+        function.add(x);
+        function.getBody().add(new WasmSetLocal(x, load(new WasmInt32Constant(8))));
+        function.getBody().add(new WasmDrop(add(new WasmGetLocal(x), new WasmCall("foo"))));
+
+        new CopyPropagation().apply(function);
+
+        assertEquals(2, function.getBody().size());
+    }
+
+    @Test
+    public void propagatesCallsToArguments() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal x = new WasmLocal(WasmType.INT32);
+        function.add(x);
+        function.getBody().add(new WasmSetLocal(x, new WasmCall("foo")));
+        function.getBody().add(new WasmCall("bar", new WasmGetLocal(x), new WasmInt32Constant(1)));
+
+        new CopyPropagation().apply(function);
+
+        assertEquals(1, function.getBody().size());
+        WasmCall call = (WasmCall) function.getBody().get(0);
+        assertEquals("foo", ((WasmCall) call.getArguments().get(0)).getFunctionName());
+    }
+
+    @Test
+    public void coalescesLocals() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal a = new WasmLocal(WasmType.INT32);
+        WasmLocal b = new WasmLocal(WasmType.INT32);
+        function.add(a);
+        function.add(b);
+        function.getBody().add(new WasmSetLocal(a, new WasmCall("foo")));
+        function.getBody().add(new WasmCall("bar", new WasmGetLocal(a), new WasmGetLocal(a)));
+        function.getBody().add(new WasmSetLocal(b, new WasmCall("foo")));
+        function.getBody().add(new WasmCall("bar", new WasmGetLocal(b), new WasmGetLocal(b)));
+
+        new LocalCoalescing().apply(function);
+
+        assertEquals(1, function.getLocalVariables().size());
+        assertSame(a, ((WasmSetLocal) function.getBody().get(2)).getLocal());
+    }
+
+    @Test
+    public void keepsLocalsLiveAcrossLoop() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal a = new WasmLocal(WasmType.INT32);
+        WasmLocal b = new WasmLocal(WasmType.INT32);
+        function.add(a);
+        function.add(b);
+        function.getBody().add(new WasmSetLocal(a, new WasmCall("foo")));
+        WasmBlock loop = new WasmBlock(true);
+        loop.getBody().add(new WasmCall("bar", new WasmGetLocal(a)));
+        loop.getBody().add(new WasmSetLocal(b, new WasmCall("foo")));
+        loop.getBody().add(new WasmBranch(new WasmGetLocal(b), loop));
+        function.getBody().add(loop);
+
+        new LocalCoalescing().apply(function);
+
+        assertEquals(2, function.getLocalVariables().size());
+    }
+
+    @Test
+    public void keepsLocalsReadBeforeWrite() {
+        WasmFunction function = new WasmFunction("test");
+        WasmLocal a = new WasmLocal(WasmType.INT32);
+        WasmLocal b = new WasmLocal(WasmType.INT32);
+        function.add(a);
+        function.add(b);
+        function.getBody().add(new WasmSetLocal(a, new WasmCall("foo")));
+        function.getBody().add(new WasmCall("bar", new WasmGetLocal(a)));
+        WasmConditional conditional = new WasmConditional(new WasmCall("foo"));
+        conditional.getThenBlock().getBody().add(new WasmSetLocal(b, new WasmCall("foo")));
+        function.getBody().add(conditional);
+        function.getBody().add(new WasmCall("bar", new WasmGetLocal(b)));
+
+        new LocalCoalescing().apply(function);
+
+        assertEquals(2, function.getLocalVariables().size());
+        assertNotSame(((WasmSetLocal) function.getBody().get(0)).getLocal(),
+                ((WasmSetLocal) conditional.getThenBlock().getBody().get(0)).getLocal());
+    }
+
+    private static WasmModule module(WasmFunction function) {
+        WasmModule module = new WasmModule();
+        module.add(function);
+        return module;
+    }
+
+    private static WasmIntBinary add(WasmExpression first,
+            WasmExpression second) {
+        return new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.ADD, first, second);
+    }
+
+    private static WasmLoadInt32 load(WasmExpression index) {
+        return new WasmLoadInt32(4, index, WasmInt32Subtype.INT32);
+    }
+
+    private static WasmStoreInt32 store(WasmExpression index,
+            WasmExpression value) {
+        return new WasmStoreInt32(4, index, value, WasmInt32Subtype.INT32);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.wasm.render;
+
+import static org.junit.Assert.assertArrayEquals;
+import java.util.HashMap;
+import org.junit.Test;
+import org.teavm.backend.wasm.model.expression.WasmCopy;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmFill;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+
+public class WasmBinaryRenderingVisitorTest {
+    @Test
+    public void memoryFill() {
+        byte[] code = render(new WasmFill(new WasmInt32Constant(16), new WasmInt32Constant(7),
+                new WasmInt32Constant(4)));
+        assertArrayEquals(bytes(0x41, 16, 0x41, 7, 0x41, 4, 0xFC, 11, 0), code);
+    }
+
+    @Test
+    public void memoryCopy() {
+        byte[] code = render(new WasmCopy(new WasmInt32Constant(32), new WasmInt32Constant(16),
+                new WasmInt32Constant(8)));
+        assertArrayEquals(bytes(0x41, 32, 0x41, 16, 0x41, 8, 0xFC, 10, 0, 0), code);
+    }
+
+    private static byte[] render(WasmExpression expression) {
+        WasmBinaryWriter writer = new WasmBinaryWriter();
+        WasmBinaryRenderingVisitor visitor = new WasmBinaryRenderingVisitor(writer, WasmBinaryVersion.V_0x1,
+                new HashMap<>(), new HashMap<>(), new HashMap<>());
+        expression.acceptVisitor(visitor);
+        return writer.getData();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+}
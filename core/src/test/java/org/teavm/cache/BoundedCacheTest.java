@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class BoundedCacheTest {
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        CacheStatistics statistics = new CacheStatistics();
+        BoundedCache<String, String> cache = new BoundedCache<>(30, statistics);
+        List<String> evicted = new ArrayList<>();
+        cache.setEvictionListener(evicted::add);
+
+        cache.put("a", "A", 10);
+        cache.put("b", "B", 10);
+        cache.put("c", "C", 10);
+        assertEquals("A", cache.get("a"));
+        cache.put("d", "D", 10);
+        cache.put("e", "E", 10);
+
+        assertEquals(Arrays.asList("b", "c"), evicted);
+        assertNull(cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals("A", cache.get("a"));
+        assertEquals(2, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void keepsSizeUnderLimit() {
+        CacheStatistics statistics = new CacheStatistics();
+        BoundedCache<Integer, String> cache = new BoundedCache<>(100, statistics);
+        for (int i = 0; i < 50; ++i) {
+            cache.put(i, "value" + i, 7 + i % 5);
+            assertTrue(statistics.getSizeInBytes() <= 100);
+        }
+        assertEquals(statistics.getEntryCount(), cache.keySet().size());
+
+        cache.resize(49, 60);
+        assertTrue(statistics.getSizeInBytes() <= 100);
+        assertEquals("value49", cache.get(49));
+    }
+
+    @Test
+    public void keepsEntryLargerThanLimit() {
+        CacheStatistics statistics = new CacheStatistics();
+        BoundedCache<String, String> cache = new BoundedCache<>(10, statistics);
+        cache.put("a", "A", 5);
+        cache.put("b", "B", 50);
+
+        assertNull(cache.get("a"));
+        assertEquals("B", cache.get("b"));
+        assertEquals(50, statistics.getSizeInBytes());
+    }
+
+    @Test
+    public void limitIsPerCache() {
+        CacheStatistics statistics = new CacheStatistics();
+        BoundedCache<String, String> first = new BoundedCache<>(20, statistics);
+        BoundedCache<String, String> second = new BoundedCache<>(20, statistics);
+        first.put("a", "A", 20);
+        second.put("b", "B", 20);
+
+        assertEquals("A", first.get("a"));
+        assertEquals("B", second.get("b"));
+        assertEquals(40, statistics.getSizeInBytes());
+        assertEquals(0, statistics.getEvictionCount());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachePackTest {
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = File.createTempFile("teavm-cache-pack", "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void readsFlushedEntries() throws IOException {
+        CachePack pack = new CachePack(directory, "test");
+        pack.put("foo", bytes("foo-content"));
+        pack.put("bar", bytes("bar-content"));
+        pack.flush();
+
+        pack = new CachePack(directory, "test");
+        assertEquals("foo-content", read(pack, "foo"));
+        assertEquals("bar-content", read(pack, "bar"));
+        assertNull(pack.open("baz"));
+        assertTrue(pack.getTimestamp("foo") > 0);
+        assertEquals(-1, pack.getTimestamp("baz"));
+    }
+
+    @Test
+    public void replacesEntries() throws IOException {
+        CachePack pack = new CachePack(directory, "test");
+        pack.put("foo", bytes("first"));
+        pack.flush();
+        pack.put("foo", bytes("second"));
+        pack.flush();
+
+        pack = new CachePack(directory, "test");
+        assertEquals("second", read(pack, "foo"));
+    }
+
+    @Test
+    public void compactsGarbage() throws IOException {
+        byte[] large = new byte[1 << 20];
+        CachePack pack = new CachePack(directory, "test");
+        pack.put("small", bytes("small"));
+        for (int i = 0; i < 4; ++i) {
+            pack.put("large", large);
+            pack.flush();
+        }
+
+        assertTrue(dataSize() < 3 * large.length);
+        pack = new CachePack(directory, "test");
+        assertEquals("small", read(pack, "small"));
+        assertEquals(large.length, pack.open("large").available());
+    }
+
+    @Test
+    public void limitsSegmentCount() throws IOException {
+        CachePack pack = new CachePack(directory, "test");
+        for (int i = 0; i < 100; ++i) {
+            pack.put("entry" + i, bytes("content" + i));
+            pack.flush();
+        }
+
+        assertTrue(segmentCount() <= 16);
+        pack = new CachePack(directory, "test");
+        for (int i = 0; i < 100; ++i) {
+            assertEquals("content" + i, read(pack, "entry" + i));
+        }
+    }
+
+    @Test
+    public void deletesUnreferencedSegments() throws IOException {
+        CachePack pack = new CachePack(directory, "test");
+        pack.put("foo", bytes("foo-content"));
+        pack.flush();
+        new File(directory, "test.teavm-index").delete();
+
+        pack = new CachePack(directory, "test");
+        assertNull(pack.open("foo"));
+        assertEquals(0, segmentCount());
+    }
+
+    @Test
+    public void ignoresDataWithoutIndex() throws IOException {
+        CachePack pack = new CachePack(directory, "test");
+        pack.put("foo", bytes("foo-content"));
+        pack.flush();
+        new File(directory, "test.teavm-index").delete();
+
+        pack = new CachePack(directory, "test");
+        assertNull(pack.open("foo"));
+    }
+
+    private long dataSize() {
+        long size = 0;
+        for (File file : directory.listFiles()) {
+            if (file.getName().endsWith(".teavm-pack")) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private int segmentCount() {
+        int count = 0;
+        for (File file : directory.listFiles()) {
+            if (file.getName().endsWith(".teavm-pack")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(CachePack pack, String key) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = pack.open(key)) {
+            byte[] buffer = new byte[256];
+            while (true) {
+                int count = input.read(buffer);
+                if (count < 0) {
+                    break;
+                }
+                output.write(buffer, 0, count);
+            }
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
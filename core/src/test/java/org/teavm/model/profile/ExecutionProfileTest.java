@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.model.profile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+import org.teavm.model.MethodReference;
+
+public class ExecutionProfileTest {
+    private static final MethodReference FOO = MethodReference.parse("org.example.A.foo(I)V");
+    private static final MethodReference BAR = MethodReference.parse("org.example.A.bar()Ljava/lang/String;");
+    private static final MethodReference BAZ = MethodReference.parse("org.example.B.baz()V");
+    private static final MethodReference UNKNOWN = MethodReference.parse("org.example.B.unknown()V");
+
+    @Test
+    public void readsWrittenProfile() throws IOException {
+        ExecutionProfile profile = new ExecutionProfile();
+        profile.setInvocationCount(FOO, 1000);
+        profile.setInvocationCount(BAR, 3);
+        profile.setInvocationCount(BAZ, 0);
+        StringWriter writer = new StringWriter();
+        profile.write(writer);
+
+        profile = ExecutionProfile.read(new StringReader(writer.toString()));
+        assertEquals(1000, profile.getInvocationCount(FOO));
+        assertEquals(3, profile.getInvocationCount(BAR));
+        assertEquals(0, profile.getInvocationCount(BAZ));
+        assertEquals(-1, profile.getInvocationCount(UNKNOWN));
+    }
+
+    @Test
+    public void mergesRepeatedEntries() throws IOException {
+        String text = ExecutionProfile.HEADER + "\n"
+                + "5 " + FOO + "\n"
+                + "\n"
+                + "# comment\n"
+                + "7 " + FOO + "\n";
+        ExecutionProfile profile = ExecutionProfile.read(new StringReader(text));
+        assertEquals(12, profile.getInvocationCount(FOO));
+    }
+
+    @Test
+    public void classifiesMethods() {
+        ExecutionProfile profile = new ExecutionProfile();
+        profile.setInvocationCount(FOO, 1000);
+        profile.setInvocationCount(BAR, 3);
+        profile.setInvocationCount(BAZ, 0);
+
+        assertTrue(profile.isHot(FOO));
+        assertFalse(profile.isHot(BAR));
+        assertFalse(profile.isCold(BAR));
+        assertTrue(profile.isCold(BAZ));
+        assertFalse(profile.isHot(UNKNOWN));
+        assertFalse(profile.isCold(UNKNOWN));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedEntry() throws IOException {
+        ExecutionProfile.read(new StringReader("foo\n"));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.teavm.runtime.GCHeapSizing.POLICY_DEFAULT;
+import static org.teavm.runtime.GCHeapSizing.POLICY_PAUSE;
+import static org.teavm.runtime.GCHeapSizing.POLICY_THROUGHPUT;
+import org.junit.Test;
+
+public class GCHeapSizingTest {
+    private static final long MB = 1024 * 1024;
+    private static final long MS = 1000 * 1000;
+    private static final int TIME_RATIO = 19;
+    private static final int MAX_PAUSE = 10_000;
+
+    @Test
+    public void defaultPolicyFollowsOccupancy() {
+        assertEquals(64 * MB, compute(POLICY_DEFAULT, 64 * MB, 20 * MB, 0, 0, 0, 0));
+        assertEquals(80 * MB, compute(POLICY_DEFAULT, 64 * MB, 40 * MB, 0, 0, 0, 0));
+        assertEquals(30 * MB, compute(POLICY_DEFAULT, 64 * MB, 10 * MB, 0, 0, 0, 0));
+        assertEquals(100 * MB, compute(POLICY_DEFAULT, 64 * MB, 10 * MB, 100 * MB, 0, 0, 0));
+    }
+
+    @Test
+    public void throughputPolicyGrowsHeapWhenGCTakesTooLong() {
+        // GC takes 10 of 50 ms, while time ratio 19 allows 2.5 ms
+        assertEquals(64 * MB, compute(POLICY_DEFAULT, 64 * MB, 20 * MB, 0, 10 * MS, 10 * MS, 40 * MS));
+        assertEquals(128 * MB, compute(POLICY_THROUGHPUT, 64 * MB, 20 * MB, 0, 10 * MS, 10 * MS, 40 * MS));
+        assertEquals(128 * MB, compute(POLICY_THROUGHPUT, 64 * MB, 10 * MB, 0, 10 * MS, 10 * MS, 40 * MS));
+    }
+
+    @Test
+    public void throughputPolicyKeepsHeapNearTimeLimit() {
+        // GC takes 3 of 100 ms, limit is 5 ms
+        assertEquals(30 * MB, compute(POLICY_DEFAULT, 64 * MB, 10 * MB, 0, 3 * MS, 3 * MS, 97 * MS));
+        assertEquals(64 * MB, compute(POLICY_THROUGHPUT, 64 * MB, 10 * MB, 0, 3 * MS, 3 * MS, 97 * MS));
+    }
+
+    @Test
+    public void throughputPolicyShrinksHeapWhenGCIsCheap() {
+        // GC takes 1 of 100 ms, limit is 5 ms
+        assertEquals(30 * MB, compute(POLICY_THROUGHPUT, 64 * MB, 10 * MB, 0, MS, MS, 99 * MS));
+    }
+
+    @Test
+    public void throughputPolicyAcceptsZeroTimeRatio() {
+        assertEquals(30 * MB, GCHeapSizing.computeHeapSize(POLICY_THROUGHPUT, 64 * MB, 10 * MB, 0,
+                10 * MS, 10 * MS, 40 * MS, 0, MAX_PAUSE));
+    }
+
+    @Test
+    public void pausePolicyShrinksHeapAfterLongPause() {
+        assertEquals(64 * MB, compute(POLICY_DEFAULT, 64 * MB, 20 * MB, 0, 20 * MS, 0, 0));
+        assertEquals(30 * MB, compute(POLICY_PAUSE, 64 * MB, 20 * MB, 0, 20 * MS, 0, 0));
+        assertEquals(60 * MB, compute(POLICY_PAUSE, 64 * MB, 40 * MB, 0, 20 * MS, 0, 0));
+    }
+
+    @Test
+    public void pausePolicyKeepsHeapAfterShortPause() {
+        assertEquals(64 * MB, compute(POLICY_PAUSE, 64 * MB, 20 * MB, 0, 5 * MS, 0, 0));
+        assertEquals(80 * MB, compute(POLICY_PAUSE, 64 * MB, 40 * MB, 0, 5 * MS, 0, 0));
+    }
+
+    @Test
+    public void pausePolicyHonorsRequestedSize() {
+        assertEquals(100 * MB, compute(POLICY_PAUSE, 64 * MB, 40 * MB, 100 * MB, 20 * MS, 0, 0));
+    }
+
+    private static long compute(int policy, long available, long occupied, long requested, long collectionTime,
+            long gcTimeAverage, long mutatorTimeAverage) {
+        return GCHeapSizing.computeHeapSize(policy, available, occupied, requested, collectionTime,
+                gcTimeAverage, mutatorTimeAverage, TIME_RATIO, MAX_PAUSE);
+    }
+}
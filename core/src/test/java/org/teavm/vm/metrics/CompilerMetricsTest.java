@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class CompilerMetricsTest {
+    @Test
+    public void writesJson() throws IOException {
+        CompilerMetrics metrics = new CompilerMetrics();
+        metrics.startPhase("link").complete();
+        metrics.getOptimization("org.teavm.model.optimization.GlobalValueNumbering").record(5000, true);
+        metrics.getOptimization("org.teavm.model.optimization.GlobalValueNumbering").record(3000, false);
+        metrics.getCache(CompilerMetrics.PROGRAM_CACHE).record(true);
+        metrics.getCache(CompilerMetrics.PROGRAM_CACHE).record(false);
+        metrics.methodOptimized(3, true);
+        metrics.methodOptimized(1, false);
+        metrics.optimizationLimitReached();
+
+        StringWriter writer = new StringWriter();
+        metrics.write(writer, MetricsFormat.JSON);
+        String json = writer.toString();
+
+        assertTrue(json.contains("{ \"name\": \"link\", \"startMicros\": "));
+        assertTrue(json.contains("\"methods\": { \"optimized\": 2, \"changed\": 1, \"fixpointIterations\": 4, "
+                + "\"maxFixpointIterations\": 3, \"iterationLimitReached\": 1 }"));
+        assertTrue(json.contains("{ \"name\": \"org.teavm.model.optimization.GlobalValueNumbering\", "
+                + "\"invocations\": 2, \"changes\": 1, \"timeMicros\": 8 }"));
+        assertTrue(json.contains("{ \"name\": \"program\", \"hits\": 1, \"misses\": 1 }"));
+    }
+
+    @Test
+    public void sortsOptimizationsByName() throws IOException {
+        CompilerMetrics metrics = new CompilerMetrics();
+        metrics.getOptimization("org.teavm.model.optimization.UnusedVariableElimination").record(1000, false);
+        metrics.getOptimization("com.example.UnusedVariableElimination").record(1000, true);
+        metrics.getOptimization("org.teavm.model.optimization.GlobalValueNumbering").record(1000, false);
+
+        StringWriter writer = new StringWriter();
+        metrics.write(writer, MetricsFormat.JSON);
+        String json = writer.toString();
+
+        int custom = json.indexOf("\"com.example.UnusedVariableElimination\"");
+        int gvn = json.indexOf("\"org.teavm.model.optimization.GlobalValueNumbering\"");
+        int uve = json.indexOf("\"org.teavm.model.optimization.UnusedVariableElimination\"");
+        assertTrue(custom >= 0);
+        assertTrue(custom < gvn);
+        assertTrue(gvn < uve);
+    }
+
+    @Test
+    public void writesChromeTraceForCompletePhasesOnly() throws IOException {
+        CompilerMetrics metrics = new CompilerMetrics();
+        metrics.startPhase("dependency \"analysis\"").complete();
+        metrics.startPhase("emit");
+
+        StringWriter writer = new StringWriter();
+        metrics.write(writer, MetricsFormat.CHROME_TRACE);
+        String trace = writer.toString();
+
+        assertTrue(trace.startsWith("{\n  \"traceEvents\": [\n    { \"name\": \"dependency \\\"analysis\\\"\", "
+                + "\"cat\": \"phase\", \"ph\": \"X\""));
+        assertEquals(-1, trace.indexOf("\"emit\""));
+        assertTrue(trace.contains("\"otherData\": {"));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+"use strict";
+
+var weakRefs = [];
+var registrations = [];
+
+function TestWeakRef(target) {
+    this.target = target;
+    weakRefs.push(this);
+}
+TestWeakRef.prototype.deref = function() {
+    return this.target;
+};
+
+function TestFinalizationRegistry(callback) {
+    this.callback = callback;
+}
+TestFinalizationRegistry.prototype.register = function(target, heldValue) {
+    registrations.push({ target: target, heldValue: heldValue, registry: this });
+};
+
+function collectGarbage() {
+    var i;
+    for (i = 0; i < weakRefs.length; ++i) {
+        if (typeof weakRefs[i].target !== "undefined" && weakRefs[i].target.garbage) {
+            weakRefs[i].target = undefined;
+        }
+    }
+    weakRefs = weakRefs.filter(function(ref) {
+        return typeof ref.target !== "undefined";
+    });
+    var finalized = registrations.filter(function(registration) {
+        return registration.target.garbage;
+    });
+    registrations = registrations.filter(function(registration) {
+        return !registration.target.garbage;
+    });
+    for (i = 0; i < finalized.length; ++i) {
+        finalized[i].registry.callback(finalized[i].heldValue);
+    }
+}
+
+function $rt_stringHash(s) {
+    var hash = 0;
+    for (var i = 0; i < s.value.length; ++i) {
+        hash = (31 * hash + s.value.charCodeAt(i)) | 0;
+    }
+    return hash;
+}
+
+function $rt_stringEquals(a, b) {
+    return a.value === b.value;
+}
+
+function str(value) {
+    return { value: value, garbage: false };
+}
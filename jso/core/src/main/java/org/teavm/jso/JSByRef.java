@@ -24,6 +24,19 @@ import java.lang.annotation.Target;
  * <p>Marks parameters of JavaScript methods that should be passed by reference.
  * This annotation is only applicable to parameters of array type. More specifically:
  * to: byte[], short[], char[], int[], float[], double[] or T[], where T is JSObject.</p>
+ *
+ * <p>Primitive arrays are passed as the underlying typed array (for example, <code>Int32Array</code>
+ * for int[]) without copying, so changes made by JavaScript code are visible to Java and vice versa.</p>
+ *
+ * <p>When put on a method, marks its return value as passed by reference. In this case JavaScript
+ * may return any typed array or <code>DataView</code>. If element type does not match the Java array type,
+ * byte views (<code>Int8Array</code>, <code>Uint8Array</code>, <code>Uint8ClampedArray</code> and
+ * <code>DataView</code>) are seen as a view of the same buffer with the proper element type (for example,
+ * <code>Uint8Array</code> is seen as byte[] with the same content reinterpreted as signed values).
+ * Other typed arrays, and byte views which offset or length is not a multiple of element size,
+ * are copied element by element.
+ * The annotation is honoured by {@link JSBody} methods, methods of JavaScript interfaces, properties, indexers
+ * and by Java methods called from {@link JSBody} scripts.</p>
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ ElementType.PARAMETER, ElementType.METHOD })
@@ -323,9 +323,7 @@ class JSClassProcessor {
         }
 
         boolean returnByRef = method.getAnnotations().get(JSByRef.class.getName()) != null;
-        if (returnByRef && !typeHelper.isSupportedByRefType(method.getResultType())) {
-            diagnostics.error(callLocation, "Method {{m0}} is marked with @JSByRef, but does not return valid "
-                    + "array type", method.getReference());
+        if (returnByRef && !validateReturnByRef(method, callLocation)) {
             return false;
         }
 
@@ -373,9 +371,13 @@ class JSClassProcessor {
                         : cutPrefix(method.getName(), 3);
             }
             Variable result = invoke.getReceiver() != null ? program.createVariable() : null;
+            boolean returnByRef = method.getAnnotations().get(JSByRef.class.getName()) != null;
+            if (returnByRef && !validateReturnByRef(method, callLocation)) {
+                return false;
+            }
             addPropertyGet(propertyName, invoke.getInstance(), result, invoke.getLocation(), pure);
             if (result != null) {
-                result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(), false);
+                result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(), returnByRef);
                 copyVar(result, invoke.getReceiver(), invoke.getLocation());
             }
             return true;
@@ -385,8 +387,12 @@ class JSClassProcessor {
             if (propertyName == null) {
                 propertyName = cutPrefix(method.getName(), 3);
             }
+            boolean byRef = isParameterByRef(method, 0);
+            if (byRef && !validateParameterByRef(method, 0, callLocation)) {
+                return false;
+            }
             Variable wrapped = marshaller.wrapArgument(callLocation, invoke.getArguments().get(0),
-                    method.parameterType(0), false);
+                    method.parameterType(0), byRef);
             addPropertySet(propertyName, invoke.getInstance(), wrapped, invoke.getLocation(), pure);
             return true;
         }
@@ -403,20 +409,28 @@ class JSClassProcessor {
 
     private boolean processIndexer(MethodReader method, CallLocation callLocation, InvokeInstruction invoke) {
         if (isProperGetIndexer(method.getDescriptor())) {
+            boolean returnByRef = method.getAnnotations().get(JSByRef.class.getName()) != null;
+            if (returnByRef && !validateReturnByRef(method, callLocation)) {
+                return false;
+            }
             Variable result = invoke.getReceiver() != null ? program.createVariable() : null;
             addIndexerGet(invoke.getInstance(), marshaller.wrapArgument(callLocation, invoke.getArguments().get(0),
                     method.parameterType(0), false), result, invoke.getLocation());
             if (result != null) {
-                result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(), false);
+                result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(), returnByRef);
                 copyVar(result, invoke.getReceiver(), invoke.getLocation());
             }
             return true;
         }
         if (isProperSetIndexer(method.getDescriptor())) {
+            boolean byRef = isParameterByRef(method, 1);
+            if (byRef && !validateParameterByRef(method, 1, callLocation)) {
+                return false;
+            }
             Variable index = marshaller.wrapArgument(callLocation, invoke.getArguments().get(0),
                     method.parameterType(0), false);
             Variable value = marshaller.wrapArgument(callLocation, invoke.getArguments().get(1),
-                    method.parameterType(1), false);
+                    method.parameterType(1), byRef);
             addIndexerSet(invoke.getInstance(), index, value, invoke.getLocation());
             return true;
         }
@@ -455,6 +469,29 @@ class JSClassProcessor {
         return true;
     }
 
+    private boolean isParameterByRef(MethodReader method, int index) {
+        return method.parameterAnnotation(index).get(JSByRef.class.getName()) != null;
+    }
+
+    private boolean validateParameterByRef(MethodReader method, int index, CallLocation callLocation) {
+        if (!typeHelper.isSupportedByRefType(method.parameterType(index))) {
+            diagnostics.error(callLocation, "Method {{m0}} is not a proper native JavaScript method "
+                    + "declaration: its " + (index + 1) + "th parameter is declared as JSByRef, "
+                    + "which has incompatible type", method.getReference());
+            return false;
+        }
+        return true;
+    }
+
+    private boolean validateReturnByRef(MethodReader method, CallLocation callLocation) {
+        if (!typeHelper.isSupportedByRefType(method.getResultType())) {
+            diagnostics.error(callLocation, "Method {{m0}} is marked with @JSByRef, but does not return valid "
+                    + "array type", method.getReference());
+            return false;
+        }
+        return true;
+    }
+
     private boolean processMethod(MethodReader method, CallLocation callLocation, InvokeInstruction invoke) {
         String name = method.getName();
 
@@ -470,6 +507,10 @@ class JSClassProcessor {
         if (!validateSignature(method, callLocation, byRefParams)) {
             return false;
         }
+        boolean returnByRef = method.getAnnotations().get(JSByRef.class.getName()) != null;
+        if (returnByRef && !validateReturnByRef(method, callLocation)) {
+            return false;
+        }
 
         Variable result = invoke.getReceiver() != null ? program.createVariable() : null;
         InvokeInstruction newInvoke = new InvokeInstruction();
@@ -489,7 +530,7 @@ class JSClassProcessor {
         newInvoke.setArguments(newArguments.toArray(new Variable[0]));
         replacement.add(newInvoke);
         if (result != null) {
-            result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(), false);
+            result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(), returnByRef);
             copyVar(result, invoke.getReceiver(), invoke.getLocation());
         }
 
@@ -657,8 +698,9 @@ class JSClassProcessor {
         }
         Variable[] args = new Variable[callee.parameterCount()];
         for (int i = 0; i < callee.parameterCount(); ++i) {
+            boolean byRef = isParameterByRef(callee, i) && validateParameterByRef(callee, i, location);
             args[i] = marshaller.unwrapReturnValue(location, program.variableAt(paramIndex++),
-                    callee.parameterType(i), false);
+                    callee.parameterType(i), byRef);
         }
         insn.setArguments(args);
         if (callee.getResultType() != ValueType.VOID) {
@@ -670,7 +712,9 @@ class JSClassProcessor {
         ExitInstruction exit = new ExitInstruction();
         if (insn.getReceiver() != null) {
             replacement.clear();
-            exit.setValueToReturn(marshaller.wrap(insn.getReceiver(), callee.getResultType(), null, false));
+            boolean byRef = callee.getAnnotations().get(JSByRef.class.getName()) != null
+                    && validateReturnByRef(callee, location);
+            exit.setValueToReturn(marshaller.wrap(insn.getReceiver(), callee.getResultType(), null, byRef));
             block.addAll(replacement);
         }
         block.add(exit);
@@ -182,34 +182,34 @@ public class JSNativeGenerator implements Injector, DependencyPlugin, Generator
                 break;
 
             case "dataToByteArray":
-                writer.append("$rt_wrapArray($rt_bytecls(),").ws();
+                writer.append("$rt_wrapTypedArray($rt_bytecls(),").ws();
                 context.writeExpr(context.getArgument(0), Precedence.min());
-                writer.append(")");
+                writer.append(",").ws().append("Int8Array)");
                 break;
             case "dataToShortArray":
-                writer.append("$rt_wrapArray($rt_shortcls(),").ws();
+                writer.append("$rt_wrapTypedArray($rt_shortcls(),").ws();
                 context.writeExpr(context.getArgument(0), Precedence.min());
-                writer.append(")");
+                writer.append(",").ws().append("Int16Array)");
                 break;
             case "dataToCharArray":
-                writer.append("$rt_wrapArray($rt_charcls(),").ws();
+                writer.append("$rt_wrapTypedArray($rt_charcls(),").ws();
                 context.writeExpr(context.getArgument(0), Precedence.min());
-                writer.append(")");
+                writer.append(",").ws().append("Uint16Array)");
                 break;
             case "dataToIntArray":
-                writer.append("$rt_wrapArray($rt_intcls(),").ws();
+                writer.append("$rt_wrapTypedArray($rt_intcls(),").ws();
                 context.writeExpr(context.getArgument(0), Precedence.min());
-                writer.append(")");
+                writer.append(",").ws().append("Int32Array)");
                 break;
             case "dataToFloatArray":
-                writer.append("$rt_wrapArray($rt_floatcls(),").ws();
+                writer.append("$rt_wrapTypedArray($rt_floatcls(),").ws();
                 context.writeExpr(context.getArgument(0), Precedence.min());
-                writer.append(")");
+                writer.append(",").ws().append("Float32Array)");
                 break;
             case "dataToDoubleArray":
-                writer.append("$rt_wrapArray($rt_doublecls(),").ws();
+                writer.append("$rt_wrapTypedArray($rt_doublecls(),").ws();
                 context.writeExpr(context.getArgument(0), Precedence.min());
-                writer.append(")");
+                writer.append(",").ws().append("Float64Array)");
                 break;
             case "dataToArray":
                 writer.append("$rt_wrapArray($rt_objcls(),").ws();
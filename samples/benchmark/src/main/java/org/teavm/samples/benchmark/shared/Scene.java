@@ -136,12 +136,9 @@ public class Scene {
         long timeToCalculate = currentTime - lastCalculated;
         int count = 5;
         while (timeToCalculate > 10) {
-            int period = (int) ((relativeTime + 5000) / 10000);
-            reel.applyTorque(period % 2 == 0 ? 8f : -8f);
-            world.step(0.01f, 20, 40);
+            step();
             lastCalculated += 10;
             timeToCalculate -= 10;
-            relativeTime += 10;
             if (count-- == 0) {
                 hasUnfinishedComputations = true;
                 return;
@@ -150,6 +147,13 @@ public class Scene {
         hasUnfinishedComputations = false;
     }
 
+    public void step() {
+        int period = (int) ((relativeTime + 5000) / 10000);
+        reel.applyTorque(period % 2 == 0 ? 8f : -8f);
+        world.step(0.01f, 20, 40);
+        relativeTime += 10;
+    }
+
     public int timeUntilNextStep() {
         if (hasUnfinishedComputations) {
             return 0;
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.benchmark.teavm;
+
+import org.teavm.samples.benchmark.shared.Scene;
+
+/**
+ * Runs fixed number of simulation steps without any UI and reports time spent. Used to compare native builds,
+ * for example build optimized with execution profile against regular one.
+ */
+public final class ConsoleBenchmarkStarter {
+    private static final int DEFAULT_STEPS = 5000;
+    private static final int REPORT_INTERVAL = 500;
+
+    private ConsoleBenchmarkStarter() {
+    }
+
+    public static void main(String[] args) {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_STEPS;
+        Scene scene = new Scene();
+
+        long start = System.nanoTime();
+        long intervalStart = start;
+        for (int i = 1; i <= steps; ++i) {
+            scene.step();
+            if (i % REPORT_INTERVAL == 0) {
+                long now = System.nanoTime();
+                System.out.println("Steps " + (i - REPORT_INTERVAL + 1) + "-" + i + ": "
+                        + (now - intervalStart) / 1_000_000.0 + " ms");
+                intervalStart = now;
+            }
+        }
+        long total = System.nanoTime() - start;
+        System.out.println("Total: " + steps + " steps in " + total / 1_000_000.0 + " ms");
+    }
+}
@@ -0,0 +1,3 @@
+export LC_ALL=C
+SOURCE_DIR=$(pwd)
+gcc -O2 -pthread -lrt -lm all.c -o run_test
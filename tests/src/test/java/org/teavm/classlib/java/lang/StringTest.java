@@ -320,4 +320,41 @@ public class StringTest {
         assertFalse(new String(new char[] { ' ', 'x', ' ' }).isBlank());
         assertFalse(new String(new char[] { 'a', ' ' }).isBlank());
     }    
+
+    @Test
+    public void latin1AndUtf16StringsMixed() {
+        String latin1 = new String(new char[] { 'c', 'a', 'f', '\u00E9' });
+        String utf16 = new String(new char[] { 'c', 'a', 'f', '\u00E9', '\u0401' });
+        assertEquals(4, latin1.length());
+        assertEquals('\u00E9', latin1.charAt(3));
+        assertEquals("caf\u00E9", latin1);
+        assertEquals("caf\u00E9".hashCode(), latin1.hashCode());
+        assertEquals(latin1, utf16.substring(0, 4));
+        assertEquals(latin1.hashCode(), utf16.substring(0, 4).hashCode());
+        assertEquals(utf16, latin1 + "\u0401");
+        assertTrue(utf16.startsWith(latin1));
+        assertTrue(latin1.compareTo(utf16) < 0);
+        assertEquals("CAF\u00C9", latin1.toUpperCase());
+        assertArrayEquals(new char[] { 'c', 'a', 'f', '\u00E9' }, latin1.toCharArray());
+    }
+
+    @Test
+    public void latin1StringSearched() {
+        String str = new String(new char[] { 'a', '\u00FF', 'b', '\u00FF' });
+        assertEquals(1, str.indexOf('\u00FF'));
+        assertEquals(3, str.lastIndexOf('\u00FF'));
+        assertEquals(-1, str.indexOf('\u01FF'));
+        assertEquals(-1, str.lastIndexOf('\u01FF'));
+        assertEquals(-1, str.indexOf(0x1F600));
+        assertEquals(2, str.indexOf("b\u00FF"));
+        assertEquals("\u00FFb", str.substring(1, 3));
+    }
+
+    @Test
+    public void latin1StringEncoded() throws UnsupportedEncodingException {
+        String str = new String(new byte[] { 'a', (byte) 0xC3, (byte) 0xA9 }, "UTF-8");
+        assertEquals("a\u00E9", str);
+        assertArrayEquals(new byte[] { 'a', (byte) 0xC3, (byte) 0xA9 }, str.getBytes("UTF-8"));
+        assertArrayEquals(new byte[] { 'a', (byte) 0xE9 }, str.getBytes("ISO-8859-1"));
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.management;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class ManagementFactoryTest {
+    @Test
+    public void heapUsageConsistent() {
+        MemoryUsage usage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        assertTrue(usage.getUsed() <= usage.getCommitted());
+        assertTrue(usage.getMax() < 0 || usage.getCommitted() <= usage.getMax());
+    }
+
+    @Test
+    public void collectionsCounted() {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean collector : collectors) {
+            assertNotNull(collector.getName());
+        }
+        long countBefore = totalCollectionCount(collectors);
+        System.gc();
+        long countAfter = totalCollectionCount(collectors);
+
+        // JavaScript target does not report collections at all
+        if (countBefore >= 0) {
+            assertTrue("Collection count should grow after System.gc(): " + countBefore + " -> " + countAfter,
+                    countAfter > countBefore);
+        } else {
+            assertEquals(-1, countAfter);
+        }
+    }
+
+    private static long totalCollectionCount(List<GarbageCollectorMXBean> collectors) {
+        long result = -1;
+        for (GarbageCollectorMXBean collector : collectors) {
+            long count = collector.getCollectionCount();
+            if (count >= 0) {
+                result = Math.max(result, 0) + count;
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void memoryUsageToString() {
+        MemoryUsage usage = new MemoryUsage(1024, 2048, 4096, 8192);
+        assertEquals("init = 1024(1K) used = 2048(2K) committed = 4096(4K) max = 8192(8K)", usage.toString());
+    }
+
+    @Test
+    public void memoryUsageValidated() {
+        try {
+            new MemoryUsage(0, 4096, 2048, -1);
+            fail("Used memory exceeding committed memory should be rejected");
+        } catch (IllegalArgumentException e) {
+            // ok
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.dependency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.classlib.java.lang.IntegerTest;
+import org.teavm.classlib.java.lang.StringBuilderTest;
+import org.teavm.classlib.java.lang.StringTest;
+import org.teavm.classlib.java.util.ArrayListTest;
+import org.teavm.classlib.java.util.CollectionsTest;
+import org.teavm.classlib.java.util.LinkedHashMapTest;
+import org.teavm.classlib.java.util.TreeMapTest;
+import org.teavm.classlib.java.util.regex.PatternTest;
+import org.teavm.classlib.java.util.stream.CollectorsTest;
+import org.teavm.classlib.java.util.stream.StreamTest;
+import org.teavm.diagnostics.DefaultProblemTextConsumer;
+import org.teavm.diagnostics.Problem;
+import org.teavm.model.FieldReference;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ValueType;
+import org.teavm.vm.ExceptionHandlingTest;
+import org.teavm.vm.LambdaTest;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMPhase;
+import org.teavm.vm.TeaVMProgressFeedback;
+import org.teavm.vm.TeaVMProgressListener;
+import org.teavm.vm.VirtualCallTest;
+
+public class ParallelDependencyAnalyzerTest {
+    private static final Class<?>[] TEST_CLASSES = { IntegerTest.class, StringBuilderTest.class, StringTest.class,
+            ArrayListTest.class, CollectionsTest.class, LinkedHashMapTest.class, TreeMapTest.class,
+            PatternTest.class, CollectorsTest.class, StreamTest.class, ExceptionHandlingTest.class,
+            LambdaTest.class, VirtualCallTest.class };
+
+    @Test
+    public void producesSameResultAsPreciseAnalyzer() {
+        Map<String, String> expected = analyze(PreciseDependencyAnalyzer::new);
+        Map<String, String> actual = analyze(ParallelDependencyAnalyzer.factory(4));
+
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String key : expected.keySet()) {
+            assertEquals(key, expected.get(key), actual.get(key));
+        }
+    }
+
+    private static void entryPoint() {
+    }
+
+    private Map<String, String> analyze(DependencyAnalyzerFactory factory) {
+        TeaVM vm = new TeaVMBuilder(new JavaScriptTarget())
+                .setClassLoader(ParallelDependencyAnalyzerTest.class.getClassLoader())
+                .setDependencyAnalyzerFactory(factory)
+                .build();
+        vm.setProgressListener(new TeaVMProgressListener() {
+            @Override
+            public TeaVMProgressFeedback phaseStarted(TeaVMPhase phase, int count) {
+                return phase == TeaVMPhase.DEPENDENCY_ANALYSIS
+                        ? TeaVMProgressFeedback.CONTINUE
+                        : TeaVMProgressFeedback.CANCEL;
+            }
+
+            @Override
+            public TeaVMProgressFeedback progressReached(int progress) {
+                return TeaVMProgressFeedback.CONTINUE;
+            }
+        });
+        vm.add(new DependencyTestPatcher(ParallelDependencyAnalyzerTest.class.getName(), "entryPoint"));
+        vm.add(new TestMethodsListener());
+        vm.installPlugins();
+        vm.entryPoint(ParallelDependencyAnalyzerTest.class.getName());
+        vm.build(fileName -> new ByteArrayOutputStream(), "out");
+
+        Map<String, String> result = new TreeMap<>();
+        DependencyInfo info = vm.getDependencyInfo();
+        for (String className : info.getReachableClasses()) {
+            result.put("class " + className, "");
+        }
+        for (MethodReference method : info.getReachableMethods()) {
+            MethodDependencyInfo methodDep = info.getMethod(method);
+            StringBuilder sb = new StringBuilder();
+            sb.append("used: ").append(methodDep.isUsed()).append(", missing: ").append(methodDep.isMissing());
+            for (int i = 0; i < methodDep.getVariableCount(); ++i) {
+                sb.append("\n  ").append(i).append(": ").append(types(methodDep.getVariable(i)));
+            }
+            sb.append("\n  result: ").append(types(methodDep.getResult()));
+            sb.append("\n  thrown: ").append(types(methodDep.getThrown()));
+            result.put("method " + method, sb.toString());
+        }
+        for (FieldReference field : info.getReachableFields()) {
+            result.put("field " + field, types(info.getField(field).getValue()));
+        }
+        DefaultProblemTextConsumer problemText = new DefaultProblemTextConsumer();
+        List<Problem> problems = vm.getProblemProvider().getProblems();
+        for (int i = 0; i < problems.size(); ++i) {
+            problemText.clear();
+            problems.get(i).render(problemText);
+            result.put("problem " + i, problemText.getText());
+        }
+        return result;
+    }
+
+    private static String types(ValueDependencyInfo value) {
+        if (value == null) {
+            return "-";
+        }
+        String[] types = value.getTypes();
+        Arrays.sort(types);
+        return Arrays.toString(types);
+    }
+
+    static class TestMethodsListener extends AbstractDependencyListener {
+        @Override
+        public void started(DependencyAgent agent) {
+            for (Class<?> testClass : TEST_CLASSES) {
+                List<MethodReference> methods = new ArrayList<>();
+                methods.add(new MethodReference(testClass.getName(), "<init>", ValueType.VOID));
+                for (Method method : testClass.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(Test.class)) {
+                        methods.add(new MethodReference(testClass.getName(), method.getName(), ValueType.VOID));
+                    }
+                }
+                for (MethodReference methodRef : methods) {
+                    MethodDependency method = agent.linkMethod(methodRef);
+                    method.getVariable(0).propagate(agent.getType(testClass.getName()));
+                    method.use();
+                }
+            }
+        }
+    }
+}
@@ -168,6 +168,48 @@ public class ConversionTest {
         assertEquals(99, first[0]);
     }
 
+    @Test
+    public void returnsArrayByRefFromInterface() {
+        int[] first = { 23, 42 };
+        int[] second = createByRefMutator().identity(first);
+        second[0] = 99;
+        assertEquals(99, first[0]);
+    }
+
+    @Test
+    public void reinterpretsTypedArrayReturnedByRef() {
+        byte[] array = createUnsignedBytes();
+        assertEquals(3, array.length);
+        assertEquals(-56, array[0]);
+        array[1] = 5;
+        assertEquals(5, unsignedByteAt(array, 1));
+    }
+
+    @Test
+    public void passesPropertyByRef() {
+        ByRefHolder holder = createByRefHolder();
+        float[] data = { 1, 2 };
+        holder.setData(data);
+        holder.getData()[1] = 3;
+        assertEquals(3, data[1], 0.01);
+    }
+
+    @Test
+    public void copiesUnalignedTypedArrayReturnedByRef() {
+        short[] array = createUnalignedBytes();
+        assertEquals(3, array.length);
+        assertEquals(1, array[0]);
+        assertEquals(3, array[2]);
+    }
+
+    @Test
+    public void convertsNonByteTypedArrayReturnedByRef() {
+        int[] array = createFloats();
+        assertEquals(2, array.length);
+        assertEquals(1, array[0]);
+        assertEquals(2, array[1]);
+    }
+
     @JSBody(params = { "a", "b", "c", "d", "e", "f", "g", "h" }, script = ""
             + "return '' + a + ':' + b + ':' + c + ':' + d + ':' + e + ':' + f.toFixed(1) + ':'"
                     + "+ g.toFixed(1) + ':' + h;")
@@ -335,6 +377,9 @@ public class ConversionTest {
 
     private interface ByRefMutator extends JSObject {
         void mutate(@JSByRef int[] array);
+
+        @JSByRef
+        int[] identity(@JSByRef int[] array);
     }
 
     @JSBody(script = ""
@@ -343,10 +388,41 @@ public class ConversionTest {
                     + "for (var i = 0; i < array.length; ++i) {"
                         + "array[i]++;"
                     + "}"
+                + "},"
+                + "identity : function(array) {"
+                    + "return array;"
                 + "}"
             + "};")
     private static native ByRefMutator createByRefMutator();
 
+    private interface ByRefHolder extends JSObject {
+        @JSProperty
+        @JSByRef
+        float[] getData();
+
+        @JSProperty
+        void setData(@JSByRef float[] data);
+    }
+
+    @JSBody(script = "return {};")
+    private static native ByRefHolder createByRefHolder();
+
+    @JSByRef
+    @JSBody(script = "return new Uint8Array([200, 1, 2]);")
+    private static native byte[] createUnsignedBytes();
+
+    @JSByRef
+    @JSBody(script = "return new Uint8Array([0, 1, 2, 3]).subarray(1);")
+    private static native short[] createUnalignedBytes();
+
+    @JSByRef
+    @JSBody(script = "return new Float32Array([1.5, 2.5]);")
+    private static native int[] createFloats();
+
+    @JSBody(params = { "array", "index" }, script = ""
+            + "return new Uint8Array(array.buffer, array.byteOffset, array.length)[index];")
+    private static native int unsignedByteAt(@JSByRef byte[] array, int index);
+
     @JSByRef
     @JSBody(params = "array", script = "return array;")
     private static native int[] rewrap(@JSByRef int[] array);
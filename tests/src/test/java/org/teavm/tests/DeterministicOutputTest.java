@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.teavm.backend.c.CTarget;
+import org.teavm.backend.c.generate.CNameProvider;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.dependency.DependencyTestPatcher;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+import org.teavm.vm.TeaVMTarget;
+
+public class DeterministicOutputTest {
+    private static Object result;
+
+    @Test
+    public void javaScriptOutputIsStable() {
+        checkStable(JavaScriptTarget::new);
+    }
+
+    @Test
+    public void cOutputIsStable() {
+        checkStable(() -> new CTarget(new CNameProvider()));
+    }
+
+    private static void workload() {
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            groups.computeIfAbsent("g" + (i % 5), key -> new ArrayList<>()).add(i);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String key : new TreeSet<>(groups.keySet())) {
+            long sum = 0;
+            for (int value : groups.get(key)) {
+                sum += (long) value * value;
+            }
+            sb.append(key).append(':').append(sum).append(';');
+        }
+        Shape[] shapes = { new Square(2), new Circle(3) };
+        double area = 0;
+        for (Shape shape : shapes) {
+            area += shape.area();
+        }
+        try {
+            sb.append(Integer.parseInt(sb.substring(0, 2)));
+        } catch (NumberFormatException e) {
+            sb.append(e.getClass().getName());
+        }
+        result = sb.append(area).toString();
+    }
+
+    private void checkStable(Supplier<TeaVMTarget> targetFactory) {
+        MemoryBuildTarget reference = build(targetFactory.get(), 1);
+        assertFalse(reference.getNames().isEmpty());
+        assertSameOutput(reference, build(targetFactory.get(), 1));
+        assertSameOutput(reference, build(targetFactory.get(), 2));
+        assertSameOutput(reference, build(targetFactory.get(), 4));
+    }
+
+    private MemoryBuildTarget build(TeaVMTarget target, int threadCount) {
+        TeaVM vm = new TeaVMBuilder(target).setOptimizationThreadCount(threadCount).build();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        vm.add(new DependencyTestPatcher(DeterministicOutputTest.class.getName(), "workload"));
+        vm.installPlugins();
+        vm.entryPoint(DeterministicOutputTest.class.getName());
+        MemoryBuildTarget buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "classes");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        return buildTarget;
+    }
+
+    private static void assertSameOutput(MemoryBuildTarget expected, MemoryBuildTarget actual) {
+        assertEquals(new TreeSet<>(expected.getNames()), new TreeSet<>(actual.getNames()));
+        for (String name : expected.getNames()) {
+            assertArrayEquals("Output differs in " + name, expected.getContent(name), actual.getContent(name));
+        }
+    }
+
+    abstract static class Shape {
+        abstract double area();
+    }
+
+    static class Square extends Shape {
+        private final double side;
+
+        Square(double side) {
+            this.side = side;
+        }
+
+        @Override
+        double area() {
+            return side * side;
+        }
+    }
+
+    static class Circle extends Shape {
+        private final double radius;
+
+        Circle(double radius) {
+            this.radius = radius;
+        }
+
+        @Override
+        double area() {
+            return Math.PI * radius * radius;
+        }
+    }
+}
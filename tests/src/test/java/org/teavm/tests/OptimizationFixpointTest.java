@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.backend.javascript.TeaVMJavaScriptHost;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.DependencyTestPatcher;
+import org.teavm.model.BasicBlock;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.Instruction;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.Program;
+import org.teavm.model.optimization.MethodOptimization;
+import org.teavm.model.optimization.MethodOptimizationContext;
+import org.teavm.model.text.ListingBuilder;
+import org.teavm.model.util.ProgramUtils;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+public class OptimizationFixpointTest {
+    private static Object result;
+
+    @Test
+    public void advancedMatchesFullIterations() {
+        check(TeaVMOptimizationLevel.ADVANCED);
+    }
+
+    @Test
+    public void fullMatchesFullIterations() {
+        check(TeaVMOptimizationLevel.FULL);
+    }
+
+    private static void workload() {
+        Map<String, Integer> counts = new HashMap<>();
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            words.add("w" + (i % 7));
+        }
+        for (String word : words) {
+            counts.merge(word, 1, (a, b) -> a + b);
+        }
+
+        int[] array = new int[32];
+        long sum = 0;
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = i * 3 + 1;
+            sum += (long) array[i] * array[i] >>> 2;
+        }
+        try {
+            sum += Integer.parseInt(String.valueOf(counts.get("w3")));
+        } catch (NumberFormatException e) {
+            sum = -1;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append(';');
+        }
+        result = sb.toString() + sum + "/" + sum / 7.0;
+    }
+
+    private void check(TeaVMOptimizationLevel level) {
+        CapturingTarget target = new CapturingTarget();
+        TeaVM vm = new TeaVMBuilder(target).build();
+        vm.setOptimizationLevel(level);
+        vm.add(new DependencyTestPatcher(OptimizationFixpointTest.class.getName(), "workload"));
+        vm.installPlugins();
+        vm.entryPoint(OptimizationFixpointTest.class.getName());
+        vm.build(new MemoryBuildTarget(), "classes.js");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+        assertEquals(0, vm.getMetrics().getOptimizationLimitCount());
+        assertFalse(target.optimized.isEmpty());
+
+        for (MethodReference method : target.optimized.keySet()) {
+            Program program = target.original.get(method);
+            optimizeUntilFixpoint(vm, level, target.methods.get(method), program);
+            assertEquals("Program differs for " + method, listing(program), listing(target.optimized.get(method)));
+        }
+    }
+
+    private static void optimizeUntilFixpoint(TeaVM vm, TeaVMOptimizationLevel level, MethodReader method,
+            Program program) {
+        if (program.basicBlockCount() == 0) {
+            return;
+        }
+        MethodOptimizationContext context = new MethodOptimizationContext() {
+            @Override
+            public MethodReader getMethod() {
+                return method;
+            }
+
+            @Override
+            public DependencyInfo getDependencyInfo() {
+                return vm.getDependencyInfo();
+            }
+
+            @Override
+            public ClassReaderSource getClassSource() {
+                return vm.getDependencyClassSource();
+            }
+        };
+        // Unlike the compiler, don't trust optimizations to report changes, compare listings instead
+        String before;
+        do {
+            before = listing(program);
+            for (MethodOptimization optimization : TeaVM.getOptimizations(level)) {
+                optimization.optimize(context, program);
+            }
+        } while (!before.equals(listing(program)));
+    }
+
+    private static String listing(Program program) {
+        // Locations are left out, since ListingBuilder can't print locations of inlined methods
+        Program copy = ProgramUtils.copy(program);
+        for (BasicBlock block : copy.getBasicBlocks()) {
+            for (Instruction insn : block) {
+                insn.setLocation(null);
+            }
+        }
+        return new ListingBuilder().buildListing(copy, "");
+    }
+
+    // TeaVM only looks for host extensions among interfaces declared by the target class itself
+    static class CapturingTarget extends JavaScriptTarget implements TeaVMJavaScriptHost {
+        final Map<MethodReference, MethodReader> methods = new LinkedHashMap<>();
+        final Map<MethodReference, Program> original = new LinkedHashMap<>();
+        final Map<MethodReference, Program> optimized = new LinkedHashMap<>();
+
+        @Override
+        public void beforeOptimizations(Program program, MethodReader method) {
+            super.beforeOptimizations(program, method);
+            methods.put(method.getReference(), method);
+            original.put(method.getReference(), ProgramUtils.copy(program));
+        }
+
+        @Override
+        public void afterOptimizations(Program program, MethodReader method) {
+            super.afterOptimizations(program, method);
+            optimized.put(method.getReference(), ProgramUtils.copy(program));
+        }
+    }
+}
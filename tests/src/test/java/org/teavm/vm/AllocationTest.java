@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Allocation-heavy workload that leaves the heap fragmented with holes of different sizes
+ * and checks that surviving objects stay intact.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class AllocationTest {
+    private static final int ROUNDS = 16;
+    private static final int OBJECTS_PER_ROUND = 8192;
+    private static Object sink;
+
+    @Test
+    public void fragmentedHeapReused() {
+        int[][] survivors = fragmentHeap();
+        for (int i = 0; i < survivors.length; ++i) {
+            int round = i / (OBJECTS_PER_ROUND / 4);
+            int index = (i % (OBJECTS_PER_ROUND / 4)) * 4;
+            assertEquals(objectSize(index), survivors[i].length);
+            assertEquals(round * OBJECTS_PER_ROUND + index, survivors[i][0]);
+        }
+    }
+
+    static int[][] fragmentHeap() {
+        int[][] survivors = new int[ROUNDS * OBJECTS_PER_ROUND / 4][];
+        int survivorCount = 0;
+
+        for (int round = 0; round < ROUNDS; ++round) {
+            int[][] objects = new int[OBJECTS_PER_ROUND][];
+            for (int i = 0; i < objects.length; ++i) {
+                objects[i] = createObject(round, i);
+            }
+            // Keep every fourth object, so that freed memory forms holes of mixed sizes between survivors
+            for (int i = 0; i < objects.length; i += 4) {
+                survivors[survivorCount++] = objects[i];
+            }
+            for (int i = 0; i < OBJECTS_PER_ROUND; ++i) {
+                churn(i);
+            }
+        }
+        return survivors;
+    }
+
+    private static int[] createObject(int round, int index) {
+        int[] result = new int[objectSize(index)];
+        result[0] = round * OBJECTS_PER_ROUND + index;
+        return result;
+    }
+
+    private static void churn(int index) {
+        int[] a = new int[1 + index % 5];
+        int[] b = new int[1 + index % 11];
+        a[0] = b.length;
+        b[0] = a.length;
+        sink = a;
+    }
+
+    private static int objectSize(int index) {
+        return 1 + index % 13;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Times workloads of {@code *Benchmark} classes in code generated by TeaVM. Each benchmark prints a single line
+ * with mean and best time per operation and, on targets with own GC, number and time of collections during
+ * measured iterations, so that runs of the same benchmark with different target options can be compared.
+ * Test runner runs default configuration first, then optimized one, so lines come in that order.
+ */
+final class BenchmarkTimer {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 10;
+
+    private BenchmarkTimer() {
+    }
+
+    static void measure(String name, Runnable workload) {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            workload.run();
+        }
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        long[] countsBefore = new long[collectors.size()];
+        long[] timesBefore = new long[collectors.size()];
+        for (int i = 0; i < collectors.size(); ++i) {
+            countsBefore[i] = collectors.get(i).getCollectionCount();
+            timesBefore[i] = collectors.get(i).getCollectionTime();
+        }
+
+        long total = 0;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            long start = System.nanoTime();
+            workload.run();
+            long time = System.nanoTime() - start;
+            total += time;
+            best = Math.min(best, time);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("benchmark ").append(name).append(": ").append(total / ITERATIONS / 1000).append(" us/op, best ")
+                .append(best / 1000).append(" us/op");
+        for (int i = 0; i < collectors.size(); ++i) {
+            GarbageCollectorMXBean collector = collectors.get(i);
+            sb.append(", ").append(collector.getName()).append(" ")
+                    .append(collector.getCollectionCount() - countsBefore[i]).append(" in ")
+                    .append(collector.getCollectionTime() - timesBefore[i]).append(" ms");
+        }
+        System.out.println(sb);
+    }
+}
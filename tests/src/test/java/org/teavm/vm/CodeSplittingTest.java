@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.interop.SplitPoint;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Calls methods marked with {@link SplitPoint}. Run on JavaScript target with {@code teavm.junit.js.codeSplitting}
+ * property set, so that these methods are loaded from separate chunks.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class CodeSplittingTest {
+    private static int counter;
+
+    @Test
+    public void splitPointCalled() {
+        assertEquals("[1, 2, 3]", formatRange(3));
+    }
+
+    @Test
+    public void splitPointCalledTwice() {
+        assertEquals("[1]", formatRange(1));
+        assertEquals("[1, 2]", formatRange(2));
+    }
+
+    @Test
+    public void sharedCodeReachable() {
+        assertEquals("<a>", wrapFirst("a"));
+        assertEquals("<b>", wrapSecond("b"));
+    }
+
+    @Test
+    public void objectCreatedInChunkUsed() {
+        Shape shape = createSquare(3);
+        assertEquals(9, shape.area());
+        assertEquals(12, shape.perimeter());
+    }
+
+    @Test
+    public void staticStateShared() {
+        counter = 0;
+        increment();
+        increment();
+        counter++;
+        assertEquals(3, counter);
+    }
+
+    @SplitPoint
+    private static String formatRange(int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= count; ++i) {
+            if (i > 1) {
+                sb.append(", ");
+            }
+            sb.append(format(i));
+        }
+        return sb.append("]").toString();
+    }
+
+    private static String format(int value) {
+        return String.valueOf(value);
+    }
+
+    @SplitPoint
+    private static String wrapFirst(String value) {
+        return wrap(value);
+    }
+
+    @SplitPoint
+    private static String wrapSecond(String value) {
+        return wrap(value);
+    }
+
+    private static String wrap(String value) {
+        return "<" + value + ">";
+    }
+
+    @SplitPoint
+    private static Shape createSquare(int side) {
+        return new Square(side);
+    }
+
+    @SplitPoint
+    private static void increment() {
+        counter++;
+    }
+
+    interface Shape {
+        int area();
+
+        int perimeter();
+    }
+
+    static class Square implements Shape {
+        private int side;
+
+        Square(int side) {
+            this.side = side;
+        }
+
+        @Override
+        public int area() {
+            return side * side;
+        }
+
+        @Override
+        public int perimeter() {
+            return side * 4;
+        }
+    }
+}
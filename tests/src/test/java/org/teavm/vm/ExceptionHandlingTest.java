@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Checks that exceptions reach proper handlers, in any exception handling mode of the WebAssembly backend
+ * (see {@code teavm.junit.wasm.nativeExceptions} property).
+ */
+@RunWith(TeaVMTestRunner.class)
+public class ExceptionHandlingTest {
+    private static final int ITERATIONS = 10_000;
+
+    @Test
+    public void skipsHandlerOfOtherType() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            try {
+                throwAt(3, new IllegalStateException());
+            } catch (IllegalArgumentException e) {
+                sb.append("inner;");
+            }
+            sb.append("after inner;");
+        } catch (IllegalStateException e) {
+            sb.append("outer;");
+        }
+        assertEquals("outer;", sb.toString());
+    }
+
+    @Test
+    public void catchesInIntermediateFrame() {
+        assertEquals(3, catchInFrame(3));
+        assertEquals(-1, catchInFrame(-1));
+    }
+
+    @Test
+    public void restoresStateAfterCatch() {
+        int caught = 0;
+        for (int i = 0; i < 1000; ++i) {
+            try {
+                throwAt(i % 5, new RuntimeException());
+            } catch (RuntimeException e) {
+                caught++;
+            }
+        }
+        assertEquals(1000, caught);
+        assertEquals(ITERATIONS / 1000 * 1000L * 999 / 2, sumNoThrow(ITERATIONS / 1000));
+    }
+
+    @Test
+    public void callsWithoutThrow() {
+        long sum = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            try {
+                sum += add(i, i & 7);
+            } catch (IllegalStateException e) {
+                sum = -1;
+            }
+        }
+        assertEquals((long) ITERATIONS * (ITERATIONS - 1) / 2 + ITERATIONS / 8 * 28, sum);
+    }
+
+    @Test
+    public void throwAndCatch() {
+        int caught = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            try {
+                throwAt(3, new IllegalStateException());
+            } catch (IllegalStateException e) {
+                caught++;
+            }
+        }
+        assertEquals(ITERATIONS, caught);
+    }
+
+    private static long sumNoThrow(int count) {
+        long sum = 0;
+        for (int i = 0; i < 1000; ++i) {
+            sum += (long) add(i, 0) * count;
+        }
+        return sum;
+    }
+
+    private static int catchInFrame(int value) {
+        try {
+            return checkPositive(value);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static int checkPositive(int value) {
+        if (value < 0) {
+            throwAt(2, new IllegalArgumentException());
+        }
+        return value;
+    }
+
+    private static int add(int a, int b) {
+        if (a < 0) {
+            throw new IllegalStateException();
+        }
+        return a + b;
+    }
+
+    private static void throwAt(int depth, RuntimeException e) {
+        if (depth <= 0) {
+            throw e;
+        }
+        throwAt(depth - 1, e);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Keeps a large object graph alive while forcing full collections and checks that the graph survives them.
+ * Prints number and total duration of full collections, which allows to compare GC configurations,
+ * for example C target with different values of {@code teavm.junit.c.gcThreads}.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class GCStressTest {
+    private static final int NODE_COUNT = 200000;
+    private static final int ROUNDS = 16;
+
+    @Test
+    public void fullCollectionsPreserveGraph() {
+        Node[] nodes = createGraph();
+
+        GarbageCollectorMXBean fullGC = findFullCollector();
+        long countBefore = fullGC != null ? fullGC.getCollectionCount() : 0;
+        long timeBefore = fullGC != null ? fullGC.getCollectionTime() : 0;
+
+        for (int round = 0; round < ROUNDS; ++round) {
+            replaceAndCollect(nodes, round);
+        }
+
+        for (int i = 0; i < nodes.length; ++i) {
+            assertEquals(i, nodes[i].value);
+            assertEquals(i, nodes[i].payload[i % nodes[i].payload.length]);
+            if (i > 0) {
+                assertEquals((i - 1) / 2, nodes[i].parent.value);
+            }
+        }
+
+        if (fullGC != null) {
+            System.out.println("Full GC: " + (fullGC.getCollectionCount() - countBefore) + " collections in "
+                    + (fullGC.getCollectionTime() - timeBefore) + " ms");
+        }
+    }
+
+    static Node[] createGraph() {
+        Node[] nodes = new Node[NODE_COUNT];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i);
+            if (i > 0) {
+                nodes[i].parent = nodes[(i - 1) / 2];
+            }
+        }
+        return nodes;
+    }
+
+    static void replaceAndCollect(Node[] nodes, int round) {
+        // Replace every third node, so that sweep finds garbage spread across the whole heap
+        for (int i = round % 3; i < nodes.length; i += 3) {
+            Node node = new Node(i);
+            node.parent = nodes[i].parent;
+            nodes[i] = node;
+        }
+        System.gc();
+    }
+
+    private static GarbageCollectorMXBean findFullCollector() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = collector.getName();
+            if (name.contains("Full") || name.contains("Old") || name.contains("MarkSweep")) {
+                return collector;
+            }
+        }
+        return null;
+    }
+
+    static class Node {
+        int value;
+        int[] payload;
+        Node parent;
+
+        Node(int value) {
+            this.value = value;
+            payload = new int[1 + value % 7];
+            payload[value % payload.length] = value;
+        }
+    }
+}
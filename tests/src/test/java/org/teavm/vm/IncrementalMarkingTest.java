@@ -0,0 +1,112 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.junit.TeaVMTestRunner;
+import org.teavm.runtime.GC;
+
+/**
+ * Keeps a large object graph alive and moves references inside it while allocating garbage, so that marking
+ * of a full collection runs while the graph changes. Useful to run on C and WebAssembly targets with
+ * {@code teavm.junit.gcPauseBudget} set, which makes marking proceed in slices between allocations.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class IncrementalMarkingTest {
+    private static final int NODE_COUNT = 100000;
+    private static final int ROUNDS = 16;
+    private static final int SWAPS_PER_GARBAGE = 64;
+    private static Object garbage;
+
+    @Test
+    public void graphSurvivesMutationsDuringMarking() {
+        int pausesBefore = PlatformDetector.isLowLevel() ? pauseCount() : 0;
+
+        Node[] nodes = new Node[NODE_COUNT];
+        int[] childValues = new int[NODE_COUNT];
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new Node(i);
+            if (i > 0) {
+                nodes[i].parent = nodes[(i - 1) / 2];
+            }
+            nodes[i].child = new Node(NODE_COUNT + i);
+            childValues[i] = NODE_COUNT + i;
+        }
+
+        for (int round = 0; round < ROUNDS; ++round) {
+            for (int i = 0; i < nodes.length / 2; ++i) {
+                // Move children between nodes far apart in the heap, so that one of them is likely to be marked
+                // already when the other one still waits in mark queue
+                int j = nodes.length - 1 - i;
+                Node child = nodes[i].child;
+                nodes[i].child = nodes[j].child;
+                nodes[j].child = child;
+                int childValue = childValues[i];
+                childValues[i] = childValues[j];
+                childValues[j] = childValue;
+
+                if (i % SWAPS_PER_GARBAGE == 0) {
+                    garbage = new int[256];
+                }
+            }
+
+            // Store new objects into nodes that are likely to be marked already
+            for (int i = round % 5; i < nodes.length; i += 5) {
+                nodes[i].child = new Node(childValues[i]);
+            }
+        }
+
+        for (int i = 0; i < nodes.length; ++i) {
+            assertEquals(i, nodes[i].value);
+            assertEquals(i, nodes[i].payload[i % nodes[i].payload.length]);
+            if (i > 0) {
+                assertEquals((i - 1) / 2, nodes[i].parent.value);
+            }
+            Node child = nodes[i].child;
+            assertEquals(childValues[i], child.value);
+            assertEquals(childValues[i], child.payload[childValues[i] % child.payload.length]);
+        }
+
+        if (PlatformDetector.isLowLevel()) {
+            assertTrue(pauseCount() > pausesBefore);
+        }
+    }
+
+    private static int pauseCount() {
+        int count = 0;
+        for (int i = 0; i < GC.PAUSE_HISTOGRAM_SIZE; ++i) {
+            count += GC.getPauseCount(i);
+        }
+        return count;
+    }
+
+    static class Node {
+        int value;
+        int[] payload;
+        Node parent;
+        Node child;
+
+        Node(int value) {
+            this.value = value;
+            payload = new int[1 + value % 7];
+            payload[value % payload.length] = value;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import org.teavm.backend.c.CTarget;
+import org.teavm.backend.c.generate.CNameProvider;
+import org.teavm.backend.c.generate.ClassGenerator;
+import org.teavm.dependency.DependencyTestPatcher;
+import org.teavm.model.MethodReference;
+import org.teavm.model.profile.ExecutionProfile;
+
+/**
+ * Checks inline caches that C backend generates for call sites of {@link VirtualCallTest}.
+ */
+public class InlineCacheTest {
+    private static final String GUARD = "TEAVM_CLASS_OF(";
+    private static final String VIRTUAL_CALL = "TEAVM_METHOD(";
+    private static long result;
+
+    @Test
+    public void monomorphicCallDevirtualized() {
+        String code = build("callMonomorphic", null);
+        assertEquals(0, countGuards(code));
+    }
+
+    private static void callMonomorphic() {
+        result = VirtualCallTest.monomorphic(100);
+    }
+
+    @Test
+    public void bimorphicCallGuarded() {
+        String code = build("callBimorphic", null);
+        assertEquals(2, countGuards(code));
+        assertTrue(code.contains(VIRTUAL_CALL));
+    }
+
+    private static void callBimorphic() {
+        result = VirtualCallTest.bimorphic(100);
+    }
+
+    @Test
+    public void megamorphicCallNotGuarded() {
+        String code = build("callMegamorphic", null);
+        assertEquals(0, countGuards(code));
+        assertTrue(code.contains(VIRTUAL_CALL));
+    }
+
+    private static void callMegamorphic() {
+        result = VirtualCallTest.megamorphic(100);
+    }
+
+    @Test
+    public void cacheMissFallsBackToVirtualCall() {
+        assertEquals(0, countGuards(build("callDominantReceiver", null)));
+
+        ExecutionProfile profile = new ExecutionProfile();
+        profile.setInvocationCount(apply(VirtualCallTest.SkewedIncrement.class), 30);
+        profile.setInvocationCount(apply(VirtualCallTest.SkewedDouble.class), 1);
+        profile.setInvocationCount(apply(VirtualCallTest.SkewedNegate.class), 1);
+        String code = build("callDominantReceiver", profile);
+
+        // Only the dominant receiver is guarded, other receivers miss the cache and take the virtual call
+        assertEquals(1, countGuards(code));
+        int guard = code.indexOf(GUARD);
+        String guarded = code.substring(guard, code.indexOf(';', guard));
+        assertTrue(guarded, guarded.contains("VirtualCallTest_SkewedIncrement_Cls"));
+        assertTrue(guarded, guarded.contains(VIRTUAL_CALL));
+    }
+
+    private static void callDominantReceiver() {
+        result = VirtualCallTest.dominantReceiver(100);
+    }
+
+    private static MethodReference apply(Class<?> cls) {
+        return new MethodReference(cls, "apply", int.class, int.class);
+    }
+
+    private static int countGuards(String code) {
+        int count = 0;
+        int index = code.indexOf(GUARD);
+        while (index >= 0) {
+            ++count;
+            index = code.indexOf(GUARD, index + GUARD.length());
+        }
+        return count;
+    }
+
+    private String build(String methodName, ExecutionProfile profile) {
+        TeaVM vm = new TeaVMBuilder(new CTarget(new CNameProvider())).build();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        vm.setExecutionProfile(profile);
+        vm.add(new DependencyTestPatcher(InlineCacheTest.class.getName(), methodName));
+        vm.installPlugins();
+        vm.entryPoint(InlineCacheTest.class.getName());
+        MemoryBuildTarget buildTarget = new MemoryBuildTarget();
+        vm.build(buildTarget, "tmp");
+        assertTrue(vm.getProblemProvider().getSevereProblems().isEmpty());
+
+        // Workloads of VirtualCallTest may get inlined into entry methods, so call sites can end up in either file
+        StringBuilder code = new StringBuilder();
+        for (Class<?> cls : new Class<?>[] { InlineCacheTest.class, VirtualCallTest.class }) {
+            byte[] content = buildTarget.getContent(ClassGenerator.fileName(cls.getName()) + ".c");
+            assertNotNull(content);
+            code.append(new String(content, StandardCharsets.UTF_8));
+        }
+        return code.toString();
+    }
+}
@@ -16,12 +16,16 @@
 package org.teavm.vm;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.teavm.junit.TeaVMTestRunner;
 
 @RunWith(TeaVMTestRunner.class)
 public class LongTest {
+    private static final int ITERATIONS = 10_000;
+
     @Test
     public void longIntegersMultipied() {
         long a = id(1199747L);
@@ -56,7 +60,114 @@ public class LongTest {
         assertEquals(0, a / b);
     }
 
+    @Test
+    public void overflowWraps() {
+        long max = id(Long.MAX_VALUE);
+        assertEquals(Long.MIN_VALUE, max + 1);
+        assertEquals(Long.MAX_VALUE, id(Long.MIN_VALUE) - 1);
+        assertEquals(Long.MIN_VALUE, -id(Long.MIN_VALUE));
+        assertEquals(-2, max * 2);
+        assertEquals(Long.MIN_VALUE, id(Long.MIN_VALUE) / -1);
+        assertEquals(0, id(Long.MIN_VALUE) % -1);
+    }
+
+    @Test
+    public void remainderHasSignOfDividend() {
+        assertEquals(-1, id(-7) % 3);
+        assertEquals(1, id(7) % -3);
+    }
+
+    @Test
+    public void shiftsWork() {
+        long a = id(0x8000_0000_0000_0001L);
+        assertEquals(2, a << 1);
+        assertEquals(0xC000_0000_0000_0000L, a >> 1);
+        assertEquals(0x4000_0000_0000_0000L, a >>> 1);
+        assertEquals(a, a << 64);
+        assertEquals(0x1_0000_0000L, id(1) << shift(32));
+        assertEquals(1, a >>> shift(63));
+        assertEquals(-1, a >> shift(127));
+    }
+
+    @Test
+    public void bitwiseOperationsWork() {
+        long a = id(0xFF00_FF00_FF00_FF00L);
+        long b = id(0x0FF0_0FF0_0FF0_0FF0L);
+        assertEquals(0x0F00_0F00_0F00_0F00L, a & b);
+        assertEquals(0xFFF0_FFF0_FFF0_FFF0L, a | b);
+        assertEquals(0xF0F0_F0F0_F0F0_F0F0L, a ^ b);
+        assertEquals(0x00FF_00FF_00FF_00FFL, ~a);
+    }
+
+    @Test
+    public void comparisonWorks() {
+        long a = id(0x1_0000_0000L);
+        long b = id(-1);
+        assertTrue(a > b);
+        assertTrue(b < a);
+        assertTrue(a >= a);
+        assertFalse(a == b);
+        assertEquals(1, Long.compare(a, b));
+        assertEquals(-1, Long.compare(b, a));
+        assertEquals(0, Long.compare(a, id(0x1_0000_0000L)));
+    }
+
+    @Test
+    public void castsWork() {
+        long a = id(0x1234_5678_9ABC_DEF0L);
+        assertEquals(0x9ABC_DEF0, (int) a);
+        assertEquals(0x1234_5678, (int) (a >> 32));
+        assertEquals(0x1234_5678, (int) (a >>> 32));
+        assertEquals(-1L, (long) intId(-1));
+        assertEquals(3.0E9, (double) id(3_000_000_000L), 0.1);
+        assertEquals(3_000_000_000L, (long) 3.0E9);
+        assertEquals(-3L, (long) -3.7);
+    }
+
+    @Test
+    public void arraysWork() {
+        long[] array = new long[3];
+        assertEquals(0, array[0]);
+        array[1] = id(Long.MIN_VALUE);
+        array[2] = array[1] - 1;
+        assertEquals(Long.MAX_VALUE, array[2]);
+        long[] constants = { 1, -1, Long.MAX_VALUE };
+        assertEquals(Long.MAX_VALUE, constants[2]);
+        assertEquals(-1, constants[1]);
+    }
+
+    @Test
+    public void hashing() {
+        long hash = 0xCBF2_9CE4_8422_2325L;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            hash ^= i & 0xFF;
+            hash *= 0x100_0000_01B3L;
+        }
+        assertEquals(0xA886_6175_51FC_3C75L, hash);
+    }
+
+    @Test
+    public void timestamps() {
+        long base = id(1_600_000_000_123L);
+        long checksum = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            long timestamp = base + i * 37L;
+            long seconds = timestamp / 1000;
+            long millis = timestamp % 1000;
+            checksum += (seconds >>> 3) ^ millis;
+        }
+        assertEquals(2_000_000_000_847L, checksum);
+    }
+
     private static long id(long value) {
         return value;
     }
+
+    private static int intId(int value) {
+        return value;
+    }
+
+    private static int shift(int value) {
+        return value;
+    }
 }
@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class MemoryBlockTest {
+    @Test
+    public void newArraysFilledWithZeros() {
+        for (int round = 0; round < 20; ++round) {
+            int[] garbage = new int[1000 + round];
+            for (int i = 0; i < garbage.length; ++i) {
+                garbage[i] = -1;
+            }
+            consume(garbage);
+
+            long[] array = new long[round * 37];
+            for (long value : array) {
+                assertEquals(0, value);
+            }
+            Object[] objects = new Object[round * 13];
+            for (Object value : objects) {
+                assertEquals(null, value);
+            }
+        }
+    }
+
+    @Test
+    public void newObjectFieldsFilledWithZeros() {
+        for (int round = 0; round < 20; ++round) {
+            Fields fields = new Fields();
+            assertEquals(0, fields.a);
+            assertEquals(0, fields.b);
+            assertEquals(0, fields.c, 0);
+            assertEquals(null, fields.d);
+            fields.a = round + 1;
+            fields.b = round + 2;
+            fields.c = round + 3;
+            fields.d = fields;
+            consume(fields);
+        }
+    }
+
+    @Test
+    public void primitiveArraysCopied() {
+        byte[] bytes = { 1, 2, 3, 4, 5, 6, 7 };
+        byte[] byteCopy = new byte[9];
+        System.arraycopy(bytes, 1, byteCopy, 2, 5);
+        assertArrayEquals(new byte[] { 0, 0, 2, 3, 4, 5, 6, 0, 0 }, byteCopy);
+
+        int[] ints = { 10, 20, 30, 40 };
+        int[] intCopy = new int[4];
+        System.arraycopy(ints, 0, intCopy, 0, 4);
+        assertArrayEquals(ints, intCopy);
+
+        double[] doubles = { 1.5, 2.5, 3.5 };
+        double[] doubleCopy = new double[3];
+        System.arraycopy(doubles, 1, doubleCopy, 0, 2);
+        assertArrayEquals(new double[] { 2.5, 3.5, 0 }, doubleCopy, 0);
+    }
+
+    @Test
+    public void overlappingRegionsCopied() {
+        int[] forward = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        System.arraycopy(forward, 0, forward, 2, 6);
+        assertArrayEquals(new int[] { 1, 2, 1, 2, 3, 4, 5, 6 }, forward);
+
+        int[] backward = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        System.arraycopy(backward, 2, backward, 0, 6);
+        assertArrayEquals(new int[] { 3, 4, 5, 6, 7, 8, 7, 8 }, backward);
+
+        char[] chars = "abcdefgh".toCharArray();
+        System.arraycopy(chars, 1, chars, 2, 5);
+        assertEquals("abbcdefh", new String(chars));
+    }
+
+    @Test
+    public void objectArraysCopied() {
+        String[] source = { "a", "b", "c", "d" };
+        Object[] target = new Object[5];
+        System.arraycopy(source, 1, target, 1, 3);
+        assertArrayEquals(new Object[] { null, "b", "c", "d", null }, target);
+    }
+
+    @Test
+    public void emptyRangeCopied() {
+        int[] array = { 1, 2, 3 };
+        System.arraycopy(array, 3, array, 0, 0);
+        assertArrayEquals(new int[] { 1, 2, 3 }, array);
+    }
+
+    @Test
+    public void arraysCloned() {
+        long[] array = { 1, Long.MAX_VALUE, -1, 42 };
+        long[] copy = array.clone();
+        array[0] = 2;
+        assertArrayEquals(new long[] { 1, Long.MAX_VALUE, -1, 42 }, copy);
+
+        Fields fields = new Fields();
+        fields.a = 23;
+        fields.c = 0.5;
+        Fields fieldsCopy = fields.copy();
+        assertEquals(23, fieldsCopy.a);
+        assertEquals(0.5, fieldsCopy.c, 0);
+    }
+
+    @Test
+    public void arraysSurviveCollections() {
+        int[][] retained = new int[64][];
+        for (int i = 0; i < 20000; ++i) {
+            int[] array = new int[100];
+            array[0] = i;
+            array[99] = -i;
+            if (i % 313 == 0) {
+                retained[(i / 313) % retained.length] = array;
+            }
+        }
+        for (int[] array : retained) {
+            if (array != null) {
+                assertEquals(array[0], -array[99]);
+                for (int i = 1; i < 99; ++i) {
+                    assertEquals(0, array[i]);
+                }
+            }
+        }
+    }
+
+    private static Object sink;
+
+    private static void consume(Object value) {
+        sink = value;
+    }
+
+    static class Fields implements Cloneable {
+        int a;
+        long b;
+        double c;
+        Object d;
+
+        Fields copy() {
+            try {
+                return (Fields) clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
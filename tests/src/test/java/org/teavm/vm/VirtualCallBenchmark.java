@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+@SkipJVM
+public class VirtualCallBenchmark {
+    private static final int ITERATIONS = 4_000_000;
+    private static long sink;
+
+    @Test
+    public void monomorphic() {
+        BenchmarkTimer.measure("monomorphic", () -> sink += VirtualCallTest.monomorphic(ITERATIONS));
+    }
+
+    @Test
+    public void bimorphic() {
+        BenchmarkTimer.measure("bimorphic", () -> sink += VirtualCallTest.bimorphic(ITERATIONS));
+    }
+
+    @Test
+    public void megamorphic() {
+        BenchmarkTimer.measure("megamorphic", () -> sink += VirtualCallTest.megamorphic(ITERATIONS));
+    }
+
+    @Test
+    public void dominantReceiver() {
+        BenchmarkTimer.measure("dominantReceiver", () -> sink += VirtualCallTest.dominantReceiver(ITERATIONS));
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.vm;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+/**
+ * Checks dispatch of virtual and interface calls at call sites with one, two and many receiver classes.
+ * Each call site uses its own class hierarchy, so that C backend puts inline cache only at bimorphic one,
+ * unless execution profile makes it guard the dominant receiver of a site with more classes.
+ */
+@RunWith(TeaVMTestRunner.class)
+public class VirtualCallTest {
+    private static final int ITERATIONS = 1000;
+
+    @Test
+    public void monomorphicCall() {
+        assertEquals(500500, monomorphic(ITERATIONS));
+    }
+
+    @Test
+    public void bimorphicCall() {
+        assertEquals(750000, bimorphic(ITERATIONS));
+    }
+
+    @Test
+    public void megamorphicCall() {
+        assertEquals(83832500, megamorphic(ITERATIONS));
+    }
+
+    @Test
+    public void interfaceCall() {
+        assertEquals(501500, interfaceDispatch(ITERATIONS));
+    }
+
+    @Test
+    public void dominantReceiverCall() {
+        assertEquals(484566, dominantReceiver(ITERATIONS));
+    }
+
+    static long monomorphic(int iterations) {
+        MonoOp[] ops = { new MonoIncrement(), new MonoIncrement() };
+        long sum = 0;
+        for (int i = 0; i < iterations; ++i) {
+            sum += ops[i % ops.length].apply(i);
+        }
+        return sum;
+    }
+
+    static long bimorphic(int iterations) {
+        BiOp[] ops = { new BiIncrement(), new BiDouble() };
+        long sum = 0;
+        for (int i = 0; i < iterations; ++i) {
+            sum += ops[i % ops.length].apply(i);
+        }
+        return sum;
+    }
+
+    static long megamorphic(int iterations) {
+        PolyOp[] ops = { new PolyIncrement(), new PolyDouble(), new PolyNegate(), new PolySquare() };
+        long sum = 0;
+        for (int i = 0; i < iterations; ++i) {
+            sum += ops[i % ops.length].apply(i);
+        }
+        return sum;
+    }
+
+    static long interfaceDispatch(int iterations) {
+        Counter[] counters = { new IncrementCounter(), new OffsetCounter(3) };
+        long sum = 0;
+        for (int i = 0; i < iterations; ++i) {
+            sum += counters[i % counters.length].next(i);
+        }
+        return sum;
+    }
+
+    // One receiver class takes 30 of 32 calls, so a profile-guided cache guards only it,
+    // and the remaining two classes go through the virtual call after a cache miss
+    static long dominantReceiver(int iterations) {
+        SkewedOp[] ops = new SkewedOp[32];
+        for (int i = 0; i < ops.length - 2; ++i) {
+            ops[i] = new SkewedIncrement();
+        }
+        ops[ops.length - 2] = new SkewedDouble();
+        ops[ops.length - 1] = new SkewedNegate();
+        long sum = 0;
+        for (int i = 0; i < iterations; ++i) {
+            sum += ops[i % ops.length].apply(i);
+        }
+        return sum;
+    }
+
+    abstract static class MonoOp {
+        abstract int apply(int value);
+    }
+
+    static class MonoIncrement extends MonoOp {
+        @Override
+        int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    abstract static class BiOp {
+        abstract int apply(int value);
+    }
+
+    static class BiIncrement extends BiOp {
+        @Override
+        int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    static class BiDouble extends BiOp {
+        @Override
+        int apply(int value) {
+            return value * 2;
+        }
+    }
+
+    abstract static class PolyOp {
+        abstract int apply(int value);
+    }
+
+    static class PolyIncrement extends PolyOp {
+        @Override
+        int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    static class PolyDouble extends PolyOp {
+        @Override
+        int apply(int value) {
+            return value * 2;
+        }
+    }
+
+    static class PolyNegate extends PolyOp {
+        @Override
+        int apply(int value) {
+            return -value;
+        }
+    }
+
+    static class PolySquare extends PolyOp {
+        @Override
+        int apply(int value) {
+            return value * value;
+        }
+    }
+
+    abstract static class SkewedOp {
+        abstract int apply(int value);
+    }
+
+    static class SkewedIncrement extends SkewedOp {
+        @Override
+        int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    static class SkewedDouble extends SkewedOp {
+        @Override
+        int apply(int value) {
+            return value * 2;
+        }
+    }
+
+    static class SkewedNegate extends SkewedOp {
+        @Override
+        int apply(int value) {
+            return -value;
+        }
+    }
+
+    interface Counter {
+        long next(int value);
+    }
+
+    static class IncrementCounter implements Counter {
+        @Override
+        public long next(int value) {
+            return value + 1;
+        }
+    }
+
+    static class OffsetCounter implements Counter {
+        private int offset;
+
+        OffsetCounter(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public long next(int value) {
+            return value + offset;
+        }
+    }
+}
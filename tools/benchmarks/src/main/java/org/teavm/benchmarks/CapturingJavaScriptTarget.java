@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.backend.javascript.TeaVMJavaScriptHost;
+import org.teavm.model.ClassReader;
+import org.teavm.model.ListableClassHolderSource;
+import org.teavm.model.ListableClassReaderSource;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReader;
+import org.teavm.model.MethodReference;
+import org.teavm.model.MutableClassHolderSource;
+import org.teavm.model.Program;
+import org.teavm.model.optimization.InliningFilterFactory;
+import org.teavm.model.util.ModelUtils;
+import org.teavm.model.util.ProgramUtils;
+import org.teavm.vm.BuildTarget;
+import org.teavm.vm.TeaVM;
+
+/**
+ * JavaScript target that keeps copies of intermediate compiler state, so that every phase can be benchmarked
+ * in isolation. It declares {@link TeaVMJavaScriptHost} again, since TeaVM only looks for host extensions among
+ * interfaces declared by the target class itself.
+ */
+class CapturingJavaScriptTarget extends JavaScriptTarget implements TeaVMJavaScriptHost {
+    private TeaVM vm;
+    private MutableClassHolderSource classesBeforeInlining;
+    private Map<MethodReference, MethodHolder> methodsBeforeOptimization = new LinkedHashMap<>();
+    private ListableClassHolderSource emittedClasses;
+
+    void setVM(TeaVM vm) {
+        this.vm = vm;
+    }
+
+    MutableClassHolderSource getClassesBeforeInlining() {
+        return classesBeforeInlining;
+    }
+
+    Map<MethodReference, MethodHolder> getMethodsBeforeOptimization() {
+        return methodsBeforeOptimization;
+    }
+
+    ListableClassHolderSource getEmittedClasses() {
+        return emittedClasses;
+    }
+
+    @Override
+    public InliningFilterFactory getInliningFilter() {
+        // TeaVM requests inlining filter right before inlining, after linking and devirtualization
+        classesBeforeInlining = new MutableClassHolderSource();
+        ListableClassReaderSource classes = vm.getWrittenClasses();
+        for (String className : classes.getClassNames()) {
+            ClassReader cls = classes.get(className);
+            classesBeforeInlining.putClassHolder(ModelUtils.copyClass(cls));
+        }
+        return super.getInliningFilter();
+    }
+
+    @Override
+    public void beforeOptimizations(Program program, MethodReader method) {
+        super.beforeOptimizations(program, method);
+        MethodHolder copy = ModelUtils.copyMethod(method, false);
+        copy.setProgram(ProgramUtils.copy(program));
+        methodsBeforeOptimization.put(method.getReference(), copy);
+    }
+
+    @Override
+    public void emit(ListableClassHolderSource classes, BuildTarget target, String outputName) {
+        emittedClasses = classes;
+        super.emit(classes, target, outputName);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.EnumMap;
+import java.util.Map;
+import org.teavm.dependency.DependencyAnalyzerFactory;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.PreciseDependencyAnalyzer;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.ReferenceCache;
+import org.teavm.parsing.ClasspathClassHolderSource;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMBuilder;
+import org.teavm.vm.TeaVMOptimizationLevel;
+import org.teavm.vm.TeaVMTarget;
+
+/**
+ * <p>Result of a complete compilation of a corpus to JavaScript. Snapshot is computed once per corpus
+ * and per JVM, benchmarks take their inputs from it.</p>
+ *
+ * <p>Class source is cached, so benchmarks that compile a corpus again don't measure class file parsing.</p>
+ */
+final class CompilationSnapshot {
+    static final String OUTPUT_NAME = "classes.js";
+    private static final Map<Corpus, CompilationSnapshot> snapshots = new EnumMap<>(Corpus.class);
+    private final Corpus corpus;
+    private final ClassLoader classLoader;
+    private final ReferenceCache referenceCache = new ReferenceCache();
+    private final ClassHolderSource classSource;
+    private final CapturingJavaScriptTarget target = new CapturingJavaScriptTarget();
+    private final TeaVM vm;
+
+    private CompilationSnapshot(Corpus corpus) {
+        this.corpus = corpus;
+        classLoader = corpus.createClassLoader();
+        classSource = new PreOptimizingClassHolderSource(new ClasspathClassHolderSource(classLoader,
+                referenceCache));
+        vm = createTeaVM(target, PreciseDependencyAnalyzer::new);
+        target.setVM(vm);
+        vm.build(new MemoryBuildTarget(), OUTPUT_NAME);
+        if (!vm.getProblemProvider().getSevereProblems().isEmpty()) {
+            throw new IllegalStateException("Corpus " + corpus + " was compiled with errors");
+        }
+    }
+
+    static synchronized CompilationSnapshot of(Corpus corpus) {
+        return snapshots.computeIfAbsent(corpus, CompilationSnapshot::new);
+    }
+
+    TeaVM createTeaVM(TeaVMTarget target, DependencyAnalyzerFactory dependencyAnalyzerFactory) {
+        TeaVM vm = new TeaVMBuilder(target)
+                .setClassLoader(classLoader)
+                .setClassSource(classSource)
+                .setReferenceCache(referenceCache)
+                .setDependencyAnalyzerFactory(dependencyAnalyzerFactory)
+                .build();
+        vm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        vm.installPlugins();
+        vm.entryPoint(corpus.getMainClass());
+        return vm;
+    }
+
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    ReferenceCache getReferenceCache() {
+        return referenceCache;
+    }
+
+    CapturingJavaScriptTarget getTarget() {
+        return target;
+    }
+
+    TeaVM getVM() {
+        return vm;
+    }
+
+    DependencyInfo getDependencyInfo() {
+        return vm.getDependencyInfo();
+    }
+
+    ClassReaderSource getDependencyClassSource() {
+        return vm.getDependencyClassSource();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import org.teavm.benchmarks.corpus.ClasslibApp;
+
+/**
+ * <p>Fixed inputs for compiler benchmarks.</p>
+ *
+ * <p>{@link #CLASSLIB} is a small application that touches a large part of TeaVM class library (collections,
+ * streams, string formatting, regular expressions, big numbers), so most of the compiled code comes
+ * from classlib. {@link #SYNTHETIC} is a generated application with many classes, virtual calls and loops,
+ * its size is controlled by {@code teavm.benchmark.syntheticClasses} system property.</p>
+ */
+public enum Corpus {
+    CLASSLIB {
+        @Override
+        ClassLoader createClassLoader() {
+            return Corpus.class.getClassLoader();
+        }
+
+        @Override
+        String getMainClass() {
+            return ClasslibApp.class.getName();
+        }
+    },
+
+    SYNTHETIC {
+        @Override
+        ClassLoader createClassLoader() {
+            int classCount = Integer.getInteger("teavm.benchmark.syntheticClasses", 500);
+            try {
+                File directory = Files.createTempDirectory("teavm-benchmark").toFile();
+                directory.deleteOnExit();
+                new SyntheticAppGenerator(classCount).generate(directory);
+                return new URLClassLoader(new URL[] { directory.toURI().toURL() }, Corpus.class.getClassLoader());
+            } catch (IOException e) {
+                throw new RuntimeException("Error generating synthetic application", e);
+            }
+        }
+
+        @Override
+        String getMainClass() {
+            return SyntheticAppGenerator.MAIN_CLASS;
+        }
+    };
+
+    abstract ClassLoader createClassLoader();
+
+    abstract String getMainClass();
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.dependency.DependencyAnalyzerFactory;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.FastDependencyAnalyzer;
+import org.teavm.dependency.ParallelDependencyAnalyzer;
+import org.teavm.dependency.PreciseDependencyAnalyzer;
+import org.teavm.vm.MemoryBuildTarget;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMPhase;
+import org.teavm.vm.TeaVMProgressFeedback;
+import org.teavm.vm.TeaVMProgressListener;
+
+/**
+ * Measures dependency analysis of a corpus with different analyzers. Build is cancelled as soon
+ * as TeaVM reaches compilation phase. Classes are taken from a shared cache, so parsing is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DependencyAnalysisBenchmark {
+    @Param({ "CLASSLIB", "SYNTHETIC" })
+    public Corpus corpus;
+
+    @Param({ "fast", "precise", "parallel" })
+    public String analyzer;
+
+    private CompilationSnapshot snapshot;
+    private DependencyAnalyzerFactory analyzerFactory;
+
+    @Setup
+    public void setup() {
+        snapshot = CompilationSnapshot.of(corpus);
+        switch (analyzer) {
+            case "fast":
+                analyzerFactory = FastDependencyAnalyzer::new;
+                break;
+            case "precise":
+                analyzerFactory = PreciseDependencyAnalyzer::new;
+                break;
+            case "parallel":
+                analyzerFactory = ParallelDependencyAnalyzer.factory(Runtime.getRuntime().availableProcessors());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown analyzer: " + analyzer);
+        }
+    }
+
+    @Benchmark
+    public DependencyInfo analyze() {
+        TeaVM vm = snapshot.createTeaVM(new JavaScriptTarget(), analyzerFactory);
+        vm.setProgressListener(new TeaVMProgressListener() {
+            @Override
+            public TeaVMProgressFeedback phaseStarted(TeaVMPhase phase, int count) {
+                return phase == TeaVMPhase.COMPILING ? TeaVMProgressFeedback.CANCEL : TeaVMProgressFeedback.CONTINUE;
+            }
+
+            @Override
+            public TeaVMProgressFeedback progressReached(int progress) {
+                return TeaVMProgressFeedback.CONTINUE;
+            }
+        });
+        vm.build(new MemoryBuildTarget(), CompilationSnapshot.OUTPUT_NAME);
+        return vm.getDependencyInfo();
+    }
+}
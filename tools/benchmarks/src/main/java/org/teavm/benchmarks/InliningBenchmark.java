@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.dependency.MethodDependencyInfo;
+import org.teavm.model.ClassHierarchy;
+import org.teavm.model.ClassHolder;
+import org.teavm.model.ListableClassReaderSource;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReference;
+import org.teavm.model.MutableClassHolderSource;
+import org.teavm.model.optimization.DefaultInliningStrategy;
+import org.teavm.model.optimization.Inlining;
+import org.teavm.model.optimization.InliningFilterFactory;
+import org.teavm.model.util.ModelUtils;
+
+/**
+ * Measures inlining of linked and devirtualized classes of a corpus with the strategy of
+ * {@link org.teavm.vm.TeaVMOptimizationLevel#ADVANCED} level. Every invocation works on a fresh copy of classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InliningBenchmark {
+    @Param({ "CLASSLIB", "SYNTHETIC" })
+    public Corpus corpus;
+
+    private ListableClassReaderSource originalClasses;
+    private DependencyInfo dependencyInfo;
+    private MutableClassHolderSource classes;
+
+    @Setup
+    public void setup() {
+        CompilationSnapshot snapshot = CompilationSnapshot.of(corpus);
+        originalClasses = snapshot.getTarget().getClassesBeforeInlining();
+        dependencyInfo = snapshot.getDependencyInfo();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyClasses() {
+        classes = new MutableClassHolderSource();
+        for (String className : originalClasses.getClassNames()) {
+            classes.putClassHolder(ModelUtils.copyClass(originalClasses.get(className)));
+        }
+    }
+
+    @Benchmark
+    public MutableClassHolderSource inline() {
+        // Unlike TeaVM, consider only methods called from outside as external, since virtual methods
+        // computed by devirtualization are not exposed
+        Inlining inlining = new Inlining(new ClassHierarchy(classes), dependencyInfo,
+                new DefaultInliningStrategy(100, 7, 300, true), classes, this::isExternal, false,
+                InliningFilterFactory.DEFAULT);
+        List<MethodReference> methodReferences = inlining.getOrder();
+        for (MethodReference methodReference : methodReferences) {
+            ClassHolder cls = classes.get(methodReference.getClassName());
+            if (cls == null) {
+                continue;
+            }
+            MethodHolder method = cls.getMethod(methodReference.getDescriptor());
+            if (method != null && method.getProgram() != null) {
+                inlining.apply(method.getProgram(), methodReference);
+            }
+        }
+        return classes;
+    }
+
+    private boolean isExternal(MethodReference method) {
+        MethodDependencyInfo dep = dependencyInfo.getMethod(method);
+        return dep != null && dep.isCalled();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.dependency.DependencyInfo;
+import org.teavm.model.ClassReaderSource;
+import org.teavm.model.MethodHolder;
+import org.teavm.model.MethodReader;
+import org.teavm.model.Program;
+import org.teavm.model.optimization.MethodOptimization;
+import org.teavm.model.optimization.MethodOptimizationContext;
+import org.teavm.model.util.ProgramUtils;
+import org.teavm.vm.TeaVM;
+import org.teavm.vm.TeaVMOptimizationLevel;
+
+/**
+ * Measures a single pass of one of optimizations from {@link TeaVM#getOptimizations(TeaVMOptimizationLevel)}
+ * over every method of a corpus. Methods are taken in the state they had before optimizations,
+ * i.e. after inlining.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MethodOptimizationBenchmark {
+    @Param({ "CLASSLIB", "SYNTHETIC" })
+    public Corpus corpus;
+
+    @Param({ "RedundantJumpElimination", "ArrayUnwrapMotion", "ScalarReplacement", "LoopInvariantMotion",
+            "RepeatedFieldReadElimination", "GlobalValueNumbering", "RedundantNullCheckElimination",
+            "ConstantConditionElimination", "UnusedVariableElimination", "ClassInitElimination",
+            "UnreachableBasicBlockElimination" })
+    public String optimization;
+
+    private MethodOptimization optimizationInstance;
+    private DependencyInfo dependencyInfo;
+    private ClassReaderSource classSource;
+    private List<MethodHolder> methods;
+    private List<Program> programs = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        CompilationSnapshot snapshot = CompilationSnapshot.of(corpus);
+        dependencyInfo = snapshot.getDependencyInfo();
+        classSource = snapshot.getDependencyClassSource();
+        methods = new ArrayList<>(snapshot.getTarget().getMethodsBeforeOptimization().values());
+        for (MethodOptimization candidate : TeaVM.getOptimizations(TeaVMOptimizationLevel.FULL)) {
+            if (candidate.getClass().getSimpleName().equals(optimization)) {
+                optimizationInstance = candidate;
+                break;
+            }
+        }
+        if (optimizationInstance == null) {
+            throw new IllegalArgumentException("Unknown optimization: " + optimization);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void copyPrograms() {
+        programs.clear();
+        for (MethodHolder method : methods) {
+            programs.add(ProgramUtils.copy(method.getProgram()));
+        }
+    }
+
+    @Benchmark
+    public boolean optimize() {
+        boolean changed = false;
+        for (int i = 0; i < methods.size(); ++i) {
+            Program program = programs.get(i);
+            if (program.basicBlockCount() > 0) {
+                changed |= optimizationInstance.optimize(new Context(methods.get(i)), program);
+            }
+        }
+        return changed;
+    }
+
+    class Context implements MethodOptimizationContext {
+        private MethodReader method;
+
+        Context(MethodReader method) {
+            this.method = method;
+        }
+
+        @Override
+        public MethodReader getMethod() {
+            return method;
+        }
+
+        @Override
+        public DependencyInfo getDependencyInfo() {
+            return dependencyInfo;
+        }
+
+        @Override
+        public ClassReaderSource getClassSource() {
+            return classSource;
+        }
+    }
+}
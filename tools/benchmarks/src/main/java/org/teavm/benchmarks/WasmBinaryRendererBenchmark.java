@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teavm.backend.wasm.model.WasmFunction;
+import org.teavm.backend.wasm.model.WasmLocal;
+import org.teavm.backend.wasm.model.WasmMemorySegment;
+import org.teavm.backend.wasm.model.WasmModule;
+import org.teavm.backend.wasm.model.WasmType;
+import org.teavm.backend.wasm.model.expression.WasmBlock;
+import org.teavm.backend.wasm.model.expression.WasmBranch;
+import org.teavm.backend.wasm.model.expression.WasmCall;
+import org.teavm.backend.wasm.model.expression.WasmExpression;
+import org.teavm.backend.wasm.model.expression.WasmGetLocal;
+import org.teavm.backend.wasm.model.expression.WasmInt32Constant;
+import org.teavm.backend.wasm.model.expression.WasmInt32Subtype;
+import org.teavm.backend.wasm.model.expression.WasmIntBinary;
+import org.teavm.backend.wasm.model.expression.WasmIntBinaryOperation;
+import org.teavm.backend.wasm.model.expression.WasmIntType;
+import org.teavm.backend.wasm.model.expression.WasmLoadInt32;
+import org.teavm.backend.wasm.model.expression.WasmReturn;
+import org.teavm.backend.wasm.model.expression.WasmSetLocal;
+import org.teavm.backend.wasm.model.expression.WasmStoreInt32;
+import org.teavm.backend.wasm.render.WasmBinaryRenderer;
+import org.teavm.backend.wasm.render.WasmBinaryVersion;
+
+/**
+ * <p>Measures encoding of a WebAssembly module into binary format.</p>
+ *
+ * <p>WebAssembly target builds its module internally and does not expose it, so the module is synthetic:
+ * a chain of functions, each with a loop that reads and writes memory, plus a large data segment.
+ * Module size is controlled by {@code teavm.benchmark.wasmFunctions} system property.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WasmBinaryRendererBenchmark {
+    private static final int SEGMENT_SIZE = 4 << 20;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private WasmModule module;
+
+    @Setup
+    public void setup() {
+        int functionCount = Integer.getInteger("teavm.benchmark.wasmFunctions", 5000);
+        module = new WasmModule();
+        for (int i = 0; i < functionCount; ++i) {
+            module.add(createFunction(i, functionCount));
+        }
+
+        WasmMemorySegment segment = new WasmMemorySegment();
+        segment.setOffset(256);
+        byte[] data = new byte[SEGMENT_SIZE];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i * 31);
+        }
+        segment.setData(data);
+        module.getSegments().add(segment);
+        module.setMinMemorySize(128);
+        module.setMaxMemorySize(128);
+    }
+
+    private static WasmFunction createFunction(int index, int functionCount) {
+        WasmFunction function = new WasmFunction("f" + index);
+        function.getParameters().add(WasmType.INT32);
+        function.setResult(WasmType.INT32);
+        WasmLocal limit = new WasmLocal(WasmType.INT32, "limit");
+        WasmLocal counter = new WasmLocal(WasmType.INT32, "i");
+        WasmLocal accumulator = new WasmLocal(WasmType.INT32, "acc");
+        function.add(limit);
+        function.add(counter);
+        function.add(accumulator);
+
+        WasmBlock loop = new WasmBlock(true);
+        WasmExpression address = new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SHL,
+                new WasmGetLocal(counter), new WasmInt32Constant(2));
+        loop.getBody().add(new WasmSetLocal(accumulator, new WasmIntBinary(WasmIntType.INT32,
+                WasmIntBinaryOperation.ADD, new WasmGetLocal(accumulator),
+                new WasmLoadInt32(4, address, WasmInt32Subtype.INT32))));
+        loop.getBody().add(new WasmStoreInt32(4, new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.SHL,
+                new WasmGetLocal(counter), new WasmInt32Constant(2)), new WasmIntBinary(WasmIntType.INT32,
+                WasmIntBinaryOperation.XOR, new WasmGetLocal(accumulator), new WasmInt32Constant(index)),
+                WasmInt32Subtype.INT32));
+        loop.getBody().add(new WasmSetLocal(counter, new WasmIntBinary(WasmIntType.INT32,
+                WasmIntBinaryOperation.ADD, new WasmGetLocal(counter), new WasmInt32Constant(1))));
+        loop.getBody().add(new WasmBranch(new WasmIntBinary(WasmIntType.INT32, WasmIntBinaryOperation.LT_SIGNED,
+                new WasmGetLocal(counter), new WasmGetLocal(limit)), loop));
+        function.getBody().add(loop);
+
+        if (index + 1 < functionCount) {
+            function.getBody().add(new WasmSetLocal(accumulator, new WasmIntBinary(WasmIntType.INT32,
+                    WasmIntBinaryOperation.ADD, new WasmGetLocal(accumulator),
+                    new WasmCall("f" + (index + 1), new WasmGetLocal(accumulator)))));
+        }
+        function.getBody().add(new WasmReturn(new WasmGetLocal(accumulator)));
+        return function;
+    }
+
+    @Benchmark
+    public long render() throws IOException {
+        CountingOutputStream output = new CountingOutputStream();
+        WasmBinaryRenderer renderer = new WasmBinaryRenderer(output, WasmBinaryVersion.V_0x1, false);
+        renderer.setThreadCount(threads);
+        renderer.render(module);
+        return output.count;
+    }
+
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks.corpus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class ClasslibApp {
+    private ClasslibApp() {
+    }
+
+    public static void main(String[] args) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            words.add("word" + (i * 31 % 17));
+        }
+        Collections.sort(words);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        TreeMap<String, Integer> sortedCounts = new TreeMap<>(counts);
+        Set<String> unique = new LinkedHashSet<>(words);
+        Deque<String> queue = new ArrayDeque<>(unique);
+
+        String joined = IntStream.range(0, 20)
+                .mapToObj(Integer::toString)
+                .filter(s -> s.length() == 1)
+                .collect(Collectors.joining(","));
+
+        Pattern pattern = Pattern.compile("(\\w+?)(\\d+)");
+        Matcher matcher = pattern.matcher(String.join(" ", words));
+        int matches = 0;
+        while (matcher.find()) {
+            matches += Integer.parseInt(matcher.group(2));
+        }
+
+        BigInteger factorial = BigInteger.ONE;
+        for (int i = 2; i <= 50; ++i) {
+            factorial = factorial.multiply(BigInteger.valueOf(i));
+        }
+        BigDecimal ratio = new BigDecimal(factorial).divide(BigDecimal.valueOf(7), 20, RoundingMode.HALF_UP);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s %d %.3f%n", sortedCounts.firstKey(), matches, Math.PI));
+        sb.append(queue.peekLast()).append(' ').append(joined).append(' ').append(ratio.toPlainString());
+        sb.append(' ').append(Long.toHexString(Double.doubleToLongBits(Math.sqrt(matches))));
+        System.out.println(sb);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks.runtime;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Measures cost of exception handling: calls inside a try block that never throw, and exceptions thrown
+ * through three frames.</p>
+ *
+ * <p>The workload mirrors {@code ExceptionHandlingTest}, which checks that exceptions reach proper handlers
+ * on TeaVM targets.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionHandlingBenchmark {
+    private static final int ITERATIONS = 2_000_000;
+    private static final int THROW_ITERATIONS = 100_000;
+
+    @Benchmark
+    public long callsWithoutThrow() {
+        long sum = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            try {
+                sum += add(i, i & 7);
+            } catch (IllegalStateException e) {
+                sum = -1;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int throwAndCatch() {
+        int caught = 0;
+        for (int i = 0; i < THROW_ITERATIONS; ++i) {
+            try {
+                throwAt(3, new IllegalStateException());
+            } catch (IllegalStateException e) {
+                caught++;
+            }
+        }
+        return caught;
+    }
+
+    private static int add(int a, int b) {
+        if (a < 0) {
+            throw new IllegalStateException();
+        }
+        return a + b;
+    }
+
+    private static void throwAt(int depth, RuntimeException e) {
+        if (depth <= 0) {
+            throw e;
+        }
+        throwAt(depth - 1, e);
+    }
+}
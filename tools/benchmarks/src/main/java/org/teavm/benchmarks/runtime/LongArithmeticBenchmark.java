@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks.runtime;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Measures 64-bit arithmetic: FNV-1a hashing, which multiplies longs, and timestamp arithmetic, which divides
+ * them.</p>
+ *
+ * <p>The workload mirrors {@code LongTest}, which checks results of the same loops on TeaVM targets, including
+ * BigInt long mode of JavaScript backend.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LongArithmeticBenchmark {
+    private static final int ITERATIONS = 1_000_000;
+    private long base = 1_600_000_000_123L;
+
+    @Benchmark
+    public long hashing() {
+        long hash = 0xCBF2_9CE4_8422_2325L;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            hash ^= i & 0xFF;
+            hash *= 0x100_0000_01B3L;
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public long timestamps() {
+        long checksum = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            long timestamp = base + i * 37L;
+            long seconds = timestamp / 1000;
+            long millis = timestamp % 1000;
+            checksum += (seconds >>> 3) ^ millis;
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.benchmarks.runtime;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Measures virtual calls in a hot loop at call sites with one, two and four receiver classes. Every call site
+ * uses its own class hierarchy, so only the bimorphic one gets inline cache in C backend.</p>
+ *
+ * <p>The workload mirrors {@code VirtualCallTest}, which checks results of the same calls on TeaVM targets.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualCallBenchmark {
+    private static final int ITERATIONS = 4_000_000;
+    private MonoOp[] monoOps = { new MonoIncrement(), new MonoIncrement() };
+    private BiOp[] biOps = { new BiIncrement(), new BiDouble() };
+    private PolyOp[] polyOps = { new PolyIncrement(), new PolyDouble(), new PolyNegate(), new PolySquare() };
+
+    @Benchmark
+    public long monomorphic() {
+        MonoOp[] ops = monoOps;
+        long sum = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            sum += ops[i & 1].apply(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long bimorphic() {
+        BiOp[] ops = biOps;
+        long sum = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            sum += ops[i & 1].apply(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long megamorphic() {
+        PolyOp[] ops = polyOps;
+        long sum = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            sum += ops[i & 3].apply(i);
+        }
+        return sum;
+    }
+
+    abstract static class MonoOp {
+        abstract int apply(int value);
+    }
+
+    static class MonoIncrement extends MonoOp {
+        @Override
+        int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    abstract static class BiOp {
+        abstract int apply(int value);
+    }
+
+    static class BiIncrement extends BiOp {
+        @Override
+        int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    static class BiDouble extends BiOp {
+        @Override
+        int apply(int value) {
+            return value * 2;
+        }
+    }
+
+    abstract static class PolyOp {
+        abstract int apply(int value);
+    }
+
+    static class PolyIncrement extends PolyOp {
+        @Override
+        int apply(int value) {
+            return value + 1;
+        }
+    }
+
+    static class PolyDouble extends PolyOp {
+        @Override
+        int apply(int value) {
+            return value * 2;
+        }
+    }
+
+    static class PolyNegate extends PolyOp {
+        @Override
+        int apply(int value) {
+            return -value;
+        }
+    }
+
+    static class PolySquare extends PolyOp {
+        @Override
+        int apply(int value) {
+            return value * value;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.jmh_generated;
+public class DecompilerBenchmark_jmhType extends DecompilerBenchmark_jmhType_B3 {
+}
+
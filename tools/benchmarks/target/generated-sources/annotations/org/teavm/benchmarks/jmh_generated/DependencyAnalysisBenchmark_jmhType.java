@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.jmh_generated;
+public class DependencyAnalysisBenchmark_jmhType extends DependencyAnalysisBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.jmh_generated;
+public class InliningBenchmark_jmhType extends InliningBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.jmh_generated;
+public class MethodOptimizationBenchmark_jmhType extends MethodOptimizationBenchmark_jmhType_B3 {
+}
+
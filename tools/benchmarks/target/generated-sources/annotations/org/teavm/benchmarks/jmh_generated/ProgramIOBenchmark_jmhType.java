@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.jmh_generated;
+public class ProgramIOBenchmark_jmhType extends ProgramIOBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.jmh_generated;
+public class ProgramParserBenchmark_jmhType extends ProgramParserBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.jmh_generated;
+public class WasmBinaryRendererBenchmark_jmhType extends WasmBinaryRendererBenchmark_jmhType_B3 {
+}
+
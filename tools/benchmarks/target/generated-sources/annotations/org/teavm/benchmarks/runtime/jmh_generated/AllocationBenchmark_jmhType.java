@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.runtime.jmh_generated;
+public class AllocationBenchmark_jmhType extends AllocationBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.runtime.jmh_generated;
+public class ExceptionHandlingBenchmark_jmhType extends ExceptionHandlingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.runtime.jmh_generated;
+public class FullCollectionBenchmark_jmhType extends FullCollectionBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.runtime.jmh_generated;
+public class LongArithmeticBenchmark_jmhType extends LongArithmeticBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.teavm.benchmarks.runtime.jmh_generated;
+public class VirtualCallBenchmark_jmhType extends VirtualCallBenchmark_jmhType_B3 {
+}
+
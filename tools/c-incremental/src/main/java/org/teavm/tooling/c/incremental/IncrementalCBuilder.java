@@ -71,6 +71,7 @@ public class IncrementalCBuilder {
     private String externalTool;
     private String externalToolWorkingDir;
     private String mainFunctionName;
+    private long maxCacheSize = Long.MAX_VALUE;
 
     private IncrementalDirectoryBuildTarget buildTarget;
     private FileSystemWatcher watcher;
@@ -143,6 +144,14 @@ public class IncrementalCBuilder {
         this.longjmpSupported = longjmpSupported;
     }
 
+    /**
+     * Limits size of each in-memory cache (classes, optimized programs and method ASTs) kept between builds.
+     * When a cache exceeds the limit, least recently used entries are evicted.
+     */
+    public void setMaxCacheSize(long maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
     public void addProgressHandler(ProgressHandler handler) {
         synchronized (progressHandlers) {
             progressHandlers.add(handler);
@@ -289,9 +298,12 @@ public class IncrementalCBuilder {
         buildTarget = new IncrementalDirectoryBuildTarget(new File(targetPath));
         watcher = new FileSystemWatcher(classPath);
 
-        classSource = createCachedSource();
-        astCache = new InMemoryMethodNodeCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
-        programCache = new InMemoryProgramCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
+        classSource = new MemoryCachedClassReaderSource(referenceCache, symbolTable, fileSymbolTable,
+                variableSymbolTable, maxCacheSize);
+        astCache = new InMemoryMethodNodeCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable,
+                maxCacheSize);
+        programCache = new InMemoryProgramCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable,
+                maxCacheSize);
     }
 
     private void shutdownBuilder() {
@@ -412,6 +424,9 @@ public class IncrementalCBuilder {
         }
 
         log.info("Compilation took " + (System.currentTimeMillis() - startTime) + " ms");
+        log.debug("Class cache: " + classSource.getStatistics());
+        log.debug("Program cache: " + programCache.getStatistics());
+        log.debug("AST cache: " + astCache.getStatistics());
     }
 
     private void runExternalTool() {
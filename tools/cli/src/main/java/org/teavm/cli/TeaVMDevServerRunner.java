@@ -94,6 +94,12 @@ public final class TeaVMDevServerRunner {
                 .desc("delegate requests from path")
                 .longOpt("proxy-path")
                 .build());
+        options.addOption(Option.builder()
+                .argName("megabytes")
+                .hasArg()
+                .desc("maximum size of each in-memory compiler cache")
+                .longOpt("max-cache-size")
+                .build());
     }
 
     private TeaVMDevServerRunner(CommandLine commandLine) {
@@ -144,6 +150,14 @@ public final class TeaVMDevServerRunner {
         if (commandLine.hasOption("proxy-path")) {
             devServer.setProxyPath(commandLine.getOptionValue("proxy-path"));
         }
+        if (commandLine.hasOption("max-cache-size")) {
+            try {
+                devServer.setMaxCacheSize(Long.parseLong(commandLine.getOptionValue("max-cache-size")) << 20);
+            } catch (NumberFormatException e) {
+                System.err.println("max-cache-size must be numeric");
+                printUsage();
+            }
+        }
 
         String[] args = commandLine.getArgs();
         if (args.length != 1) {
@@ -81,6 +81,15 @@ public final class TeaVMRunner {
                 .desc("causes TeaVM to produce code that is as close to Java semantics as possible "
                         + "(in cost of performance)")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("js-code-splitting")
+                .desc("move code reachable only from methods marked with @SplitPoint to separate files, "
+                        + "which are loaded on demand")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("js-long-as-bigint")
+                .desc("represent long values by BigInt and generate inline long arithmetic")
+                .build());
         options.addOption(Option.builder("O")
                 .desc("optimization level (1-3)")
                 .hasArg()
@@ -126,6 +135,18 @@ public final class TeaVMRunner {
                 .hasArg()
                 .desc("WebAssembly binary version (currently, only 1 is supported)")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("wasm-bulk-memory")
+                .desc("use WebAssembly bulk memory instructions to fill and copy memory")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("wasm-native-exceptions")
+                .desc("use WebAssembly exception handling instructions to throw and catch exceptions")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("compact-strings")
+                .desc("store strings that fit into Latin-1 as byte arrays (WebAssembly and C targets)")
+                .build());
         options.addOption(Option.builder("e")
                 .longOpt("entry-point")
                 .argName("name")
@@ -155,6 +176,16 @@ public final class TeaVMRunner {
                 .longOpt("no-longjmp")
                 .desc("Don't use setjmp/longjmp functions to emulate exceptions (C target)")
                 .build());
+        options.addOption(Option.builder()
+                .longOpt("profile-instrumentation")
+                .desc("Generate program that records method invocation counts to a profile file (C target)")
+                .build());
+        options.addOption(Option.builder()
+                .longOpt("profile")
+                .argName("file")
+                .hasArg()
+                .desc("Use execution profile recorded by instrumented program to guide optimizations")
+                .build());
     }
 
     private TeaVMRunner(CommandLine commandLine) {
@@ -239,6 +270,9 @@ public final class TeaVMRunner {
     private void parseGenerationOptions() {
         tool.setObfuscated(commandLine.hasOption("m"));
         tool.setStrict(commandLine.hasOption("strict"));
+        tool.setJsCodeSplitting(commandLine.hasOption("js-code-splitting"));
+        tool.setJsLongAsBigInt(commandLine.hasOption("js-long-as-bigint"));
+        tool.setCompactStrings(commandLine.hasOption("compact-strings"));
 
         if (commandLine.hasOption("max-toplevel-names")) {
             try {
@@ -327,6 +361,12 @@ public final class TeaVMRunner {
                 printUsage();
             }
         }
+        if (commandLine.hasOption("wasm-bulk-memory")) {
+            tool.setWasmBulkMemoryUsed(true);
+        }
+        if (commandLine.hasOption("wasm-native-exceptions")) {
+            tool.setWasmNativeExceptionsUsed(true);
+        }
     }
 
     private void parseCOptions() {
@@ -336,6 +376,12 @@ public final class TeaVMRunner {
         if (commandLine.hasOption("heap-dump")) {
             tool.setHeapDump(true);
         }
+        if (commandLine.hasOption("profile-instrumentation")) {
+            tool.setProfileInstrumentation(true);
+        }
+        if (commandLine.hasOption("profile")) {
+            tool.setProfileFile(new File(commandLine.getOptionValue("profile")));
+        }
     }
 
     private void parseHeap() {
@@ -17,10 +17,13 @@ package org.teavm.tooling;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -48,6 +51,7 @@ import org.teavm.debugging.information.DebugInformation;
 import org.teavm.debugging.information.DebugInformationBuilder;
 import org.teavm.dependency.DependencyInfo;
 import org.teavm.dependency.FastDependencyAnalyzer;
+import org.teavm.dependency.ParallelDependencyAnalyzer;
 import org.teavm.dependency.PreciseDependencyAnalyzer;
 import org.teavm.diagnostics.ProblemProvider;
 import org.teavm.model.ClassHolderSource;
@@ -55,16 +59,19 @@ import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassReader;
 import org.teavm.model.PreOptimizingClassHolderSource;
 import org.teavm.model.ReferenceCache;
+import org.teavm.model.profile.ExecutionProfile;
 import org.teavm.parsing.ClasspathClassHolderSource;
 import org.teavm.tooling.sources.SourceFileProvider;
 import org.teavm.tooling.sources.SourceFilesCopier;
 import org.teavm.vm.BuildTarget;
 import org.teavm.vm.DirectoryBuildTarget;
+import org.teavm.vm.IncrementalDirectoryBuildTarget;
 import org.teavm.vm.TeaVM;
 import org.teavm.vm.TeaVMBuilder;
 import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMProgressListener;
 import org.teavm.vm.TeaVMTarget;
+import org.teavm.vm.metrics.MetricsFormat;
 
 public class TeaVMTool {
     private File targetDirectory = new File(".");
@@ -72,6 +79,8 @@ public class TeaVMTool {
     private String targetFileName = "";
     private boolean obfuscated = true;
     private boolean strict;
+    private boolean jsCodeSplitting;
+    private boolean jsLongAsBigInt;
     private int maxTopLevelNames = 10000;
     private String mainClass;
     private String entryPointName = "main";
@@ -96,18 +105,29 @@ public class TeaVMTool {
     private TeaVM vm;
     private boolean fastDependencyAnalysis;
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
+    private int optimizationThreadCount = 1;
+    private int dependencyAnalysisThreadCount = 1;
+    private int codeGenerationThreadCount = 1;
     private List<SourceFileProvider> sourceFileProviders = new ArrayList<>();
     private DebugInformationBuilder debugEmitter;
     private JavaScriptTarget javaScriptTarget;
     private WasmTarget webAssemblyTarget;
     private WasmBinaryVersion wasmVersion = WasmBinaryVersion.V_0x1;
+    private boolean wasmBulkMemoryUsed;
+    private boolean wasmNativeExceptionsUsed;
+    private boolean compactStrings;
     private CTarget cTarget;
+    private IncrementalDirectoryBuildTarget cBuildTarget;
     private Set<File> generatedFiles = new HashSet<>();
     private int minHeapSize = 4 * (1 << 20);
     private int maxHeapSize = 128 * (1 << 20);
     private ReferenceCache referenceCache;
     private boolean longjmpSupported = true;
     private boolean heapDump;
+    private File metricsFile;
+    private MetricsFormat metricsFormat = MetricsFormat.JSON;
+    private boolean profileInstrumentation;
+    private File profileFile;
 
     public File getTargetDirectory() {
         return targetDirectory;
@@ -129,6 +149,14 @@ public class TeaVMTool {
         this.strict = strict;
     }
 
+    public void setJsCodeSplitting(boolean jsCodeSplitting) {
+        this.jsCodeSplitting = jsCodeSplitting;
+    }
+
+    public void setJsLongAsBigInt(boolean jsLongAsBigInt) {
+        this.jsLongAsBigInt = jsLongAsBigInt;
+    }
+
     public void setMaxTopLevelNames(int maxTopLevelNames) {
         this.maxTopLevelNames = maxTopLevelNames;
     }
@@ -221,6 +249,30 @@ public class TeaVMTool {
         this.optimizationLevel = optimizationLevel;
     }
 
+    public int getOptimizationThreadCount() {
+        return optimizationThreadCount;
+    }
+
+    public void setOptimizationThreadCount(int optimizationThreadCount) {
+        this.optimizationThreadCount = optimizationThreadCount;
+    }
+
+    public int getDependencyAnalysisThreadCount() {
+        return dependencyAnalysisThreadCount;
+    }
+
+    public void setDependencyAnalysisThreadCount(int dependencyAnalysisThreadCount) {
+        this.dependencyAnalysisThreadCount = dependencyAnalysisThreadCount;
+    }
+
+    public int getCodeGenerationThreadCount() {
+        return codeGenerationThreadCount;
+    }
+
+    public void setCodeGenerationThreadCount(int codeGenerationThreadCount) {
+        this.codeGenerationThreadCount = codeGenerationThreadCount;
+    }
+
     public boolean isFastDependencyAnalysis() {
         return fastDependencyAnalysis;
     }
@@ -253,6 +305,22 @@ public class TeaVMTool {
         this.wasmVersion = wasmVersion;
     }
 
+    public void setWasmBulkMemoryUsed(boolean wasmBulkMemoryUsed) {
+        this.wasmBulkMemoryUsed = wasmBulkMemoryUsed;
+    }
+
+    public void setWasmNativeExceptionsUsed(boolean wasmNativeExceptionsUsed) {
+        this.wasmNativeExceptionsUsed = wasmNativeExceptionsUsed;
+    }
+
+    /**
+     * Enables Latin-1 representation of strings, see {@link CTarget#setCompactStrings(boolean)}.
+     * Ignored by JavaScript target.
+     */
+    public void setCompactStrings(boolean compactStrings) {
+        this.compactStrings = compactStrings;
+    }
+
     public void setLongjmpSupported(boolean longjmpSupported) {
         this.longjmpSupported = longjmpSupported;
     }
@@ -261,6 +329,45 @@ public class TeaVMTool {
         this.heapDump = heapDump;
     }
 
+    public File getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Sets file where to write compiler metrics (phase timings, optimization and cache counters)
+     * after build. Metrics are not written when file is {@code null}, which is the default.
+     */
+    public void setMetricsFile(File metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public MetricsFormat getMetricsFormat() {
+        return metricsFormat;
+    }
+
+    public void setMetricsFormat(MetricsFormat metricsFormat) {
+        this.metricsFormat = metricsFormat;
+    }
+
+    /**
+     * Produces C program that records how many times each method was invoked. See
+     * {@link CTarget#setProfileInstrumentation(boolean)}. Ignored by other targets.
+     */
+    public void setProfileInstrumentation(boolean profileInstrumentation) {
+        this.profileInstrumentation = profileInstrumentation;
+    }
+
+    public File getProfileFile() {
+        return profileFile;
+    }
+
+    /**
+     * Sets file with execution profile collected by instrumented program, which is used to guide optimizations.
+     */
+    public void setProfileFile(File profileFile) {
+        this.profileFile = profileFile;
+    }
+
     public void setProgressListener(TeaVMProgressListener progressListener) {
         this.progressListener = progressListener;
     }
@@ -313,7 +420,10 @@ public class TeaVMTool {
         javaScriptTarget = new JavaScriptTarget();
         javaScriptTarget.setObfuscated(obfuscated);
         javaScriptTarget.setStrict(strict);
+        javaScriptTarget.setCodeSplitting(jsCodeSplitting);
+        javaScriptTarget.setLongAsBigInt(jsLongAsBigInt);
         javaScriptTarget.setTopLevelNameLimit(maxTopLevelNames);
+        javaScriptTarget.setDecompilationThreadCount(codeGenerationThreadCount);
 
         debugEmitter = debugInformationGenerated || sourceMapsFileGenerated
                 ? new DebugInformationBuilder(referenceCache) : null;
@@ -328,7 +438,11 @@ public class TeaVMTool {
         webAssemblyTarget.setCEmitted(debugInformationGenerated);
         webAssemblyTarget.setWastEmitted(debugInformationGenerated);
         webAssemblyTarget.setVersion(wasmVersion);
+        webAssemblyTarget.setBulkMemoryUsed(wasmBulkMemoryUsed);
+        webAssemblyTarget.setNativeExceptionsUsed(wasmNativeExceptionsUsed);
+        webAssemblyTarget.setCompactStrings(compactStrings);
         webAssemblyTarget.setMinHeapSize(minHeapSize);
+        webAssemblyTarget.setEncodingThreadCount(codeGenerationThreadCount);
         webAssemblyTarget.setMaxHeapSize(maxHeapSize);
         webAssemblyTarget.setObfuscated(obfuscated);
         return webAssemblyTarget;
@@ -342,6 +456,9 @@ public class TeaVMTool {
         cTarget.setLongjmpUsed(longjmpSupported);
         cTarget.setHeapDump(heapDump);
         cTarget.setObfuscated(obfuscated);
+        cTarget.setDecompilationThreadCount(codeGenerationThreadCount);
+        cTarget.setProfileInstrumentation(profileInstrumentation);
+        cTarget.setCompactStrings(compactStrings);
         return cTarget;
     }
 
@@ -385,11 +502,17 @@ public class TeaVMTool {
                 cacheStatus = AlwaysStaleCacheStatus.INSTANCE;
             }
 
-            vmBuilder.setDependencyAnalyzerFactory(fastDependencyAnalysis
-                    ? FastDependencyAnalyzer::new
-                    : PreciseDependencyAnalyzer::new);
+            if (fastDependencyAnalysis) {
+                vmBuilder.setDependencyAnalyzerFactory(FastDependencyAnalyzer::new);
+            } else if (dependencyAnalysisThreadCount > 1) {
+                vmBuilder.setDependencyAnalyzerFactory(ParallelDependencyAnalyzer.factory(
+                        dependencyAnalysisThreadCount));
+            } else {
+                vmBuilder.setDependencyAnalyzerFactory(PreciseDependencyAnalyzer::new);
+            }
             vmBuilder.setObfuscated(obfuscated);
             vmBuilder.setStrict(strict);
+            vmBuilder.setOptimizationThreadCount(optimizationThreadCount);
 
             vm = vmBuilder.build();
             if (progressListener != null) {
@@ -405,6 +528,9 @@ public class TeaVMTool {
             if (incremental) {
                 vm.addVirtualMethods(m -> true);
             }
+            if (profileFile != null) {
+                vm.setExecutionProfile(readProfile());
+            }
 
             vm.installPlugins();
             for (ClassHolderTransformer transformer : resolveTransformers(classLoader)) {
@@ -418,7 +544,16 @@ public class TeaVMTool {
             }
             targetDirectory.mkdirs();
 
-            BuildTarget buildTarget = new DirectoryBuildTarget(targetDirectory);
+            // C target produces many files, don't touch unchanged ones to let make recompile only modified files
+            BuildTarget buildTarget;
+            if (targetType == TeaVMTargetType.C) {
+                if (cBuildTarget == null || !cBuildTarget.getDirectory().equals(targetDirectory)) {
+                    cBuildTarget = new IncrementalDirectoryBuildTarget(targetDirectory);
+                }
+                buildTarget = cBuildTarget;
+            } else {
+                buildTarget = new DirectoryBuildTarget(targetDirectory);
+            }
             String outputName = getResolvedTargetFileName();
             vm.build(buildTarget, outputName);
             if (vm.wasCancelled()) {
@@ -428,6 +563,10 @@ public class TeaVMTool {
             }
 
             ProblemProvider problemProvider = vm.getProblemProvider();
+            if (buildTarget == cBuildTarget && problemProvider.getSevereProblems().isEmpty()) {
+                // Delete files written by the previous build of this tool, but not by this one
+                cBuildTarget.reset();
+            }
             if (problemProvider.getProblems().isEmpty()) {
                 log.info("Output file successfully built");
             } else if (problemProvider.getSevereProblems().isEmpty()) {
@@ -460,6 +599,7 @@ public class TeaVMTool {
             }
 
             printStats();
+            writeMetrics();
         } catch (IOException e) {
             throw new TeaVMToolException("IO error occurred", e);
         }
@@ -527,6 +667,29 @@ public class TeaVMTool {
         log.info("Methods compiled: " + methodCount);
     }
 
+    private ExecutionProfile readProfile() throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(profileFile), StandardCharsets.UTF_8)) {
+            ExecutionProfile profile = ExecutionProfile.read(reader);
+            log.info("Execution profile read from " + profileFile.getPath() + ", "
+                    + profile.getMethods().size() + " methods");
+            return profile;
+        }
+    }
+
+    private void writeMetrics() throws IOException {
+        if (metricsFile == null) {
+            return;
+        }
+        File parentDirectory = metricsFile.getAbsoluteFile().getParentFile();
+        if (parentDirectory != null) {
+            parentDirectory.mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(metricsFile), StandardCharsets.UTF_8)) {
+            vm.getMetrics().write(writer, metricsFormat);
+        }
+        log.info("Compiler metrics written to " + metricsFile.getPath());
+    }
+
     private void copySourceFiles() {
         if (vm.getWrittenClasses() == null) {
             return;
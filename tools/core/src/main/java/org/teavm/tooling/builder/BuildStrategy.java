@@ -22,6 +22,7 @@ import org.teavm.tooling.TeaVMTargetType;
 import org.teavm.tooling.TeaVMToolLog;
 import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMProgressListener;
+import org.teavm.vm.metrics.MetricsFormat;
 
 public interface BuildStrategy {
     void init();
@@ -56,6 +57,10 @@ public interface BuildStrategy {
 
     void setStrict(boolean strict);
 
+    void setJsCodeSplitting(boolean jsCodeSplitting);
+
+    void setJsLongAsBigInt(boolean jsLongAsBigInt);
+
     void setMaxTopLevelNames(int maxTopLevelNames);
 
     void setProperties(Properties properties);
@@ -74,6 +79,12 @@ public interface BuildStrategy {
 
     void setWasmVersion(WasmBinaryVersion wasmVersion);
 
+    void setWasmBulkMemoryUsed(boolean wasmBulkMemoryUsed);
+
+    void setWasmNativeExceptionsUsed(boolean wasmNativeExceptionsUsed);
+
+    void setCompactStrings(boolean compactStrings);
+
     void setMinHeapSize(int minHeapSize);
 
     void setMaxHeapSize(int maxHeapSize);
@@ -82,5 +93,13 @@ public interface BuildStrategy {
 
     void setHeapDump(boolean heapDump);
 
+    void setMetricsFile(String metricsFile);
+
+    void setMetricsFormat(MetricsFormat metricsFormat);
+
+    void setProfileInstrumentation(boolean profileInstrumentation);
+
+    void setProfileFile(String profileFile);
+
     BuildResult build() throws BuildException;
 }
@@ -38,6 +38,7 @@ import org.teavm.tooling.sources.JarSourceFileProvider;
 import org.teavm.tooling.sources.SourceFileProvider;
 import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMProgressListener;
+import org.teavm.vm.metrics.MetricsFormat;
 
 public class InProcessBuildStrategy implements BuildStrategy {
     private final ClassLoaderFactory classLoaderFactory;
@@ -53,6 +54,8 @@ public class InProcessBuildStrategy implements BuildStrategy {
     private boolean fastDependencyAnalysis;
     private boolean obfuscated;
     private boolean strict;
+    private boolean jsCodeSplitting;
+    private boolean jsLongAsBigInt;
     private int maxTopLevelNames;
     private boolean sourceMapsFileGenerated;
     private boolean debugInformationGenerated;
@@ -60,11 +63,18 @@ public class InProcessBuildStrategy implements BuildStrategy {
     private String[] transformers = new String[0];
     private String[] classesToPreserve = new String[0];
     private WasmBinaryVersion wasmVersion = WasmBinaryVersion.V_0x1;
+    private boolean wasmBulkMemoryUsed;
+    private boolean wasmNativeExceptionsUsed;
+    private boolean compactStrings;
     private int minHeapSize = 4 * 1024 * 1204;
     private int maxHeapSize = 128 * 1024 * 1024;
     private final List<SourceFileProvider> sourceFileProviders = new ArrayList<>();
     private boolean longjmpSupported = true;
     private boolean heapDump;
+    private String metricsFile;
+    private MetricsFormat metricsFormat = MetricsFormat.JSON;
+    private boolean profileInstrumentation;
+    private String profileFile;
     private TeaVMProgressListener progressListener;
     private Properties properties = new Properties();
     private TeaVMToolLog log = new EmptyTeaVMToolLog();
@@ -160,6 +170,16 @@ public class InProcessBuildStrategy implements BuildStrategy {
         this.strict = strict;
     }
 
+    @Override
+    public void setJsCodeSplitting(boolean jsCodeSplitting) {
+        this.jsCodeSplitting = jsCodeSplitting;
+    }
+
+    @Override
+    public void setJsLongAsBigInt(boolean jsLongAsBigInt) {
+        this.jsLongAsBigInt = jsLongAsBigInt;
+    }
+
     @Override
     public void setMaxTopLevelNames(int maxTopLevelNames) {
         this.maxTopLevelNames = maxTopLevelNames;
@@ -200,6 +220,21 @@ public class InProcessBuildStrategy implements BuildStrategy {
         this.wasmVersion = wasmVersion;
     }
 
+    @Override
+    public void setWasmBulkMemoryUsed(boolean wasmBulkMemoryUsed) {
+        this.wasmBulkMemoryUsed = wasmBulkMemoryUsed;
+    }
+
+    @Override
+    public void setWasmNativeExceptionsUsed(boolean wasmNativeExceptionsUsed) {
+        this.wasmNativeExceptionsUsed = wasmNativeExceptionsUsed;
+    }
+
+    @Override
+    public void setCompactStrings(boolean compactStrings) {
+        this.compactStrings = compactStrings;
+    }
+
     @Override
     public void setMinHeapSize(int minHeapSize) {
         this.minHeapSize = minHeapSize;
@@ -220,6 +255,26 @@ public class InProcessBuildStrategy implements BuildStrategy {
         this.heapDump = heapDump;
     }
 
+    @Override
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    @Override
+    public void setMetricsFormat(MetricsFormat metricsFormat) {
+        this.metricsFormat = metricsFormat;
+    }
+
+    @Override
+    public void setProfileInstrumentation(boolean profileInstrumentation) {
+        this.profileInstrumentation = profileInstrumentation;
+    }
+
+    @Override
+    public void setProfileFile(String profileFile) {
+        this.profileFile = profileFile;
+    }
+
     @Override
     public BuildResult build() throws BuildException {
         TeaVMTool tool = new TeaVMTool();
@@ -240,16 +295,25 @@ public class InProcessBuildStrategy implements BuildStrategy {
 
         tool.setObfuscated(obfuscated);
         tool.setStrict(strict);
+        tool.setJsCodeSplitting(jsCodeSplitting);
+        tool.setJsLongAsBigInt(jsLongAsBigInt);
         tool.setMaxTopLevelNames(maxTopLevelNames);
         tool.setIncremental(incremental);
         tool.getTransformers().addAll(Arrays.asList(transformers));
         tool.getClassesToPreserve().addAll(Arrays.asList(classesToPreserve));
         tool.setCacheDirectory(cacheDirectory != null ? new File(cacheDirectory) : null);
         tool.setWasmVersion(wasmVersion);
+        tool.setWasmBulkMemoryUsed(wasmBulkMemoryUsed);
+        tool.setWasmNativeExceptionsUsed(wasmNativeExceptionsUsed);
+        tool.setCompactStrings(compactStrings);
         tool.setMinHeapSize(minHeapSize);
         tool.setMaxHeapSize(maxHeapSize);
         tool.setLongjmpSupported(longjmpSupported);
         tool.setHeapDump(heapDump);
+        tool.setMetricsFile(metricsFile != null ? new File(metricsFile) : null);
+        tool.setMetricsFormat(metricsFormat);
+        tool.setProfileInstrumentation(profileInstrumentation);
+        tool.setProfileFile(profileFile != null ? new File(profileFile) : null);
 
         tool.getProperties().putAll(properties);
 
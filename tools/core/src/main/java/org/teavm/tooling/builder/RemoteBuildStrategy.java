@@ -35,6 +35,7 @@ import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMPhase;
 import org.teavm.vm.TeaVMProgressFeedback;
 import org.teavm.vm.TeaVMProgressListener;
+import org.teavm.vm.metrics.MetricsFormat;
 
 public class RemoteBuildStrategy implements BuildStrategy {
     private RemoteBuildRequest request;
@@ -135,6 +136,16 @@ public class RemoteBuildStrategy implements BuildStrategy {
         request.strict = strict;
     }
 
+    @Override
+    public void setJsCodeSplitting(boolean jsCodeSplitting) {
+        request.jsCodeSplitting = jsCodeSplitting;
+    }
+
+    @Override
+    public void setJsLongAsBigInt(boolean jsLongAsBigInt) {
+        request.jsLongAsBigInt = jsLongAsBigInt;
+    }
+
     @Override
     public void setMaxTopLevelNames(int maxTopLevelNames) {
         request.maxTopLevelNames = maxTopLevelNames;
@@ -175,6 +186,21 @@ public class RemoteBuildStrategy implements BuildStrategy {
         request.wasmVersion = wasmVersion;
     }
 
+    @Override
+    public void setWasmBulkMemoryUsed(boolean wasmBulkMemoryUsed) {
+        request.wasmBulkMemoryUsed = wasmBulkMemoryUsed;
+    }
+
+    @Override
+    public void setWasmNativeExceptionsUsed(boolean wasmNativeExceptionsUsed) {
+        request.wasmNativeExceptionsUsed = wasmNativeExceptionsUsed;
+    }
+
+    @Override
+    public void setCompactStrings(boolean compactStrings) {
+        request.compactStrings = compactStrings;
+    }
+
     @Override
     public void setMinHeapSize(int minHeapSize) {
         request.minHeapSize = minHeapSize;
@@ -195,6 +221,26 @@ public class RemoteBuildStrategy implements BuildStrategy {
         request.heapDump = heapDump;
     }
 
+    @Override
+    public void setMetricsFile(String metricsFile) {
+        request.metricsFile = metricsFile;
+    }
+
+    @Override
+    public void setMetricsFormat(MetricsFormat metricsFormat) {
+        request.metricsFormat = metricsFormat;
+    }
+
+    @Override
+    public void setProfileInstrumentation(boolean profileInstrumentation) {
+        request.profileInstrumentation = profileInstrumentation;
+    }
+
+    @Override
+    public void setProfileFile(String profileFile) {
+        request.profileFile = profileFile;
+    }
+
     @Override
     public BuildResult build() throws BuildException {
         RemoteBuildResponse response;
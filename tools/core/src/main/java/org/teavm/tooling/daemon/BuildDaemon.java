@@ -157,12 +157,21 @@ public class BuildDaemon extends UnicastRemoteObject implements RemoteBuildServi
         tool.setFastDependencyAnalysis(request.fastDependencyAnalysis);
         tool.setObfuscated(request.obfuscated);
         tool.setStrict(request.strict);
+        tool.setJsCodeSplitting(request.jsCodeSplitting);
+        tool.setJsLongAsBigInt(request.jsLongAsBigInt);
         tool.setMaxTopLevelNames(request.maxTopLevelNames);
         tool.setWasmVersion(request.wasmVersion);
+        tool.setWasmBulkMemoryUsed(request.wasmBulkMemoryUsed);
+        tool.setWasmNativeExceptionsUsed(request.wasmNativeExceptionsUsed);
+        tool.setCompactStrings(request.compactStrings);
         tool.setMinHeapSize(request.minHeapSize);
         tool.setMaxHeapSize(request.maxHeapSize);
         tool.setLongjmpSupported(request.longjmpSupported);
         tool.setHeapDump(request.heapDump);
+        tool.setMetricsFile(request.metricsFile != null ? new File(request.metricsFile) : null);
+        tool.setMetricsFormat(request.metricsFormat);
+        tool.setProfileInstrumentation(request.profileInstrumentation);
+        tool.setProfileFile(request.profileFile != null ? new File(request.profileFile) : null);
 
         for (String sourceDirectory : request.sourceDirectories) {
             tool.addSourceFileProvider(new DirectorySourceFileProvider(new File(sourceDirectory)));
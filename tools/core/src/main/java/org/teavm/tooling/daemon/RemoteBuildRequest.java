@@ -22,6 +22,7 @@ import java.util.Properties;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.tooling.TeaVMTargetType;
 import org.teavm.vm.TeaVMOptimizationLevel;
+import org.teavm.vm.metrics.MetricsFormat;
 
 public class RemoteBuildRequest implements Serializable {
     public final List<String> sourceDirectories = new ArrayList<>();
@@ -41,13 +42,22 @@ public class RemoteBuildRequest implements Serializable {
     public String cacheDirectory;
     public boolean obfuscated;
     public boolean strict;
+    public boolean jsCodeSplitting;
+    public boolean jsLongAsBigInt;
     public int maxTopLevelNames;
     public Properties properties;
     public TeaVMOptimizationLevel optimizationLevel;
     public boolean fastDependencyAnalysis;
     public WasmBinaryVersion wasmVersion;
+    public boolean wasmBulkMemoryUsed;
+    public boolean wasmNativeExceptionsUsed;
+    public boolean compactStrings;
     public int minHeapSize;
     public int maxHeapSize;
     public boolean longjmpSupported;
     public boolean heapDump;
+    public String metricsFile;
+    public MetricsFormat metricsFormat = MetricsFormat.JSON;
+    public boolean profileInstrumentation;
+    public String profileFile;
 }
@@ -18,6 +18,7 @@ package org.teavm.devserver;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -95,6 +96,8 @@ import org.teavm.vm.TeaVMOptimizationLevel;
 import org.teavm.vm.TeaVMPhase;
 import org.teavm.vm.TeaVMProgressFeedback;
 import org.teavm.vm.TeaVMProgressListener;
+import org.teavm.vm.metrics.MetricsFormat;
+import org.teavm.vm.metrics.PhaseMetrics;
 
 public class CodeServlet extends HttpServlet {
     private static final Supplier<InputStream> EMPTY_CONTENT = () -> null;
@@ -129,6 +132,9 @@ public class CodeServlet extends HttpServlet {
     private InMemoryMethodNodeCache astCache;
     private int lastReachedClasses;
     private boolean firstTime = true;
+    private long maxCacheSize = Long.MAX_VALUE;
+    private File metricsFile;
+    private MetricsFormat metricsFormat = MetricsFormat.JSON;
 
     private final Object contentLock = new Object();
     private final Map<String, byte[]> content = new HashMap<>();
@@ -169,6 +175,24 @@ public class CodeServlet extends HttpServlet {
         return sourcePath;
     }
 
+    /**
+     * Limits size of each in-memory cache (classes, optimized programs and method ASTs) kept between builds.
+     * When a cache exceeds the limit, least recently used entries are evicted. The limit is not shared
+     * between caches, regular and async ASTs are cached separately, so all caches together may take up to
+     * four times {@code maxCacheSize}.
+     */
+    public void setMaxCacheSize(long maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    public void setMetricsFile(File metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public void setMetricsFormat(MetricsFormat metricsFormat) {
+        this.metricsFormat = metricsFormat;
+    }
+
     public void setLog(TeaVMToolLog log) {
         this.log = log;
     }
@@ -748,9 +772,12 @@ public class CodeServlet extends HttpServlet {
     private void initBuilder() throws IOException {
         watcher = new FileSystemWatcher(classPath);
 
-        classSource = createCachedSource();
-        astCache = new InMemoryMethodNodeCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
-        programCache = new InMemoryProgramCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable);
+        classSource = new MemoryCachedClassReaderSource(referenceCache, symbolTable, fileSymbolTable,
+                variableSymbolTable, maxCacheSize);
+        astCache = new InMemoryMethodNodeCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable,
+                maxCacheSize);
+        programCache = new InMemoryProgramCache(referenceCache, symbolTable, fileSymbolTable, variableSymbolTable,
+                maxCacheSize);
     }
 
     private MemoryCachedClassReaderSource createCachedSource() {
@@ -929,6 +956,22 @@ public class CodeServlet extends HttpServlet {
         }
 
         log.info("Compilation took " + (System.currentTimeMillis() - startTime) + " ms");
+        log.debug("Class cache: " + classSource.getStatistics());
+        log.debug("Program cache: " + programCache.getStatistics());
+        log.debug("AST cache: " + astCache.getStatistics());
+        for (PhaseMetrics phase : vm.getMetrics().getPhases()) {
+            if (phase.isComplete()) {
+                log.debug("Phase " + phase.getName() + " took " + phase.getDuration() / 1000000 + " ms");
+            }
+        }
+
+        if (metricsFile != null) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(metricsFile), StandardCharsets.UTF_8)) {
+                vm.getMetrics().write(writer, metricsFormat);
+            } catch (IOException e) {
+                log.warning("Could not write compiler metrics to " + metricsFile, e);
+            }
+        }
     }
 
     private void saveNewResult() {
@@ -15,6 +15,7 @@
  */
 package org.teavm.devserver;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.jetty.server.Server;
@@ -22,6 +23,7 @@ import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.teavm.tooling.TeaVMToolLog;
+import org.teavm.vm.metrics.MetricsFormat;
 
 public class DevServer {
     private String mainClass;
@@ -41,6 +43,9 @@ public class DevServer {
     private int debugPort;
     private String proxyUrl;
     private String proxyPath = "/";
+    private long maxCacheSize = Long.MAX_VALUE;
+    private File metricsFile;
+    private MetricsFormat metricsFormat = MetricsFormat.JSON;
 
     public void setMainClass(String mainClass) {
         this.mainClass = mainClass;
@@ -96,6 +101,21 @@ public class DevServer {
         this.proxyPath = proxyPath;
     }
 
+    /**
+     * Limits size of each in-memory compiler cache, see {@link CodeServlet#setMaxCacheSize(long)}.
+     */
+    public void setMaxCacheSize(long maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    public void setMetricsFile(File metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    public void setMetricsFormat(MetricsFormat metricsFormat) {
+        this.metricsFormat = metricsFormat;
+    }
+
     public List<String> getSourcePath() {
         return sourcePath;
     }
@@ -137,6 +157,9 @@ public class DevServer {
         servlet.setDebugPort(debugPort);
         servlet.setProxyUrl(proxyUrl);
         servlet.setProxyPath(proxyPath);
+        servlet.setMaxCacheSize(maxCacheSize);
+        servlet.setMetricsFile(metricsFile);
+        servlet.setMetricsFormat(metricsFormat);
         for (DevServerListener listener : listeners) {
             servlet.addListener(listener);
         }
@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.junit;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Runs JavaScript and WebAssembly tests in Node.js. Unlike browser strategies, it needs no user interaction,
+ * and unlike HtmlUnit it runs code on V8, so it's suitable for timing generated code.
+ */
+class NodeRunStrategy implements TestRunStrategy {
+    private String kind;
+    private File adapterFile;
+
+    NodeRunStrategy(String kind) {
+        this.kind = kind;
+    }
+
+    @Override
+    public void beforeAll() {
+        try {
+            adapterFile = File.createTempFile("teavm-node-adapter", ".js");
+            adapterFile.deleteOnExit();
+            try (InputStream input = NodeRunStrategy.class.getClassLoader()
+                    .getResourceAsStream("teavm-node-adapter.js");
+                    OutputStream output = new FileOutputStream(adapterFile)) {
+                IOUtils.copy(input, output);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void afterAll() {
+        adapterFile.delete();
+    }
+
+    @Override
+    public void beforeThread() {
+    }
+
+    @Override
+    public void afterThread() {
+    }
+
+    @Override
+    public void runTest(TestRun run) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("node");
+        command.add(adapterFile.getPath());
+        command.add(kind);
+        command.add(new File(run.getBaseDirectory(), run.getFileName()).getPath());
+        if (run.getArgument() != null) {
+            command.add(run.getArgument());
+        }
+
+        Process process = new ProcessBuilder(command).directory(run.getBaseDirectory())
+                .redirectErrorStream(true).start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            while (true) {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                output.add(line);
+            }
+        }
+        try {
+            process.waitFor();
+        } catch (InterruptedException e) {
+            run.getCallback().complete();
+            return;
+        }
+
+        // Like browser strategy, take the first reported status, since Wasm runtime may report
+        // an exception left from test code after test entry point completes
+        for (int i = 0; i < output.size(); ++i) {
+            if (output.get(i).equals("SUCCESS")) {
+                for (String line : output.subList(0, i)) {
+                    System.out.println(line);
+                }
+                run.getCallback().complete();
+                return;
+            }
+            if (output.get(i).equals("FAILURE")) {
+                break;
+            }
+        }
+        run.getCallback().error(new RuntimeException("Test failed:\n" + String.join("\n", output)));
+    }
+}
@@ -36,6 +36,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -60,6 +61,7 @@ import org.junit.runners.model.InitializationError;
 import org.teavm.backend.c.CTarget;
 import org.teavm.backend.c.generate.CNameProvider;
 import org.teavm.backend.javascript.JavaScriptTarget;
+import org.teavm.backend.lowlevel.GCHeapPolicy;
 import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.callgraph.CallGraph;
 import org.teavm.debugging.information.DebugInformation;
@@ -108,10 +110,19 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     private static final String THREAD_COUNT = "teavm.junit.threads";
     private static final String JS_ENABLED = "teavm.junit.js";
     static final String JS_DECODE_STACK = "teavm.junit.js.decodeStack";
+    private static final String JS_LONG_AS_BIGINT = "teavm.junit.js.longAsBigInt";
+    private static final String JS_CODE_SPLITTING = "teavm.junit.js.codeSplitting";
     private static final String C_ENABLED = "teavm.junit.c";
     private static final String WASM_ENABLED = "teavm.junit.wasm";
+    private static final String WASM_NATIVE_EXCEPTIONS = "teavm.junit.wasm.nativeExceptions";
+    private static final String WASM_BULK_MEMORY = "teavm.junit.wasm.bulkMemory";
     private static final String C_COMPILER = "teavm.junit.c.compiler";
     private static final String C_LINE_NUMBERS = "teavm.junit.c.lineNumbers";
+    private static final String C_GC_THREADS = "teavm.junit.c.gcThreads";
+    private static final String C_INLINE_CACHE_SIZE = "teavm.junit.c.inlineCacheSize";
+    private static final String COMPACT_STRINGS = "teavm.junit.compactStrings";
+    private static final String GC_PAUSE_BUDGET = "teavm.junit.gcPauseBudget";
+    private static final String GC_HEAP_POLICY = "teavm.junit.gcHeapPolicy";
     private static final String MINIFIED = "teavm.junit.minified";
     private static final String OPTIMIZED = "teavm.junit.optimized";
     private static final String FAST_ANALYSIS = "teavm.junit.fastAnalysis";
@@ -179,6 +190,9 @@ public class TeaVMTestRunner extends Runner implements Filterable {
                 case "browser-firefox":
                     jsRunStrategy = new BrowserRunStrategy(outputDir, "JAVASCRIPT", this::firefoxBrowser);
                     break;
+                case "node":
+                    jsRunStrategy = new NodeRunStrategy("js");
+                    break;
                 case "none":
                     jsRunStrategy = null;
                     break;
@@ -206,6 +220,9 @@ public class TeaVMTestRunner extends Runner implements Filterable {
                 case "browser-firefox":
                     wasmRunStrategy = new BrowserRunStrategy(outputDir, "WASM", this::firefoxBrowser);
                     break;
+                case "node":
+                    wasmRunStrategy = new NodeRunStrategy("wasm");
+                    break;
                 default:
                     throw new InitializationError("Unknown run strategy: " + runStrategyName);
             }
@@ -1005,6 +1022,8 @@ public class TeaVMTestRunner extends Runner implements Filterable {
         Supplier<JavaScriptTarget> targetSupplier = () -> {
             JavaScriptTarget target = new JavaScriptTarget();
             target.setStrict(true);
+            target.setLongAsBigInt(Boolean.getBoolean(JS_LONG_AS_BIGINT));
+            target.setCodeSplitting(Boolean.getBoolean(JS_CODE_SPLITTING));
             if (decodeStack) {
                 target.setDebugEmitter(debugEmitter);
                 target.setStackTraceIncluded(true);
@@ -1056,15 +1075,55 @@ public class TeaVMTestRunner extends Runner implements Filterable {
     private CTarget createCTarget() {
         CTarget cTarget = new CTarget(new CNameProvider());
         cTarget.setLineNumbersGenerated(Boolean.parseBoolean(System.getProperty(C_LINE_NUMBERS, "false")));
+        cTarget.setGcThreadCount(Integer.parseInt(System.getProperty(C_GC_THREADS, "1")));
+        cTarget.setInlineCacheSize(getIntProperty(C_INLINE_CACHE_SIZE, 2));
+        cTarget.setCompactStrings(Boolean.getBoolean(COMPACT_STRINGS));
+        cTarget.setGcPauseBudget(getIntProperty(GC_PAUSE_BUDGET, 0));
+        cTarget.setGcHeapPolicy(getGcHeapPolicy());
         return cTarget;
     }
 
     private CompileResult compileToWasm(Consumer<TeaVM> additionalProcessing, String baseName,
             TeaVMTestConfiguration<WasmTarget> configuration, File path) {
-        return compile(configuration, WasmTarget::new, TestNativeEntryPoint.class.getName(), path,
+        return compile(configuration, this::createWasmTarget, TestNativeEntryPoint.class.getName(), path,
                 ".wasm", null, false, additionalProcessing, baseName);
     }
 
+    private WasmTarget createWasmTarget() {
+        WasmTarget wasmTarget = new WasmTarget();
+        wasmTarget.setNativeExceptionsUsed(Boolean.getBoolean(WASM_NATIVE_EXCEPTIONS));
+        wasmTarget.setBulkMemoryUsed(Boolean.getBoolean(WASM_BULK_MEMORY));
+        wasmTarget.setCompactStrings(Boolean.getBoolean(COMPACT_STRINGS));
+        wasmTarget.setGcPauseBudget(getIntProperty(GC_PAUSE_BUDGET, 0));
+        wasmTarget.setGcHeapPolicy(getGcHeapPolicy());
+        return wasmTarget;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value of " + name + ": " + value);
+        }
+    }
+
+    private static GCHeapPolicy getGcHeapPolicy() {
+        String value = System.getProperty(GC_HEAP_POLICY);
+        if (value == null || value.isEmpty()) {
+            return GCHeapPolicy.DEFAULT;
+        }
+        try {
+            return GCHeapPolicy.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value of " + GC_HEAP_POLICY + ": " + value
+                    + ", expected one of " + Arrays.toString(GCHeapPolicy.values()));
+        }
+    }
+
     private Consumer<TeaVM> singleTest(Method method) {
         ClassHolder classHolder = classSource.get(method.getDeclaringClass().getName());
         MethodHolder methodHolder = classHolder.getMethod(getDescriptor(method));
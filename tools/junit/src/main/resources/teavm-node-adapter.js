@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2021 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+"use strict";
+var fs = require("fs");
+var vm = require("vm");
+
+var kind = process.argv[2];
+var file = process.argv[3];
+var args = process.argv.length > 4 ? [process.argv[4]] : [];
+
+function load(path) {
+    vm.runInThisContext(fs.readFileSync(path, "utf8"), { filename: path });
+}
+
+if (kind === "wasm") {
+    // Test entry point reports SUCCESS or FAILURE itself
+    load(file + "-runtime.js");
+    TeaVM.wasm.create(fs.readFileSync(file))
+        .then(teavm => teavm.main(args))
+        .catch(e => {
+            console.error(e.stack || e);
+            console.log("FAILURE");
+        });
+} else {
+    load(file);
+    main(args, function(result) {
+        if (result instanceof Error) {
+            var je = main.javaException(result);
+            if (je && je.constructor.$meta) {
+                console.error(je.constructor.$meta.name + ": " + (je.getMessage() || ""));
+            }
+            console.error(result.stack);
+            console.log("FAILURE");
+        } else {
+            console.log("SUCCESS");
+        }
+    });
+}
@@ -51,6 +51,7 @@ import org.teavm.tooling.daemon.DaemonInfo;
 import org.teavm.tooling.daemon.DaemonLog;
 import org.teavm.tooling.daemon.RemoteBuildService;
 import org.teavm.vm.TeaVMOptimizationLevel;
+import org.teavm.vm.metrics.MetricsFormat;
 
 @Mojo(name = "compile", requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME,
         requiresDependencyCollection = ResolutionScope.COMPILE_PLUS_RUNTIME,
@@ -83,6 +84,12 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.strict", defaultValue = "false")
     private boolean strict;
 
+    @Parameter(property = "teavm.jsCodeSplitting", defaultValue = "false")
+    private boolean jsCodeSplitting;
+
+    @Parameter(property = "teavm.jsLongAsBigInt", defaultValue = "false")
+    private boolean jsLongAsBigInt;
+
     @Parameter(property = "teavm.maxTopLevelNames", defaultValue = "10000")
     private int maxTopLevelNames = 10000;
 
@@ -140,6 +147,15 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.wasmVersion", defaultValue = "V_0x1")
     private WasmBinaryVersion wasmVersion = WasmBinaryVersion.V_0x1;
 
+    @Parameter(property = "teavm.wasmBulkMemory", defaultValue = "false")
+    private boolean wasmBulkMemory;
+
+    @Parameter(property = "teavm.wasmNativeExceptions", defaultValue = "false")
+    private boolean wasmNativeExceptions;
+
+    @Parameter(property = "teavm.compactStrings", defaultValue = "false")
+    private boolean compactStrings;
+
     @Parameter(property = "teavm.minHeapSize", defaultValue = "4")
     private int minHeapSize;
 
@@ -158,12 +174,26 @@ public class TeaVMCompileMojo extends AbstractMojo {
     @Parameter(property = "teavm.heapDump", defaultValue = "false")
     private boolean heapDump;
 
+    @Parameter(property = "teavm.metricsFile")
+    private File metricsFile;
+
+    @Parameter(property = "teavm.metricsFormat", defaultValue = "JSON")
+    private MetricsFormat metricsFormat;
+
+    @Parameter(property = "teavm.profileInstrumentation", defaultValue = "false")
+    private boolean profileInstrumentation;
+
+    @Parameter(property = "teavm.profileFile")
+    private File profileFile;
+
     private void setupBuilder(BuildStrategy builder) throws MojoExecutionException {
         builder.setLog(new MavenTeaVMToolLog(getLog()));
         try {
             builder.setClassPathEntries(prepareClassPath());
             builder.setObfuscated(minifying);
             builder.setStrict(strict);
+            builder.setJsCodeSplitting(jsCodeSplitting);
+            builder.setJsLongAsBigInt(jsLongAsBigInt);
             builder.setMaxTopLevelNames(maxTopLevelNames);
             builder.setTargetDirectory(targetDirectory.getAbsolutePath());
             if (transformers != null) {
@@ -291,8 +321,19 @@ public class TeaVMCompileMojo extends AbstractMojo {
             builder.setCacheDirectory(cacheDirectory.getAbsolutePath());
             builder.setTargetType(targetType);
             builder.setWasmVersion(wasmVersion);
+            builder.setWasmBulkMemoryUsed(wasmBulkMemory);
+            builder.setWasmNativeExceptionsUsed(wasmNativeExceptions);
+            builder.setCompactStrings(compactStrings);
             builder.setLongjmpSupported(longjmpSupported);
             builder.setHeapDump(heapDump);
+            if (metricsFile != null) {
+                builder.setMetricsFile(metricsFile.getAbsolutePath());
+                builder.setMetricsFormat(metricsFormat);
+            }
+            builder.setProfileInstrumentation(profileInstrumentation);
+            if (profileFile != null) {
+                builder.setProfileFile(profileFile.getAbsolutePath());
+            }
             BuildResult result;
             result = builder.build();
             TeaVMProblemRenderer.describeProblems(result.getCallGraph(), result.getProblems(), toolLog);